@@ -16,6 +16,8 @@
 package androidx.media3.common.util;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
 import static java.nio.ByteOrder.BIG_ENDIAN;
 import static java.nio.ByteOrder.LITTLE_ENDIAN;
 
@@ -23,6 +25,7 @@ import android.app.ActivityManager;
 import android.os.Build;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
+import androidx.media3.common.C;
 import com.google.common.base.Ascii;
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableSet;
@@ -30,6 +33,7 @@ import com.google.common.primitives.Chars;
 import com.google.common.primitives.Ints;
 import com.google.common.primitives.UnsignedBytes;
 import com.google.common.primitives.UnsignedInts;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.google.errorprone.annotations.CheckReturnValue;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -680,6 +684,207 @@ public final class ParsableByteArray {
     return line;
   }
 
+  /**
+   * Reads a line of text in {@code charset}, without copying it if it only contains ASCII
+   * characters.
+   *
+   * <p>Lines are delimited, and the {@linkplain #getPosition() position} is advanced, in the same
+   * way as by {@link #readLine(Charset)}. If the line only contains ASCII characters, the returned
+   * {@link CharSequence} is a view of the underlying data, which is only valid until the data is
+   * next modified. Otherwise, the line is decoded into a {@link String} as by {@link
+   * #readLine(Charset)}. This avoids allocating a copy of lines that are only inspected, for
+   * example by matching them against a {@link java.util.regex.Pattern}.
+   *
+   * @param charset The charset of the text.
+   * @return The line not including any line-termination characters, or null if the end of the data
+   *     has already been reached.
+   * @throws IllegalArgumentException if charset is not supported. Only US_ASCII, UTF-8, UTF-16,
+   *     UTF-16BE, and UTF-16LE are supported.
+   */
+  @Nullable
+  public CharSequence readLineAsCharSequence(Charset charset) {
+    checkArgument(
+        SUPPORTED_CHARSETS_FOR_READLINE.contains(charset), "Unsupported charset: %s", charset);
+    if (bytesLeft() == 0) {
+      return null;
+    }
+    if (!charset.equals(StandardCharsets.US_ASCII)) {
+      Charset unused = readUtfCharsetFromBom(); // Skip BOM if present
+    }
+    int lineLimit = findNextLineTerminator(charset);
+    int codeUnitSize = getSmallestCodeUnitSize(charset);
+    boolean isAscii = (lineLimit - position) % codeUnitSize == 0;
+    for (int i = position; isAscii && i < lineLimit; i += codeUnitSize) {
+      isAscii = peekAsciiCharacter(i, charset) != -1;
+    }
+    CharSequence line;
+    if (isAscii) {
+      // In UTF-16 and UTF-16BE, the ASCII character is the second byte of each code unit.
+      int firstCharacterIndex =
+          codeUnitSize == 2 && !charset.equals(StandardCharsets.UTF_16LE)
+              ? position + 1
+              : position;
+      line =
+          new AsciiCharSequence(
+              data, firstCharacterIndex, (lineLimit - position) / codeUnitSize, codeUnitSize);
+      position = lineLimit;
+    } else {
+      line = readString(lineLimit - position, charset);
+    }
+    if (position == limit) {
+      return line;
+    }
+    skipLineTerminator(charset);
+    return line;
+  }
+
+  /**
+   * Skips a line of text in UTF-8.
+   *
+   * <p>Equivalent to passing {@link StandardCharsets#UTF_8} to {@link #skipLine(Charset)}.
+   */
+  @CanIgnoreReturnValue
+  public int skipLine() {
+    return skipLine(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Skips a line of text in {@code charset}, without decoding it.
+   *
+   * <p>The {@linkplain #getPosition() position} is advanced in the same way as by {@link
+   * #readLine(Charset)}.
+   *
+   * @param charset The charset of the text.
+   * @return The length of the skipped line in bytes, not including any line-termination characters
+   *     or byte order mark, or {@link C#LENGTH_UNSET} if the end of the data has already been
+   *     reached.
+   * @throws IllegalArgumentException if charset is not supported. Only US_ASCII, UTF-8, UTF-16,
+   *     UTF-16BE, and UTF-16LE are supported.
+   */
+  @CanIgnoreReturnValue
+  public int skipLine(Charset charset) {
+    checkArgument(
+        SUPPORTED_CHARSETS_FOR_READLINE.contains(charset), "Unsupported charset: %s", charset);
+    if (bytesLeft() == 0) {
+      return C.LENGTH_UNSET;
+    }
+    if (!charset.equals(StandardCharsets.US_ASCII)) {
+      Charset unused = readUtfCharsetFromBom(); // Skip BOM if present
+    }
+    int lineLimit = findNextLineTerminator(charset);
+    int lineLength = lineLimit - position;
+    position = lineLimit;
+    if (position < limit) {
+      skipLineTerminator(charset);
+    }
+    return lineLength;
+  }
+
+  /**
+   * Returns whether the data at the current position starts with {@code prefix} encoded in UTF-8.
+   *
+   * <p>Equivalent to passing {@link StandardCharsets#UTF_8} to {@link #peekStartsWith(String,
+   * Charset)}.
+   */
+  public boolean peekStartsWith(String prefix) {
+    return peekStartsWith(prefix, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns whether the data at the current position starts with {@code prefix} encoded in {@code
+   * charset}, without decoding the data or advancing the {@linkplain #getPosition() position}.
+   *
+   * <p>Unlike {@link #readLine(Charset)}, this method doesn't skip a leading byte order mark.
+   *
+   * @param prefix The prefix, which must only contain ASCII characters.
+   * @param charset The charset of the data.
+   * @throws IllegalArgumentException if charset is not supported. Only US_ASCII, UTF-8, UTF-16,
+   *     UTF-16BE, and UTF-16LE are supported.
+   */
+  public boolean peekStartsWith(String prefix, Charset charset) {
+    int codeUnitSize = getSmallestCodeUnitSize(charset);
+    if (bytesLeft() < prefix.length() * codeUnitSize) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length(); i++) {
+      if (peekAsciiCharacter(position + i * codeUnitSize, charset) != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns whether the line of text at the current position is equal to {@code line} encoded in
+   * UTF-8.
+   *
+   * <p>Equivalent to passing {@link StandardCharsets#UTF_8} to {@link #peekLineEquals(String,
+   * Charset)}.
+   */
+  public boolean peekLineEquals(String line) {
+    return peekLineEquals(line, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns whether the line of text at the current position is equal to {@code line} encoded in
+   * {@code charset}, without decoding the data or advancing the {@linkplain #getPosition()
+   * position}.
+   *
+   * <p>Lines are delimited in the same way as by {@link #readLine(Charset)}. Unlike {@link
+   * #readLine(Charset)}, this method doesn't skip a leading byte order mark.
+   *
+   * @param line The line, not including any line-termination characters, which must only contain
+   *     ASCII characters.
+   * @param charset The charset of the data.
+   * @throws IllegalArgumentException if charset is not supported. Only US_ASCII, UTF-8, UTF-16,
+   *     UTF-16BE, and UTF-16LE are supported.
+   */
+  public boolean peekLineEquals(String line, Charset charset) {
+    return peekStartsWith(line, charset)
+        && isAtLineEnd(position + line.length() * getSmallestCodeUnitSize(charset), charset);
+  }
+
+  /**
+   * Returns whether the line of text at the current position consists of a decimal integer in the
+   * range of an {@code int}, as accepted by {@link Integer#parseInt(String)}, without decoding the
+   * data or advancing the {@linkplain #getPosition() position}.
+   *
+   * <p>Only ASCII digits are accepted, optionally preceded by a single {@code '-'} or {@code '+'}
+   * sign. Lines are delimited in the same way as by {@link #readLine(Charset)}. Unlike {@link
+   * #readLine(Charset)}, this method doesn't skip a leading byte order mark.
+   *
+   * @param charset The charset of the data.
+   * @throws IllegalArgumentException if charset is not supported. Only US_ASCII, UTF-8, UTF-16,
+   *     UTF-16BE, and UTF-16LE are supported.
+   */
+  public boolean peekLineIsInt(Charset charset) {
+    int codeUnitSize = getSmallestCodeUnitSize(charset);
+    int index = position;
+    boolean isNegative = false;
+    if (limit - index >= codeUnitSize) {
+      int firstCharacter = peekAsciiCharacter(index, charset);
+      if (firstCharacter == '-' || firstCharacter == '+') {
+        isNegative = firstCharacter == '-';
+        index += codeUnitSize;
+      }
+    }
+    long maxValue = isNegative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+    long value = 0;
+    int digitStartIndex = index;
+    while (limit - index >= codeUnitSize) {
+      int character = peekAsciiCharacter(index, charset);
+      if (character < '0' || character > '9') {
+        break;
+      }
+      value = value * 10 + (character - '0');
+      if (value > maxValue) {
+        return false;
+      }
+      index += codeUnitSize;
+    }
+    return index > digitStartIndex && isAtLineEnd(index, charset);
+  }
+
   /**
    * Reads a long value encoded by UTF-8 encoding
    *
@@ -833,6 +1038,39 @@ public final class ParsableByteArray {
     return limit;
   }
 
+  /**
+   * Returns the ASCII character at {@code index} (as decoded by {@code charset}), or -1 if the code
+   * unit at {@code index} isn't an ASCII character. There must be at least one whole code unit
+   * between {@code index} and {@link #limit}.
+   */
+  private int peekAsciiCharacter(int index, Charset charset) {
+    int character;
+    if (charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)) {
+      character = data[index];
+    } else if (charset.equals(StandardCharsets.UTF_16LE)) {
+      character = data[index + 1] == 0x00 ? data[index] : -1;
+    } else {
+      character = data[index] == 0x00 ? data[index + 1] : -1;
+    }
+    // Bytes greater than 0x7F are negative, and so are excluded by this check.
+    return character >= 0 ? character : -1;
+  }
+
+  /**
+   * Returns whether {@code index} is at {@link #limit} or at a line terminator (as decoded by
+   * {@code charset}).
+   */
+  private boolean isAtLineEnd(int index, Charset charset) {
+    if (index == limit) {
+      return true;
+    }
+    if (limit - index < getSmallestCodeUnitSize(charset)) {
+      return false;
+    }
+    int character = peekAsciiCharacter(index, charset);
+    return character == '\r' || character == '\n';
+  }
+
   private void skipLineTerminator(Charset charset) {
     if (readCharacterIfInList(charset, CR_AND_LF) == '\r') {
       char unused = readCharacterIfInList(charset, LF);
@@ -1021,4 +1259,54 @@ public final class ParsableByteArray {
                     != null))
         || ActivityManager.isRunningInTestHarness();
   }
+
+  /** A {@link CharSequence} view of ASCII characters in a byte array. */
+  private static final class AsciiCharSequence implements CharSequence {
+
+    private final byte[] data;
+    private final int offset;
+    private final int length;
+    private final int stride;
+
+    /**
+     * Creates an instance.
+     *
+     * @param data The byte array.
+     * @param offset The index of the first character in {@code data}.
+     * @param length The number of characters.
+     * @param stride The number of bytes from each character to the next.
+     */
+    AsciiCharSequence(byte[] data, int offset, int length, int stride) {
+      this.data = data;
+      this.offset = offset;
+      this.length = length;
+      this.stride = stride;
+    }
+
+    @Override
+    public int length() {
+      return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+      checkElementIndex(index, length);
+      return (char) data[offset + index * stride];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      checkPositionIndexes(start, end, length);
+      return new AsciiCharSequence(data, offset + start * stride, end - start, stride);
+    }
+
+    @Override
+    public String toString() {
+      char[] characters = new char[length];
+      for (int i = 0; i < length; i++) {
+        characters[i] = (char) data[offset + i * stride];
+      }
+      return new String(characters);
+    }
+  }
 }
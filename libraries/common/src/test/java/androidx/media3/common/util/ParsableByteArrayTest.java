@@ -27,13 +27,17 @@ import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeFalse;
 import static org.junit.Assume.assumeTrue;
 
+import androidx.media3.common.C;
 import androidx.media3.test.utils.TestUtil;
 import com.google.common.primitives.Bytes;
 import com.google.common.primitives.Ints;
 import com.google.testing.junit.testparameterinjector.TestParameter;
 import com.google.testing.junit.testparameterinjector.TestParameterInjector;
 import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -1141,6 +1145,143 @@ public final class ParsableByteArrayTest {
     assertThat(parser.readLine(UTF_16LE)).isNull();
   }
 
+  @Test
+  public void readLineAsCharSequence_advancesPositionLikeReadLine(
+      @TestParameter({"UTF-8", "UTF-16BE", "UTF-16LE"}) String charsetName) {
+    Charset charset = Charset.forName(charsetName);
+    ParsableByteArray parser = new ParsableByteArray("foo\r\n\rbar".getBytes(charset));
+
+    assertThat(parser.readLineAsCharSequence(charset).toString()).isEqualTo("foo");
+    assertThat(parser.getPosition()).isEqualTo("foo\r\n".getBytes(charset).length);
+    assertThat(parser.readLineAsCharSequence(charset).toString()).isEmpty();
+    CharSequence line = parser.readLineAsCharSequence(charset);
+    assertThat(line.length()).isEqualTo(3);
+    assertThat(line.charAt(0)).isEqualTo('b');
+    assertThat(line.charAt(2)).isEqualTo('r');
+    assertThat(line.subSequence(1, 3).toString()).isEqualTo("ar");
+    assertThat(parser.readLineAsCharSequence(charset)).isNull();
+  }
+
+  @Test
+  public void readLineAsCharSequence_skipsBom() {
+    byte[] bytes = Bytes.concat(createByteArray(0xEF, 0xBB, 0xBF), "foo\nbar".getBytes(UTF_8));
+    ParsableByteArray parser = new ParsableByteArray(bytes);
+
+    assertThat(parser.readLineAsCharSequence(UTF_8).toString()).isEqualTo("foo");
+    assertThat(parser.getPosition()).isEqualTo(7);
+  }
+
+  @Test
+  public void readLineAsCharSequence_nonAsciiLine_isDecoded() {
+    ParsableByteArray parser = new ParsableByteArray("\u00e9t\u00e9\nfoo".getBytes(UTF_8));
+
+    CharSequence line = parser.readLineAsCharSequence(UTF_8);
+
+    assertThat(line).isInstanceOf(String.class);
+    assertThat(line.toString()).isEqualTo("\u00e9t\u00e9");
+    assertThat(parser.readLineAsCharSequence(UTF_8).toString()).isEqualTo("foo");
+  }
+
+  @Test
+  public void readLineAsCharSequence_asciiLine_canBeMatchedByPattern() {
+    ParsableByteArray parser =
+        new ParsableByteArray("00:00:01,000 --> 00:00:02,500\n".getBytes(UTF_16LE));
+
+    Matcher matcher =
+        Pattern.compile("(\\S+) --> (\\S+)").matcher(parser.readLineAsCharSequence(UTF_16LE));
+
+    assertThat(matcher.matches()).isTrue();
+    assertThat(matcher.group(1)).isEqualTo("00:00:01,000");
+    assertThat(matcher.group(2)).isEqualTo("00:00:02,500");
+  }
+
+  @Test
+  public void skipLine_advancesPositionLikeReadLine() {
+    byte[] bytes = Bytes.concat(createByteArray(0xEF, 0xBB, 0xBF), "foo\r\n\rbar".getBytes(UTF_8));
+    ParsableByteArray parser = new ParsableByteArray(bytes);
+
+    assertThat(parser.skipLine()).isEqualTo(3);
+    assertThat(parser.getPosition()).isEqualTo(8);
+    assertThat(parser.skipLine()).isEqualTo(0);
+    assertThat(parser.getPosition()).isEqualTo(9);
+    assertThat(parser.skipLine()).isEqualTo(3);
+    assertThat(parser.getPosition()).isEqualTo(12);
+    assertThat(parser.skipLine()).isEqualTo(C.LENGTH_UNSET);
+  }
+
+  @Test
+  public void skipLine_utf16le() {
+    byte[] bytes = "foo\n\r\rbar\r\n".getBytes(UTF_16LE);
+    ParsableByteArray parser = new ParsableByteArray(bytes);
+
+    assertThat(parser.skipLine(UTF_16LE)).isEqualTo(6);
+    assertThat(parser.getPosition()).isEqualTo(8);
+    assertThat(parser.skipLine(UTF_16LE)).isEqualTo(0);
+    assertThat(parser.skipLine(UTF_16LE)).isEqualTo(0);
+    assertThat(parser.skipLine(UTF_16LE)).isEqualTo(6);
+    assertThat(parser.getPosition()).isEqualTo(22);
+    assertThat(parser.skipLine(UTF_16LE)).isEqualTo(C.LENGTH_UNSET);
+  }
+
+  @Test
+  public void peekStartsWith(@TestParameter({"UTF-8", "UTF-16BE", "UTF-16LE"}) String charsetName) {
+    Charset charset = Charset.forName(charsetName);
+    ParsableByteArray parser = new ParsableByteArray("Dialogue: foo\nbar".getBytes(charset));
+
+    assertThat(parser.peekStartsWith("Dialogue:", charset)).isTrue();
+    assertThat(parser.peekStartsWith("Dialogue: foo\nbar", charset)).isTrue();
+    assertThat(parser.peekStartsWith("Format:", charset)).isFalse();
+    assertThat(parser.peekStartsWith("Dialogue: foo\nbar!", charset)).isFalse();
+    assertThat(parser.getPosition()).isEqualTo(0);
+  }
+
+  @Test
+  public void peekStartsWith_nonAsciiData_returnsFalse() {
+    ParsableByteArray parser = new ParsableByteArray("\u00e9t\u00e9".getBytes(UTF_8));
+
+    assertThat(parser.peekStartsWith("e")).isFalse();
+    assertThat(parser.peekStartsWith("")).isTrue();
+  }
+
+  @Test
+  public void peekLineEquals(@TestParameter({"UTF-8", "UTF-16BE", "UTF-16LE"}) String charsetName) {
+    Charset charset = Charset.forName(charsetName);
+    ParsableByteArray parser = new ParsableByteArray("STYLE\r\nSTYLES\nSTYLE".getBytes(charset));
+
+    assertThat(parser.peekLineEquals("STYLE", charset)).isTrue();
+    assertThat(parser.peekLineEquals("STYL", charset)).isFalse();
+    parser.skipLine(charset);
+    assertThat(parser.peekLineEquals("STYLE", charset)).isFalse();
+    assertThat(parser.peekLineEquals("STYLES", charset)).isTrue();
+    parser.skipLine(charset);
+    assertThat(parser.peekLineEquals("STYLE", charset)).isTrue();
+  }
+
+  @Test
+  public void peekLineIsInt(@TestParameter({"UTF-8", "UTF-16BE", "UTF-16LE"}) String charsetName) {
+    Charset charset = Charset.forName(charsetName);
+
+    assertThat(peekLineIsInt("123\nfoo", charset)).isTrue();
+    assertThat(peekLineIsInt("+7\r", charset)).isTrue();
+    assertThat(peekLineIsInt("2147483647", charset)).isTrue();
+    assertThat(peekLineIsInt("-2147483648", charset)).isTrue();
+    assertThat(peekLineIsInt("2147483648", charset)).isFalse();
+    assertThat(peekLineIsInt("-2147483649", charset)).isFalse();
+    assertThat(peekLineIsInt("99999999999999999999", charset)).isFalse();
+    assertThat(peekLineIsInt("", charset)).isFalse();
+    assertThat(peekLineIsInt("\n1", charset)).isFalse();
+    assertThat(peekLineIsInt("-", charset)).isFalse();
+    assertThat(peekLineIsInt("1 ", charset)).isFalse();
+    assertThat(peekLineIsInt("1a\n", charset)).isFalse();
+  }
+
+  private static boolean peekLineIsInt(String data, Charset charset) {
+    ParsableByteArray parser = new ParsableByteArray(data.getBytes(charset));
+    boolean result = parser.peekLineIsInt(charset);
+    assertThat(parser.getPosition()).isEqualTo(0);
+    return result;
+  }
+
   @Test
   public void peekCodePoint_ascii() {
     ParsableByteArray parser = new ParsableByteArray("foo".getBytes(US_ASCII));
@@ -1951,21 +1951,12 @@ public final class NalUnitUtil {
       return startOffset - 1;
     }
 
-    int limit = endOffset - 1;
-    // We're looking for the NAL unit start code prefix 0x000001. The value of i tracks the index of
-    // the third byte.
-    for (int i = startOffset + 2; i < limit; i += 3) {
-      if ((data[i] & 0xFE) != 0) {
-        // There isn't a NAL prefix here, or at the next two positions. Do nothing and let the
-        // loop advance the index by three.
-      } else if (data[i - 2] == 0 && data[i - 1] == 0 && data[i] == 1) {
-        clearPrefixFlags(prefixFlags);
-        return i - 2;
-      } else {
-        // There isn't a NAL prefix here, but there might be at the next position. We should
-        // only skip forward by one. The loop will skip forward by three, so subtract two here.
-        i -= 2;
-      }
+    // The first four bytes of the NAL unit must be in the array, so the start code prefix must end
+    // before the last byte.
+    int nalUnitOffset = StartCodeScanner.findStartCode(data, startOffset, endOffset - 1);
+    if (nalUnitOffset != endOffset - 1) {
+      clearPrefixFlags(prefixFlags);
+      return nalUnitOffset;
     }
 
     // True if the last three bytes in the data seen so far are {0,0,1}.
@@ -2068,12 +2059,7 @@ public final class NalUnitUtil {
   }
 
   private static int findNextUnescapeIndex(byte[] bytes, int offset, int limit) {
-    for (int i = offset; i < limit - 2; i++) {
-      if (bytes[i] == 0x00 && bytes[i + 1] == 0x00 && bytes[i + 2] == 0x03) {
-        return i;
-      }
-    }
-    return limit;
+    return StartCodeScanner.findEmulationPreventionSequence(bytes, offset, limit);
   }
 
   /**
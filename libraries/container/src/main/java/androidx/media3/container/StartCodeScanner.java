@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.media3.container;
+
+import androidx.media3.common.util.UnstableApi;
+import java.nio.ByteBuffer;
+
+/**
+ * Scanning for Annex-B byte sequences (ITU-T H.264 and H.265 Annex B), shared by NAL unit parsers.
+ *
+ * <p>All sequences located by this class have the form {@code 0x00 0x00 XX}, where {@code XX} is a
+ * small value. Only every third byte is examined while no byte that can be part of a sequence is
+ * encountered, which is the common case in entropy coded slice data.
+ */
+@UnstableApi
+public final class StartCodeScanner {
+
+  private StartCodeScanner() {}
+
+  /**
+   * Returns the offset of the first NAL unit start code prefix ({@code 0x000001}) whose three bytes
+   * are all contained within the specified range, or {@code toIndex} if there isn't one.
+   *
+   * @param data The data to search.
+   * @param fromIndex The offset (inclusive) in the data to start the search.
+   * @param toIndex The offset (exclusive) in the data to end the search.
+   */
+  public static int findStartCode(byte[] data, int fromIndex, int toIndex) {
+    return find(data, fromIndex, toIndex, 1, 1);
+  }
+
+  /**
+   * Returns the offset of the first NAL unit start code prefix ({@code 0x000001}) whose three bytes
+   * are all contained within the specified range, or {@code toIndex} if there isn't one.
+   *
+   * <p>The position, limit and byte order of {@code data} are ignored and left unchanged.
+   *
+   * @param data The data to search.
+   * @param fromIndex The absolute index (inclusive) in the data to start the search.
+   * @param toIndex The absolute index (exclusive) in the data to end the search.
+   */
+  public static int findStartCode(ByteBuffer data, int fromIndex, int toIndex) {
+    return find(data, fromIndex, toIndex, 1, 1);
+  }
+
+  /**
+   * Returns the offset of the first sequence that terminates a NAL unit ({@code 0x000000} or {@code
+   * 0x000001}) whose three bytes are all contained within the specified range, or {@code toIndex}
+   * if there isn't one.
+   *
+   * <p>The position, limit and byte order of {@code data} are ignored and left unchanged.
+   *
+   * @param data The data to search.
+   * @param fromIndex The absolute index (inclusive) in the data to start the search.
+   * @param toIndex The absolute index (exclusive) in the data to end the search.
+   */
+  public static int findNalUnitEnd(ByteBuffer data, int fromIndex, int toIndex) {
+    return find(data, fromIndex, toIndex, 0, 1);
+  }
+
+  /**
+   * Returns the offset of the first emulation prevention sequence ({@code 0x000003}) whose three
+   * bytes are all contained within the specified range, or {@code toIndex} if there isn't one.
+   *
+   * @param data The data to search.
+   * @param fromIndex The offset (inclusive) in the data to start the search.
+   * @param toIndex The offset (exclusive) in the data to end the search.
+   */
+  public static int findEmulationPreventionSequence(byte[] data, int fromIndex, int toIndex) {
+    return find(data, fromIndex, toIndex, 3, 3);
+  }
+
+  /**
+   * Returns the offset of the first emulation prevention sequence ({@code 0x000003}) whose three
+   * bytes are all contained within the specified range, or {@code toIndex} if there isn't one.
+   *
+   * <p>The position, limit and byte order of {@code data} are ignored and left unchanged.
+   *
+   * @param data The data to search.
+   * @param fromIndex The absolute index (inclusive) in the data to start the search.
+   * @param toIndex The absolute index (exclusive) in the data to end the search.
+   */
+  public static int findEmulationPreventionSequence(ByteBuffer data, int fromIndex, int toIndex) {
+    return find(data, fromIndex, toIndex, 3, 3);
+  }
+
+  /**
+   * Returns the offset of the first sequence {@code 0x00 0x00 XX}, where {@code minThirdByte <= XX
+   * <= maxThirdByte}, that lies within {@code [fromIndex, toIndex)}, or {@code toIndex} if there
+   * isn't one.
+   *
+   * @param data The data to search.
+   * @param fromIndex The offset (inclusive) in the data to start the search.
+   * @param toIndex The offset (exclusive) in the data to end the search.
+   * @param minThirdByte The minimum value of the third byte.
+   * @param maxThirdByte The maximum value of the third byte. Must be one less than a power of
+   *     two.
+   */
+  private static int find(
+      byte[] data, int fromIndex, int toIndex, int minThirdByte, int maxThirdByte) {
+    // The value of i tracks the index of the third byte of the sequence.
+    for (int i = fromIndex + 2; i < toIndex; i += 3) {
+      int value = data[i];
+      if ((value & ~maxThirdByte & 0xFF) != 0) {
+        // The byte can't be part of a sequence, so there isn't one ending here or at the next two
+        // positions. Let the loop advance the index by three.
+      } else if (value >= minThirdByte && data[i - 1] == 0 && data[i - 2] == 0) {
+        return i - 2;
+      } else {
+        // There isn't a sequence ending here, but there might be at the next position. We should
+        // only skip forward by one. The loop will skip forward by three, so subtract two here.
+        i -= 2;
+      }
+    }
+    return toIndex;
+  }
+
+  /** Equivalent to {@link #find(byte[], int, int, int, int)}, for a {@link ByteBuffer}. */
+  private static int find(
+      ByteBuffer data, int fromIndex, int toIndex, int minThirdByte, int maxThirdByte) {
+    for (int i = fromIndex + 2; i < toIndex; i += 3) {
+      int value = data.get(i);
+      if ((value & ~maxThirdByte & 0xFF) != 0) {
+        // Let the loop advance the index by three.
+      } else if (value >= minThirdByte && data.get(i - 1) == 0 && data.get(i - 2) == 0) {
+        return i - 2;
+      } else {
+        i -= 2;
+      }
+    }
+    return toIndex;
+  }
+}
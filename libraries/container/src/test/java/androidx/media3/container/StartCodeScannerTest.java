@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.media3.container;
+
+import static androidx.media3.test.utils.TestUtil.createByteArray;
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Tests for {@link StartCodeScanner}. */
+@RunWith(AndroidJUnit4.class)
+public final class StartCodeScannerTest {
+
+  @Test
+  public void findStartCode_returnsOffsetOfFirstStartCode() {
+    byte[] data = createByteArray(0xFF, 0x00, 0x00, 0x00, 0x01, 0x67, 0x00, 0x00, 0x01, 0x68);
+
+    assertThat(StartCodeScanner.findStartCode(data, 0, data.length)).isEqualTo(2);
+    assertThat(StartCodeScanner.findStartCode(data, 3, data.length)).isEqualTo(6);
+    assertThat(StartCodeScanner.findStartCode(ByteBuffer.wrap(data), 0, data.length)).isEqualTo(2);
+  }
+
+  @Test
+  public void findStartCode_startCodeSpanningRangeEnd_returnsToIndex() {
+    byte[] data = createByteArray(0xFF, 0xFF, 0x00, 0x00, 0x01);
+
+    assertThat(StartCodeScanner.findStartCode(data, 0, 4)).isEqualTo(4);
+    assertThat(StartCodeScanner.findStartCode(data, 3, 5)).isEqualTo(5);
+  }
+
+  @Test
+  public void findNalUnitEnd_returnsOffsetOfZeroRunOrStartCode() {
+    ByteBuffer data = ByteBuffer.wrap(createByteArray(0x65, 0x88, 0x00, 0x00, 0x00, 0x01, 0x41));
+
+    assertThat(StartCodeScanner.findNalUnitEnd(data, 0, 7)).isEqualTo(2);
+    assertThat(StartCodeScanner.findNalUnitEnd(data, 3, 7)).isEqualTo(3);
+    assertThat(StartCodeScanner.findNalUnitEnd(data, 4, 7)).isEqualTo(7);
+  }
+
+  @Test
+  public void findEmulationPreventionSequence_returnsOffsetOfFirstSequence() {
+    byte[] data = createByteArray(0x00, 0x00, 0x02, 0x00, 0x00, 0x00, 0x03, 0x01);
+
+    assertThat(StartCodeScanner.findEmulationPreventionSequence(data, 0, data.length))
+        .isEqualTo(4);
+    assertThat(
+            StartCodeScanner.findEmulationPreventionSequence(
+                ByteBuffer.wrap(data), 0, data.length))
+        .isEqualTo(4);
+    assertThat(StartCodeScanner.findEmulationPreventionSequence(data, 5, data.length))
+        .isEqualTo(data.length);
+  }
+
+  @Test
+  public void find_randomData_matchesExhaustiveSearch() {
+    Random random = new Random(/* seed= */ 0);
+    for (int i = 0; i < 1000; i++) {
+      byte[] data = new byte[random.nextInt(200)];
+      for (int j = 0; j < data.length; j++) {
+        // Bias towards the byte values that appear in the sequences being searched for.
+        data[j] = (byte) (random.nextBoolean() ? random.nextInt(4) : random.nextInt(256));
+      }
+      int fromIndex = random.nextInt(data.length + 1);
+      int toIndex = fromIndex + random.nextInt(data.length - fromIndex + 1);
+      ByteBuffer buffer = ByteBuffer.wrap(data);
+
+      assertThat(StartCodeScanner.findStartCode(data, fromIndex, toIndex))
+          .isEqualTo(findExhaustively(data, fromIndex, toIndex, 1, 1));
+      assertThat(StartCodeScanner.findStartCode(buffer, fromIndex, toIndex))
+          .isEqualTo(findExhaustively(data, fromIndex, toIndex, 1, 1));
+      assertThat(StartCodeScanner.findNalUnitEnd(buffer, fromIndex, toIndex))
+          .isEqualTo(findExhaustively(data, fromIndex, toIndex, 0, 1));
+      assertThat(StartCodeScanner.findEmulationPreventionSequence(data, fromIndex, toIndex))
+          .isEqualTo(findExhaustively(data, fromIndex, toIndex, 3, 3));
+      assertThat(StartCodeScanner.findEmulationPreventionSequence(buffer, fromIndex, toIndex))
+          .isEqualTo(findExhaustively(data, fromIndex, toIndex, 3, 3));
+    }
+  }
+
+  private static int findExhaustively(
+      byte[] data, int fromIndex, int toIndex, int minThirdByte, int maxThirdByte) {
+    for (int i = fromIndex; i + 2 < toIndex; i++) {
+      if (data[i] == 0
+          && data[i + 1] == 0
+          && data[i + 2] >= minThirdByte
+          && data[i + 2] <= maxThirdByte) {
+        return i;
+      }
+    }
+    return toIndex;
+  }
+}
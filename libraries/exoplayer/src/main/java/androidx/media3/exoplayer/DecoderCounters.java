@@ -122,6 +122,38 @@ public final class DecoderCounters {
    */
   public int videoFrameProcessingOffsetCount;
 
+  /**
+   * The sum of the times from starting to initialize a decoder until the renderer processed the
+   * decoder's first output buffer, in milliseconds.
+   *
+   * <p>An output buffer is processed when it's rendered, skipped or dropped. The time doesn't
+   * include anything that happens before the decoder starts to initialize, such as waiting for the
+   * format or for DRM keys, and it isn't measured for transitions that keep the current decoder. It
+   * is therefore not the time to the first rendered frame of a playlist transition.
+   *
+   * <p>Note: Use {@link #addDecoderInitToFirstProcessedOutputTime(long)} to update this field
+   * instead of updating it directly.
+   */
+  public long totalDecoderInitToFirstProcessedOutputTimeMs;
+
+  /**
+   * The maximum time from starting to initialize a decoder until the renderer processed the
+   * decoder's first output buffer, in milliseconds. See {@link
+   * #totalDecoderInitToFirstProcessedOutputTimeMs} for what is measured.
+   *
+   * <p>Note: Use {@link #addDecoderInitToFirstProcessedOutputTime(long)} to update this field
+   * instead of updating it directly.
+   */
+  public long maxDecoderInitToFirstProcessedOutputTimeMs;
+
+  /**
+   * The number of times added to {@link #totalDecoderInitToFirstProcessedOutputTimeMs}.
+   *
+   * <p>Note: Use {@link #addDecoderInitToFirstProcessedOutputTime(long)} to update this field
+   * instead of updating it directly.
+   */
+  public int decoderInitToFirstProcessedOutputCount;
+
   /**
    * Should be called to ensure counter values are made visible across threads. The playback thread
    * should call this method after updating the counter values. Any other thread should call this
@@ -151,6 +183,13 @@ public final class DecoderCounters {
     droppedToKeyframeCount += other.droppedToKeyframeCount;
     addVideoFrameProcessingOffsets(
         other.totalVideoFrameProcessingOffsetUs, other.videoFrameProcessingOffsetCount);
+    totalDecoderInitToFirstProcessedOutputTimeMs +=
+        other.totalDecoderInitToFirstProcessedOutputTimeMs;
+    maxDecoderInitToFirstProcessedOutputTimeMs =
+        max(
+            maxDecoderInitToFirstProcessedOutputTimeMs,
+            other.maxDecoderInitToFirstProcessedOutputTimeMs);
+    decoderInitToFirstProcessedOutputCount += other.decoderInitToFirstProcessedOutputCount;
   }
 
   /**
@@ -165,6 +204,22 @@ public final class DecoderCounters {
     addVideoFrameProcessingOffsets(processingOffsetUs, /* count= */ 1);
   }
 
+  /**
+   * Adds the time from starting to initialize a decoder until the renderer processed the decoder's
+   * first output buffer to {@link #totalDecoderInitToFirstProcessedOutputTimeMs}, updates {@link
+   * #maxDecoderInitToFirstProcessedOutputTimeMs} and increases {@link
+   * #decoderInitToFirstProcessedOutputCount} by one.
+   *
+   * @param timeMs The time from starting to initialize the decoder until its first output buffer
+   *     was processed, in milliseconds.
+   */
+  public void addDecoderInitToFirstProcessedOutputTime(long timeMs) {
+    totalDecoderInitToFirstProcessedOutputTimeMs += timeMs;
+    maxDecoderInitToFirstProcessedOutputTimeMs =
+        max(maxDecoderInitToFirstProcessedOutputTimeMs, timeMs);
+    decoderInitToFirstProcessedOutputCount++;
+  }
+
   private void addVideoFrameProcessingOffsets(long totalProcessingOffsetUs, int count) {
     totalVideoFrameProcessingOffsetUs += totalProcessingOffsetUs;
     videoFrameProcessingOffsetCount += count;
@@ -185,7 +240,10 @@ public final class DecoderCounters {
             + "maxConsecutiveDroppedBuffers=%s\n "
             + "droppedToKeyframeEvents=%s\n "
             + "totalVideoFrameProcessingOffsetUs=%s\n "
-            + "videoFrameProcessingOffsetCount=%s\n}",
+            + "videoFrameProcessingOffsetCount=%s\n "
+            + "totalDecoderInitToFirstProcessedOutputTimeMs=%s\n "
+            + "maxDecoderInitToFirstProcessedOutputTimeMs=%s\n "
+            + "decoderInitToFirstProcessedOutputCount=%s\n}",
         decoderInitCount,
         decoderReleaseCount,
         queuedInputBufferCount,
@@ -197,6 +255,9 @@ public final class DecoderCounters {
         maxConsecutiveDroppedBufferCount,
         droppedToKeyframeCount,
         totalVideoFrameProcessingOffsetUs,
-        videoFrameProcessingOffsetCount);
+        videoFrameProcessingOffsetCount,
+        totalDecoderInitToFirstProcessedOutputTimeMs,
+        maxDecoderInitToFirstProcessedOutputTimeMs,
+        decoderInitToFirstProcessedOutputCount);
   }
 }
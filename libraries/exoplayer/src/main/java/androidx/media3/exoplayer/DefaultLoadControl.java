@@ -198,6 +198,24 @@ public class DefaultLoadControl implements LoadControl {
           RawResourceDataSource.RAW_RESOURCE_SCHEME,
           "asset");
 
+  /**
+   * A listener for the target buffer sizes that a {@link DefaultLoadControl} grants to its players
+   * when a {@linkplain Builder#setTotalTargetBufferBytes(int) total target buffer size} is set.
+   */
+  public interface TargetBufferBytesListener {
+
+    /**
+     * Called on the playback thread when the target buffer size granted to a player changes.
+     *
+     * @param playerId The {@link PlayerId} of the player.
+     * @param requestedTargetBufferBytes The target buffer size that the player would have without a
+     *     total target buffer size, in bytes.
+     * @param targetBufferBytes The target buffer size granted to the player, in bytes.
+     */
+    void onTargetBufferBytesChanged(
+        PlayerId playerId, int requestedTargetBufferBytes, int targetBufferBytes);
+  }
+
   /** Builder for {@link DefaultLoadControl}. */
   public static final class Builder {
 
@@ -213,6 +231,8 @@ public class DefaultLoadControl implements LoadControl {
     private int bufferForPlaybackAfterRebufferMs;
     private int bufferForPlaybackAfterRebufferForLocalPlaybackMs;
     private int targetBufferBytes;
+    private int totalTargetBufferBytes;
+    @Nullable private TargetBufferBytesListener targetBufferBytesListener;
     private boolean prioritizeTimeOverSizeThresholds;
     private boolean prioritizeTimeOverSizeThresholdsForLocalPlayback;
     private int backBufferDurationMs;
@@ -239,6 +259,7 @@ public class DefaultLoadControl implements LoadControl {
       bufferForPlaybackAfterRebufferForLocalPlaybackMs =
           DEFAULT_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_FOR_LOCAL_PLAYBACK_MS;
       targetBufferBytes = DEFAULT_TARGET_BUFFER_BYTES;
+      totalTargetBufferBytes = C.LENGTH_UNSET;
       prioritizeTimeOverSizeThresholds = DEFAULT_PRIORITIZE_TIME_OVER_SIZE_THRESHOLDS;
       prioritizeTimeOverSizeThresholdsForLocalPlayback =
           DEFAULT_PRIORITIZE_TIME_OVER_SIZE_THRESHOLDS_FOR_LOCAL_PLAYBACK;
@@ -436,6 +457,57 @@ public class DefaultLoadControl implements LoadControl {
       return this;
     }
 
+    /**
+     * Sets the maximum total buffer size in bytes of all players that share the {@link
+     * DefaultLoadControl}.
+     *
+     * <p>When set, the target buffer sizes of the players are granted in order of priority until
+     * the total is used up: first to players that are playing or want to play, then to paused
+     * players, and finally to {@link PlayerId#PRELOAD}. If the players of one priority request more
+     * than is left, it's shared between them in proportion to their requests. Budgets are
+     * rebalanced whenever a player starts or stops wanting to play, selects tracks, or is stopped
+     * or released, so lower priority players are trimmed first and get their budget back once
+     * higher priority players no longer need it. A player whose budget has been reduced stops
+     * loading until its buffer is below its new budget.
+     *
+     * <p>Paused players and {@link PlayerId#PRELOAD} don't load more media while the total number
+     * of bytes allocated by all players is at least {@code totalTargetBufferBytes}, even if they
+     * {@linkplain #setPrioritizeTimeOverSizeThresholds prioritize time over size thresholds}.
+     * Players that are playing or want to play are only limited by their own budget, so that media
+     * held by lower priority players can't stop them from loading while their buffer is empty.
+     *
+     * <p>The default value is {@link C#LENGTH_UNSET}, which means there's no maximum.
+     *
+     * @param totalTargetBufferBytes The maximum total buffer size in bytes, or {@link
+     *     C#LENGTH_UNSET}.
+     * @return This builder, for convenience.
+     * @throws IllegalStateException If {@link #build()} has already been called.
+     */
+    @CanIgnoreReturnValue
+    public Builder setTotalTargetBufferBytes(int totalTargetBufferBytes) {
+      checkState(!buildCalled);
+      checkArgument(totalTargetBufferBytes == C.LENGTH_UNSET || totalTargetBufferBytes > 0);
+      this.totalTargetBufferBytes = totalTargetBufferBytes;
+      return this;
+    }
+
+    /**
+     * Sets a {@link TargetBufferBytesListener} that's notified of the target buffer sizes granted
+     * to the players when a {@linkplain #setTotalTargetBufferBytes(int) total target buffer size}
+     * is set.
+     *
+     * @param targetBufferBytesListener The {@link TargetBufferBytesListener}, or {@code null}.
+     * @return This builder, for convenience.
+     * @throws IllegalStateException If {@link #build()} has already been called.
+     */
+    @CanIgnoreReturnValue
+    public Builder setTargetBufferBytesListener(
+        @Nullable TargetBufferBytesListener targetBufferBytesListener) {
+      checkState(!buildCalled);
+      this.targetBufferBytesListener = targetBufferBytesListener;
+      return this;
+    }
+
     /**
      * Sets whether the load control prioritizes buffer time constraints over buffer size
      * constraints for streaming and local on-device playback.
@@ -552,12 +624,19 @@ public class DefaultLoadControl implements LoadControl {
           prioritizeTimeOverSizeThresholdsForLocalPlayback,
           backBufferDurationMs,
           retainBackBufferFromKeyframe,
-          playerTargetBufferBytes);
+          playerTargetBufferBytes,
+          totalTargetBufferBytes,
+          targetBufferBytesListener);
     }
   }
 
   private static final String TAG = "DefaultLoadControl";
 
+  private static final int PRIORITY_PLAYING = 0;
+  private static final int PRIORITY_PAUSED = 1;
+  private static final int PRIORITY_PRELOAD = 2;
+  private static final int PRIORITY_COUNT = 3;
+
   private final Timeline.Window window;
   private final Timeline.Period period;
   private final DefaultAllocator allocator;
@@ -575,6 +654,8 @@ public class DefaultLoadControl implements LoadControl {
   private final long backBufferDurationUs;
   private final boolean retainBackBufferFromKeyframe;
   private final ImmutableMap<String, Integer> playerTargetBufferBytesOverwrites;
+  private final int totalTargetBufferBytes;
+  @Nullable private final TargetBufferBytesListener targetBufferBytesListener;
   private final ConcurrentHashMap<PlayerId, PlayerLoadingState> loadingStates;
 
   private long threadId;
@@ -613,7 +694,9 @@ public class DefaultLoadControl implements LoadControl {
       boolean prioritizeTimeOverSizeThresholdsForLocalPlayback,
       int backBufferDurationMs,
       boolean retainBackBufferFromKeyframe,
-      Map<String, Integer> playerTargetBufferBytes) {
+      Map<String, Integer> playerTargetBufferBytes,
+      int totalTargetBufferBytes,
+      @Nullable TargetBufferBytesListener targetBufferBytesListener) {
     assertGreaterOrEqual(bufferForPlaybackMs, 0, "bufferForPlaybackMs", "0");
     assertGreaterOrEqual(
         bufferForPlaybackForLocalPlaybackMs, 0, "bufferForPlaybackForLocalPlaybackMs", "0");
@@ -668,9 +751,47 @@ public class DefaultLoadControl implements LoadControl {
     this.retainBackBufferFromKeyframe = retainBackBufferFromKeyframe;
     loadingStates = new ConcurrentHashMap<>();
     playerTargetBufferBytesOverwrites = ImmutableMap.copyOf(playerTargetBufferBytes);
+    this.totalTargetBufferBytes = totalTargetBufferBytes;
+    this.targetBufferBytesListener = targetBufferBytesListener;
     threadId = C.INDEX_UNSET;
   }
 
+  protected DefaultLoadControl(
+      DefaultAllocator allocator,
+      int minBufferMs,
+      int minBufferForLocalPlaybackMs,
+      int maxBufferMs,
+      int maxBufferForLocalPlaybackMs,
+      int bufferForPlaybackMs,
+      int bufferForPlaybackForLocalPlaybackMs,
+      int bufferForPlaybackAfterRebufferMs,
+      int bufferForPlaybackAfterRebufferForLocalPlaybackMs,
+      int targetBufferBytes,
+      boolean prioritizeTimeOverSizeThresholds,
+      boolean prioritizeTimeOverSizeThresholdsForLocalPlayback,
+      int backBufferDurationMs,
+      boolean retainBackBufferFromKeyframe,
+      Map<String, Integer> playerTargetBufferBytes) {
+    this(
+        allocator,
+        minBufferMs,
+        minBufferForLocalPlaybackMs,
+        maxBufferMs,
+        maxBufferForLocalPlaybackMs,
+        bufferForPlaybackMs,
+        bufferForPlaybackForLocalPlaybackMs,
+        bufferForPlaybackAfterRebufferMs,
+        bufferForPlaybackAfterRebufferForLocalPlaybackMs,
+        targetBufferBytes,
+        prioritizeTimeOverSizeThresholds,
+        prioritizeTimeOverSizeThresholdsForLocalPlayback,
+        backBufferDurationMs,
+        retainBackBufferFromKeyframe,
+        playerTargetBufferBytes,
+        /* totalTargetBufferBytes= */ C.LENGTH_UNSET,
+        /* targetBufferBytesListener= */ null);
+  }
+
   protected DefaultLoadControl(
       DefaultAllocator allocator,
       int minBufferMs,
@@ -727,10 +848,11 @@ public class DefaultLoadControl implements LoadControl {
       TrackGroupArray trackGroups,
       @NullableType ExoTrackSelection[] trackSelections) {
     int targetBufferBytesOverwrite = getTargetBufferBytesOverwrite(parameters.playerId);
-    checkNotNull(loadingStates.get(parameters.playerId)).targetBufferBytes =
+    checkNotNull(loadingStates.get(parameters.playerId)).requestedTargetBufferBytes =
         targetBufferBytesOverwrite == C.LENGTH_UNSET
             ? calculateTargetBufferBytes(parameters, trackSelections)
             : targetBufferBytesOverwrite;
+    updateTargetBufferBytes();
     updateAllocator();
   }
 
@@ -766,10 +888,18 @@ public class DefaultLoadControl implements LoadControl {
   public boolean shouldContinueLoading(Parameters parameters) {
     PlayerId playerId = parameters.playerId;
     PlayerLoadingState playerLoadingState = checkNotNull(loadingStates.get(playerId));
+    if (totalTargetBufferBytes != C.LENGTH_UNSET) {
+      int priority = getPriority(playerId, parameters.playWhenReady);
+      if (playerLoadingState.priority != priority) {
+        playerLoadingState.priority = priority;
+        updateTargetBufferBytes();
+        updateAllocator();
+      }
+    }
     boolean targetBufferSizeReached =
         getTotalBufferBytesAllocated(playerId) >= getTargetBufferBytes(playerId);
     if (playerId.equals(PlayerId.PRELOAD)) {
-      return !targetBufferSizeReached;
+      return !targetBufferSizeReached && !isTotalTargetBufferBytesReached();
     }
     boolean isLocalPlayback = isLocalPlayback(parameters);
     long minBufferUs = getMinBufferUs(isLocalPlayback);
@@ -805,6 +935,12 @@ public class DefaultLoadControl implements LoadControl {
     } else if (parameters.bufferedDurationUs >= maxBufferUs || targetBufferSizeReached) {
       playerLoadingState.isLoading = false;
     } // Else don't change the loading state.
+    if (playerLoadingState.priority != PRIORITY_PLAYING && isTotalTargetBufferBytesReached()) {
+      // Bytes held by other players count towards the total, so only hold back players that
+      // aren't playing. Players that are playing are bounded by their granted budget, which takes
+      // precedence over lower priority players.
+      playerLoadingState.isLoading = false;
+    }
     return playerLoadingState.isLoading;
   }
 
@@ -875,6 +1011,15 @@ public class DefaultLoadControl implements LoadControl {
     return constrainValue(targetBufferSize, DEFAULT_MIN_BUFFER_SIZE, DEFAULT_MAX_BUFFER_SIZE);
   }
 
+  /**
+   * Returns the target buffer size in bytes currently granted to the player with the given {@link
+   * PlayerId}, or {@link C#LENGTH_UNSET} if the player isn't prepared.
+   */
+  public int getPlayerTargetBufferBytes(PlayerId playerId) {
+    @Nullable PlayerLoadingState playerLoadingState = loadingStates.get(playerId);
+    return playerLoadingState != null ? playerLoadingState.targetBufferBytes : C.LENGTH_UNSET;
+  }
+
   @VisibleForTesting
   /* package */ int calculateTotalTargetBufferBytes() {
     int totalTargetBufferBytes = 0;
@@ -887,11 +1032,13 @@ public class DefaultLoadControl implements LoadControl {
   private void resetPlayerLoadingState(PlayerId playerId) {
     PlayerLoadingState playerLoadingState = checkNotNull(loadingStates.get(playerId));
     int targetBufferBytesOverwrite = getTargetBufferBytesOverwrite(playerId);
-    playerLoadingState.targetBufferBytes =
+    playerLoadingState.requestedTargetBufferBytes =
         targetBufferBytesOverwrite != C.LENGTH_UNSET
             ? targetBufferBytesOverwrite
             : DEFAULT_MIN_BUFFER_SIZE;
+    playerLoadingState.priority = getPriority(playerId, /* playWhenReady= */ false);
     playerLoadingState.isLoading = false;
+    updateTargetBufferBytes();
   }
 
   private int getTargetBufferBytesOverwrite(PlayerId playerId) {
@@ -909,11 +1056,66 @@ public class DefaultLoadControl implements LoadControl {
       playerLoadingState.referenceCount--;
       if (playerLoadingState.referenceCount == 0) {
         loadingStates.remove(playerId);
+        updateTargetBufferBytes();
         updateAllocator();
       }
     }
   }
 
+  /**
+   * Grants the target buffer sizes of the players, sharing {@link #totalTargetBufferBytes} between
+   * them in order of priority if it's set.
+   */
+  private void updateTargetBufferBytes() {
+    if (totalTargetBufferBytes == C.LENGTH_UNSET) {
+      for (PlayerLoadingState playerLoadingState : loadingStates.values()) {
+        playerLoadingState.targetBufferBytes = playerLoadingState.requestedTargetBufferBytes;
+      }
+      return;
+    }
+    long remainingBytes = totalTargetBufferBytes;
+    for (int priority = 0; priority < PRIORITY_COUNT; priority++) {
+      long requestedBytes = 0;
+      for (PlayerLoadingState playerLoadingState : loadingStates.values()) {
+        if (playerLoadingState.priority == priority) {
+          requestedBytes += playerLoadingState.requestedTargetBufferBytes;
+        }
+      }
+      long grantedBytes = min(requestedBytes, remainingBytes);
+      for (Map.Entry<PlayerId, PlayerLoadingState> entry : loadingStates.entrySet()) {
+        PlayerLoadingState playerLoadingState = entry.getValue();
+        if (playerLoadingState.priority != priority) {
+          continue;
+        }
+        int targetBufferBytes =
+            requestedBytes == grantedBytes
+                ? playerLoadingState.requestedTargetBufferBytes
+                : (int)
+                    (playerLoadingState.requestedTargetBufferBytes * grantedBytes / requestedBytes);
+        if (playerLoadingState.targetBufferBytes != targetBufferBytes) {
+          playerLoadingState.targetBufferBytes = targetBufferBytes;
+          if (targetBufferBytesListener != null) {
+            targetBufferBytesListener.onTargetBufferBytesChanged(
+                entry.getKey(), playerLoadingState.requestedTargetBufferBytes, targetBufferBytes);
+          }
+        }
+      }
+      remainingBytes -= grantedBytes;
+    }
+  }
+
+  private boolean isTotalTargetBufferBytesReached() {
+    return totalTargetBufferBytes != C.LENGTH_UNSET
+        && allocator.getTotalBytesAllocated() >= totalTargetBufferBytes;
+  }
+
+  private static int getPriority(PlayerId playerId, boolean playWhenReady) {
+    if (playerId.equals(PlayerId.PRELOAD)) {
+      return PRIORITY_PRELOAD;
+    }
+    return playWhenReady ? PRIORITY_PLAYING : PRIORITY_PAUSED;
+  }
+
   private void updateAllocator() {
     if (loadingStates.isEmpty()) {
       allocator.reset();
@@ -1020,7 +1222,9 @@ public class DefaultLoadControl implements LoadControl {
   private static class PlayerLoadingState {
     public int referenceCount;
     public boolean isLoading;
+    public int requestedTargetBufferBytes;
     public int targetBufferBytes;
+    public int priority;
 
     @GuardedBy("this")
     private int allocatedCounts;
@@ -305,6 +305,7 @@ public interface ExoPlayer extends Player {
     /* package */ SuitableOutputChecker suitableOutputChecker;
     /* package */ boolean enforceAdPlaybackOnTimelineRefresh;
     /* package */ boolean perStreamMediaProgressionEnabled;
+    @Nullable /* package */ PlaybackLoopStats playbackLoopStats;
 
     /**
      * Creates a builder.
@@ -1238,6 +1239,25 @@ public interface ExoPlayer extends Player {
       return this;
     }
 
+    /**
+     * Sets the {@link PlaybackLoopStats} in which the player records the time spent in each phase
+     * of its playback loop.
+     *
+     * <p>The default value is {@code null}, in which case no timings are recorded. An instance can
+     * only be set on one player.
+     *
+     * @param playbackLoopStats The {@link PlaybackLoopStats}, or {@code null}.
+     * @return This builder.
+     * @throws IllegalStateException If {@link #build()} has already been called.
+     */
+    @CanIgnoreReturnValue
+    @UnstableApi
+    public Builder setPlaybackLoopStats(@Nullable PlaybackLoopStats playbackLoopStats) {
+      checkState(!buildCalled);
+      this.playbackLoopStats = playbackLoopStats;
+      return this;
+    }
+
     /**
      * Sets the {@link Clock} that will be used by the player. Should only be set for testing
      * purposes.
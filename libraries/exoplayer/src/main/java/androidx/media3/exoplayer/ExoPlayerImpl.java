@@ -182,6 +182,7 @@ import java.util.function.IntConsumer;
   private final Looper applicationLooper;
   private final BandwidthMeter bandwidthMeter;
   private final Clock clock;
+  @Nullable private final PlaybackLoopStats playbackLoopStats;
   private final ComponentListener componentListener;
   private final FrameMetadataListener frameMetadataListener;
   private final AudioBecomingNoisyManager audioBecomingNoisyManager;
@@ -318,6 +319,7 @@ import java.util.function.IntConsumer;
       this.enforceAdPlaybackOnTimelineRefresh = builder.enforceAdPlaybackOnTimelineRefresh;
       this.applicationLooper = builder.looper;
       this.clock = builder.clock;
+      this.playbackLoopStats = builder.playbackLoopStats;
       this.wrappingPlayer = wrappingPlayer == null ? this : wrappingPlayer;
       this.lastReturnedPositionUs = C.TIME_UNSET;
       listeners =
@@ -405,7 +407,8 @@ import java.util.function.IntConsumer;
               builder.playbackLooperProvider,
               preloadConfiguration,
               frameMetadataListener,
-              builder.enforceAdPlaybackOnTimelineRefresh);
+              builder.enforceAdPlaybackOnTimelineRefresh,
+              playbackLoopStats);
       Looper playbackLooper = internalPlayer.getPlaybackLooper();
 
       volume = 1;
@@ -2239,6 +2242,7 @@ import java.util.function.IntConsumer;
   }
 
   private void handlePlaybackInfo(ExoPlayerImplInternal.PlaybackInfoUpdate playbackInfoUpdate) {
+    long startTimeNs = playbackLoopStats != null ? clock.nanoTime() : 0;
     pendingOperationAcks -= playbackInfoUpdate.operationAcks;
     if (playbackInfoUpdate.positionDiscontinuity) {
       pendingDiscontinuityReason = playbackInfoUpdate.discontinuityReason;
@@ -2292,6 +2296,10 @@ import java.util.function.IntConsumer;
           oldMaskingMediaItemIndex,
           /* repeatCurrentMediaItem= */ false);
     }
+    if (playbackLoopStats != null) {
+      playbackLoopStats.addPhaseDurationNs(
+          PlaybackLoopStats.PHASE_PLAYBACK_INFO_DISPATCH, clock.nanoTime() - startTimeNs);
+    }
   }
 
   // Calling deprecated listeners.
@@ -2725,13 +2733,14 @@ import java.util.function.IntConsumer;
   private List<MediaSourceList.MediaSourceHolder> addMediaSourceHolders(
       int index, List<MediaSource> mediaSources) {
     List<MediaSourceList.MediaSourceHolder> holders = new ArrayList<>();
+    List<MediaSourceHolderSnapshot> snapshots = new ArrayList<>();
     for (int i = 0; i < mediaSources.size(); i++) {
       MediaSourceList.MediaSourceHolder holder =
           new MediaSourceList.MediaSourceHolder(mediaSources.get(i), useLazyPreparation);
       holders.add(holder);
-      mediaSourceHolderSnapshots.add(
-          i + index, new MediaSourceHolderSnapshot(holder.uid, holder.mediaSource));
+      snapshots.add(new MediaSourceHolderSnapshot(holder.uid, holder.mediaSource));
     }
+    mediaSourceHolderSnapshots.addAll(index, snapshots);
     shuffleOrder =
         shuffleOrder.cloneAndInsert(
             /* insertionIndex= */ index, /* insertionCount= */ holders.size());
@@ -2790,9 +2799,7 @@ import java.util.function.IntConsumer;
   }
 
   private void removeMediaSourceHolders(int fromIndex, int toIndexExclusive) {
-    for (int i = toIndexExclusive - 1; i >= fromIndex; i--) {
-      mediaSourceHolderSnapshots.remove(i);
-    }
+    mediaSourceHolderSnapshots.subList(fromIndex, toIndexExclusive).clear();
     shuffleOrder = shuffleOrder.cloneAndRemove(fromIndex, toIndexExclusive);
   }
 
@@ -244,6 +244,7 @@ import java.util.Objects;
   private final HandlerWrapper applicationLooperHandler;
   private final boolean hasSecondaryRenderers;
   private final AudioFocusManager audioFocusManager;
+  @Nullable private final PlaybackLoopStats playbackLoopStats;
   private boolean enforceAdPlaybackOnTimelineRefresh;
   private SeekParameters seekParameters;
   private ScrubbingModeParameters scrubbingModeParameters;
@@ -304,7 +305,8 @@ import java.util.Objects;
       @Nullable PlaybackLooperProvider playbackLooperProvider,
       PreloadConfiguration preloadConfiguration,
       VideoFrameMetadataListener videoFrameMetadataListener,
-      boolean enforceAdPlaybackOnTimelineRefresh) {
+      boolean enforceAdPlaybackOnTimelineRefresh,
+      @Nullable PlaybackLoopStats playbackLoopStats) {
     this.playbackInfoUpdateListener = playbackInfoUpdateListener;
     this.trackSelector = trackSelector;
     this.emptyTrackSelectorResult = emptyTrackSelectorResult;
@@ -328,6 +330,10 @@ import java.util.Objects;
     this.volume = 1f;
     this.scrubbingModeParameters = ScrubbingModeParameters.DEFAULT;
     this.enforceAdPlaybackOnTimelineRefresh = enforceAdPlaybackOnTimelineRefresh;
+    this.playbackLoopStats = playbackLoopStats;
+    if (playbackLoopStats != null) {
+      playbackLoopStats.attach(renderers.length);
+    }
 
     playbackMaybeBecameStuckAtMs = C.TIME_UNSET;
     lastRebufferRealtimeMs = C.TIME_UNSET;
@@ -1450,6 +1456,7 @@ import java.util.Objects;
 
   private void doSomeWork() throws ExoPlaybackException, IOException {
     long operationStartTimeMs = clock.uptimeMillis();
+    long doSomeWorkStartTimeNs = getPlaybackLoopTimeNs();
     // Remove other pending DO_SOME_WORK requests that are handled by this invocation.
     handler.removeMessages(MSG_DO_SOME_WORK);
 
@@ -1460,17 +1467,22 @@ import java.util.Objects;
     }
 
     updatePeriods();
+    addPlaybackLoopPhaseDuration(PlaybackLoopStats.PHASE_UPDATE_PERIODS, doSomeWorkStartTimeNs);
 
     @Nullable MediaPeriodHolder playingPeriodHolder = queue.getPlayingPeriod();
     if (playingPeriodHolder == null) {
       // We're still waiting until the playing period is available.
       scheduleNextWork(operationStartTimeMs);
+      addPlaybackLoopPhaseDuration(PlaybackLoopStats.PHASE_DO_SOME_WORK, doSomeWorkStartTimeNs);
       return;
     }
 
     TraceUtil.beginSection("doSomeWork");
 
+    long updatePlaybackPositionsStartTimeNs = getPlaybackLoopTimeNs();
     updatePlaybackPositions();
+    addPlaybackLoopPhaseDuration(
+        PlaybackLoopStats.PHASE_UPDATE_PLAYBACK_POSITIONS, updatePlaybackPositionsStartTimeNs);
 
     boolean renderersEnded = true;
     boolean renderersAllowPlayback = true;
@@ -1478,13 +1490,19 @@ import java.util.Objects;
       rendererPositionElapsedRealtimeUs = msToUs(clock.elapsedRealtime());
       playingPeriodHolder.mediaPeriod.discardBuffer(
           playbackInfo.positionUs - backBufferDurationUs, retainBackBufferFromKeyframe);
+      long renderStartTimeNs = getPlaybackLoopTimeNs();
       for (int i = 0; i < renderers.length; i++) {
         RendererHolder renderer = renderers[i];
         if (renderer.getEnabledRendererCount() == 0) {
           maybeTriggerOnRendererReadyChanged(/* rendererIndex= */ i, /* allowsPlayback= */ false);
           continue;
         }
+        long rendererStartTimeNs = getPlaybackLoopTimeNs();
         renderer.render(rendererPositionUs, rendererPositionElapsedRealtimeUs);
+        if (playbackLoopStats != null) {
+          playbackLoopStats.addRendererDurationNs(
+              /* rendererIndex= */ i, clock.nanoTime() - rendererStartTimeNs);
+        }
         // Determine whether the renderer allows playback to continue. Playback can
         // continue if the renderer is ready or ended. Also continue playback if the renderer is
         // reading ahead into the next stream or is waiting for the next stream. This is to avoid
@@ -1498,6 +1516,7 @@ import java.util.Objects;
           maybeThrowRendererStreamError(/* rendererIndex= */ i);
         }
       }
+      addPlaybackLoopPhaseDuration(PlaybackLoopStats.PHASE_RENDER, renderStartTimeNs);
       maybeEndPendingScrubbingSeek();
     } else {
       playingPeriodHolder.mediaPeriod.maybeThrowPrepareError();
@@ -1591,9 +1610,24 @@ import java.util.Objects;
       scheduleNextWork(operationStartTimeMs);
     }
 
+    addPlaybackLoopPhaseDuration(PlaybackLoopStats.PHASE_DO_SOME_WORK, doSomeWorkStartTimeNs);
     TraceUtil.endSection();
   }
 
+  /**
+   * Returns the current time for measuring a {@link PlaybackLoopStats.Phase}, or 0 if no {@link
+   * PlaybackLoopStats} are recorded.
+   */
+  private long getPlaybackLoopTimeNs() {
+    return playbackLoopStats != null ? clock.nanoTime() : 0;
+  }
+
+  private void addPlaybackLoopPhaseDuration(@PlaybackLoopStats.Phase int phase, long startTimeNs) {
+    if (playbackLoopStats != null) {
+      playbackLoopStats.addPhaseDurationNs(phase, clock.nanoTime() - startTimeNs);
+    }
+  }
+
   private void maybeTriggerOnRendererReadyChanged(int rendererIndex, boolean allowsPlayback) {
     if (rendererReportedReady[rendererIndex] != allowsPlayback) {
       rendererReportedReady[rendererIndex] = allowsPlayback;
@@ -148,22 +148,13 @@ import java.util.Set;
       int index, List<MediaSourceHolder> holders, ShuffleOrder shuffleOrder) {
     if (!holders.isEmpty()) {
       this.shuffleOrder = shuffleOrder;
-      for (int insertionIndex = index; insertionIndex < index + holders.size(); insertionIndex++) {
-        MediaSourceHolder holder = holders.get(insertionIndex - index);
-        if (insertionIndex > 0) {
-          MediaSourceHolder previousHolder = mediaSourceHolders.get(insertionIndex - 1);
-          Timeline previousTimeline = previousHolder.mediaSource.getTimeline();
-          holder.reset(
-              /* firstWindowIndexInChild= */ previousHolder.firstWindowIndexInChild
-                  + previousTimeline.getWindowCount());
-        } else {
-          holder.reset(/* firstWindowIndexInChild= */ 0);
-        }
-        Timeline newTimeline = holder.mediaSource.getTimeline();
-        correctOffsets(
-            /* startIndex= */ insertionIndex,
-            /* windowOffsetUpdate= */ newTimeline.getWindowCount());
-        mediaSourceHolders.add(insertionIndex, holder);
+      for (int i = 0; i < holders.size(); i++) {
+        holders.get(i).reset(/* firstWindowIndexInChild= */ 0);
+      }
+      mediaSourceHolders.addAll(index, holders);
+      correctOffsets(/* startIndex= */ index);
+      for (int i = 0; i < holders.size(); i++) {
+        MediaSourceHolder holder = holders.get(i);
         mediaSourceByUid.put(holder.uid, holder);
         if (isPrepared) {
           prepareChildSource(holder);
@@ -424,23 +415,35 @@ import java.util.Set;
   }
 
   private void removeMediaSourcesInternal(int fromIndex, int toIndex) {
-    for (int index = toIndex - 1; index >= fromIndex; index--) {
-      MediaSourceHolder holder = mediaSourceHolders.remove(index);
+    List<MediaSourceHolder> removedHolders = mediaSourceHolders.subList(fromIndex, toIndex);
+    for (int i = removedHolders.size() - 1; i >= 0; i--) {
+      MediaSourceHolder holder = removedHolders.get(i);
       mediaSourceByUid.remove(holder.uid);
-      Timeline oldTimeline = holder.mediaSource.getTimeline();
-      correctOffsets(
-          /* startIndex= */ index, /* windowOffsetUpdate= */ -oldTimeline.getWindowCount());
       holder.isRemoved = true;
       if (isPrepared) {
         maybeReleaseChildSource(holder);
       }
     }
+    removedHolders.clear();
+    correctOffsets(/* startIndex= */ fromIndex);
   }
 
-  private void correctOffsets(int startIndex, int windowOffsetUpdate) {
+  /**
+   * Updates {@link MediaSourceHolder#firstWindowIndexInChild} of the holders from {@code
+   * startIndex} onwards, based on the holder before them.
+   */
+  private void correctOffsets(int startIndex) {
+    int windowOffset = 0;
+    if (startIndex > 0) {
+      MediaSourceHolder previousHolder = mediaSourceHolders.get(startIndex - 1);
+      windowOffset =
+          previousHolder.firstWindowIndexInChild
+              + previousHolder.mediaSource.getTimeline().getWindowCount();
+    }
     for (int i = startIndex; i < mediaSourceHolders.size(); i++) {
       MediaSourceHolder mediaSourceHolder = mediaSourceHolders.get(i);
-      mediaSourceHolder.firstWindowIndexInChild += windowOffsetUpdate;
+      mediaSourceHolder.firstWindowIndexInChild = windowOffset;
+      windowOffset += mediaSourceHolder.mediaSource.getTimeline().getWindowCount();
     }
   }
 
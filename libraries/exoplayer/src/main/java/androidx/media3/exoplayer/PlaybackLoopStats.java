@@ -0,0 +1,239 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.media3.exoplayer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.lang.Math.min;
+import static java.lang.annotation.ElementType.TYPE_USE;
+
+import androidx.annotation.IntDef;
+import androidx.media3.common.util.UnstableApi;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograms of the time that an {@link ExoPlayer} spends in each phase of its playback loop, and
+ * in the {@link Renderer#render} calls of each of its renderers.
+ *
+ * <p>An instance is attached to a player by passing it to {@link
+ * ExoPlayer.Builder#setPlaybackLoopStats}. All storage is allocated when the player is built, so
+ * recording a duration doesn't allocate and only costs a few atomic updates. The histograms can be
+ * read from any thread while the player is running.
+ *
+ * <p>Durations are counted in {@link #BUCKET_COUNT} buckets whose bounds are powers of two
+ * microseconds. Bucket 0 counts durations shorter than 1 µs, bucket {@code i} (for {@code 0 < i <
+ * BUCKET_COUNT - 1}) counts durations from 2<sup>i - 1</sup> µs (inclusive) to 2<sup>i</sup> µs
+ * (exclusive), and the last bucket counts all longer durations.
+ */
+@UnstableApi
+public final class PlaybackLoopStats {
+
+  /**
+   * A phase of the playback loop. One of {@link #PHASE_DO_SOME_WORK}, {@link
+   * #PHASE_UPDATE_PERIODS}, {@link #PHASE_UPDATE_PLAYBACK_POSITIONS}, {@link #PHASE_RENDER} or
+   * {@link #PHASE_PLAYBACK_INFO_DISPATCH}.
+   */
+  @Documented
+  @Retention(RetentionPolicy.SOURCE)
+  @Target(TYPE_USE)
+  @IntDef({
+    PHASE_DO_SOME_WORK,
+    PHASE_UPDATE_PERIODS,
+    PHASE_UPDATE_PLAYBACK_POSITIONS,
+    PHASE_RENDER,
+    PHASE_PLAYBACK_INFO_DISPATCH
+  })
+  public @interface Phase {}
+
+  /** A whole iteration of the playback loop on the playback thread, including all other phases. */
+  public static final int PHASE_DO_SOME_WORK = 0;
+
+  /**
+   * Updating the loading, reading and playing periods, including deciding whether to continue
+   * loading.
+   */
+  public static final int PHASE_UPDATE_PERIODS = 1;
+
+  /** Updating the playback position and the buffered position. */
+  public static final int PHASE_UPDATE_PLAYBACK_POSITIONS = 2;
+
+  /** Calling {@link Renderer#render} on all enabled renderers. */
+  public static final int PHASE_RENDER = 3;
+
+  /**
+   * Handling a playback info update on the application thread, including notifying listeners of
+   * the resulting events.
+   */
+  public static final int PHASE_PLAYBACK_INFO_DISPATCH = 4;
+
+  /** The number of buckets in each histogram. */
+  public static final int BUCKET_COUNT = 24;
+
+  private static final int PHASE_COUNT = 5;
+
+  private final Histogram[] phaseHistograms;
+
+  private volatile Histogram[] rendererHistograms;
+
+  /** Creates an instance. */
+  public PlaybackLoopStats() {
+    phaseHistograms = new Histogram[PHASE_COUNT];
+    for (int i = 0; i < PHASE_COUNT; i++) {
+      phaseHistograms[i] = new Histogram();
+    }
+    rendererHistograms = new Histogram[0];
+  }
+
+  /** Returns the {@link Histogram} of the durations of a {@link Phase}. */
+  public Histogram getPhaseHistogram(@Phase int phase) {
+    return phaseHistograms[phase];
+  }
+
+  /**
+   * Returns the number of renderers of the player, or 0 if the instance isn't attached to a player
+   * yet.
+   */
+  public int getRendererCount() {
+    return rendererHistograms.length;
+  }
+
+  /**
+   * Returns the {@link Histogram} of the durations of the {@link Renderer#render} calls of the
+   * renderer at {@code rendererIndex}.
+   *
+   * @param rendererIndex The index of the renderer, as in {@link ExoPlayer#getRenderer(int)}.
+   */
+  public Histogram getRendererHistogram(int rendererIndex) {
+    return rendererHistograms[rendererIndex];
+  }
+
+  /** Clears all histograms. */
+  public void reset() {
+    for (Histogram histogram : phaseHistograms) {
+      histogram.reset();
+    }
+    for (Histogram histogram : rendererHistograms) {
+      histogram.reset();
+    }
+  }
+
+  /**
+   * Allocates the histograms of the player's renderers. Must be called once, before any renderer
+   * durations are added.
+   */
+  /* package */ void attach(int rendererCount) {
+    checkState(rendererHistograms.length == 0, "Already attached to a player");
+    Histogram[] rendererHistograms = new Histogram[rendererCount];
+    for (int i = 0; i < rendererCount; i++) {
+      rendererHistograms[i] = new Histogram();
+    }
+    this.rendererHistograms = rendererHistograms;
+  }
+
+  /** Adds the duration of a {@link Phase}, in nanoseconds. */
+  /* package */ void addPhaseDurationNs(@Phase int phase, long durationNs) {
+    phaseHistograms[phase].add(durationNs);
+  }
+
+  /** Adds the duration of a {@link Renderer#render} call, in nanoseconds. */
+  /* package */ void addRendererDurationNs(int rendererIndex, long durationNs) {
+    rendererHistograms[rendererIndex].add(durationNs);
+  }
+
+  /** A histogram of durations. */
+  public static final class Histogram {
+
+    private final AtomicLongArray bucketCounts;
+    private final AtomicLong count;
+    private final AtomicLong totalDurationNs;
+    private final AtomicLong maxDurationNs;
+
+    private Histogram() {
+      bucketCounts = new AtomicLongArray(BUCKET_COUNT);
+      count = new AtomicLong();
+      totalDurationNs = new AtomicLong();
+      maxDurationNs = new AtomicLong();
+    }
+
+    /** Returns the number of durations added to the histogram. */
+    public long getCount() {
+      return count.get();
+    }
+
+    /** Returns the sum of the durations added to the histogram, in microseconds. */
+    public long getTotalDurationUs() {
+      return totalDurationNs.get() / 1000;
+    }
+
+    /** Returns the longest duration added to the histogram, in microseconds. */
+    public long getMaxDurationUs() {
+      return maxDurationNs.get() / 1000;
+    }
+
+    /**
+     * Returns the number of durations counted in a bucket.
+     *
+     * @param bucketIndex The index of the bucket, from 0 to {@link PlaybackLoopStats#BUCKET_COUNT}
+     *     - 1.
+     */
+    public long getBucketCount(int bucketIndex) {
+      return bucketCounts.get(bucketIndex);
+    }
+
+    /**
+     * Returns the exclusive upper bound of the durations counted in a bucket, in microseconds, or
+     * {@link Long#MAX_VALUE} for the last bucket.
+     *
+     * @param bucketIndex The index of the bucket, from 0 to {@link PlaybackLoopStats#BUCKET_COUNT}
+     *     - 1.
+     */
+    public static long getBucketUpperBoundUs(int bucketIndex) {
+      checkArgument(bucketIndex >= 0 && bucketIndex < BUCKET_COUNT);
+      return bucketIndex == BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << bucketIndex;
+    }
+
+    private void add(long durationNs) {
+      if (durationNs < 0) {
+        // The clock isn't monotonic.
+        return;
+      }
+      long durationUs = durationNs / 1000;
+      int bucketIndex = min(64 - Long.numberOfLeadingZeros(durationUs), BUCKET_COUNT - 1);
+      bucketCounts.incrementAndGet(bucketIndex);
+      count.incrementAndGet();
+      totalDurationNs.addAndGet(durationNs);
+      long maxDurationNs = this.maxDurationNs.get();
+      while (durationNs > maxDurationNs
+          && !this.maxDurationNs.compareAndSet(maxDurationNs, durationNs)) {
+        maxDurationNs = this.maxDurationNs.get();
+      }
+    }
+
+    private void reset() {
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        bucketCounts.set(i, 0);
+      }
+      count.set(0);
+      totalDurationNs.set(0);
+      maxDurationNs.set(0);
+    }
+  }
+}
@@ -56,6 +56,10 @@ import java.util.Objects;
  *
  * <p>Playback stats are gathered separately for each playback session, i.e. each window in the
  * {@link Timeline} and each single ad.
+ *
+ * <p>For long sessions, such as continuous live streams, memory use can be kept constant by not
+ * keeping a history of events, or by limiting the size of each history, and by periodically
+ * calling {@link #getCombinedPlaybackStatsAndReset()}.
  */
 @UnstableApi
 public final class PlaybackStatsListener
@@ -79,6 +83,7 @@ public final class PlaybackStatsListener
   private final Map<String, EventTime> sessionStartEventTimes;
   @Nullable private final Callback callback;
   private final boolean keepHistory;
+  private final int maxHistorySize;
   private final Period period;
 
   private PlaybackStats finishedPlaybackStats;
@@ -102,8 +107,24 @@ public final class PlaybackStatsListener
    * @param callback An optional callback for finished {@link PlaybackStats}.
    */
   public PlaybackStatsListener(boolean keepHistory, @Nullable Callback callback) {
+    this(keepHistory, /* maxHistorySize= */ C.LENGTH_UNSET, callback);
+  }
+
+  /**
+   * Creates listener for playback stats.
+   *
+   * @param keepHistory Whether the reported {@link PlaybackStats} should keep a history of events.
+   * @param maxHistorySize The maximum number of entries kept in each history of the reported
+   *     {@link PlaybackStats}, or {@link C#LENGTH_UNSET} to keep the full history. If the limit is
+   *     reached, the oldest entries are discarded.
+   * @param callback An optional callback for finished {@link PlaybackStats}.
+   */
+  public PlaybackStatsListener(
+      boolean keepHistory, int maxHistorySize, @Nullable Callback callback) {
+    checkArgument(maxHistorySize == C.LENGTH_UNSET || maxHistorySize > 0);
     this.callback = callback;
     this.keepHistory = keepHistory;
+    this.maxHistorySize = maxHistorySize;
     sessionManager = new DefaultPlaybackSessionManager();
     playbackStatsTrackers = new HashMap<>();
     sessionStartEventTimes = new HashMap<>();
@@ -131,6 +152,31 @@ public final class PlaybackStatsListener
     return PlaybackStats.merge(allPendingPlaybackStats);
   }
 
+  /**
+   * Returns the combined {@link PlaybackStats} as {@link #getCombinedPlaybackStats()} does, and
+   * resets them, so that the next call only covers the time after this call.
+   *
+   * <p>Playback sessions that are ongoing are included in the returned {@link PlaybackStats} and in
+   * those returned by later calls, but their join time and initial formats are only reported in
+   * the first one. The {@link PlaybackStats} reported to the {@link Callback} when such a session
+   * ends also only cover the time after the last call.
+   *
+   * @return The combined {@link PlaybackStats} since the last call, or since the listener was
+   *     created if it's the first call.
+   */
+  public PlaybackStats getCombinedPlaybackStatsAndReset() {
+    long nowMs = SystemClock.elapsedRealtime();
+    PlaybackStats[] allPendingPlaybackStats = new PlaybackStats[playbackStatsTrackers.size() + 1];
+    allPendingPlaybackStats[0] = finishedPlaybackStats;
+    int index = 1;
+    for (PlaybackStatsTracker tracker : playbackStatsTrackers.values()) {
+      allPendingPlaybackStats[index++] = tracker.build(/* isFinal= */ false, nowMs);
+      tracker.reset(nowMs);
+    }
+    finishedPlaybackStats = PlaybackStats.EMPTY;
+    return PlaybackStats.merge(allPendingPlaybackStats);
+  }
+
   /**
    * Returns the {@link PlaybackStats} for the currently playback session, or null if no session is
    * active.
@@ -150,7 +196,8 @@ public final class PlaybackStatsListener
 
   @Override
   public void onSessionCreated(EventTime eventTime, String sessionId) {
-    PlaybackStatsTracker tracker = new PlaybackStatsTracker(keepHistory, eventTime);
+    PlaybackStatsTracker tracker =
+        new PlaybackStatsTracker(keepHistory, maxHistorySize, eventTime);
     playbackStatsTrackers.put(sessionId, tracker);
     sessionStartEventTimes.put(sessionId, eventTime);
   }
@@ -357,6 +404,7 @@ public final class PlaybackStatsListener
 
     // Final stats.
     private final boolean keepHistory;
+    private final int maxHistorySize;
     private final long[] playbackStateDurationsMs;
     private final List<EventTimeAndPlaybackState> playbackStateHistory;
     private final List<long[]> mediaTimeHistory;
@@ -390,6 +438,7 @@ public final class PlaybackStatsListener
     private long audioUnderruns;
     private int fatalErrorCount;
     private int nonFatalErrorCount;
+    private boolean hasBeenReset;
 
     // Current player state tracking.
     private @PlaybackState int currentPlaybackState;
@@ -409,11 +458,14 @@ public final class PlaybackStatsListener
     /**
      * Creates a tracker for playback stats.
      *
-     * @param keepHistory Whether to keep a full history of events.
+     * @param keepHistory Whether to keep a history of events.
+     * @param maxHistorySize The maximum number of entries to keep in each history, or {@link
+     *     C#LENGTH_UNSET} for no limit.
      * @param startTime The {@link EventTime} at which the playback stats start.
      */
-    public PlaybackStatsTracker(boolean keepHistory, EventTime startTime) {
+    public PlaybackStatsTracker(boolean keepHistory, int maxHistorySize, EventTime startTime) {
       this.keepHistory = keepHistory;
+      this.maxHistorySize = maxHistorySize;
       playbackStateDurationsMs = new long[PlaybackStats.PLAYBACK_STATE_COUNT];
       playbackStateHistory = keepHistory ? new ArrayList<>() : Collections.emptyList();
       mediaTimeHistory = keepHistory ? new ArrayList<>() : Collections.emptyList();
@@ -519,7 +571,7 @@ public final class PlaybackStatsListener
         hasFatalError = true;
         fatalErrorCount++;
         if (keepHistory) {
-          fatalErrorHistory.add(new EventTimeAndException(eventTime, fatalError));
+          addToHistory(fatalErrorHistory, new EventTimeAndException(eventTime, fatalError));
         }
       } else if (player.getPlayerError() == null) {
         hasFatalError = false;
@@ -562,7 +614,8 @@ public final class PlaybackStatsListener
       if (nonFatalException != null) {
         nonFatalErrorCount++;
         if (keepHistory) {
-          nonFatalErrorHistory.add(new EventTimeAndException(eventTime, nonFatalException));
+          addToHistory(
+              nonFatalErrorHistory, new EventTimeAndException(eventTime, nonFatalException));
         }
       }
 
@@ -587,10 +640,20 @@ public final class PlaybackStatsListener
      * @param isFinal Whether this is the final build and no further events are expected.
      */
     public PlaybackStats build(boolean isFinal) {
+      return build(isFinal, SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * Builds the playback stats.
+     *
+     * @param isFinal Whether this is the final build and no further events are expected.
+     * @param buildTimeMs The {@link SystemClock#elapsedRealtime()} at which the stats are built.
+     *     Only used if {@code isFinal} is false.
+     */
+    public PlaybackStats build(boolean isFinal, long buildTimeMs) {
       long[] playbackStateDurationsMs = this.playbackStateDurationsMs;
-      List<long[]> mediaTimeHistory = this.mediaTimeHistory;
+      List<long[]> mediaTimeHistory = getRecentHistory(this.mediaTimeHistory);
       if (!isFinal) {
-        long buildTimeMs = SystemClock.elapsedRealtime();
         playbackStateDurationsMs =
             Arrays.copyOf(this.playbackStateDurationsMs, PlaybackStats.PLAYBACK_STATE_COUNT);
         long lastStateDurationMs = max(0, buildTimeMs - currentPlaybackStateStartTimeMs);
@@ -598,7 +661,7 @@ public final class PlaybackStatsListener
         maybeUpdateMaxRebufferTimeMs(buildTimeMs);
         maybeRecordVideoFormatTime(buildTimeMs);
         maybeRecordAudioFormatTime(buildTimeMs);
-        mediaTimeHistory = new ArrayList<>(this.mediaTimeHistory);
+        mediaTimeHistory = new ArrayList<>(mediaTimeHistory);
         if (keepHistory && currentPlaybackState == PlaybackStats.PLAYBACK_STATE_PLAYING) {
           mediaTimeHistory.add(guessMediaTimeBasedOnElapsedRealtime(buildTimeMs));
         }
@@ -610,14 +673,13 @@ public final class PlaybackStatsListener
               : playbackStateDurationsMs[PlaybackStats.PLAYBACK_STATE_JOINING_FOREGROUND];
       boolean hasBackgroundJoin =
           playbackStateDurationsMs[PlaybackStats.PLAYBACK_STATE_JOINING_BACKGROUND] > 0;
-      List<EventTimeAndFormat> videoHistory =
-          isFinal ? videoFormatHistory : new ArrayList<>(videoFormatHistory);
-      List<EventTimeAndFormat> audioHistory =
-          isFinal ? audioFormatHistory : new ArrayList<>(audioFormatHistory);
+      List<EventTimeAndFormat> videoHistory = getRecentHistory(videoFormatHistory, isFinal);
+      List<EventTimeAndFormat> audioHistory = getRecentHistory(audioFormatHistory, isFinal);
+      boolean reportInitialFormats = !hasBeenReset;
       return new PlaybackStats(
           /* playbackCount= */ 1,
           playbackStateDurationsMs,
-          isFinal ? playbackStateHistory : new ArrayList<>(playbackStateHistory),
+          getRecentHistory(playbackStateHistory, isFinal),
           mediaTimeHistory,
           firstReportedTimeMs,
           /* foregroundPlaybackCount= */ isForeground ? 1 : 0,
@@ -640,12 +702,21 @@ public final class PlaybackStatsListener
           videoFormatBitrateTimeProduct,
           audioFormatTimeMs,
           audioFormatBitrateTimeProduct,
-          /* initialVideoFormatHeightCount= */ initialVideoFormatHeight == C.LENGTH_UNSET ? 0 : 1,
-          /* initialVideoFormatBitrateCount= */ initialVideoFormatBitrate == C.LENGTH_UNSET ? 0 : 1,
-          initialVideoFormatHeight,
-          initialVideoFormatBitrate,
-          /* initialAudioFormatBitrateCount= */ initialAudioFormatBitrate == C.LENGTH_UNSET ? 0 : 1,
-          initialAudioFormatBitrate,
+          /* initialVideoFormatHeightCount= */ reportInitialFormats
+                  && initialVideoFormatHeight != C.LENGTH_UNSET
+              ? 1
+              : 0,
+          /* initialVideoFormatBitrateCount= */ reportInitialFormats
+                  && initialVideoFormatBitrate != C.LENGTH_UNSET
+              ? 1
+              : 0,
+          reportInitialFormats ? initialVideoFormatHeight : C.LENGTH_UNSET,
+          reportInitialFormats ? initialVideoFormatBitrate : C.LENGTH_UNSET,
+          /* initialAudioFormatBitrateCount= */ reportInitialFormats
+                  && initialAudioFormatBitrate != C.LENGTH_UNSET
+              ? 1
+              : 0,
+          reportInitialFormats ? initialAudioFormatBitrate : C.LENGTH_UNSET,
           bandwidthTimeMs,
           bandwidthBytes,
           droppedFrames,
@@ -653,8 +724,51 @@ public final class PlaybackStatsListener
           /* fatalErrorPlaybackCount= */ fatalErrorCount > 0 ? 1 : 0,
           fatalErrorCount,
           nonFatalErrorCount,
-          fatalErrorHistory,
-          nonFatalErrorHistory);
+          getRecentHistory(fatalErrorHistory, isFinal),
+          getRecentHistory(nonFatalErrorHistory, isFinal));
+    }
+
+    /**
+     * Resets the stats to cover only the time after {@code nowMs}, keeping the current player
+     * state. Must be called after {@link #build(boolean, long)} was called with the same time.
+     *
+     * @param nowMs The {@link SystemClock#elapsedRealtime()} from which the stats start again.
+     */
+    public void reset(long nowMs) {
+      Arrays.fill(playbackStateDurationsMs, 0);
+      // The time spent in the current state so far has already been reported, and is added again
+      // when the state changes.
+      playbackStateDurationsMs[currentPlaybackState] =
+          -max(0, nowMs - currentPlaybackStateStartTimeMs);
+      playbackStateHistory.clear();
+      if (mediaTimeHistory.size() > 1) {
+        // Keep the last entry, from which later media times are extrapolated.
+        mediaTimeHistory.subList(0, mediaTimeHistory.size() - 1).clear();
+      }
+      videoFormatHistory.clear();
+      audioFormatHistory.clear();
+      fatalErrorHistory.clear();
+      nonFatalErrorHistory.clear();
+      // The join time has already been reported, or would be incomplete.
+      isJoinTimeInvalid = true;
+      hasBeenReset = true;
+      pauseCount = 0;
+      pauseBufferCount = 0;
+      seekCount = 0;
+      rebufferCount = 0;
+      maxRebufferTimeMs = C.TIME_UNSET;
+      videoFormatHeightTimeMs = 0;
+      videoFormatHeightTimeProduct = 0;
+      videoFormatBitrateTimeMs = 0;
+      videoFormatBitrateTimeProduct = 0;
+      audioFormatTimeMs = 0;
+      audioFormatBitrateTimeProduct = 0;
+      bandwidthTimeMs = 0;
+      bandwidthBytes = 0;
+      droppedFrames = 0;
+      audioUnderruns = 0;
+      fatalErrorCount = 0;
+      nonFatalErrorCount = 0;
     }
 
     private void updatePlaybackState(@PlaybackState int newPlaybackState, EventTime eventTime) {
@@ -687,7 +801,8 @@ public final class PlaybackStatsListener
       currentPlaybackState = newPlaybackState;
       currentPlaybackStateStartTimeMs = eventTime.realtimeMs;
       if (keepHistory) {
-        playbackStateHistory.add(new EventTimeAndPlaybackState(eventTime, currentPlaybackState));
+        addToHistory(
+            playbackStateHistory, new EventTimeAndPlaybackState(eventTime, currentPlaybackState));
       }
     }
 
@@ -756,15 +871,15 @@ public final class PlaybackStatsListener
         if (!mediaTimeHistory.isEmpty()) {
           long previousMediaTimeMs = mediaTimeHistory.get(mediaTimeHistory.size() - 1)[1];
           if (previousMediaTimeMs != mediaTimeMs) {
-            mediaTimeHistory.add(new long[] {realtimeMs, previousMediaTimeMs});
+            addToHistory(mediaTimeHistory, new long[] {realtimeMs, previousMediaTimeMs});
           }
         }
       }
 
       if (mediaTimeMs != C.TIME_UNSET) {
-        mediaTimeHistory.add(new long[] {realtimeMs, mediaTimeMs});
+        addToHistory(mediaTimeHistory, new long[] {realtimeMs, mediaTimeMs});
       } else if (!mediaTimeHistory.isEmpty()) {
-        mediaTimeHistory.add(guessMediaTimeBasedOnElapsedRealtime(realtimeMs));
+        addToHistory(mediaTimeHistory, guessMediaTimeBasedOnElapsedRealtime(realtimeMs));
       }
     }
 
@@ -793,7 +908,7 @@ public final class PlaybackStatsListener
       }
       currentVideoFormat = newFormat;
       if (keepHistory) {
-        videoFormatHistory.add(new EventTimeAndFormat(eventTime, currentVideoFormat));
+        addToHistory(videoFormatHistory, new EventTimeAndFormat(eventTime, currentVideoFormat));
       }
     }
 
@@ -809,7 +924,7 @@ public final class PlaybackStatsListener
       }
       currentAudioFormat = newFormat;
       if (keepHistory) {
-        audioFormatHistory.add(new EventTimeAndFormat(eventTime, currentAudioFormat));
+        addToHistory(audioFormatHistory, new EventTimeAndFormat(eventTime, currentAudioFormat));
       }
     }
 
@@ -840,6 +955,34 @@ public final class PlaybackStatsListener
       lastAudioFormatStartTimeMs = nowMs;
     }
 
+    /**
+     * Adds an entry to a history. If the history has twice {@link #maxHistorySize} entries, the
+     * oldest entries are discarded so that it has {@link #maxHistorySize} entries again.
+     */
+    private <T> void addToHistory(List<T> history, T entry) {
+      history.add(entry);
+      if (maxHistorySize != C.LENGTH_UNSET && history.size() >= 2 * maxHistorySize) {
+        history.subList(0, history.size() - maxHistorySize).clear();
+      }
+    }
+
+    /**
+     * Returns the most recent {@link #maxHistorySize} entries of a history, copied unless {@code
+     * isFinal} is true.
+     */
+    private <T> List<T> getRecentHistory(List<T> history, boolean isFinal) {
+      List<T> recentHistory = getRecentHistory(history);
+      return isFinal ? recentHistory : new ArrayList<>(recentHistory);
+    }
+
+    /** Returns a view of the most recent {@link #maxHistorySize} entries of a history. */
+    private <T> List<T> getRecentHistory(List<T> history) {
+      if (maxHistorySize == C.LENGTH_UNSET || history.size() <= maxHistorySize) {
+        return history;
+      }
+      return history.subList(history.size() - maxHistorySize, history.size());
+    }
+
     private static boolean isReadyState(@PlaybackState int state) {
       return state == PlaybackStats.PLAYBACK_STATE_PLAYING
           || state == PlaybackStats.PLAYBACK_STATE_PAUSED
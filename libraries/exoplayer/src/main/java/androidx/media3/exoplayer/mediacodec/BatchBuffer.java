@@ -16,6 +16,8 @@
 package androidx.media3.exoplayer.mediacodec;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.Math.max;
 
 import androidx.annotation.IntRange;
 import androidx.annotation.Nullable;
@@ -24,7 +26,13 @@ import androidx.media3.common.C;
 import androidx.media3.decoder.DecoderInputBuffer;
 import java.nio.ByteBuffer;
 
-/** Buffer to which multiple sample buffers can be appended for batch processing */
+/**
+ * Buffer to which multiple sample buffers can be appended for batch processing.
+ *
+ * <p>To avoid copying sample data when it's appended, a sample buffer can be {@linkplain
+ * #prepareInPlaceBuffer prepared} so that the next sample is read directly into the free space of
+ * this buffer.
+ */
 /* package */ final class BatchBuffer extends DecoderInputBuffer {
 
   /** The default maximum number of samples that can be appended before the buffer is full. */
@@ -40,6 +48,11 @@ import java.nio.ByteBuffer;
   private long lastSampleTimeUs;
   private int sampleCount;
   private int maxSampleCount;
+  private int largestSampleSize;
+
+  @Nullable private DecoderInputBuffer inPlaceBuffer;
+  @Nullable private ByteBuffer inPlaceBufferOriginalData;
+  @Nullable private ByteBuffer freeSpace;
 
   public BatchBuffer() {
     super(DecoderInputBuffer.BUFFER_REPLACEMENT_MODE_DIRECT);
@@ -48,6 +61,7 @@ import java.nio.ByteBuffer;
 
   @Override
   public void clear() {
+    restoreInPlaceBuffer(/* copySampleData= */ false);
     super.clear();
     sampleCount = 0;
   }
@@ -84,6 +98,48 @@ import java.nio.ByteBuffer;
     return sampleCount > 0;
   }
 
+  /**
+   * Sets the {@link #data} of {@code buffer} to a view of the free space after the samples in this
+   * buffer, so that if a sample is read into {@code buffer} and then {@linkplain #append appended},
+   * its data doesn't need to be copied.
+   *
+   * <p>The original data of {@code buffer} is restored when it's appended, or when this method or
+   * {@link #clear()} is next called. If a sample that's been read into {@code buffer} isn't going
+   * to be appended before {@link #clear()} is called, {@link #releaseInPlaceBuffer()} must be
+   * called to move it into the original data.
+   *
+   * <p>Does nothing if the next sample can't be appended to this buffer in any case.
+   *
+   * @param buffer The buffer into which the next sample will be read.
+   */
+  public void prepareInPlaceBuffer(DecoderInputBuffer buffer) {
+    restoreInPlaceBuffer(/* copySampleData= */ false);
+    if (hasSamples() && sampleCount >= maxSampleCount) {
+      return;
+    }
+    @Nullable ByteBuffer currentData = data;
+    if (currentData == null || currentData.position() + largestSampleSize <= MAX_SIZE_BYTES) {
+      // Make room for a sample as large as the largest appended so far.
+      ensureSpaceForWrite(largestSampleSize);
+    }
+    ByteBuffer data = checkNotNull(this.data);
+    if (!data.hasRemaining()) {
+      return;
+    }
+    inPlaceBuffer = buffer;
+    inPlaceBufferOriginalData = buffer.data;
+    freeSpace = data.slice();
+    buffer.data = freeSpace;
+  }
+
+  /**
+   * Restores the original data of the buffer passed to {@link #prepareInPlaceBuffer}, moving any
+   * sample data that's been read into the free space of this buffer into it.
+   */
+  public void releaseInPlaceBuffer() {
+    restoreInPlaceBuffer(/* copySampleData= */ true);
+  }
+
   /**
    * Attempts to append the provided buffer.
    *
@@ -96,7 +152,12 @@ import java.nio.ByteBuffer;
     checkArgument(!buffer.isEncrypted());
     checkArgument(!buffer.hasSupplementalData());
     checkArgument(!buffer.isEndOfStream());
-    if (!canAppendSampleBuffer(buffer)) {
+    boolean canAppend = canAppendSampleBuffer(buffer);
+    if (buffer == inPlaceBuffer && (!canAppend || !isInFreeSpace(buffer))) {
+      // The sample data can't be left where it is, because the free space will be reused.
+      releaseInPlaceBuffer();
+    }
+    if (!canAppend) {
       return false;
     }
     if (sampleCount++ == 0) {
@@ -107,13 +168,55 @@ import java.nio.ByteBuffer;
     }
     @Nullable ByteBuffer bufferData = buffer.data;
     if (bufferData != null) {
-      ensureSpaceForWrite(bufferData.remaining());
-      data.put(bufferData);
+      int sampleSize = bufferData.remaining();
+      largestSampleSize = max(largestSampleSize, sampleSize);
+      if (buffer == inPlaceBuffer) {
+        // The sample data is already in place.
+        ByteBuffer data = checkNotNull(this.data);
+        data.position(data.position() + sampleSize);
+        restoreInPlaceBuffer(/* copySampleData= */ false);
+      } else {
+        ensureSpaceForWrite(sampleSize);
+        data.put(bufferData);
+      }
     }
     lastSampleTimeUs = buffer.timeUs;
     return true;
   }
 
+  /** Returns whether the data of {@code buffer} starts at the beginning of the free space. */
+  private boolean isInFreeSpace(DecoderInputBuffer buffer) {
+    @Nullable ByteBuffer bufferData = buffer.data;
+    return bufferData != null && bufferData == freeSpace && bufferData.position() == 0;
+  }
+
+  private void restoreInPlaceBuffer(boolean copySampleData) {
+    @Nullable DecoderInputBuffer buffer = inPlaceBuffer;
+    @Nullable ByteBuffer freeSpace = this.freeSpace;
+    if (buffer == null || freeSpace == null) {
+      return;
+    }
+    if (buffer.data == freeSpace) {
+      @Nullable ByteBuffer originalData = inPlaceBufferOriginalData;
+      if (copySampleData) {
+        int position = freeSpace.position();
+        int limit = freeSpace.limit();
+        if (originalData == null || originalData.capacity() < limit) {
+          originalData = ByteBuffer.allocateDirect(limit);
+        }
+        originalData.clear();
+        freeSpace.position(0);
+        originalData.put(freeSpace);
+        originalData.position(position);
+        originalData.limit(limit);
+      }
+      buffer.data = originalData;
+    }
+    inPlaceBuffer = null;
+    inPlaceBufferOriginalData = null;
+    this.freeSpace = null;
+  }
+
   private boolean canAppendSampleBuffer(DecoderInputBuffer buffer) {
     if (!hasSamples()) {
       // Always allow appending when the buffer is empty, else no progress can be made.
@@ -388,6 +388,7 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
   private long lastOutputBufferProcessedRealtimeMs;
   private boolean codecRegisteredOnBufferAvailableListener;
   private long codecHotswapDeadlineMs;
+  private long pendingFirstProcessedOutputCodecInitializingTimeMs;
   private int inputIndex;
   private int outputIndex;
   @Nullable private ByteBuffer outputBuffer;
@@ -473,6 +474,7 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
     inputIndex = C.INDEX_UNSET;
     outputIndex = C.INDEX_UNSET;
     codecHotswapDeadlineMs = C.TIME_UNSET;
+    pendingFirstProcessedOutputCodecInitializingTimeMs = C.TIME_UNSET;
     largestQueuedPresentationTimeUs = C.TIME_UNSET;
     largestQueuedPresentationTimeWithinDurationUs = C.TIME_UNSET;
     lastProcessedOutputBufferTimeUs = C.TIME_UNSET;
@@ -1171,6 +1173,7 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
     codecRegisteredOnBufferAvailableListener = false;
     codecReconfigured = false;
     codecReconfigurationState = RECONFIGURATION_STATE_NONE;
+    pendingFirstProcessedOutputCodecInitializingTimeMs = C.TIME_UNSET;
   }
 
   protected MediaCodecDecoderException createDecoderException(
@@ -1458,6 +1461,7 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
     }
 
     decoderCounters.decoderInitCount++;
+    pendingFirstProcessedOutputCodecInitializingTimeMs = codecInitializingTimestamp;
     long elapsed = codecInitializedTimestamp - codecInitializingTimestamp;
     if (Build.VERSION.SDK_INT >= 31 && !subscribedCodecParameterKeys.isEmpty()) {
       checkNotNull(getCodec())
@@ -2044,6 +2048,11 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
     // Use max even though lastProcessedOutputBufferTimeUs should be increasing for tests because
     // test codecs do not reorder samples.
     lastProcessedOutputBufferTimeUs = max(presentationTimeUs, lastProcessedOutputBufferTimeUs);
+    if (pendingFirstProcessedOutputCodecInitializingTimeMs != C.TIME_UNSET) {
+      decoderCounters.addDecoderInitToFirstProcessedOutputTime(
+          getClock().elapsedRealtime() - pendingFirstProcessedOutputCodecInitializingTimeMs);
+      pendingFirstProcessedOutputCodecInitializingTimeMs = C.TIME_UNSET;
+    }
     while (!pendingOutputStreamChanges.isEmpty()
         && presentationTimeUs >= pendingOutputStreamChanges.peek().previousStreamLastBufferTimeUs) {
       setOutputStreamInfo(checkNotNull(pendingOutputStreamChanges.poll()));
@@ -2735,6 +2744,8 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
     bypassSampleBuffer.clear();
     while (true) {
       bypassSampleBuffer.clear();
+      // Read the sample directly into the batch buffer, so that appending it doesn't copy it.
+      bypassBatchBuffer.prepareInPlaceBuffer(bypassSampleBuffer);
       @ReadDataResult int result = readSource(formatHolder, bypassSampleBuffer, /* readFlags= */ 0);
       switch (result) {
         case C.RESULT_FORMAT_READ:
@@ -2789,8 +2800,12 @@ public abstract class MediaCodecRenderer extends BaseRenderer {
               oggOpusAudioPacketizer.packetize(bypassSampleBuffer, outputFormat.initializationData);
             }
           }
-          if (!haveBypassBatchBufferAndNewSampleSameDecodeOnlyState()
-              || !bypassBatchBuffer.append(bypassSampleBuffer)) {
+          if (!haveBypassBatchBufferAndNewSampleSameDecodeOnlyState()) {
+            bypassBatchBuffer.releaseInPlaceBuffer();
+            bypassSampleBufferPending = true;
+            return;
+          }
+          if (!bypassBatchBuffer.append(bypassSampleBuffer)) {
             bypassSampleBufferPending = true;
             return;
           }
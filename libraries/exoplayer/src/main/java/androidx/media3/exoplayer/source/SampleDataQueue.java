@@ -43,6 +43,12 @@ import java.util.Arrays;
 
   private static final int INITIAL_SCRATCH_SIZE = 32;
 
+  /**
+   * The size of the array through which data is copied into allocations that are backed by a
+   * {@link ByteBuffer}.
+   */
+  private static final int BUFFER_WRITE_SCRATCH_SIZE = 16 * 1024;
+
   private final Allocator allocator;
   private final int allocationLength;
   private final ParsableByteArray scratch;
@@ -54,6 +60,7 @@ import java.util.Arrays;
 
   // Accessed only by the loading thread (or the consuming thread when there is no loading thread).
   private long totalBytesWritten;
+  @Nullable private byte[] bufferWriteScratch;
 
   public SampleDataQueue(Allocator allocator) {
     this.allocator = allocator;
@@ -177,11 +184,24 @@ import java.util.Arrays;
 
   public int sampleData(DataReader input, int length, boolean allowEndOfInput) throws IOException {
     length = preAppend(length);
-    int bytesAppended =
-        input.read(
-            writeAllocationNode.allocation.data,
-            writeAllocationNode.translateOffset(totalBytesWritten),
-            length);
+    Allocation allocation = writeAllocationNode.allocation;
+    int offset = writeAllocationNode.translateOffset(totalBytesWritten);
+    int bytesAppended;
+    if (!allocation.isBufferBacked()) {
+      bytesAppended = input.read(allocation.data, offset, length);
+    } else {
+      // DataReader can only read into an array, so read through a scratch array of bounded size.
+      if (bufferWriteScratch == null) {
+        bufferWriteScratch = new byte[min(allocationLength, BUFFER_WRITE_SCRATCH_SIZE)];
+      }
+      bytesAppended =
+          input.read(bufferWriteScratch, /* offset= */ 0, min(length, bufferWriteScratch.length));
+      if (bytesAppended != C.RESULT_END_OF_INPUT) {
+        ByteBuffer target = writeAllocationNode.getWriteView();
+        target.position(offset);
+        target.put(bufferWriteScratch, /* offset= */ 0, bytesAppended);
+      }
+    }
     if (bytesAppended == C.RESULT_END_OF_INPUT) {
       if (allowEndOfInput) {
         return C.RESULT_END_OF_INPUT;
@@ -195,10 +215,15 @@ import java.util.Arrays;
   public void sampleData(ParsableByteArray buffer, int length) {
     while (length > 0) {
       int bytesAppended = preAppend(length);
-      buffer.readBytes(
-          writeAllocationNode.allocation.data,
-          writeAllocationNode.translateOffset(totalBytesWritten),
-          bytesAppended);
+      Allocation allocation = writeAllocationNode.allocation;
+      int offset = writeAllocationNode.translateOffset(totalBytesWritten);
+      if (!allocation.isBufferBacked()) {
+        buffer.readBytes(allocation.data, offset, bytesAppended);
+      } else {
+        ByteBuffer target = writeAllocationNode.getWriteView();
+        target.position(offset);
+        buffer.readBytes(target, bytesAppended);
+      }
       length -= bytesAppended;
       postAppend(bytesAppended);
     }
@@ -408,7 +433,16 @@ import java.util.Arrays;
     while (remaining > 0) {
       int toCopy = min(remaining, (int) (allocationNode.endPosition - absolutePosition));
       Allocation allocation = allocationNode.allocation;
-      target.put(allocation.data, allocationNode.translateOffset(absolutePosition), toCopy);
+      int offset = allocationNode.translateOffset(absolutePosition);
+      if (!allocation.isBufferBacked()) {
+        target.put(allocation.data, offset, toCopy);
+      } else {
+        // Copy between the buffers directly, without going through an array.
+        ByteBuffer source = allocationNode.getReadView();
+        source.limit(offset + toCopy);
+        source.position(offset);
+        target.put(source);
+      }
       remaining -= toCopy;
       absolutePosition += toCopy;
       if (absolutePosition == allocationNode.endPosition) {
@@ -434,12 +468,15 @@ import java.util.Arrays;
     while (remaining > 0) {
       int toCopy = min(remaining, (int) (allocationNode.endPosition - absolutePosition));
       Allocation allocation = allocationNode.allocation;
-      System.arraycopy(
-          allocation.data,
-          allocationNode.translateOffset(absolutePosition),
-          target,
-          length - remaining,
-          toCopy);
+      int offset = allocationNode.translateOffset(absolutePosition);
+      if (!allocation.isBufferBacked()) {
+        System.arraycopy(allocation.data, offset, target, length - remaining, toCopy);
+      } else {
+        ByteBuffer source = allocationNode.getReadView();
+        source.limit(offset + toCopy);
+        source.position(offset);
+        source.get(target, length - remaining, toCopy);
+      }
       remaining -= toCopy;
       absolutePosition += toCopy;
       if (absolutePosition == allocationNode.endPosition) {
@@ -481,6 +518,18 @@ import java.util.Arrays;
      */
     @Nullable public AllocationNode next;
 
+    /**
+     * A view of the {@link #allocation}'s {@linkplain Allocation#getBuffer() buffer} used by the
+     * loading thread to write into it, or {@code null} if not yet created.
+     */
+    @Nullable private ByteBuffer writeView;
+
+    /**
+     * A view of the {@link #allocation}'s {@linkplain Allocation#getBuffer() buffer} used by the
+     * consuming thread to read from it, or {@code null} if not yet created.
+     */
+    @Nullable private ByteBuffer readView;
+
     /**
      * @param startPosition See {@link #startPosition}.
      * @param allocationLength The length of the {@link Allocation} with which this node will be
@@ -531,11 +580,36 @@ import java.util.Arrays;
      */
     public AllocationNode clear() {
       allocation = null;
+      writeView = null;
+      readView = null;
       AllocationNode temp = next;
       next = null;
       return temp;
     }
 
+    /**
+     * Returns the view of the {@link #allocation}'s buffer through which the loading thread writes
+     * into it. The view is created once per allocation, and its position may be changed freely.
+     */
+    public ByteBuffer getWriteView() {
+      if (writeView == null) {
+        writeView = checkNotNull(allocation).getBuffer().duplicate();
+      }
+      return writeView;
+    }
+
+    /**
+     * Returns the view of the {@link #allocation}'s buffer through which the consuming thread reads
+     * from it. The view is created once per allocation, and its position and limit may be changed
+     * freely.
+     */
+    public ByteBuffer getReadView() {
+      if (readView == null) {
+        readView = checkNotNull(allocation).getBuffer().duplicate();
+      }
+      return readView;
+    }
+
     // AllocationChainNode implementation.
 
     @Override
@@ -51,6 +51,7 @@ import androidx.media3.exoplayer.source.SampleStream.ReadFlags;
 import androidx.media3.exoplayer.upstream.Allocator;
 import androidx.media3.extractor.TrackOutput;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Objects;
 
 /** A queue of media samples. */
@@ -68,7 +69,16 @@ public class SampleQueue implements TrackOutput {
     void onUpstreamFormatChanged(Format format);
   }
 
-  @VisibleForTesting /* package */ static final int SAMPLE_CAPACITY_INCREMENT = 1000;
+  /**
+   * The number of samples whose metadata is held in each {@link SampleMetadataBlock}, which is also
+   * the amount by which the sample capacity increases when the queue is full. Must be a power of
+   * two.
+   */
+  @VisibleForTesting /* package */ static final int SAMPLE_BLOCK_SIZE = 256;
+
+  private static final int SAMPLE_BLOCK_SHIFT = Integer.numberOfTrailingZeros(SAMPLE_BLOCK_SIZE);
+  private static final int SAMPLE_BLOCK_MASK = SAMPLE_BLOCK_SIZE - 1;
+  private static final int INITIAL_SAMPLE_BLOCK_TABLE_SIZE = 4;
   private static final String TAG = "SampleQueue";
 
   /**
@@ -91,12 +101,8 @@ public class SampleQueue implements TrackOutput {
   @Nullable private DrmSession currentDrmSession;
 
   private int capacity;
-  private long[] sourceIds;
-  private long[] offsets;
-  private int[] sizes;
-  private int[] flags;
-  private long[] timesUs;
-  private @NullableType CryptoData[] cryptoDatas;
+  private @NullableType SampleMetadataBlock[] sampleMetadataBlocks;
+  private int sampleMetadataBlockCount;
 
   private int length;
   private int absoluteFirstIndex;
@@ -185,13 +191,10 @@ public class SampleQueue implements TrackOutput {
     this.drmEventDispatcher = drmEventDispatcher;
     sampleDataQueue = new SampleDataQueue(allocator);
     extrasHolder = new SampleExtrasHolder();
-    capacity = SAMPLE_CAPACITY_INCREMENT;
-    sourceIds = new long[capacity];
-    offsets = new long[capacity];
-    timesUs = new long[capacity];
-    flags = new int[capacity];
-    sizes = new int[capacity];
-    cryptoDatas = new CryptoData[capacity];
+    capacity = SAMPLE_BLOCK_SIZE;
+    sampleMetadataBlocks = new SampleMetadataBlock[INITIAL_SAMPLE_BLOCK_TABLE_SIZE];
+    sampleMetadataBlocks[0] = new SampleMetadataBlock();
+    sampleMetadataBlockCount = 1;
     sharedSampleMetadata =
         new SpannedData<>(/* removeCallback= */ metadata -> metadata.drmSessionReference.release());
     startTimeUs = Long.MIN_VALUE;
@@ -303,12 +306,12 @@ public class SampleQueue implements TrackOutput {
     if (length > 0) {
       upstreamKeyframeRequired = false;
       int relativeTailIndex = getRelativeIndex(length - 1);
-      resumeEndTimestampUs = timesUs[relativeTailIndex];
+      resumeEndTimestampUs = getTimeUs(relativeTailIndex);
 
       int duplicateCount = 0;
       for (int i = length - 1; i >= 0; i--) {
         int index = getRelativeIndex(i);
-        if (Math.abs(timesUs[index] - resumeEndTimestampUs)
+        if (Math.abs(getTimeUs(index) - resumeEndTimestampUs)
             <= EXPECT_RESUME_MAX_TIMESTAMP_DRIFT_US) {
           duplicateCount++;
         } else {
@@ -394,7 +397,7 @@ public class SampleQueue implements TrackOutput {
    */
   public final synchronized long peekSourceId() {
     int relativeReadIndex = getRelativeIndex(readPosition);
-    return hasNextSample() ? sourceIds[relativeReadIndex] : upstreamSourceId;
+    return hasNextSample() ? getSourceId(relativeReadIndex) : upstreamSourceId;
   }
 
   /** Returns the upstream {@link Format} in which samples are being queued. */
@@ -450,7 +453,7 @@ public class SampleQueue implements TrackOutput {
 
   /** Returns the timestamp of the first sample, or {@link Long#MIN_VALUE} if the queue is empty. */
   public final synchronized long getFirstTimestampUs() {
-    return length == 0 ? Long.MIN_VALUE : timesUs[relativeFirstIndex];
+    return length == 0 ? Long.MIN_VALUE : getTimeUs(relativeFirstIndex);
   }
 
   /**
@@ -572,7 +575,7 @@ public class SampleQueue implements TrackOutput {
             ? min(largestQueuedTimestampUs, readEndTimeUs)
             : largestQueuedTimestampUs;
     if (!hasNextSample()
-        || timeUs < timesUs[relativeReadIndex]
+        || timeUs < getTimeUs(relativeReadIndex)
         || (timeUs > maxPossibleSeekTimeUs && !allowTimeBeyondBuffer)) {
       return false;
     }
@@ -601,7 +604,7 @@ public class SampleQueue implements TrackOutput {
    */
   public final synchronized int getSkipCount(long timeUs, boolean allowEndOfQueue) {
     int relativeReadIndex = getRelativeIndex(readPosition);
-    if (!hasNextSample() || timeUs < timesUs[relativeReadIndex]) {
+    if (!hasNextSample() || timeUs < getTimeUs(relativeReadIndex)) {
       return 0;
     }
     if (timeUs > largestQueuedTimestampUs && allowEndOfQueue) {
@@ -853,14 +856,14 @@ public class SampleQueue implements TrackOutput {
       return C.RESULT_NOTHING_READ;
     }
 
-    buffer.setFlags(flags[relativeReadIndex]);
+    buffer.setFlags(getFlags(relativeReadIndex));
     if (readPosition == (length - 1) && (loadingFinished || isLastSampleQueued)) {
       buffer.addFlag(C.BUFFER_FLAG_LAST_SAMPLE);
     }
-    buffer.timeUs = timesUs[relativeReadIndex];
-    extrasHolder.size = sizes[relativeReadIndex];
-    extrasHolder.offset = offsets[relativeReadIndex];
-    extrasHolder.cryptoData = cryptoDatas[relativeReadIndex];
+    buffer.timeUs = getTimeUs(relativeReadIndex);
+    extrasHolder.size = getSize(relativeReadIndex);
+    extrasHolder.offset = getOffset(relativeReadIndex);
+    extrasHolder.cryptoData = getCryptoData(relativeReadIndex);
 
     return C.RESULT_BUFFER_READ;
   }
@@ -891,7 +894,7 @@ public class SampleQueue implements TrackOutput {
 
   private synchronized long discardSampleMetadataTo(
       long timeUs, boolean toKeyframe, boolean stopAtReadPosition) {
-    if (length == 0 || timeUs < timesUs[relativeFirstIndex]) {
+    if (length == 0 || timeUs < getTimeUs(relativeFirstIndex)) {
       return C.INDEX_UNSET;
     }
     int searchLength = stopAtReadPosition && readPosition != length ? readPosition + 1 : length;
@@ -936,7 +939,7 @@ public class SampleQueue implements TrackOutput {
       // Ensure sample data doesn't overlap.
       int previousSampleRelativeIndex = getRelativeIndex(length - 1);
       checkArgument(
-          offsets[previousSampleRelativeIndex] + sizes[previousSampleRelativeIndex] <= offset);
+          getOffset(previousSampleRelativeIndex) + getSize(previousSampleRelativeIndex) <= offset);
     }
 
     isLastSampleQueued = (sampleFlags & C.BUFFER_FLAG_LAST_SAMPLE) != 0;
@@ -944,12 +947,15 @@ public class SampleQueue implements TrackOutput {
     updateReadEndTimeState(/* absoluteSampleIndex= */ getWriteIndex(), timeUs, sampleFlags);
 
     int relativeEndIndex = getRelativeIndex(length);
-    timesUs[relativeEndIndex] = timeUs;
-    offsets[relativeEndIndex] = offset;
-    sizes[relativeEndIndex] = size;
-    flags[relativeEndIndex] = sampleFlags;
-    cryptoDatas[relativeEndIndex] = cryptoData;
-    sourceIds[relativeEndIndex] = upstreamSourceId;
+    getSampleMetadataBlock(relativeEndIndex)
+        .set(
+            relativeEndIndex & SAMPLE_BLOCK_MASK,
+            upstreamSourceId,
+            offset,
+            size,
+            sampleFlags,
+            timeUs,
+            cryptoData);
 
     if (sharedSampleMetadata.isEmpty()
         || !sharedSampleMetadata.getEndValue().format.equals(upstreamFormat)) {
@@ -965,39 +971,43 @@ public class SampleQueue implements TrackOutput {
 
     length++;
     if (length == capacity) {
-      // Increase the capacity.
-      int newCapacity = capacity + SAMPLE_CAPACITY_INCREMENT;
-      long[] newSourceIds = new long[newCapacity];
-      long[] newOffsets = new long[newCapacity];
-      long[] newTimesUs = new long[newCapacity];
-      int[] newFlags = new int[newCapacity];
-      int[] newSizes = new int[newCapacity];
-      CryptoData[] newCryptoDatas = new CryptoData[newCapacity];
-      int beforeWrap = capacity - relativeFirstIndex;
-      System.arraycopy(offsets, relativeFirstIndex, newOffsets, 0, beforeWrap);
-      System.arraycopy(timesUs, relativeFirstIndex, newTimesUs, 0, beforeWrap);
-      System.arraycopy(flags, relativeFirstIndex, newFlags, 0, beforeWrap);
-      System.arraycopy(sizes, relativeFirstIndex, newSizes, 0, beforeWrap);
-      System.arraycopy(cryptoDatas, relativeFirstIndex, newCryptoDatas, 0, beforeWrap);
-      System.arraycopy(sourceIds, relativeFirstIndex, newSourceIds, 0, beforeWrap);
-      int afterWrap = relativeFirstIndex;
-      System.arraycopy(offsets, 0, newOffsets, beforeWrap, afterWrap);
-      System.arraycopy(timesUs, 0, newTimesUs, beforeWrap, afterWrap);
-      System.arraycopy(flags, 0, newFlags, beforeWrap, afterWrap);
-      System.arraycopy(sizes, 0, newSizes, beforeWrap, afterWrap);
-      System.arraycopy(cryptoDatas, 0, newCryptoDatas, beforeWrap, afterWrap);
-      System.arraycopy(sourceIds, 0, newSourceIds, beforeWrap, afterWrap);
-      offsets = newOffsets;
-      timesUs = newTimesUs;
-      flags = newFlags;
-      sizes = newSizes;
-      cryptoDatas = newCryptoDatas;
-      sourceIds = newSourceIds;
-      relativeFirstIndex = 0;
-      capacity = newCapacity;
+      increaseCapacity();
     }
   }
 
+  /**
+   * Increases the capacity by one {@link SampleMetadataBlock}, so that the free space follows the
+   * last sample. Must only be called when the queue is full.
+   *
+   * <p>At most one block's worth of metadata is copied, so the cost doesn't depend on the length
+   * of the queue.
+   */
+  private void increaseCapacity() {
+    if (sampleMetadataBlockCount == sampleMetadataBlocks.length) {
+      sampleMetadataBlocks = Arrays.copyOf(sampleMetadataBlocks, sampleMetadataBlockCount * 2);
+    }
+    int firstBlockIndex = relativeFirstIndex >> SAMPLE_BLOCK_SHIFT;
+    int firstIndexInBlock = relativeFirstIndex & SAMPLE_BLOCK_MASK;
+    SampleMetadataBlock newBlock = new SampleMetadataBlock();
+    int newBlockIndex = firstBlockIndex;
+    if (firstIndexInBlock != 0) {
+      // The block holding the first sample also holds the last sample, before it. Move the samples
+      // from the first sample onwards to the same positions in the new block, which goes after it.
+      getSampleMetadataBlock(relativeFirstIndex).moveTo(newBlock, firstIndexInBlock);
+      newBlockIndex++;
+    }
+    System.arraycopy(
+        sampleMetadataBlocks,
+        newBlockIndex,
+        sampleMetadataBlocks,
+        newBlockIndex + 1,
+        sampleMetadataBlockCount - newBlockIndex);
+    sampleMetadataBlocks[newBlockIndex] = newBlock;
+    sampleMetadataBlockCount++;
+    relativeFirstIndex += SAMPLE_BLOCK_SIZE;
+    capacity += SAMPLE_BLOCK_SIZE;
+  }
+
   /**
    * Attempts to discard samples from the end of the queue to allow samples starting from the
    * specified timestamp to be spliced in. Samples will not be discarded prior to the read position.
@@ -1033,7 +1043,7 @@ public class SampleQueue implements TrackOutput {
     sharedSampleMetadata.discardFrom(discardFromIndex);
     if (length != 0) {
       int relativeLastWriteIndex = getRelativeIndex(length - 1);
-      return offsets[relativeLastWriteIndex] + sizes[relativeLastWriteIndex];
+      return getOffset(relativeLastWriteIndex) + getSize(relativeLastWriteIndex);
     }
     return 0;
   }
@@ -1099,7 +1109,7 @@ public class SampleQueue implements TrackOutput {
   private boolean mayReadSample(int relativeReadIndex) {
     return currentDrmSession == null
         || currentDrmSession.getState() == DrmSession.STATE_OPENED_WITH_KEYS
-        || ((flags[relativeReadIndex] & C.BUFFER_FLAG_ENCRYPTED) == 0
+        || ((getFlags(relativeReadIndex) & C.BUFFER_FLAG_ENCRYPTED) == 0
             && currentDrmSession.playClearSamplesWithoutKeys());
   }
 
@@ -1121,11 +1131,11 @@ public class SampleQueue implements TrackOutput {
     // switching to a binary search would yield any real benefit.
     int sampleCountToTarget = -1;
     int searchIndex = relativeStartIndex;
-    for (int i = 0; i < length && timesUs[searchIndex] <= timeUs; i++) {
-      if (!keyframe || (flags[searchIndex] & C.BUFFER_FLAG_KEY_FRAME) != 0) {
+    for (int i = 0; i < length && getTimeUs(searchIndex) <= timeUs; i++) {
+      if (!keyframe || (getFlags(searchIndex) & C.BUFFER_FLAG_KEY_FRAME) != 0) {
         // We've found a suitable sample.
         sampleCountToTarget = i;
-        if (timesUs[searchIndex] == timeUs) {
+        if (getTimeUs(searchIndex) == timeUs) {
           // Stop the search if we found a sample at the specified time to avoid returning a later
           // sample with the same exactly matching timestamp.
           break;
@@ -1155,7 +1165,7 @@ public class SampleQueue implements TrackOutput {
       int relativeStartIndex, int length, long timeUs, boolean allowTimeBeyondBuffer) {
     int searchIndex = relativeStartIndex;
     for (int i = 0; i < length; i++) {
-      if (timesUs[searchIndex] >= timeUs) {
+      if (getTimeUs(searchIndex) >= timeUs) {
         return i;
       }
       searchIndex++;
@@ -1178,7 +1188,8 @@ public class SampleQueue implements TrackOutput {
     }
     for (int i = 0; i < length; i++) {
       int searchIndex = getRelativeIndex(/* offset= */ i);
-      updateReadEndTimeState(absoluteFirstIndex + i, timesUs[searchIndex], flags[searchIndex]);
+      updateReadEndTimeState(
+          absoluteFirstIndex + i, getTimeUs(searchIndex), getFlags(searchIndex));
       if (readEndTimeAbsoluteIndex != C.INDEX_UNSET) {
         return;
       }
@@ -1228,7 +1239,7 @@ public class SampleQueue implements TrackOutput {
   private int countUnreadSamplesBefore(long timeUs) {
     int count = length;
     int relativeSampleIndex = getRelativeIndex(length - 1);
-    while (count > readPosition && timesUs[relativeSampleIndex] >= timeUs) {
+    while (count > readPosition && getTimeUs(relativeSampleIndex) >= timeUs) {
       count--;
       relativeSampleIndex--;
       if (relativeSampleIndex == -1) {
@@ -1262,9 +1273,9 @@ public class SampleQueue implements TrackOutput {
 
     if (length == 0) {
       int relativeLastDiscardIndex = (relativeFirstIndex == 0 ? capacity : relativeFirstIndex) - 1;
-      return offsets[relativeLastDiscardIndex] + sizes[relativeLastDiscardIndex];
+      return getOffset(relativeLastDiscardIndex) + getSize(relativeLastDiscardIndex);
     } else {
-      return offsets[relativeFirstIndex];
+      return getOffset(relativeFirstIndex);
     }
   }
 
@@ -1283,8 +1294,8 @@ public class SampleQueue implements TrackOutput {
     long largestTimestampUs = Long.MIN_VALUE;
     int relativeSampleIndex = getRelativeIndex(length - 1);
     for (int i = 0; i < length; i++) {
-      largestTimestampUs = max(largestTimestampUs, timesUs[relativeSampleIndex]);
-      if ((flags[relativeSampleIndex] & C.BUFFER_FLAG_KEY_FRAME) != 0) {
+      largestTimestampUs = max(largestTimestampUs, getTimeUs(relativeSampleIndex));
+      if ((getFlags(relativeSampleIndex) & C.BUFFER_FLAG_KEY_FRAME) != 0) {
         break;
       }
       relativeSampleIndex--;
@@ -1295,6 +1306,35 @@ public class SampleQueue implements TrackOutput {
     return largestTimestampUs;
   }
 
+  private SampleMetadataBlock getSampleMetadataBlock(int relativeIndex) {
+    return checkNotNull(sampleMetadataBlocks[relativeIndex >> SAMPLE_BLOCK_SHIFT]);
+  }
+
+  private long getSourceId(int relativeIndex) {
+    return getSampleMetadataBlock(relativeIndex).getSourceId(relativeIndex & SAMPLE_BLOCK_MASK);
+  }
+
+  private long getOffset(int relativeIndex) {
+    return getSampleMetadataBlock(relativeIndex).offsets[relativeIndex & SAMPLE_BLOCK_MASK];
+  }
+
+  private int getSize(int relativeIndex) {
+    return getSampleMetadataBlock(relativeIndex).sizes[relativeIndex & SAMPLE_BLOCK_MASK];
+  }
+
+  private @C.BufferFlags int getFlags(int relativeIndex) {
+    return getSampleMetadataBlock(relativeIndex).flags[relativeIndex & SAMPLE_BLOCK_MASK];
+  }
+
+  private long getTimeUs(int relativeIndex) {
+    return getSampleMetadataBlock(relativeIndex).timesUs[relativeIndex & SAMPLE_BLOCK_MASK];
+  }
+
+  @Nullable
+  private CryptoData getCryptoData(int relativeIndex) {
+    return getSampleMetadataBlock(relativeIndex).getCryptoData(relativeIndex & SAMPLE_BLOCK_MASK);
+  }
+
   /**
    * Returns the relative index for a given offset from the start of the queue.
    *
@@ -1323,6 +1363,85 @@ public class SampleQueue implements TrackOutput {
     @Nullable public CryptoData cryptoData;
   }
 
+  /**
+   * Metadata for a block of {@link #SAMPLE_BLOCK_SIZE} samples.
+   *
+   * <p>Source ids and crypto data are only allocated once a block holds a sample that has a
+   * non-zero source id or is encrypted, respectively, since they are often unused.
+   */
+  private static final class SampleMetadataBlock {
+    public final long[] offsets;
+    public final int[] sizes;
+    public final int[] flags;
+    public final long[] timesUs;
+
+    @Nullable private long[] sourceIds;
+    @Nullable private @NullableType CryptoData[] cryptoDatas;
+
+    public SampleMetadataBlock() {
+      offsets = new long[SAMPLE_BLOCK_SIZE];
+      sizes = new int[SAMPLE_BLOCK_SIZE];
+      flags = new int[SAMPLE_BLOCK_SIZE];
+      timesUs = new long[SAMPLE_BLOCK_SIZE];
+    }
+
+    public long getSourceId(int index) {
+      return sourceIds != null ? sourceIds[index] : 0;
+    }
+
+    @Nullable
+    public CryptoData getCryptoData(int index) {
+      return cryptoDatas != null ? cryptoDatas[index] : null;
+    }
+
+    public void set(
+        int index,
+        long sourceId,
+        long offset,
+        int size,
+        @C.BufferFlags int flags,
+        long timeUs,
+        @Nullable CryptoData cryptoData) {
+      if (sourceIds == null && sourceId != 0) {
+        sourceIds = new long[SAMPLE_BLOCK_SIZE];
+      }
+      if (sourceIds != null) {
+        sourceIds[index] = sourceId;
+      }
+      if (cryptoDatas == null && cryptoData != null) {
+        cryptoDatas = new CryptoData[SAMPLE_BLOCK_SIZE];
+      }
+      if (cryptoDatas != null) {
+        cryptoDatas[index] = cryptoData;
+      }
+      offsets[index] = offset;
+      sizes[index] = size;
+      this.flags[index] = flags;
+      timesUs[index] = timeUs;
+    }
+
+    /**
+     * Moves the metadata from {@code fromIndex} to the end of this block to the same positions in
+     * {@code target}.
+     */
+    public void moveTo(SampleMetadataBlock target, int fromIndex) {
+      int length = SAMPLE_BLOCK_SIZE - fromIndex;
+      System.arraycopy(offsets, fromIndex, target.offsets, fromIndex, length);
+      System.arraycopy(sizes, fromIndex, target.sizes, fromIndex, length);
+      System.arraycopy(flags, fromIndex, target.flags, fromIndex, length);
+      System.arraycopy(timesUs, fromIndex, target.timesUs, fromIndex, length);
+      if (sourceIds != null) {
+        target.sourceIds = new long[SAMPLE_BLOCK_SIZE];
+        System.arraycopy(sourceIds, fromIndex, target.sourceIds, fromIndex, length);
+      }
+      if (cryptoDatas != null) {
+        target.cryptoDatas = new CryptoData[SAMPLE_BLOCK_SIZE];
+        System.arraycopy(cryptoDatas, fromIndex, target.cryptoDatas, fromIndex, length);
+        Arrays.fill(cryptoDatas, fromIndex, SAMPLE_BLOCK_SIZE, null);
+      }
+    }
+  }
+
   /** A holder for metadata that applies to a span of contiguous samples. */
   private static final class SharedSampleMetadata {
     public final Format format;
@@ -20,43 +20,54 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
 
+import androidx.annotation.Nullable;
 import androidx.media3.common.C;
 import androidx.media3.common.text.Cue;
 import androidx.media3.common.text.CueGroup;
 import androidx.media3.extractor.text.CuesWithTiming;
+import com.google.common.collect.BoundType;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Ordering;
-import java.util.ArrayList;
-import java.util.List;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.TreeMultiset;
+import java.util.Random;
 
 /**
  * A {@link CuesResolver} which merges possibly-overlapping {@link CuesWithTiming} instances.
  *
  * <p>This implementation only accepts with {@link CuesWithTiming} with a set {@link
  * CuesWithTiming#durationUs}.
+ *
+ * <p>The cues are kept in a treap sorted by start time, whose nodes also store the maximum end time
+ * of their subtree, so that subtrees without cues shown at or after a time are skipped. Finding the
+ * cues shown at a time usually takes {@code O(k log n)} time, where {@code k} is the number of cues
+ * shown at that time, because the nodes visited are mostly those on the paths from the root to
+ * these cues. In the worst case, for example when most cues are shown at that time, it takes
+ * {@code O(n)} time. The change times are kept in a sorted multiset, so that the previous and next
+ * change can be found in {@code O(log n)} time.
  */
 // TODO: b/181312195 - Add memoization
 /* package */ final class MergingCuesResolver implements CuesResolver {
 
   /**
-   * An {@link Ordering} which sorts cues in ascending display priority, for compatibility with the
-   * ordering defined for {@link CueGroup#cues}.
+   * The root of a treap, whose in-order traversal sorts cues in ascending display priority, for
+   * compatibility with the ordering defined for {@link CueGroup#cues}.
    *
    * <p>Sorts first by start time ascending (later cues should be shown on top of older ones), then
    * by duration descending (shorter duration cues that start at the same time should be shown on
-   * top, as the one underneath will be visible after they disappear).
+   * top, as the one underneath will be visible after they disappear), and then by the order in
+   * which the cues were added.
    */
-  private static final Ordering<CuesWithTiming> CUES_DISPLAY_PRIORITY_COMPARATOR =
-      Ordering.<Long>natural()
-          .onResultOf((CuesWithTiming c) -> c.startTimeUs)
-          .compound(
-              Ordering.<Long>natural().reverse().onResultOf((CuesWithTiming c) -> c.durationUs));
+  @Nullable private Node root;
+
+  /** The start and end times of all cues. */
+  private final TreeMultiset<Long> changeTimesUs;
 
-  /** Sorted by {@link CuesWithTiming#startTimeUs} ascending. */
-  private final List<CuesWithTiming> cuesWithTimingList;
+  private final Random random;
+  private long nextSequenceNumber;
 
   public MergingCuesResolver() {
-    cuesWithTimingList = new ArrayList<>();
+    changeTimesUs = TreeMultiset.create();
+    random = new Random(/* seed= */ 0);
   }
 
   @Override
@@ -65,94 +76,193 @@ import java.util.List;
     checkArgument(cues.durationUs != C.TIME_UNSET);
     boolean cuesAreShownAtCurrentTime =
         cues.startTimeUs <= currentPositionUs && currentPositionUs < cues.endTimeUs;
-    for (int i = cuesWithTimingList.size() - 1; i >= 0; i--) {
-      if (cues.startTimeUs >= cuesWithTimingList.get(i).startTimeUs) {
-        cuesWithTimingList.add(i + 1, cues);
-        return cuesAreShownAtCurrentTime;
-      }
-    }
-    cuesWithTimingList.add(0, cues);
+    root = insert(root, new Node(cues, nextSequenceNumber++, random.nextLong()));
+    changeTimesUs.add(cues.startTimeUs);
+    changeTimesUs.add(cues.endTimeUs);
     return cuesAreShownAtCurrentTime;
   }
 
   @Override
   public ImmutableList<Cue> getCuesAtTimeUs(long timeUs) {
-    if (cuesWithTimingList.isEmpty() || timeUs < cuesWithTimingList.get(0).startTimeUs) {
-      return ImmutableList.of();
-    }
-
-    List<CuesWithTiming> visibleCues = new ArrayList<>();
-    for (int i = 0; i < cuesWithTimingList.size(); i++) {
-      CuesWithTiming cues = cuesWithTimingList.get(i);
-      if (timeUs >= cues.startTimeUs && timeUs < cues.endTimeUs) {
-        visibleCues.add(cues);
-      }
-      if (timeUs < cues.startTimeUs) {
-        break;
-      }
-    }
-    ImmutableList<CuesWithTiming> sortedResult =
-        ImmutableList.sortedCopyOf(CUES_DISPLAY_PRIORITY_COMPARATOR, visibleCues);
     ImmutableList.Builder<Cue> result = ImmutableList.builder();
-    for (int i = 0; i < sortedResult.size(); i++) {
-      result.addAll(sortedResult.get(i).cues);
-    }
+    addCuesAtTimeUs(root, timeUs, result);
     return result.build();
   }
 
   @Override
   public void discardCuesBeforeTimeUs(long timeUs) {
-    for (int i = 0; i < cuesWithTimingList.size(); i++) {
-      long startTimeUs = cuesWithTimingList.get(i).startTimeUs;
-      if (timeUs > startTimeUs && timeUs > cuesWithTimingList.get(i).endTimeUs) {
-        // In most cases only a single item will be removed in each invocation of this method, so
-        // the inefficiency of removing items one-by-one inside a loop is mitigated.
-        cuesWithTimingList.remove(i);
-        i--;
-      } else if (timeUs < startTimeUs) {
-        break;
-      }
-    }
+    root = discardCuesEndingBefore(root, timeUs);
   }
 
   @Override
   public long getPreviousCueChangeTimeUs(long timeUs) {
-    if (cuesWithTimingList.isEmpty() || timeUs < cuesWithTimingList.get(0).startTimeUs) {
-      return C.TIME_UNSET;
-    }
-    long result = cuesWithTimingList.get(0).startTimeUs;
-    for (int i = 0; i < cuesWithTimingList.size(); i++) {
-      long startTimeUs = cuesWithTimingList.get(i).startTimeUs;
-      long endTimeUs = cuesWithTimingList.get(i).endTimeUs;
-      if (endTimeUs <= timeUs) {
-        result = max(result, endTimeUs);
-      } else if (startTimeUs <= timeUs) {
-        result = max(result, startTimeUs);
-      } else {
-        break;
-      }
-    }
-    return result;
+    // A cue ending at or before timeUs also starts before it, so the latest start or end time at or
+    // before timeUs is the previous change.
+    @Nullable
+    Multiset.Entry<Long> previousChange =
+        changeTimesUs.headMultiset(timeUs, BoundType.CLOSED).lastEntry();
+    return previousChange != null ? previousChange.getElement() : C.TIME_UNSET;
   }
 
   @Override
   public long getNextCueChangeTimeUs(long timeUs) {
-    long result = C.TIME_UNSET;
-    for (int i = 0; i < cuesWithTimingList.size(); i++) {
-      long startTimeUs = cuesWithTimingList.get(i).startTimeUs;
-      long endTimeUs = cuesWithTimingList.get(i).endTimeUs;
-      if (timeUs < startTimeUs) {
-        result = result == C.TIME_UNSET ? startTimeUs : min(result, startTimeUs);
-        break;
-      } else if (timeUs < endTimeUs) {
-        result = result == C.TIME_UNSET ? endTimeUs : min(result, endTimeUs);
-      }
-    }
-    return result != C.TIME_UNSET ? result : C.TIME_END_OF_SOURCE;
+    // A cue ending after timeUs either is shown at timeUs or starts after it, so the earliest start
+    // or end time after timeUs is the next change.
+    @Nullable
+    Multiset.Entry<Long> nextChange =
+        changeTimesUs.tailMultiset(timeUs, BoundType.OPEN).firstEntry();
+    return nextChange != null ? nextChange.getElement() : C.TIME_END_OF_SOURCE;
   }
 
   @Override
   public void clear() {
-    cuesWithTimingList.clear();
+    root = null;
+    changeTimesUs.clear();
+  }
+
+  /**
+   * Adds the cues of the nodes in the subtree of {@code node} that are shown at {@code timeUs} to
+   * {@code result}, in ascending display priority.
+   */
+  private static void addCuesAtTimeUs(
+      @Nullable Node node, long timeUs, ImmutableList.Builder<Cue> result) {
+    if (node == null || node.maxEndTimeUs <= timeUs) {
+      // No cues in this subtree are shown at or after timeUs.
+      return;
+    }
+    addCuesAtTimeUs(node.left, timeUs, result);
+    if (timeUs < node.cues.startTimeUs) {
+      // This node and all nodes in its right subtree start after timeUs.
+      return;
+    }
+    if (timeUs < node.cues.endTimeUs) {
+      result.addAll(node.cues.cues);
+    }
+    addCuesAtTimeUs(node.right, timeUs, result);
+  }
+
+  /**
+   * Removes the nodes in the subtree of {@code node} whose cues end before {@code timeUs}, and
+   * returns the new root of the subtree.
+   */
+  @Nullable
+  private Node discardCuesEndingBefore(@Nullable Node node, long timeUs) {
+    if (node == null || node.minEndTimeUs >= timeUs) {
+      return node;
+    }
+    node.left = discardCuesEndingBefore(node.left, timeUs);
+    node.right = discardCuesEndingBefore(node.right, timeUs);
+    if (node.cues.endTimeUs < timeUs) {
+      changeTimesUs.remove(node.cues.startTimeUs);
+      changeTimesUs.remove(node.cues.endTimeUs);
+      return merge(node.left, node.right);
+    }
+    node.update();
+    return node;
+  }
+
+  private static Node insert(@Nullable Node root, Node node) {
+    if (root == null) {
+      return node;
+    }
+    if (node.compareTo(root) < 0) {
+      Node left = insert(root.left, node);
+      root.left = left;
+      if (left.priority > root.priority) {
+        return rotateRight(root, left);
+      }
+    } else {
+      Node right = insert(root.right, node);
+      root.right = right;
+      if (right.priority > root.priority) {
+        return rotateLeft(root, right);
+      }
+    }
+    root.update();
+    return root;
+  }
+
+  @Nullable
+  private static Node merge(@Nullable Node left, @Nullable Node right) {
+    if (left == null) {
+      return right;
+    } else if (right == null) {
+      return left;
+    } else if (left.priority > right.priority) {
+      left.right = merge(left.right, right);
+      left.update();
+      return left;
+    } else {
+      right.left = merge(left, right.left);
+      right.update();
+      return right;
+    }
+  }
+
+  private static Node rotateRight(Node root, Node left) {
+    root.left = left.right;
+    left.right = root;
+    root.update();
+    left.update();
+    return left;
+  }
+
+  private static Node rotateLeft(Node root, Node right) {
+    root.right = right.left;
+    right.left = root;
+    root.update();
+    right.update();
+    return right;
+  }
+
+  private static final class Node implements Comparable<Node> {
+
+    public final CuesWithTiming cues;
+    public final long sequenceNumber;
+    public final long priority;
+
+    @Nullable public Node left;
+    @Nullable public Node right;
+
+    /** The maximum {@link CuesWithTiming#endTimeUs} in the subtree of this node. */
+    public long maxEndTimeUs;
+
+    /** The minimum {@link CuesWithTiming#endTimeUs} in the subtree of this node. */
+    public long minEndTimeUs;
+
+    public Node(CuesWithTiming cues, long sequenceNumber, long priority) {
+      this.cues = cues;
+      this.sequenceNumber = sequenceNumber;
+      this.priority = priority;
+      maxEndTimeUs = cues.endTimeUs;
+      minEndTimeUs = cues.endTimeUs;
+    }
+
+    /** Updates the values derived from the subtree of this node. */
+    public void update() {
+      maxEndTimeUs = cues.endTimeUs;
+      minEndTimeUs = cues.endTimeUs;
+      @Nullable Node left = this.left;
+      if (left != null) {
+        maxEndTimeUs = max(maxEndTimeUs, left.maxEndTimeUs);
+        minEndTimeUs = min(minEndTimeUs, left.minEndTimeUs);
+      }
+      @Nullable Node right = this.right;
+      if (right != null) {
+        maxEndTimeUs = max(maxEndTimeUs, right.maxEndTimeUs);
+        minEndTimeUs = min(minEndTimeUs, right.minEndTimeUs);
+      }
+    }
+
+    @Override
+    public int compareTo(Node other) {
+      if (cues.startTimeUs != other.cues.startTimeUs) {
+        return Long.compare(cues.startTimeUs, other.cues.startTimeUs);
+      }
+      if (cues.endTimeUs != other.cues.endTimeUs) {
+        return Long.compare(other.cues.endTimeUs, cues.endTimeUs);
+      }
+      return Long.compare(sequenceNumber, other.sequenceNumber);
+    }
   }
 }
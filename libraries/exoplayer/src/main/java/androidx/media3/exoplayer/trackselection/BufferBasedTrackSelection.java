@@ -0,0 +1,347 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.media3.exoplayer.trackselection;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import androidx.annotation.Nullable;
+import androidx.media3.common.C;
+import androidx.media3.common.Timeline;
+import androidx.media3.common.TrackGroup;
+import androidx.media3.common.util.Clock;
+import androidx.media3.common.util.NullableType;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.common.util.Util;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.exoplayer.source.MediaSource.MediaPeriodId;
+import androidx.media3.exoplayer.source.chunk.MediaChunk;
+import androidx.media3.exoplayer.source.chunk.MediaChunkIterator;
+import androidx.media3.exoplayer.upstream.BandwidthMeter;
+import com.google.common.collect.Iterables;
+import java.util.List;
+
+/**
+ * A buffer based adaptive {@link ExoTrackSelection}, whose selected track is chosen from the
+ * duration of buffered media using the BOLA algorithm.
+ *
+ * <p>BOLA picks the track that maximizes the utility of the next chunk per bit loaded, where the
+ * utility of a track grows logarithmically with its bitrate and the weight of the buffered duration
+ * grows as the buffer fills. With {@code minBufferMs} buffered the lowest track is selected, and
+ * with {@code targetBufferMs} buffered the highest track is selected. The bitrate of each track is
+ * taken from the size of its next chunk if the {@link MediaChunkIterator} provides it, so that
+ * selections account for the actual size of the upcoming chunks of variable bitrate streams.
+ *
+ * <p>To avoid oscillating, the selection doesn't switch up to a track whose bitrate is higher than
+ * the allocated share of the estimated bandwidth, unless the previous chunk was already loaded from
+ * a higher track. The initial selection is based on the estimated bandwidth only.
+ *
+ * <p>This selection is intended for on-demand streams. For live streams whose available duration
+ * is shorter than {@code targetBufferMs}, {@link AdaptiveTrackSelection} is usually a better fit.
+ */
+@UnstableApi
+public class BufferBasedTrackSelection extends BaseTrackSelection {
+
+  /** Factory for {@link BufferBasedTrackSelection} instances. */
+  public static class Factory implements ExoTrackSelection.Factory {
+
+    private final int minBufferMs;
+    private final int targetBufferMs;
+    private final float bandwidthFraction;
+    private final Clock clock;
+
+    /** Creates a buffer based track selection factory with default parameters. */
+    public Factory() {
+      this(DEFAULT_MIN_BUFFER_MS, DEFAULT_TARGET_BUFFER_MS, DEFAULT_BANDWIDTH_FRACTION);
+    }
+
+    /**
+     * Creates a buffer based track selection factory.
+     *
+     * @param minBufferMs The duration of buffered media below which the lowest track is selected,
+     *     in milliseconds.
+     * @param targetBufferMs The duration of buffered media above which the highest track is
+     *     selected, in milliseconds. Must be greater than {@code minBufferMs}.
+     * @param bandwidthFraction The fraction of the available bandwidth that the selection should
+     *     consider available for use when making the initial selection and when limiting switches
+     *     to higher tracks.
+     */
+    public Factory(int minBufferMs, int targetBufferMs, float bandwidthFraction) {
+      this(minBufferMs, targetBufferMs, bandwidthFraction, Clock.DEFAULT);
+    }
+
+    /**
+     * Creates a buffer based track selection factory.
+     *
+     * @param minBufferMs The duration of buffered media below which the lowest track is selected,
+     *     in milliseconds.
+     * @param targetBufferMs The duration of buffered media above which the highest track is
+     *     selected, in milliseconds. Must be greater than {@code minBufferMs}.
+     * @param bandwidthFraction The fraction of the available bandwidth that the selection should
+     *     consider available for use when making the initial selection and when limiting switches
+     *     to higher tracks.
+     * @param clock A {@link Clock}.
+     */
+    public Factory(int minBufferMs, int targetBufferMs, float bandwidthFraction, Clock clock) {
+      checkArgument(minBufferMs > 0 && targetBufferMs > minBufferMs);
+      checkArgument(bandwidthFraction > 0);
+      this.minBufferMs = minBufferMs;
+      this.targetBufferMs = targetBufferMs;
+      this.bandwidthFraction = bandwidthFraction;
+      this.clock = clock;
+    }
+
+    @Override
+    public final @NullableType ExoTrackSelection[] createTrackSelections(
+        @NullableType Definition[] definitions,
+        BandwidthMeter bandwidthMeter,
+        MediaPeriodId mediaPeriodId,
+        Timeline timeline) {
+      ExoTrackSelection[] selections = new ExoTrackSelection[definitions.length];
+      for (int i = 0; i < definitions.length; i++) {
+        @Nullable Definition definition = definitions[i];
+        if (definition == null || definition.tracks.length == 0) {
+          continue;
+        }
+        selections[i] =
+            definition.tracks.length == 1
+                ? new FixedTrackSelection(
+                    definition.group,
+                    /* track= */ definition.tracks[0],
+                    /* type= */ definition.type)
+                : new BufferBasedTrackSelection(
+                    definition.group,
+                    definition.tracks,
+                    definition.type,
+                    bandwidthMeter,
+                    minBufferMs,
+                    targetBufferMs,
+                    bandwidthFraction,
+                    clock);
+      }
+      return selections;
+    }
+  }
+
+  /** The default duration of buffered media below which the lowest track is selected. */
+  public static final int DEFAULT_MIN_BUFFER_MS = 10_000;
+
+  /** The default duration of buffered media above which the highest track is selected. */
+  public static final int DEFAULT_TARGET_BUFFER_MS = 30_000;
+
+  /** The default fraction of the available bandwidth that the selection considers available. */
+  public static final float DEFAULT_BANDWIDTH_FRACTION = 0.7f;
+
+  private final BandwidthMeter bandwidthMeter;
+  private final double minBufferSec;
+  private final double targetBufferSec;
+  private final float bandwidthFraction;
+  private final Clock clock;
+  private final long[] nextChunkBitrates;
+
+  private float playbackSpeed;
+  private int selectedIndex;
+  private @C.SelectionReason int reason;
+
+  /**
+   * @param group The {@link TrackGroup}.
+   * @param tracks The indices of the selected tracks within the {@link TrackGroup}. Must not be
+   *     empty. May be in any order.
+   * @param type The type that will be returned from {@link TrackSelection#getType()}.
+   * @param bandwidthMeter Provides an estimate of the currently available bandwidth.
+   * @param minBufferMs The duration of buffered media below which the lowest track is selected, in
+   *     milliseconds.
+   * @param targetBufferMs The duration of buffered media above which the highest track is selected,
+   *     in milliseconds. Must be greater than {@code minBufferMs}.
+   * @param bandwidthFraction The fraction of the available bandwidth that the selection should
+   *     consider available for use when making the initial selection and when limiting switches to
+   *     higher tracks.
+   * @param clock The {@link Clock}.
+   */
+  public BufferBasedTrackSelection(
+      TrackGroup group,
+      int[] tracks,
+      @Type int type,
+      BandwidthMeter bandwidthMeter,
+      long minBufferMs,
+      long targetBufferMs,
+      float bandwidthFraction,
+      Clock clock) {
+    super(group, tracks, type);
+    checkArgument(minBufferMs > 0 && targetBufferMs > minBufferMs);
+    this.bandwidthMeter = bandwidthMeter;
+    this.minBufferSec = minBufferMs / 1000.0;
+    this.targetBufferSec = targetBufferMs / 1000.0;
+    this.bandwidthFraction = bandwidthFraction;
+    this.clock = clock;
+    nextChunkBitrates = new long[length];
+    playbackSpeed = 1f;
+    reason = C.SELECTION_REASON_UNKNOWN;
+  }
+
+  @Override
+  public void onPlaybackSpeed(float playbackSpeed) {
+    this.playbackSpeed = playbackSpeed;
+  }
+
+  @Override
+  public void updateSelectedTrack(
+      long playbackPositionUs,
+      long bufferedDurationUs,
+      long availableDurationUs,
+      List<? extends MediaChunk> queue,
+      MediaChunkIterator[] mediaChunkIterators) {
+    long nowMs = clock.elapsedRealtime();
+    updateNextChunkBitrates(mediaChunkIterators);
+    int bandwidthIndex = determineBandwidthSelectedIndex(nowMs);
+
+    // Make initial selection
+    if (reason == C.SELECTION_REASON_UNKNOWN) {
+      reason = C.SELECTION_REASON_INITIAL;
+      selectedIndex = bandwidthIndex;
+      return;
+    }
+
+    int previousSelectedIndex = selectedIndex;
+    @C.SelectionReason int previousReason = reason;
+    int formatIndexOfPreviousChunk =
+        queue.isEmpty() ? C.INDEX_UNSET : indexOf(Iterables.getLast(queue).trackFormat);
+    if (formatIndexOfPreviousChunk != C.INDEX_UNSET) {
+      previousSelectedIndex = formatIndexOfPreviousChunk;
+      previousReason = Iterables.getLast(queue).trackSelectionReason;
+    }
+    double bufferedDurationSec =
+        Util.getPlayoutDurationForMediaDuration(bufferedDurationUs, playbackSpeed)
+            / (double) C.MICROS_PER_SECOND;
+    int newSelectedIndex = determineBufferSelectedIndex(nowMs, bufferedDurationSec);
+    if (newSelectedIndex == C.INDEX_UNSET) {
+      newSelectedIndex = bandwidthIndex;
+    } else if (newSelectedIndex < previousSelectedIndex && newSelectedIndex < bandwidthIndex) {
+      // Don't switch up beyond the estimated bandwidth, unless the previous track was already
+      // higher. This avoids oscillating when the buffer level alone would switch up.
+      newSelectedIndex = max(newSelectedIndex, min(previousSelectedIndex, bandwidthIndex));
+    }
+    reason =
+        newSelectedIndex == previousSelectedIndex ? previousReason : C.SELECTION_REASON_ADAPTIVE;
+    selectedIndex = newSelectedIndex;
+  }
+
+  @Override
+  public int getSelectedIndex() {
+    return selectedIndex;
+  }
+
+  @Override
+  public @C.SelectionReason int getSelectionReason() {
+    return reason;
+  }
+
+  @Override
+  @Nullable
+  public Object getSelectionData() {
+    return null;
+  }
+
+  /**
+   * Updates {@link #nextChunkBitrates} with the bitrate of the next chunk of each track, or the
+   * bitrate of the format if the size or duration of the next chunk isn't known.
+   */
+  private void updateNextChunkBitrates(MediaChunkIterator[] mediaChunkIterators) {
+    for (int i = 0; i < length; i++) {
+      long bitrate = getFormat(i).bitrate;
+      if (i < mediaChunkIterators.length && mediaChunkIterators[i].next()) {
+        MediaChunkIterator iterator = mediaChunkIterators[i];
+        DataSpec dataSpec = iterator.getDataSpec();
+        long chunkDurationUs = iterator.getChunkEndTimeUs() - iterator.getChunkStartTimeUs();
+        if (dataSpec.length != C.LENGTH_UNSET && chunkDurationUs > 0) {
+          bitrate = dataSpec.length * C.BITS_PER_BYTE * C.MICROS_PER_SECOND / chunkDurationUs;
+        }
+      }
+      nextChunkBitrates[i] = bitrate;
+    }
+  }
+
+  /**
+   * Returns the index of the highest track whose bitrate is within the allocated share of the
+   * estimated bandwidth, or the lowest track if there is none.
+   */
+  private int determineBandwidthSelectedIndex(long nowMs) {
+    long effectiveBitrate = (long) (bandwidthMeter.getBitrateEstimate() * bandwidthFraction);
+    int lowestBitrateAllowedIndex = 0;
+    for (int i = 0; i < length; i++) {
+      if (!isTrackExcluded(i, nowMs)) {
+        if (getFormat(i).bitrate <= effectiveBitrate) {
+          return i;
+        } else {
+          lowestBitrateAllowedIndex = i;
+        }
+      }
+    }
+    return lowestBitrateAllowedIndex;
+  }
+
+  /**
+   * Returns the index of the track selected by BOLA for a buffered duration, or {@link
+   * C#INDEX_UNSET} if the bitrates of the tracks aren't known.
+   */
+  private int determineBufferSelectedIndex(long nowMs, double bufferedDurationSec) {
+    long minBitrate = Long.MAX_VALUE;
+    long maxBitrate = 0;
+    for (int i = 0; i < length; i++) {
+      if (!isTrackExcluded(i, nowMs) && nextChunkBitrates[i] > 0) {
+        minBitrate = min(minBitrate, nextChunkBitrates[i]);
+        maxBitrate = max(maxBitrate, nextChunkBitrates[i]);
+      }
+    }
+    if (maxBitrate == 0) {
+      return C.INDEX_UNSET;
+    }
+    // Utilities are ln(bitrate / minBitrate) + 1, so that the lowest track has a utility of 1. The
+    // control parameters are chosen such that the lowest track is selected with minBufferSec
+    // buffered and the highest track is selected with targetBufferSec buffered.
+    double maxUtility = Math.log((double) maxBitrate / minBitrate) + 1;
+    if (maxUtility == 1) {
+      return determineHighestAllowedIndex(nowMs, maxBitrate);
+    }
+    double gamma = (maxUtility - 1) / (targetBufferSec / minBufferSec - 1);
+    double control = minBufferSec / gamma;
+    int bestIndex = C.INDEX_UNSET;
+    double bestScore = -Double.MAX_VALUE;
+    for (int i = 0; i < length; i++) {
+      long bitrate = nextChunkBitrates[i];
+      if (isTrackExcluded(i, nowMs) || bitrate <= 0) {
+        continue;
+      }
+      double utility = Math.log((double) bitrate / minBitrate) + 1;
+      double score = (control * (utility + gamma) - bufferedDurationSec) / bitrate;
+      if (score > bestScore) {
+        bestScore = score;
+        bestIndex = i;
+      }
+    }
+    return bestIndex;
+  }
+
+  private int determineHighestAllowedIndex(long nowMs, long bitrate) {
+    for (int i = 0; i < length; i++) {
+      if (!isTrackExcluded(i, nowMs) && nextChunkBitrates[i] == bitrate) {
+        return i;
+      }
+    }
+    return C.INDEX_UNSET;
+  }
+}
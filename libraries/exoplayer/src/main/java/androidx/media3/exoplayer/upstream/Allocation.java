@@ -15,10 +15,15 @@
  */
 package androidx.media3.exoplayer.upstream;
 
+import static com.google.common.base.Preconditions.checkState;
+
+import androidx.annotation.Nullable;
 import androidx.media3.common.util.UnstableApi;
+import androidx.media3.common.util.Util;
+import java.nio.ByteBuffer;
 
 /**
- * An allocation within a byte array.
+ * An allocation within a byte array or a {@link ByteBuffer}.
  *
  * <p>The allocation's length is obtained by calling {@link
  * Allocator#getIndividualAllocationLength()} on the {@link Allocator} from which it was obtained.
@@ -27,20 +32,78 @@ import androidx.media3.common.util.UnstableApi;
 public final class Allocation {
 
   /**
-   * The array containing the allocated space. The allocated space might not be at the start of the
+   * The array containing the allocated space, or an empty array if the allocation is {@linkplain
+   * #isBufferBacked() backed by a buffer}. The allocated space might not be at the start of the
    * array, and so {@link #offset} must be used when indexing into it.
+   *
+   * <p>Code that may be given buffer-backed allocations should call {@link #getData()} instead,
+   * which fails rather than returning the empty array.
    */
   public final byte[] data;
 
-  /** The offset of the allocated space in {@link #data}. */
+  /** The offset of the allocated space in {@link #data} or in the {@link #getBuffer() buffer}. */
   public final int offset;
 
+  @Nullable private final ByteBuffer buffer;
+
   /**
    * @param data The array containing the allocated space.
    * @param offset The offset of the allocated space in {@code data}.
    */
   public Allocation(byte[] data, int offset) {
     this.data = data;
+    this.buffer = null;
+    this.offset = offset;
+  }
+
+  /**
+   * @param buffer The buffer containing the allocated space.
+   * @param offset The offset of the allocated space in {@code buffer}.
+   */
+  public Allocation(ByteBuffer buffer, int offset) {
+    this.data = Util.EMPTY_BYTE_ARRAY;
+    this.buffer = buffer;
     this.offset = offset;
   }
+
+  /**
+   * Returns whether the allocated space is in a {@link ByteBuffer} rather than in {@link #data}.
+   *
+   * <p>Only {@link Allocator} instances that are explicitly configured to do so return
+   * buffer-backed allocations, for example a {@link DefaultAllocator} {@linkplain
+   * DefaultAllocator.Builder#setDirectBuffersEnabled(boolean) with direct buffers enabled}.
+   */
+  public boolean isBufferBacked() {
+    return buffer != null;
+  }
+
+  /**
+   * Returns the array containing the allocated space.
+   *
+   * @throws IllegalStateException If the allocation is {@linkplain #isBufferBacked() backed by a
+   *     buffer}.
+   */
+  public byte[] getData() {
+    checkState(buffer == null, "Allocation is backed by a ByteBuffer");
+    return data;
+  }
+
+  /**
+   * Returns the buffer containing the allocated space. The allocated space might not be at the
+   * start of the buffer, and so {@link #offset} must be used when indexing into it.
+   *
+   * <p>The buffer may be shared with other allocations that are in use on other threads, so its
+   * position and limit must not be modified. Callers should instead create a {@linkplain
+   * ByteBuffer#duplicate() duplicate} once and reuse it for all accesses to this allocation from
+   * the same thread.
+   *
+   * @throws IllegalStateException If the allocation is not {@linkplain #isBufferBacked() backed by
+   *     a buffer}.
+   */
+  public ByteBuffer getBuffer() {
+    if (buffer == null) {
+      throw new IllegalStateException("Allocation is backed by an array");
+    }
+    return buffer;
+  }
 }
@@ -18,25 +18,158 @@ package androidx.media3.exoplayer.upstream;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.lang.Math.max;
+import static java.lang.Math.min;
 
 import androidx.annotation.Nullable;
+import androidx.media3.common.C;
 import androidx.media3.common.util.NullableType;
 import androidx.media3.common.util.UnstableApi;
 import androidx.media3.common.util.Util;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /** Default implementation of {@link Allocator}. */
 @UnstableApi
 public final class DefaultAllocator implements Allocator {
 
+  /** Builder for {@link DefaultAllocator} instances. */
+  public static final class Builder {
+
+    private boolean trimOnReset;
+    private int individualAllocationSize;
+    private int initialAllocationCount;
+    private boolean threadCachesEnabled;
+    private boolean directBuffersEnabled;
+
+    /** Creates a builder with default parameters. */
+    public Builder() {
+      trimOnReset = true;
+      individualAllocationSize = C.DEFAULT_BUFFER_SEGMENT_SIZE;
+    }
+
+    /**
+     * Sets whether memory is freed when the allocator is reset. Should be true unless the
+     * allocator will be re-used by multiple player instances. If set to false, trimming can be
+     * forced by calling {@link #setTargetBufferSize(int)} manually when required.
+     *
+     * <p>The default value is {@code true}.
+     *
+     * @param trimOnReset Whether memory is freed when the allocator is reset.
+     * @return This builder.
+     */
+    @CanIgnoreReturnValue
+    public Builder setTrimOnReset(boolean trimOnReset) {
+      this.trimOnReset = trimOnReset;
+      return this;
+    }
+
+    /**
+     * Sets the length of each individual {@link Allocation}.
+     *
+     * <p>The default value is {@link C#DEFAULT_BUFFER_SEGMENT_SIZE}.
+     *
+     * @param individualAllocationSize The length of each individual {@link Allocation}.
+     * @return This builder.
+     */
+    @CanIgnoreReturnValue
+    public Builder setIndividualAllocationSize(int individualAllocationSize) {
+      checkArgument(individualAllocationSize > 0);
+      this.individualAllocationSize = individualAllocationSize;
+      return this;
+    }
+
+    /**
+     * Sets the number of {@link Allocation}s to create up front. These are never discarded by
+     * {@link #trim()}.
+     *
+     * <p>The default value is 0.
+     *
+     * @param initialAllocationCount The number of allocations to create up front.
+     * @return This builder.
+     */
+    @CanIgnoreReturnValue
+    public Builder setInitialAllocationCount(int initialAllocationCount) {
+      checkArgument(initialAllocationCount >= 0);
+      this.initialAllocationCount = initialAllocationCount;
+      return this;
+    }
+
+    /**
+     * Sets whether unused {@link Allocation}s are cached per thread.
+     *
+     * <p>When enabled, each thread that allocates or releases {@link Allocation}s keeps up to 16
+     * unused ones in its own cache, and only synchronizes with other threads when it moves a batch
+     * of them from or to the shared pool. This reduces contention when many threads load media at
+     * the same time. {@link #trim()} only discards unused allocations in the shared pool, so each
+     * thread's cache may hold unused allocations beyond the target buffer size. They are freed when
+     * the thread terminates.
+     *
+     * <p>The default value is {@code false}.
+     *
+     * @param threadCachesEnabled Whether to cache unused allocations per thread.
+     * @return This builder.
+     */
+    @CanIgnoreReturnValue
+    public Builder setThreadCachesEnabled(boolean threadCachesEnabled) {
+      this.threadCachesEnabled = threadCachesEnabled;
+      return this;
+    }
+
+    /**
+     * Sets whether {@link Allocation}s are backed by direct {@link ByteBuffer ByteBuffers} instead
+     * of byte arrays.
+     *
+     * <p>When enabled, buffered media is held outside of the Java heap, which reduces heap usage
+     * and garbage collection on devices with a small heap. Direct buffers are created in slabs of 8
+     * allocations, and the memory of a slab is only freed once all of its allocations have been
+     * discarded.
+     *
+     * <p>Allocations are then {@linkplain Allocation#isBufferBacked() backed by a buffer}, and
+     * {@link Allocation#getData()} throws for them. This must only be enabled if every user of the
+     * allocator supports such allocations. The {@link androidx.media3.exoplayer.source.SampleQueue}
+     * instances of the player do.
+     *
+     * <p>The default value is {@code false}.
+     *
+     * @param directBuffersEnabled Whether to back allocations with direct buffers.
+     * @return This builder.
+     */
+    @CanIgnoreReturnValue
+    public Builder setDirectBuffersEnabled(boolean directBuffersEnabled) {
+      this.directBuffersEnabled = directBuffersEnabled;
+      return this;
+    }
+
+    /** Builds a {@link DefaultAllocator}. */
+    public DefaultAllocator build() {
+      return new DefaultAllocator(
+          trimOnReset,
+          individualAllocationSize,
+          initialAllocationCount,
+          threadCachesEnabled,
+          directBuffersEnabled);
+    }
+  }
+
   private static final int AVAILABLE_EXTRA_CAPACITY = 100;
 
+  /** The maximum number of unused allocations held in the cache of each thread. */
+  private static final int THREAD_CACHE_CAPACITY = 16;
+
+  /** The number of allocations that share each direct buffer. */
+  private static final int DIRECT_BUFFER_SLAB_ALLOCATION_COUNT = 8;
+
   private final boolean trimOnReset;
   private final int individualAllocationSize;
+  private final boolean useDirectBuffers;
   @Nullable private final byte[] initialAllocationBlock;
+  @Nullable private final ByteBuffer initialAllocationBuffer;
+  @Nullable private final ThreadLocal<ThreadCache> threadCaches;
+  private final AtomicInteger allocatedCount;
 
   private int targetBufferSize;
-  private int allocatedCount;
   private int availableCount;
   private @NullableType Allocation[] availableAllocations;
 
@@ -65,20 +198,55 @@ public final class DefaultAllocator implements Allocator {
    */
   public DefaultAllocator(
       boolean trimOnReset, int individualAllocationSize, int initialAllocationCount) {
+    this(
+        trimOnReset,
+        individualAllocationSize,
+        initialAllocationCount,
+        /* useThreadCaches= */ false,
+        /* useDirectBuffers= */ false);
+  }
+
+  private DefaultAllocator(
+      boolean trimOnReset,
+      int individualAllocationSize,
+      int initialAllocationCount,
+      boolean useThreadCaches,
+      boolean useDirectBuffers) {
     checkArgument(individualAllocationSize > 0);
     checkArgument(initialAllocationCount >= 0);
     this.trimOnReset = trimOnReset;
     this.individualAllocationSize = individualAllocationSize;
+    this.useDirectBuffers = useDirectBuffers;
+    this.threadCaches =
+        useThreadCaches
+            ? new ThreadLocal<ThreadCache>() {
+                @Override
+                protected ThreadCache initialValue() {
+                  return new ThreadCache();
+                }
+              }
+            : null;
+    this.allocatedCount = new AtomicInteger();
     this.availableCount = initialAllocationCount;
     this.availableAllocations = new Allocation[initialAllocationCount + AVAILABLE_EXTRA_CAPACITY];
-    if (initialAllocationCount > 0) {
+    if (initialAllocationCount > 0 && useDirectBuffers) {
+      initialAllocationBlock = null;
+      initialAllocationBuffer =
+          ByteBuffer.allocateDirect(initialAllocationCount * individualAllocationSize);
+      for (int i = 0; i < initialAllocationCount; i++) {
+        int allocationOffset = i * individualAllocationSize;
+        availableAllocations[i] = new Allocation(initialAllocationBuffer, allocationOffset);
+      }
+    } else if (initialAllocationCount > 0) {
       initialAllocationBlock = new byte[initialAllocationCount * individualAllocationSize];
+      initialAllocationBuffer = null;
       for (int i = 0; i < initialAllocationCount; i++) {
         int allocationOffset = i * individualAllocationSize;
         availableAllocations[i] = new Allocation(initialAllocationBlock, allocationOffset);
       }
     } else {
       initialAllocationBlock = null;
+      initialAllocationBuffer = null;
     }
   }
 
@@ -97,49 +265,78 @@ public final class DefaultAllocator implements Allocator {
   }
 
   @Override
-  public synchronized Allocation allocate() {
-    allocatedCount++;
-    Allocation allocation;
-    if (availableCount > 0) {
-      allocation = checkNotNull(availableAllocations[--availableCount]);
-      availableAllocations[availableCount] = null;
-    } else {
-      allocation = new Allocation(new byte[individualAllocationSize], 0);
-      if (allocatedCount > availableAllocations.length) {
-        // Make availableAllocations be large enough to contain all allocations made by this
-        // allocator so that release() does not need to grow the availableAllocations array. See
-        // [Internal ref: b/209801945].
-        availableAllocations = Arrays.copyOf(availableAllocations, availableAllocations.length * 2);
+  public Allocation allocate() {
+    if (threadCaches != null) {
+      return allocateFromThreadCache(checkNotNull(threadCaches.get()));
+    }
+    synchronized (this) {
+      allocatedCount.incrementAndGet();
+      Allocation allocation;
+      if (availableCount > 0) {
+        allocation = checkNotNull(availableAllocations[--availableCount]);
+        availableAllocations[availableCount] = null;
+      } else if (useDirectBuffers) {
+        Allocation[] slab = createDirectBufferSlab();
+        ensureAvailableCapacity(allocatedCount.get() + availableCount + slab.length - 1);
+        for (int i = 1; i < slab.length; i++) {
+          availableAllocations[availableCount++] = slab[i];
+        }
+        allocation = slab[0];
+      } else {
+        allocation = new Allocation(new byte[individualAllocationSize], 0);
+        if (allocatedCount.get() > availableAllocations.length) {
+          // Make availableAllocations be large enough to contain all allocations made by this
+          // allocator so that release() does not need to grow the availableAllocations array. See
+          // [Internal ref: b/209801945].
+          availableAllocations =
+              Arrays.copyOf(availableAllocations, availableAllocations.length * 2);
+        }
       }
+      return allocation;
     }
-    return allocation;
   }
 
   @Override
-  public synchronized void release(Allocation allocation) {
-    availableAllocations[availableCount++] = allocation;
-    allocatedCount--;
+  public void release(Allocation allocation) {
+    if (threadCaches != null) {
+      releaseToThreadCache(checkNotNull(threadCaches.get()), allocation);
+      return;
+    }
+    synchronized (this) {
+      availableAllocations[availableCount++] = allocation;
+      allocatedCount.decrementAndGet();
+    }
   }
 
   @Override
-  public synchronized void release(@Nullable AllocationNode allocationNode) {
-    while (allocationNode != null) {
-      availableAllocations[availableCount++] = allocationNode.getAllocation();
-      allocatedCount--;
-      allocationNode = allocationNode.next();
+  public void release(@Nullable AllocationNode allocationNode) {
+    if (threadCaches != null) {
+      ThreadCache threadCache = checkNotNull(threadCaches.get());
+      while (allocationNode != null) {
+        releaseToThreadCache(threadCache, allocationNode.getAllocation());
+        allocationNode = allocationNode.next();
+      }
+      return;
+    }
+    synchronized (this) {
+      while (allocationNode != null) {
+        availableAllocations[availableCount++] = allocationNode.getAllocation();
+        allocatedCount.decrementAndGet();
+        allocationNode = allocationNode.next();
+      }
     }
   }
 
   @Override
   public synchronized void trim() {
     int targetAllocationCount = Util.ceilDivide(targetBufferSize, individualAllocationSize);
-    int targetAvailableCount = max(0, targetAllocationCount - allocatedCount);
+    int targetAvailableCount = max(0, targetAllocationCount - allocatedCount.get());
     if (targetAvailableCount >= availableCount) {
       // We're already at or below the target.
       return;
     }
 
-    if (initialAllocationBlock != null) {
+    if (initialAllocationBlock != null || initialAllocationBuffer != null) {
       // Some allocations are backed by an initial block. We need to make sure that we hold onto all
       // such allocations. Re-order the available allocations so that the ones backed by the initial
       // block come first.
@@ -147,11 +344,11 @@ public final class DefaultAllocator implements Allocator {
       int highIndex = availableCount - 1;
       while (lowIndex <= highIndex) {
         Allocation lowAllocation = checkNotNull(availableAllocations[lowIndex]);
-        if (lowAllocation.data == initialAllocationBlock) {
+        if (isInitialAllocation(lowAllocation)) {
           lowIndex++;
         } else {
           Allocation highAllocation = checkNotNull(availableAllocations[highIndex]);
-          if (highAllocation.data != initialAllocationBlock) {
+          if (!isInitialAllocation(highAllocation)) {
             highIndex--;
           } else {
             availableAllocations[lowIndex++] = highAllocation;
@@ -173,8 +370,8 @@ public final class DefaultAllocator implements Allocator {
   }
 
   @Override
-  public synchronized int getTotalBytesAllocated() {
-    return allocatedCount * individualAllocationSize;
+  public int getTotalBytesAllocated() {
+    return allocatedCount.get() * individualAllocationSize;
   }
 
   @Override
@@ -182,8 +379,92 @@ public final class DefaultAllocator implements Allocator {
     return individualAllocationSize;
   }
 
-  /** Returns the total number of bytes currently occupied by unused allocations. */
+  /**
+   * Returns the total number of bytes currently occupied by unused allocations, excluding any held
+   * in thread caches.
+   */
   public synchronized int getUnusedBytesAllocated() {
     return availableCount * individualAllocationSize;
   }
+
+  private Allocation allocateFromThreadCache(ThreadCache threadCache) {
+    if (threadCache.size == 0) {
+      moveToThreadCache(threadCache);
+    }
+    allocatedCount.incrementAndGet();
+    if (threadCache.size == 0) {
+      if (!useDirectBuffers) {
+        return new Allocation(new byte[individualAllocationSize], 0);
+      }
+      Allocation[] slab = createDirectBufferSlab();
+      for (int i = 1; i < slab.length; i++) {
+        threadCache.allocations[threadCache.size++] = slab[i];
+      }
+      return slab[0];
+    }
+    Allocation allocation = checkNotNull(threadCache.allocations[--threadCache.size]);
+    threadCache.allocations[threadCache.size] = null;
+    return allocation;
+  }
+
+  private void releaseToThreadCache(ThreadCache threadCache, Allocation allocation) {
+    if (threadCache.size == THREAD_CACHE_CAPACITY) {
+      moveFromThreadCache(threadCache);
+    }
+    threadCache.allocations[threadCache.size++] = allocation;
+    allocatedCount.decrementAndGet();
+  }
+
+  /** Moves up to half a thread cache's capacity of allocations from the shared pool into it. */
+  private synchronized void moveToThreadCache(ThreadCache threadCache) {
+    int count = min(availableCount, THREAD_CACHE_CAPACITY / 2);
+    for (int i = 0; i < count; i++) {
+      threadCache.allocations[threadCache.size++] = availableAllocations[--availableCount];
+      availableAllocations[availableCount] = null;
+    }
+  }
+
+  /** Moves half a full thread cache's allocations into the shared pool. */
+  private synchronized void moveFromThreadCache(ThreadCache threadCache) {
+    int count = THREAD_CACHE_CAPACITY / 2;
+    ensureAvailableCapacity(availableCount + count);
+    for (int i = 0; i < count; i++) {
+      availableAllocations[availableCount++] = threadCache.allocations[--threadCache.size];
+      threadCache.allocations[threadCache.size] = null;
+    }
+  }
+
+  private void ensureAvailableCapacity(int capacity) {
+    if (capacity > availableAllocations.length) {
+      availableAllocations =
+          Arrays.copyOf(availableAllocations, max(capacity, availableAllocations.length * 2));
+    }
+  }
+
+  private Allocation[] createDirectBufferSlab() {
+    ByteBuffer slab =
+        ByteBuffer.allocateDirect(DIRECT_BUFFER_SLAB_ALLOCATION_COUNT * individualAllocationSize);
+    Allocation[] allocations = new Allocation[DIRECT_BUFFER_SLAB_ALLOCATION_COUNT];
+    for (int i = 0; i < allocations.length; i++) {
+      allocations[i] = new Allocation(slab, /* offset= */ i * individualAllocationSize);
+    }
+    return allocations;
+  }
+
+  private boolean isInitialAllocation(Allocation allocation) {
+    return initialAllocationBlock != null
+        ? allocation.data == initialAllocationBlock
+        : allocation.isBufferBacked() && allocation.getBuffer() == initialAllocationBuffer;
+  }
+
+  /** Unused allocations held by a single thread. */
+  private static final class ThreadCache {
+
+    private final @NullableType Allocation[] allocations;
+    private int size;
+
+    public ThreadCache() {
+      allocations = new Allocation[THREAD_CACHE_CAPACITY];
+    }
+  }
 }
@@ -144,6 +144,30 @@ public final class DefaultBandwidthMeter implements BandwidthMeter, TransferList
      *     fallback.
      */
     long getInitialBitrateEstimate(@C.NetworkType int networkType);
+
+    /**
+     * Called by the meter each time it takes a bandwidth sample, on the thread that ends the
+     * transfer or changes the network type.
+     *
+     * <p>Unlike {@link BandwidthMeter.EventListener#onBandwidthSample}, this method is called
+     * synchronously, so samples are reported before the meter asks for the initial estimate of a
+     * new network.
+     *
+     * <p>Samples don't identify the meter that took them, so a supplier that implements this method
+     * should only be set on a single meter.
+     *
+     * @param networkType The {@link C.NetworkType} when the sample started.
+     * @param elapsedMs The time taken by the sample, in milliseconds.
+     * @param bytesTransferred The number of bytes transferred in the sample.
+     * @param bitrateEstimate The meter's bitrate estimate after the sample, in bits per second.
+     */
+    default void onBandwidthSample(
+        @C.NetworkType int networkType,
+        int elapsedMs,
+        long bytesTransferred,
+        long bitrateEstimate) {
+      // Do nothing.
+    }
   }
 
   /** Builder for a bandwidth meter. */
@@ -330,6 +354,9 @@ public final class DefaultBandwidthMeter implements BandwidthMeter, TransferList
   @GuardedBy("this") // Used in TransferListener methods that are called on a background thread.
   private long sampleBytesTransferred;
 
+  @GuardedBy("this") // Used in TransferListener methods that are called on a background thread.
+  private @C.NetworkType int sampleNetworkType;
+
   @GuardedBy("this") // Used in TransferListener methods that are called on a background thread.
   private long totalElapsedTimeMs;
 
@@ -364,11 +391,13 @@ public final class DefaultBandwidthMeter implements BandwidthMeter, TransferList
     if (context != null) {
       NetworkTypeObserver networkTypeObserver = NetworkTypeObserver.getInstance(context);
       networkType = networkTypeObserver.getNetworkType();
+      sampleNetworkType = networkType;
       bitrateEstimate = getInitialBitrateEstimateForNetworkType(networkType);
       networkTypeObserver.register(
           /* listener= */ this::onNetworkTypeChanged, BackgroundExecutor.get());
     } else {
       networkType = C.NETWORK_TYPE_UNKNOWN;
+      sampleNetworkType = C.NETWORK_TYPE_UNKNOWN;
       bitrateEstimate = DEFAULT_INITIAL_BITRATE_ESTIMATE;
     }
   }
@@ -422,6 +451,7 @@ public final class DefaultBandwidthMeter implements BandwidthMeter, TransferList
     }
     if (streamCount == 0) {
       sampleStartTimeMs = clock.elapsedRealtime();
+      sampleNetworkType = networkType;
     }
     streamCount++;
   }
@@ -453,7 +483,10 @@ public final class DefaultBandwidthMeter implements BandwidthMeter, TransferList
         bitrateEstimate = (long) slidingPercentile.getPercentile(0.5f);
       }
       maybeNotifyBandwidthSample(sampleElapsedTimeMs, sampleBytesTransferred, bitrateEstimate);
+      maybeNotifyInitialBitrateSupplier(
+          sampleElapsedTimeMs, sampleBytesTransferred, bitrateEstimate);
       sampleStartTimeMs = nowMs;
+      sampleNetworkType = networkType;
       sampleBytesTransferred = 0;
     } // Else any sample bytes transferred will be carried forward into the next sample.
     streamCount--;
@@ -484,14 +517,19 @@ public final class DefaultBandwidthMeter implements BandwidthMeter, TransferList
       countryCode = Util.getCountryCode(context);
     }
 
-    // Reset the bitrate estimate and report it, along with any bytes transferred.
-    this.bitrateEstimate = getInitialBitrateEstimateForNetworkType(networkType);
+    // Report the bytes transferred on the previous network to the supplier before asking it for
+    // the initial estimate of the new one, so that they aren't attributed to the new network.
     long nowMs = clock.elapsedRealtime();
     int sampleElapsedTimeMs = streamCount > 0 ? (int) (nowMs - sampleStartTimeMs) : 0;
+    maybeNotifyInitialBitrateSupplier(sampleElapsedTimeMs, sampleBytesTransferred, bitrateEstimate);
+
+    // Reset the bitrate estimate and report it, along with any bytes transferred.
+    this.bitrateEstimate = getInitialBitrateEstimateForNetworkType(networkType);
     maybeNotifyBandwidthSample(sampleElapsedTimeMs, sampleBytesTransferred, bitrateEstimate);
 
     // Reset the remainder of the state.
     sampleStartTimeMs = nowMs;
+    sampleNetworkType = networkType;
     sampleBytesTransferred = 0;
     totalBytesTransferred = 0;
     totalElapsedTimeMs = 0;
@@ -508,6 +546,16 @@ public final class DefaultBandwidthMeter implements BandwidthMeter, TransferList
     eventDispatcher.bandwidthSample(elapsedMs, bytesTransferred, bitrateEstimate);
   }
 
+  @GuardedBy("this")
+  private void maybeNotifyInitialBitrateSupplier(
+      int elapsedMs, long bytesTransferred, long bitrateEstimate) {
+    if (initialBitrateSupplier == null || elapsedMs == 0) {
+      return;
+    }
+    initialBitrateSupplier.onBandwidthSample(
+        sampleNetworkType, elapsedMs, bytesTransferred, bitrateEstimate);
+  }
+
   private long getInitialBitrateEstimateForNetworkType(@C.NetworkType int networkType) {
     if (initialBitrateSupplier != null) {
       long supplierEstimate = initialBitrateSupplier.getInitialBitrateEstimate(networkType);
@@ -335,6 +335,15 @@ public final class Loader implements LoaderErrorThrower {
     downloadExecutor.release();
   }
 
+  /**
+   * Returns the {@link Loadable} loaded by a task that a loader passed to its download executor, or
+   * {@code null} if the task doesn't load a {@link Loadable}.
+   */
+  @Nullable
+  /* package */ static Loadable getLoadable(Runnable task) {
+    return task instanceof Loader.LoadTask ? ((LoadTask<?>) task).loadable : null;
+  }
+
   // LoaderErrorThrower implementation.
 
   @Override
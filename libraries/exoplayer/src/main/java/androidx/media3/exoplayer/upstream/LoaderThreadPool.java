@@ -0,0 +1,201 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.media3.exoplayer.upstream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.media3.common.C;
+import androidx.media3.common.util.Clock;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.exoplayer.util.ReleasableExecutor;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of threads that can be shared by {@link Loader} instances, instead of each loader having a
+ * thread of its own.
+ *
+ * <p>Each {@link ReleasableExecutor} returned by {@link #createExecutor()} runs its tasks one at a
+ * time and in order, as the single thread executor of a {@link Loader} would, but on threads from
+ * the pool. The executors can be provided to media sources by passing {@code pool::createExecutor}
+ * to {@code setDownloadExecutor} of their factories.
+ *
+ * <p>By default, the pool starts a new thread whenever a task is given to it while all of its
+ * threads are busy, so loads never wait for each other. The pool still needs fewer threads than
+ * one per {@link Loader}, because a thread is only in use while a load is running, and threads are
+ * reused by later loads of any loader.
+ *
+ * <p>Apps can opt in to a maximum number of threads. A load task occupies a thread until it
+ * completes, so if more loads are running than the pool has threads, later loads wait until a
+ * running load completes. This includes time that a running load spends blocked rather than
+ * loading. For example, a {@link androidx.media3.exoplayer.source.ProgressiveMediaSource} load that
+ * has buffered enough and waits for the player to continue loading keeps its thread until it's
+ * continued or canceled, which may not happen before the loads waiting for a thread make progress.
+ * Loads waiting for a thread then starve, which can stall playback if the player is waiting for one
+ * of them. A bounded pool should therefore have at least as many threads as the number of loads
+ * that can be running at the same time, which is usually one per media period being loaded plus one
+ * for each manifest or playlist being loaded, for each player that shares the pool. The time that
+ * tasks wait is reported to the {@link Listener}, which can be used to check that the pool has
+ * enough threads not to delay loading.
+ *
+ * <p>Threads are stopped when they have been idle for a while, and started again when needed.
+ */
+@UnstableApi
+public final class LoaderThreadPool {
+
+  /** A listener for the tasks run by a {@link LoaderThreadPool}. */
+  public interface Listener {
+
+    /**
+     * Called on the pool thread when a task starts running.
+     *
+     * @param loadable The {@link Loader.Loadable} that the task loads, or {@code null} if the task
+     *     doesn't load a {@link Loader.Loadable}, for example if it runs the release callback of a
+     *     {@link Loader}.
+     * @param queueingDelayMs The time from when the task was given to the executor until it started
+     *     running, in milliseconds.
+     */
+    void onTaskStarted(@Nullable Loader.Loadable loadable, long queueingDelayMs);
+  }
+
+  private static final String THREAD_NAME_PREFIX = "ExoPlayer:Loader:Pool:";
+  private static final long KEEP_ALIVE_TIME_MS = 10_000;
+
+  private final ThreadPoolExecutor threadPoolExecutor;
+  @Nullable private final Listener listener;
+  private final Clock clock;
+  private final AtomicInteger threadCount;
+
+  /** Creates an instance that starts a new thread whenever all of its threads are busy. */
+  public LoaderThreadPool() {
+    this(/* listener= */ null);
+  }
+
+  /**
+   * Creates an instance that starts a new thread whenever all of its threads are busy.
+   *
+   * @param listener A {@link Listener} for the tasks run by the pool, or {@code null}.
+   */
+  public LoaderThreadPool(@Nullable Listener listener) {
+    this(/* maxThreadCount= */ C.LENGTH_UNSET, listener, Clock.DEFAULT);
+  }
+
+  /**
+   * Creates an instance with a maximum number of threads.
+   *
+   * <p>See the class documentation for how loads that block can starve other loads when all of the
+   * threads are in use.
+   *
+   * @param maxThreadCount The maximum number of threads in the pool.
+   */
+  public LoaderThreadPool(int maxThreadCount) {
+    this(maxThreadCount, /* listener= */ null);
+  }
+
+  /**
+   * Creates an instance with a maximum number of threads.
+   *
+   * <p>See the class documentation for how loads that block can starve other loads when all of the
+   * threads are in use.
+   *
+   * @param maxThreadCount The maximum number of threads in the pool.
+   * @param listener A {@link Listener} for the tasks run by the pool, or {@code null}.
+   */
+  public LoaderThreadPool(int maxThreadCount, @Nullable Listener listener) {
+    this(maxThreadCount, listener, Clock.DEFAULT);
+    checkArgument(maxThreadCount > 0);
+  }
+
+  /**
+   * @param maxThreadCount The maximum number of threads in the pool, or {@link C#LENGTH_UNSET} to
+   *     start a new thread whenever all of the threads are busy.
+   * @param listener A {@link Listener} for the tasks run by the pool, or {@code null}.
+   * @param clock The {@link Clock} used to measure the queueing delay of tasks.
+   */
+  @VisibleForTesting
+  /* package */ LoaderThreadPool(int maxThreadCount, @Nullable Listener listener, Clock clock) {
+    checkArgument(maxThreadCount > 0 || maxThreadCount == C.LENGTH_UNSET);
+    this.listener = listener;
+    this.clock = clock;
+    threadCount = new AtomicInteger();
+    ThreadFactory threadFactory =
+        runnable -> new Thread(runnable, THREAD_NAME_PREFIX + threadCount.getAndIncrement());
+    if (maxThreadCount == C.LENGTH_UNSET) {
+      // A SynchronousQueue holds no tasks, so a thread is started if no idle thread takes the task.
+      threadPoolExecutor =
+          new ThreadPoolExecutor(
+              /* corePoolSize= */ 0,
+              /* maximumPoolSize= */ Integer.MAX_VALUE,
+              KEEP_ALIVE_TIME_MS,
+              TimeUnit.MILLISECONDS,
+              new SynchronousQueue<>(),
+              threadFactory);
+    } else {
+      threadPoolExecutor =
+          new ThreadPoolExecutor(
+              /* corePoolSize= */ maxThreadCount,
+              /* maximumPoolSize= */ maxThreadCount,
+              KEEP_ALIVE_TIME_MS,
+              TimeUnit.MILLISECONDS,
+              new LinkedBlockingQueue<>(),
+              threadFactory);
+      threadPoolExecutor.allowCoreThreadTimeOut(true);
+    }
+  }
+
+  /**
+   * Returns a new {@link ReleasableExecutor} that runs its tasks one at a time and in order on
+   * threads from the pool.
+   *
+   * <p>Releasing the returned executor doesn't affect the pool.
+   */
+  public ReleasableExecutor createExecutor() {
+    Executor sequentialExecutor = MoreExecutors.newSequentialExecutor(threadPoolExecutor);
+    return ReleasableExecutor.from(
+        listener != null
+            ? command -> executeTimed(sequentialExecutor, command)
+            : sequentialExecutor,
+        executor -> {});
+  }
+
+  /**
+   * Releases the pool. Tasks that are running or waiting for a thread still run, but executors
+   * created by the pool must not be given new tasks.
+   */
+  public void release() {
+    threadPoolExecutor.shutdown();
+  }
+
+  private void executeTimed(Executor sequentialExecutor, Runnable command) {
+    long submitTimeMs = clock.elapsedRealtime();
+    @Nullable Loader.Loadable loadable = Loader.getLoadable(command);
+    sequentialExecutor.execute(
+        () -> {
+          if (listener != null) {
+            listener.onTaskStarted(loadable, clock.elapsedRealtime() - submitTimeMs);
+          }
+          command.run();
+        });
+  }
+}
@@ -0,0 +1,402 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.media3.exoplayer.upstream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import android.content.Context;
+import android.telephony.TelephonyManager;
+import android.text.TextUtils;
+import androidx.annotation.GuardedBy;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.media3.common.C;
+import androidx.media3.common.util.AtomicFile;
+import androidx.media3.common.util.BackgroundExecutor;
+import androidx.media3.common.util.Clock;
+import androidx.media3.common.util.Log;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.common.util.Util;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Persists recent bitrate estimates per network, and supplies them as the initial bitrate estimate
+ * when the app connects to the same network in a later session.
+ *
+ * <p>The default initial estimates of the bandwidth meters are based on the country and the network
+ * type only, so the first selections of every session may be far from the actual bandwidth. To
+ * seed a bandwidth meter from the history, set the history as its initial bitrate supplier. For
+ * example:
+ *
+ * <pre>{@code
+ * PersistentBandwidthHistory history = new PersistentBandwidthHistory(context);
+ * DefaultBandwidthMeter bandwidthMeter =
+ *     new DefaultBandwidthMeter.Builder(context).setInitialBitrateSupplier(history).build();
+ * }</pre>
+ *
+ * <p>The meter reports its samples to the history, which records the meter's estimate for the
+ * network on which the samples started once the meter has transferred enough data on that network
+ * to replace its initial estimate, that is for at least 2000 ms or at least 512 KiB.
+ *
+ * <p>An instance must only be set as the initial bitrate supplier of a single bandwidth meter,
+ * because it adds up the samples it's given as if they were taken by one meter. Apps with several
+ * meters should create an instance for each of them, each persisting to its own {@link File}.
+ *
+ * <p>The estimates are recorded in memory, and {@link #save()} persists them, for example when the
+ * app moves to the background. The persisted estimates are read on a background thread when the
+ * history is created, and no estimates are supplied until they have been read. Bandwidth meters
+ * ask for the estimate of the current network again on their background thread after they're
+ * created, so they're seeded from the persisted estimates as soon as these are available.
+ *
+ * <p>Networks are identified by a {@link NetworkIdentityProvider}. By default, cellular networks
+ * are identified by the network type and a hash of the network operator, and other networks by
+ * their network type only, because identifying Wi-Fi networks requires location permissions.
+ */
+@UnstableApi
+public final class PersistentBandwidthHistory
+    implements DefaultBandwidthMeter.InitialBitrateSupplier {
+
+  /** Provides an identity of the current network. */
+  public interface NetworkIdentityProvider {
+
+    /**
+     * Returns an identity of the current network, or null if the network can't be identified.
+     *
+     * <p>Identities are persisted, so they shouldn't contain personally identifiable information
+     * such as network names, which should be hashed instead.
+     *
+     * @param networkType The {@link C.NetworkType} of the current network.
+     * @return The identity of the current network, or null if the network can't be identified.
+     */
+    @Nullable
+    String getNetworkIdentity(@C.NetworkType int networkType);
+  }
+
+  /** The default maximum number of networks whose estimates are persisted. */
+  public static final int DEFAULT_MAX_NETWORK_COUNT = 16;
+
+  /** The default maximum age of estimates that are supplied as initial estimates. */
+  public static final long DEFAULT_MAX_AGE_MS = 7 * 24 * 60 * 60 * 1000L;
+
+  private static final String TAG = "BandwidthHistory";
+  private static final String FILE_NAME = "exoplayer_bandwidth_history";
+  private static final int VERSION = 1;
+  private static final int ELAPSED_MILLIS_FOR_ESTIMATE = 2000;
+  private static final int BYTES_TRANSFERRED_FOR_ESTIMATE = 512 * 1024;
+
+  private final AtomicFile atomicFile;
+  private final NetworkIdentityProvider networkIdentityProvider;
+  private final Clock clock;
+  private final int maxNetworkCount;
+  private final long maxAgeMs;
+
+  @GuardedBy("this")
+  private final LinkedHashMap<String, Estimate> estimates;
+
+  @GuardedBy("this")
+  private @C.NetworkType int sampleNetworkType;
+
+  @GuardedBy("this")
+  @Nullable
+  private String sampleNetworkIdentity;
+
+  @GuardedBy("this")
+  private long totalElapsedTimeMs;
+
+  @GuardedBy("this")
+  private long totalBytesTransferred;
+
+  @GuardedBy("this")
+  private boolean loaded;
+
+  /**
+   * Creates an instance that persists the estimates in the app's no-backup files directory, using
+   * the {@linkplain #DEFAULT_MAX_NETWORK_COUNT default maximum network count} and the {@linkplain
+   * #DEFAULT_MAX_AGE_MS default maximum age}.
+   *
+   * @param context A {@link Context}.
+   */
+  public PersistentBandwidthHistory(Context context) {
+    this(context, DEFAULT_MAX_NETWORK_COUNT, DEFAULT_MAX_AGE_MS);
+  }
+
+  /**
+   * Creates an instance that persists the estimates in the app's no-backup files directory.
+   *
+   * @param context A {@link Context}.
+   * @param maxNetworkCount The maximum number of networks whose estimates are persisted. The
+   *     estimates of the least recently used networks are discarded first.
+   * @param maxAgeMs The maximum age of estimates that are supplied as initial estimates, in
+   *     milliseconds.
+   */
+  public PersistentBandwidthHistory(Context context, int maxNetworkCount, long maxAgeMs) {
+    this(
+        new File(context.getNoBackupFilesDir(), FILE_NAME),
+        new DefaultNetworkIdentityProvider(context),
+        Clock.DEFAULT,
+        BackgroundExecutor.get(),
+        maxNetworkCount,
+        maxAgeMs);
+  }
+
+  /**
+   * Creates an instance.
+   *
+   * @param file The file in which the estimates are persisted.
+   * @param networkIdentityProvider The {@link NetworkIdentityProvider}.
+   * @param clock The {@link Clock} used to determine the age of estimates.
+   * @param loadExecutor The {@link Executor} on which the persisted estimates are read.
+   * @param maxNetworkCount The maximum number of networks whose estimates are persisted. The
+   *     estimates of the least recently used networks are discarded first.
+   * @param maxAgeMs The maximum age of estimates that are supplied as initial estimates, in
+   *     milliseconds.
+   */
+  public PersistentBandwidthHistory(
+      File file,
+      NetworkIdentityProvider networkIdentityProvider,
+      Clock clock,
+      Executor loadExecutor,
+      int maxNetworkCount,
+      long maxAgeMs) {
+    checkArgument(maxNetworkCount > 0);
+    this.atomicFile = new AtomicFile(file);
+    this.networkIdentityProvider = networkIdentityProvider;
+    this.clock = clock;
+    this.maxNetworkCount = maxNetworkCount;
+    this.maxAgeMs = maxAgeMs;
+    estimates =
+        new LinkedHashMap<>(
+            /* initialCapacity= */ 16, /* loadFactor= */ 0.75f, /* accessOrder= */ true);
+    sampleNetworkType = C.NETWORK_TYPE_UNKNOWN;
+    loadExecutor.execute(this::maybeLoad);
+  }
+
+  /**
+   * Returns the most recent estimate of the network with the given network type, or {@link
+   * C#TIME_UNSET} if there is no recent estimate for the network or the persisted estimates haven't
+   * been read yet.
+   *
+   * <p>Bandwidth meters call this method when they reset their estimate, so the data transferred
+   * before the call doesn't count towards recording estimates afterwards.
+   */
+  @Override
+  public synchronized long getInitialBitrateEstimate(@C.NetworkType int networkType) {
+    sampleNetworkType = C.NETWORK_TYPE_UNKNOWN;
+    sampleNetworkIdentity = null;
+    if (!loaded) {
+      return C.TIME_UNSET;
+    }
+    @Nullable String networkIdentity = getNetworkIdentity(networkType);
+    if (networkIdentity == null) {
+      return C.TIME_UNSET;
+    }
+    @Nullable Estimate estimate = estimates.get(networkIdentity);
+    if (estimate == null || clock.currentTimeMillis() - estimate.timestampMs > maxAgeMs) {
+      return C.TIME_UNSET;
+    }
+    return estimate.bitrate;
+  }
+
+  @Override
+  public synchronized void onBandwidthSample(
+      @C.NetworkType int networkType, int elapsedMs, long bytesTransferred, long bitrateEstimate) {
+    if (networkType != sampleNetworkType) {
+      // The first sample on this network since the meter's estimate was reset.
+      sampleNetworkType = networkType;
+      sampleNetworkIdentity = getNetworkIdentity(networkType);
+      totalElapsedTimeMs = 0;
+      totalBytesTransferred = 0;
+    }
+    totalElapsedTimeMs += elapsedMs;
+    totalBytesTransferred += bytesTransferred;
+    @Nullable String networkIdentity = sampleNetworkIdentity;
+    if (networkIdentity == null
+        || bitrateEstimate <= 0
+        || (totalElapsedTimeMs < ELAPSED_MILLIS_FOR_ESTIMATE
+            && totalBytesTransferred < BYTES_TRANSFERRED_FOR_ESTIMATE)) {
+      // The meter's estimate is still its initial estimate, which mustn't be recorded as a new
+      // estimate because that would prevent old estimates from expiring.
+      return;
+    }
+    estimates.put(networkIdentity, new Estimate(bitrateEstimate, clock.currentTimeMillis()));
+    trimToMaxNetworkCount();
+  }
+
+  /**
+   * Persists the recorded estimates.
+   *
+   * <p>This method writes to a file, so it should be called on a background thread.
+   *
+   * @throws IOException If an error occurs writing the file.
+   */
+  @WorkerThread
+  public void save() throws IOException {
+    maybeLoad();
+    List<Map.Entry<String, Estimate>> entries;
+    synchronized (this) {
+      entries = new ArrayList<>(estimates.entrySet());
+    }
+    @Nullable DataOutputStream output = null;
+    try {
+      output = new DataOutputStream(new BufferedOutputStream(atomicFile.startWrite()));
+      output.writeInt(VERSION);
+      output.writeInt(entries.size());
+      for (Map.Entry<String, Estimate> entry : entries) {
+        output.writeUTF(entry.getKey());
+        output.writeLong(entry.getValue().bitrate);
+        output.writeLong(entry.getValue().timestampMs);
+      }
+      atomicFile.endWrite(output);
+      output = null;
+    } finally {
+      Util.closeQuietly(output);
+    }
+  }
+
+  @WorkerThread
+  private void maybeLoad() {
+    synchronized (this) {
+      if (loaded) {
+        return;
+      }
+    }
+    LinkedHashMap<String, Estimate> loadedEstimates = new LinkedHashMap<>();
+    if (atomicFile.exists()) {
+      boolean success = false;
+      @Nullable DataInputStream input = null;
+      try {
+        input = new DataInputStream(new BufferedInputStream(atomicFile.openRead()));
+        if (input.readInt() == VERSION) {
+          int count = input.readInt();
+          for (int i = 0; i < count; i++) {
+            loadedEstimates.put(
+                /* key= */ input.readUTF(),
+                new Estimate(/* bitrate= */ input.readLong(), /* timestampMs= */ input.readLong()));
+          }
+          success = true;
+        }
+      } catch (IOException e) {
+        Log.w(TAG, "Failed to read persisted bandwidth history", e);
+      } finally {
+        Util.closeQuietly(input);
+      }
+      if (!success) {
+        // The file is from a different version, or is corrupt.
+        loadedEstimates.clear();
+        atomicFile.delete();
+      }
+    }
+    synchronized (this) {
+      if (loaded) {
+        return;
+      }
+      loaded = true;
+      // Estimates recorded before the file was read are more recent than the persisted ones.
+      loadedEstimates.keySet().removeAll(estimates.keySet());
+      Map<String, Estimate> recordedEstimates = new LinkedHashMap<>(estimates);
+      estimates.clear();
+      estimates.putAll(loadedEstimates);
+      estimates.putAll(recordedEstimates);
+      trimToMaxNetworkCount();
+    }
+  }
+
+  @GuardedBy("this")
+  private void trimToMaxNetworkCount() {
+    Iterator<String> iterator = estimates.keySet().iterator();
+    while (estimates.size() > maxNetworkCount) {
+      iterator.next();
+      iterator.remove();
+    }
+  }
+
+  @Nullable
+  private String getNetworkIdentity(@C.NetworkType int networkType) {
+    return isIdentifiableNetworkType(networkType)
+        ? networkIdentityProvider.getNetworkIdentity(networkType)
+        : null;
+  }
+
+  private static boolean isIdentifiableNetworkType(@C.NetworkType int networkType) {
+    return networkType != C.NETWORK_TYPE_UNKNOWN
+        && networkType != C.NETWORK_TYPE_OFFLINE
+        && networkType != C.NETWORK_TYPE_OTHER;
+  }
+
+  private static final class Estimate {
+
+    public final long bitrate;
+    public final long timestampMs;
+
+    public Estimate(long bitrate, long timestampMs) {
+      this.bitrate = bitrate;
+      this.timestampMs = timestampMs;
+    }
+  }
+
+  private static final class DefaultNetworkIdentityProvider implements NetworkIdentityProvider {
+
+    private final Context context;
+
+    public DefaultNetworkIdentityProvider(Context context) {
+      this.context = context.getApplicationContext();
+    }
+
+    @Nullable
+    @Override
+    public String getNetworkIdentity(@C.NetworkType int networkType) {
+      String networkTypeIdentity = Integer.toString(networkType);
+      if (!isCellularNetworkType(networkType)) {
+        return networkTypeIdentity;
+      }
+      @Nullable
+      TelephonyManager telephonyManager =
+          (TelephonyManager) context.getSystemService(Context.TELEPHONY_SERVICE);
+      @Nullable
+      String networkOperator =
+          telephonyManager != null ? telephonyManager.getNetworkOperator() : null;
+      if (TextUtils.isEmpty(networkOperator)) {
+        return networkTypeIdentity;
+      }
+      return networkTypeIdentity + "-" + Integer.toHexString(networkOperator.hashCode());
+    }
+
+    private static boolean isCellularNetworkType(@C.NetworkType int networkType) {
+      switch (networkType) {
+        case C.NETWORK_TYPE_2G:
+        case C.NETWORK_TYPE_3G:
+        case C.NETWORK_TYPE_4G:
+        case C.NETWORK_TYPE_5G_NSA:
+        case C.NETWORK_TYPE_5G_SA:
+        case C.NETWORK_TYPE_CELLULAR_UNKNOWN:
+          return true;
+        default:
+          return false;
+      }
+    }
+  }
+}
@@ -24,6 +24,7 @@ import androidx.annotation.GuardedBy;
 import androidx.annotation.Nullable;
 import androidx.media3.common.C;
 import androidx.media3.common.util.BackgroundExecutor;
+import androidx.media3.common.util.Clock;
 import androidx.media3.common.util.ExperimentalApi;
 import androidx.media3.common.util.NetworkTypeObserver;
 import androidx.media3.common.util.Util;
@@ -31,6 +32,7 @@ import androidx.media3.datasource.DataSource;
 import androidx.media3.datasource.DataSpec;
 import androidx.media3.datasource.TransferListener;
 import androidx.media3.exoplayer.upstream.BandwidthMeter;
+import androidx.media3.exoplayer.upstream.DefaultBandwidthMeter.InitialBitrateSupplier;
 import androidx.media3.exoplayer.upstream.TimeToFirstByteEstimator;
 import com.google.common.base.Ascii;
 import com.google.common.collect.ImmutableList;
@@ -132,6 +134,8 @@ public final class ExperimentalBandwidthMeter implements BandwidthMeter, Transfe
     private TimeToFirstByteEstimator timeToFirstByteEstimator;
     private BandwidthEstimator bandwidthEstimator;
     private boolean resetOnNetworkTypeChange;
+    @Nullable private InitialBitrateSupplier initialBitrateSupplier;
+    private Clock clock;
 
     /**
      * Creates a builder with default parameters and without listener.
@@ -147,6 +151,7 @@ public final class ExperimentalBandwidthMeter implements BandwidthMeter, Transfe
               /* percentile= */ DEFAULT_TIME_TO_FIRST_BYTE_PERCENTILE);
       bandwidthEstimator = new SplitParallelSampleBandwidthEstimator.Builder().build();
       resetOnNetworkTypeChange = true;
+      clock = Clock.DEFAULT;
       initialBitrateEstimates = new HashMap<>(/* initialCapacity= */ 8);
       initialBitrateEstimates.put(C.NETWORK_TYPE_UNKNOWN, DEFAULT_INITIAL_BITRATE_ESTIMATE);
       initialBitrateEstimates.put(C.NETWORK_TYPE_WIFI, C.TIME_UNSET);
@@ -245,6 +250,37 @@ public final class ExperimentalBandwidthMeter implements BandwidthMeter, Transfe
       return this;
     }
 
+    /**
+     * Sets the {@link InitialBitrateSupplier} to use for obtaining the initial bitrate estimate
+     * when a bandwidth estimate is unavailable.
+     *
+     * <p>By default, no supplier is set and the meter falls back to its internal default logic.
+     *
+     * @param initialBitrateSupplier The {@link InitialBitrateSupplier}.
+     * @return This builder.
+     */
+    @CanIgnoreReturnValue
+    public Builder setInitialBitrateSupplier(InitialBitrateSupplier initialBitrateSupplier) {
+      this.initialBitrateSupplier = initialBitrateSupplier;
+      return this;
+    }
+
+    /**
+     * Sets the clock used to time the samples reported to the {@link InitialBitrateSupplier}.
+     * Should only be set for testing purposes.
+     *
+     * <p>The clock of the {@link BandwidthEstimator} is set on its own builder.
+     *
+     * @param clock The clock used to time the samples reported to the {@link
+     *     InitialBitrateSupplier}.
+     * @return This builder.
+     */
+    @CanIgnoreReturnValue
+    public Builder setClock(Clock clock) {
+      this.clock = clock;
+      return this;
+    }
+
     /**
      * Builds the bandwidth meter.
      *
@@ -256,13 +292,17 @@ public final class ExperimentalBandwidthMeter implements BandwidthMeter, Transfe
           initialBitrateEstimates,
           timeToFirstByteEstimator,
           bandwidthEstimator,
-          resetOnNetworkTypeChange);
+          resetOnNetworkTypeChange,
+          initialBitrateSupplier,
+          clock);
     }
   }
 
   @Nullable private final Context context;
   private final ImmutableMap<Integer, Long> initialBitrateEstimates;
   private final boolean resetOnNetworkTypeChange;
+  @Nullable private final InitialBitrateSupplier initialBitrateSupplier;
+  private final Clock clock;
 
   @GuardedBy("this") // Used in TransferListener methods that are called on a background thread.
   private final TimeToFirstByteEstimator timeToFirstByteEstimator;
@@ -270,6 +310,18 @@ public final class ExperimentalBandwidthMeter implements BandwidthMeter, Transfe
   @GuardedBy("this") // Used in TransferListener methods that are called on a background thread.
   private final BandwidthEstimator bandwidthEstimator;
 
+  @GuardedBy("this") // Used in TransferListener methods that are called on a background thread.
+  private int streamCount;
+
+  @GuardedBy("this") // Used in TransferListener methods that are called on a background thread.
+  private long sampleStartTimeMs;
+
+  @GuardedBy("this") // Used in TransferListener methods that are called on a background thread.
+  private long sampleBytesTransferred;
+
+  @GuardedBy("this") // Used in TransferListener methods that are called on a background thread.
+  private @C.NetworkType int sampleNetworkType;
+
   private @C.NetworkType int networkType;
   private long initialBitrateEstimate;
   private boolean networkTypeOverrideSet;
@@ -281,14 +333,19 @@ public final class ExperimentalBandwidthMeter implements BandwidthMeter, Transfe
       Map<Integer, Long> initialBitrateEstimates,
       TimeToFirstByteEstimator timeToFirstByteEstimator,
       BandwidthEstimator bandwidthEstimator,
-      boolean resetOnNetworkTypeChange) {
+      boolean resetOnNetworkTypeChange,
+      @Nullable InitialBitrateSupplier initialBitrateSupplier,
+      Clock clock) {
     this.context = context == null ? null : context.getApplicationContext();
     this.initialBitrateEstimates = ImmutableMap.copyOf(initialBitrateEstimates);
     this.timeToFirstByteEstimator = timeToFirstByteEstimator;
     this.bandwidthEstimator = bandwidthEstimator;
     this.resetOnNetworkTypeChange = resetOnNetworkTypeChange;
+    this.initialBitrateSupplier = initialBitrateSupplier;
+    this.clock = clock;
     NetworkTypeObserver networkTypeObserver = NetworkTypeObserver.getInstance(context);
     networkType = networkTypeObserver.getNetworkType();
+    sampleNetworkType = networkType;
     initialBitrateEstimate = getInitialBitrateEstimateForNetworkType(networkType);
     networkTypeObserver.register(
         /* listener= */ this::onNetworkTypeChanged, BackgroundExecutor.get());
@@ -356,6 +413,13 @@ public final class ExperimentalBandwidthMeter implements BandwidthMeter, Transfe
     }
     timeToFirstByteEstimator.onTransferStart(dataSpec);
     bandwidthEstimator.onTransferStart(source);
+    if (initialBitrateSupplier != null) {
+      if (streamCount == 0) {
+        sampleStartTimeMs = clock.elapsedRealtime();
+        sampleNetworkType = networkType;
+      }
+      streamCount++;
+    }
   }
 
   @Override
@@ -365,6 +429,9 @@ public final class ExperimentalBandwidthMeter implements BandwidthMeter, Transfe
       return;
     }
     bandwidthEstimator.onBytesTransferred(source, bytesTransferred);
+    if (initialBitrateSupplier != null) {
+      sampleBytesTransferred += bytesTransferred;
+    }
   }
 
   @Override
@@ -373,6 +440,10 @@ public final class ExperimentalBandwidthMeter implements BandwidthMeter, Transfe
       return;
     }
     bandwidthEstimator.onTransferEnd(source);
+    if (initialBitrateSupplier != null && streamCount > 0) {
+      maybeNotifyInitialBitrateSupplier(/* resetSample= */ false);
+      streamCount--;
+    }
   }
 
   private synchronized void onNetworkTypeChanged(@C.NetworkType int networkType) {
@@ -400,13 +471,42 @@ public final class ExperimentalBandwidthMeter implements BandwidthMeter, Transfe
       countryCode = Util.getCountryCode(context);
     }
 
+    // Report the bytes transferred on the previous network to the supplier before asking it for
+    // the initial estimate of the new one, so that they aren't attributed to the new network.
+    maybeNotifyInitialBitrateSupplier(/* resetSample= */ true);
+
     // Reset the bitrate estimate and report it, along with any bytes transferred.
     this.initialBitrateEstimate = getInitialBitrateEstimateForNetworkType(networkType);
     bandwidthEstimator.onNetworkTypeChange(initialBitrateEstimate);
     timeToFirstByteEstimator.reset();
   }
 
+  @GuardedBy("this")
+  private void maybeNotifyInitialBitrateSupplier(boolean resetSample) {
+    if (initialBitrateSupplier == null) {
+      return;
+    }
+    long nowMs = clock.elapsedRealtime();
+    int sampleElapsedTimeMs = streamCount > 0 ? (int) (nowMs - sampleStartTimeMs) : 0;
+    if (sampleElapsedTimeMs > 0) {
+      initialBitrateSupplier.onBandwidthSample(
+          sampleNetworkType, sampleElapsedTimeMs, sampleBytesTransferred, getBitrateEstimate());
+    } else if (!resetSample) {
+      // Any sample bytes transferred will be carried forward into the next sample.
+      return;
+    }
+    sampleStartTimeMs = nowMs;
+    sampleBytesTransferred = 0;
+    sampleNetworkType = networkType;
+  }
+
   private long getInitialBitrateEstimateForNetworkType(@C.NetworkType int networkType) {
+    if (initialBitrateSupplier != null) {
+      long supplierEstimate = initialBitrateSupplier.getInitialBitrateEstimate(networkType);
+      if (supplierEstimate != C.TIME_UNSET) {
+        return supplierEstimate;
+      }
+    }
     @Nullable Long initialBitrateEstimate = initialBitrateEstimates.get(networkType);
     if (initialBitrateEstimate == null) {
       initialBitrateEstimate = initialBitrateEstimates.get(C.NETWORK_TYPE_UNKNOWN);
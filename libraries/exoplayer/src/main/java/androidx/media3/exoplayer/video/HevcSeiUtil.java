@@ -18,6 +18,7 @@ package androidx.media3.exoplayer.video;
 import androidx.media3.common.util.CodecSpecificDataUtil;
 import androidx.media3.common.util.UnstableApi;
 import androidx.media3.container.NalUnitUtil;
+import androidx.media3.container.StartCodeScanner;
 import java.nio.ByteBuffer;
 
 /** Utility methods for handling HEVC SEI messages. */
@@ -66,7 +67,7 @@ public final class HevcSeiUtil {
     int searchOffset = position;
 
     while (searchOffset < limit) {
-      int nalUnitOffset = findNalUnit(buffer, searchOffset, limit);
+      int nalUnitOffset = StartCodeScanner.findStartCode(buffer, searchOffset, limit);
       if (nalUnitOffset == limit) {
         break; // No more NAL units
       }
@@ -87,7 +88,7 @@ public final class HevcSeiUtil {
       if (nalUnitType == NalUnitUtil.H265_NAL_UNIT_TYPE_PREFIX_SEI) {
         int seiOffset = nalUnitOffset + 3 + 2; // Skip 3-byte start code and 2-byte NAL header
 
-        int nextNalUnitOffset = findNalUnit(buffer, seiOffset, limit);
+        int nextNalUnitOffset = StartCodeScanner.findStartCode(buffer, seiOffset, limit);
         int seiLimit = nextNalUnitOffset; // The SEI payload ends where the next NAL unit starts
 
         int consecutiveZeros = 0; // State tracked across the entire SEI NAL unit
@@ -171,22 +172,4 @@ public final class HevcSeiUtil {
       }
     }
   }
-
-  /**
-   * Finds the first NAL unit start code (0x00 00 01) in the buffer and returns the offset of the
-   * first zero byte of the start code. Returns {@code limit} if no start code is found.
-   */
-  private static int findNalUnit(ByteBuffer buffer, int offset, int limit) {
-    int consecutiveZeros = 0;
-    int currentOffset = offset;
-    while (currentOffset < limit) {
-      int b = buffer.get(currentOffset) & 0xFF;
-      if (consecutiveZeros >= 2 && b == 0x01) {
-        return currentOffset - 2;
-      }
-      consecutiveZeros = (b == 0x00) ? consecutiveZeros + 1 : 0;
-      currentOffset++;
-    }
-    return limit;
-  }
 }
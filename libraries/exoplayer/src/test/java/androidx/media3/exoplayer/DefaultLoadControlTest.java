@@ -40,6 +40,8 @@ import androidx.media3.exoplayer.upstream.Allocator;
 import androidx.media3.exoplayer.upstream.DefaultAllocator;
 import androidx.media3.test.utils.FakeTimeline;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -1779,6 +1781,113 @@ public class DefaultLoadControlTest {
         .isTrue();
   }
 
+  @Test
+  public void shouldContinueLoading_withTotalTargetBufferBytes_grantsPlayingPlayerFirst() {
+    int segmentSize = C.DEFAULT_BUFFER_SEGMENT_SIZE;
+    PlayerId playerId2 = new PlayerId(/* playerName= */ "");
+    List<String> targetBufferBytesChanges = new ArrayList<>();
+    loadControl =
+        builder
+            .setAllocator(allocator)
+            .setTargetBufferBytes(4 * segmentSize)
+            .setTotalTargetBufferBytes(6 * segmentSize)
+            .setTargetBufferBytesListener(
+                (changedPlayerId, requestedTargetBufferBytes, targetBufferBytes) ->
+                    targetBufferBytesChanges.add(
+                        (changedPlayerId == playerId ? "player1:" : "player2:")
+                            + targetBufferBytes / segmentSize))
+            .build();
+    loadControl.onPrepared(playerId);
+    loadControl.onPrepared(playerId2);
+
+    // Both players are paused, so they share the total in proportion to their requests.
+    assertThat(loadControl.getPlayerTargetBufferBytes(playerId)).isEqualTo(3 * segmentSize);
+    assertThat(loadControl.getPlayerTargetBufferBytes(playerId2)).isEqualTo(3 * segmentSize);
+
+    loadControl.shouldContinueLoading(
+        createParameters(playerId, /* playWhenReady= */ true, /* bufferedDurationUs= */ 0));
+
+    assertThat(loadControl.getPlayerTargetBufferBytes(playerId)).isEqualTo(4 * segmentSize);
+    assertThat(loadControl.getPlayerTargetBufferBytes(playerId2)).isEqualTo(2 * segmentSize);
+    assertThat(loadControl.calculateTotalTargetBufferBytes()).isEqualTo(6 * segmentSize);
+
+    loadControl.onReleased(playerId);
+
+    assertThat(loadControl.getPlayerTargetBufferBytes(playerId)).isEqualTo(C.LENGTH_UNSET);
+    assertThat(loadControl.getPlayerTargetBufferBytes(playerId2)).isEqualTo(4 * segmentSize);
+    assertThat(targetBufferBytesChanges)
+        .containsExactly(
+            "player1:4", "player1:3", "player2:3", "player1:4", "player2:2", "player2:4");
+  }
+
+  @Test
+  public void onPrepared_withTotalTargetBufferBytes_trimsPreloadBeforePausedPlayer() {
+    int segmentSize = C.DEFAULT_BUFFER_SEGMENT_SIZE;
+    loadControl =
+        builder
+            .setAllocator(allocator)
+            .setTargetBufferBytes(4 * segmentSize)
+            .setPlayerTargetBufferBytes(PlayerId.PRELOAD.name, 4 * segmentSize)
+            .setTotalTargetBufferBytes(5 * segmentSize)
+            .build();
+
+    loadControl.onPrepared(PlayerId.PRELOAD);
+    loadControl.onPrepared(playerId);
+
+    assertThat(loadControl.getPlayerTargetBufferBytes(playerId)).isEqualTo(4 * segmentSize);
+    assertThat(loadControl.getPlayerTargetBufferBytes(PlayerId.PRELOAD)).isEqualTo(segmentSize);
+  }
+
+  @Test
+  public void shouldContinueLoading_totalTargetBufferBytesReachedByPreload_playingPlayerLoads() {
+    int segmentSize = C.DEFAULT_BUFFER_SEGMENT_SIZE;
+    loadControl =
+        builder
+            .setAllocator(allocator)
+            .setTargetBufferBytes(4 * segmentSize)
+            .setTotalTargetBufferBytes(4 * segmentSize)
+            .build();
+    loadControl.onPrepared(playerId);
+    loadControl.onPrepared(PlayerId.PRELOAD);
+    Allocator preloadAllocator = loadControl.getAllocator(PlayerId.PRELOAD);
+    for (int i = 0; i < 4; i++) {
+      preloadAllocator.allocate();
+    }
+
+    assertThat(
+            loadControl.shouldContinueLoading(
+                createParameters(
+                    playerId, /* playWhenReady= */ true, /* bufferedDurationUs= */ 0)))
+        .isTrue();
+  }
+
+  @Test
+  public void shouldContinueLoading_totalTargetBufferBytesReachedByPlayingPlayer_pausedPlayerStops() {
+    int segmentSize = C.DEFAULT_BUFFER_SEGMENT_SIZE;
+    PlayerId playerId2 = new PlayerId(/* playerName= */ "");
+    loadControl =
+        builder
+            .setAllocator(allocator)
+            .setTargetBufferBytes(4 * segmentSize)
+            .setTotalTargetBufferBytes(4 * segmentSize)
+            .setPrioritizeTimeOverSizeThresholds(true)
+            .build();
+    loadControl.onPrepared(playerId);
+    loadControl.onPrepared(playerId2);
+    loadControl.shouldContinueLoading(
+        createParameters(playerId, /* playWhenReady= */ true, /* bufferedDurationUs= */ 0));
+    Allocator allocator1 = loadControl.getAllocator(playerId);
+    for (int i = 0; i < 4; i++) {
+      allocator1.allocate();
+    }
+
+    assertThat(
+            loadControl.shouldContinueLoading(
+                createParameters(
+                    playerId2, /* playWhenReady= */ false, /* bufferedDurationUs= */ 0)))
+        .isFalse();
+  }
+
   private void build() {
     builder.setAllocator(allocator).setTargetBufferBytes(TARGET_BUFFER_BYTES);
     loadControl = builder.build();
@@ -1805,4 +1914,19 @@ public class DefaultLoadControlTest {
       allocator.allocate();
     }
   }
+
+  private LoadControl.Parameters createParameters(
+      PlayerId playerId, boolean playWhenReady, long bufferedDurationUs) {
+    return new LoadControl.Parameters(
+        playerId,
+        timeline,
+        mediaPeriodId,
+        /* playbackPositionUs= */ 0,
+        bufferedDurationUs,
+        SPEED,
+        playWhenReady,
+        /* rebuffering= */ false,
+        /* targetLiveOffsetUs= */ C.TIME_UNSET,
+        /* lastRebufferRealtimeMs= */ C.TIME_UNSET);
+  }
 }
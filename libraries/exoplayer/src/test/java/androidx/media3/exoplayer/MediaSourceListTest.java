@@ -378,6 +378,27 @@ public class MediaSourceListTest {
     verify(mockMediaSource4, times(0)).releaseSource(any(MediaSource.MediaSourceCaller.class));
   }
 
+  @Test
+  public void removeMediaSourceRange_fromMiddle_updatesFirstWindowIndicesOfLaterSources() {
+    List<MediaSourceList.MediaSourceHolder> holders = new ArrayList<>(createFakeHolders());
+    holders.addAll(createFakeHolders());
+    mediaSourceList.setMediaSources(
+        holders, new ShuffleOrder.DefaultShuffleOrder(/* length= */ holders.size()));
+
+    mediaSourceList.removeMediaSourceRange(
+        /* fromIndex= */ 2,
+        /* toIndex= */ 5,
+        new ShuffleOrder.DefaultShuffleOrder(/* length= */ holders.size() - 3));
+
+    assertThat(mediaSourceList.getSize()).isEqualTo(holders.size() - 3);
+    for (int i = 2; i < 5; i++) {
+      assertThat(holders.get(i).isRemoved).isTrue();
+    }
+    List<MediaSourceList.MediaSourceHolder> remainingHolders = new ArrayList<>(holders);
+    remainingHolders.subList(2, 5).clear();
+    assertDefaultFirstWindowInChildIndexOrder(remainingHolders);
+  }
+
   @Test
   public void release_mediaSourceListUnprepared_expectSourcesNotReleased() {
     MediaSource mockMediaSource = mock(MediaSource.class);
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.media3.exoplayer;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link PlaybackLoopStats}. */
+@RunWith(AndroidJUnit4.class)
+public final class PlaybackLoopStatsTest {
+
+  @Test
+  public void addPhaseDurationNs_countsDurationsInPowerOfTwoBuckets() {
+    PlaybackLoopStats stats = new PlaybackLoopStats();
+
+    stats.addPhaseDurationNs(PlaybackLoopStats.PHASE_RENDER, /* durationNs= */ 500);
+    stats.addPhaseDurationNs(PlaybackLoopStats.PHASE_RENDER, /* durationNs= */ 1_000);
+    stats.addPhaseDurationNs(PlaybackLoopStats.PHASE_RENDER, /* durationNs= */ 3_999);
+    stats.addPhaseDurationNs(PlaybackLoopStats.PHASE_RENDER, /* durationNs= */ 4_000);
+    stats.addPhaseDurationNs(PlaybackLoopStats.PHASE_RENDER, /* durationNs= */ 60_000_000_000L);
+
+    PlaybackLoopStats.Histogram histogram =
+        stats.getPhaseHistogram(PlaybackLoopStats.PHASE_RENDER);
+    assertThat(histogram.getCount()).isEqualTo(5);
+    assertThat(histogram.getTotalDurationUs()).isEqualTo(60_000_009);
+    assertThat(histogram.getMaxDurationUs()).isEqualTo(60_000_000);
+    assertThat(histogram.getBucketCount(/* bucketIndex= */ 0)).isEqualTo(1);
+    assertThat(histogram.getBucketCount(/* bucketIndex= */ 1)).isEqualTo(1);
+    assertThat(histogram.getBucketCount(/* bucketIndex= */ 2)).isEqualTo(1);
+    assertThat(histogram.getBucketCount(/* bucketIndex= */ 3)).isEqualTo(1);
+    assertThat(histogram.getBucketCount(PlaybackLoopStats.BUCKET_COUNT - 1)).isEqualTo(1);
+    assertThat(stats.getPhaseHistogram(PlaybackLoopStats.PHASE_DO_SOME_WORK).getCount())
+        .isEqualTo(0);
+  }
+
+  @Test
+  public void getBucketUpperBoundUs_returnsPowersOfTwo() {
+    assertThat(PlaybackLoopStats.Histogram.getBucketUpperBoundUs(/* bucketIndex= */ 0))
+        .isEqualTo(1);
+    assertThat(PlaybackLoopStats.Histogram.getBucketUpperBoundUs(/* bucketIndex= */ 3))
+        .isEqualTo(8);
+    assertThat(
+            PlaybackLoopStats.Histogram.getBucketUpperBoundUs(PlaybackLoopStats.BUCKET_COUNT - 1))
+        .isEqualTo(Long.MAX_VALUE);
+  }
+
+  @Test
+  public void addRendererDurationNs_afterAttach_recordsPerRenderer() {
+    PlaybackLoopStats stats = new PlaybackLoopStats();
+    stats.attach(/* rendererCount= */ 2);
+
+    stats.addRendererDurationNs(/* rendererIndex= */ 1, /* durationNs= */ 2_000);
+
+    assertThat(stats.getRendererCount()).isEqualTo(2);
+    assertThat(stats.getRendererHistogram(/* rendererIndex= */ 0).getCount()).isEqualTo(0);
+    assertThat(stats.getRendererHistogram(/* rendererIndex= */ 1).getCount()).isEqualTo(1);
+    assertThat(stats.getRendererHistogram(/* rendererIndex= */ 1).getBucketCount(2)).isEqualTo(1);
+  }
+
+  @Test
+  public void attach_whenAlreadyAttached_throws() {
+    PlaybackLoopStats stats = new PlaybackLoopStats();
+    stats.attach(/* rendererCount= */ 2);
+
+    assertThrows(IllegalStateException.class, () -> stats.attach(/* rendererCount= */ 2));
+  }
+
+  @Test
+  public void reset_clearsAllHistograms() {
+    PlaybackLoopStats stats = new PlaybackLoopStats();
+    stats.attach(/* rendererCount= */ 1);
+    stats.addPhaseDurationNs(PlaybackLoopStats.PHASE_DO_SOME_WORK, /* durationNs= */ 10_000);
+    stats.addRendererDurationNs(/* rendererIndex= */ 0, /* durationNs= */ 10_000);
+
+    stats.reset();
+
+    PlaybackLoopStats.Histogram phaseHistogram =
+        stats.getPhaseHistogram(PlaybackLoopStats.PHASE_DO_SOME_WORK);
+    assertThat(phaseHistogram.getCount()).isEqualTo(0);
+    assertThat(phaseHistogram.getTotalDurationUs()).isEqualTo(0);
+    assertThat(phaseHistogram.getMaxDurationUs()).isEqualTo(0);
+    assertThat(stats.getRendererHistogram(/* rendererIndex= */ 0).getCount()).isEqualTo(0);
+  }
+}
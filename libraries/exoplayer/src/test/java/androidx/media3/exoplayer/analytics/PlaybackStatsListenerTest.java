@@ -140,6 +140,52 @@ public final class PlaybackStatsListenerTest {
     assertThat(playbackStats.endedCount).isEqualTo(1);
   }
 
+  @Test
+  public void playback_withMaxHistorySize_keepsMostRecentHistoryEntries() throws Exception {
+    PlaybackStatsListener playbackStatsListener =
+        new PlaybackStatsListener(
+            /* keepHistory= */ true, /* maxHistorySize= */ 1, /* callback= */ null);
+    player.addAnalyticsListener(playbackStatsListener);
+
+    player.setMediaSource(new FakeMediaSource(new FakeTimeline(/* windowCount= */ 1)));
+    player.prepare();
+    player.play();
+    TestPlayerRunHelper.runUntilPlaybackState(player, Player.STATE_ENDED);
+    runUntilPendingCommandsAreFullyHandled(player);
+
+    @Nullable PlaybackStats playbackStats = playbackStatsListener.getPlaybackStats();
+    assertThat(playbackStats).isNotNull();
+    assertThat(playbackStats.playbackStateHistory).hasSize(1);
+    assertThat(playbackStats.playbackStateHistory.get(0).playbackState)
+        .isEqualTo(PlaybackStats.PLAYBACK_STATE_ENDED);
+    assertThat(playbackStats.mediaTimeHistory.size()).isAtMost(1);
+    assertThat(playbackStats.endedCount).isEqualTo(1);
+  }
+
+  @Test
+  public void getCombinedPlaybackStatsAndReset_onlyReportsJoinTimeOnce() throws Exception {
+    PlaybackStatsListener playbackStatsListener =
+        new PlaybackStatsListener(/* keepHistory= */ true, /* callback= */ null);
+    player.addAnalyticsListener(playbackStatsListener);
+    player.setMediaSource(new FakeMediaSource(new FakeTimeline(/* windowCount= */ 1)));
+    player.prepare();
+    player.play();
+    TestPlayerRunHelper.runUntilPlaybackState(player, Player.STATE_ENDED);
+    runUntilPendingCommandsAreFullyHandled(player);
+
+    PlaybackStats firstPlaybackStats = playbackStatsListener.getCombinedPlaybackStatsAndReset();
+    PlaybackStats secondPlaybackStats = playbackStatsListener.getCombinedPlaybackStatsAndReset();
+
+    assertThat(firstPlaybackStats.playbackCount).isEqualTo(1);
+    assertThat(firstPlaybackStats.validJoinTimeCount).isEqualTo(1);
+    assertThat(secondPlaybackStats.playbackCount).isEqualTo(1);
+    assertThat(secondPlaybackStats.validJoinTimeCount).isEqualTo(0);
+    @Nullable PlaybackStats playbackStats = playbackStatsListener.getPlaybackStats();
+    assertThat(playbackStats).isNotNull();
+    assertThat(playbackStats.playbackStateHistory).isEmpty();
+    assertThat(playbackStats.getTotalPlayTimeMs()).isEqualTo(0);
+  }
+
   @Test
   public void finishedSession_callsCallback() throws Exception {
     PlaybackStatsListener.Callback callback = mock(PlaybackStatsListener.Callback.class);
@@ -208,6 +208,66 @@ public final class BatchBufferTest {
     assertThat(batchBuffer.append(sampleBuffer)).isTrue();
   }
 
+  @Test
+  public void appendSample_readInPlace_batchesDataAndRestoresSampleBufferData() {
+    initSampleBuffer(/* timeUs= */ 1234);
+    batchBuffer.append(sampleBuffer);
+    ByteBuffer sampleBufferData = sampleBuffer.data;
+
+    batchBuffer.prepareInPlaceBuffer(sampleBuffer);
+    initSampleBuffer(/* timeUs= */ 5678);
+    assertThat(sampleBuffer.data).isNotSameInstanceAs(sampleBufferData);
+    assertThat(batchBuffer.append(sampleBuffer)).isTrue();
+    batchBuffer.flip();
+
+    ByteBuffer expected = ByteBuffer.allocate(Long.BYTES * 2);
+    expected.putLong(1234);
+    expected.putLong(5678);
+    expected.flip();
+    assertThat(batchBuffer.data).isEqualTo(expected);
+    assertThat(sampleBuffer.data).isSameInstanceAs(sampleBufferData);
+  }
+
+  @Test
+  public void releaseInPlaceBuffer_thenClear_keepsSampleData() {
+    initSampleBuffer(/* timeUs= */ 1234);
+    batchBuffer.append(sampleBuffer);
+
+    batchBuffer.prepareInPlaceBuffer(sampleBuffer);
+    initSampleBuffer(/* timeUs= */ 5678);
+    batchBuffer.releaseInPlaceBuffer();
+    batchBuffer.clear();
+    assertThat(batchBuffer.append(sampleBuffer)).isTrue();
+    batchBuffer.flip();
+
+    ByteBuffer expected = ByteBuffer.allocate(Long.BYTES);
+    expected.putLong(5678);
+    expected.flip();
+    assertThat(batchBuffer.data).isEqualTo(expected);
+  }
+
+  @Test
+  public void appendSample_preparedWhenFull_failsAndKeepsSampleData() {
+    batchBuffer.setMaxSampleCount(2);
+    initSampleBuffer(/* timeUs= */ 1234);
+    batchBuffer.append(sampleBuffer);
+    batchBuffer.prepareInPlaceBuffer(sampleBuffer);
+    initSampleBuffer(/* timeUs= */ 5678);
+    batchBuffer.append(sampleBuffer);
+
+    batchBuffer.prepareInPlaceBuffer(sampleBuffer);
+    initSampleBuffer(/* timeUs= */ 9012);
+    assertThat(batchBuffer.append(sampleBuffer)).isFalse();
+    batchBuffer.clear();
+    assertThat(batchBuffer.append(sampleBuffer)).isTrue();
+    batchBuffer.flip();
+
+    ByteBuffer expected = ByteBuffer.allocate(Long.BYTES);
+    expected.putLong(9012);
+    expected.flip();
+    assertThat(batchBuffer.data).isEqualTo(expected);
+  }
+
   private void initSampleBuffer() {
     initSampleBuffer(/* timeUs= */ 0);
   }
@@ -54,6 +54,7 @@ import androidx.media3.common.util.MediaFormatUtil;
 import androidx.media3.common.util.ThrowingRunnable;
 import androidx.media3.decoder.CryptoInfo;
 import androidx.media3.exoplayer.CodecParameters;
+import androidx.media3.exoplayer.DecoderCounters;
 import androidx.media3.exoplayer.DecoderReuseEvaluation;
 import androidx.media3.exoplayer.ExoPlaybackException;
 import androidx.media3.exoplayer.Renderer;
@@ -64,6 +65,7 @@ import androidx.media3.exoplayer.drm.DrmSessionEventListener;
 import androidx.media3.exoplayer.drm.DrmSessionManager;
 import androidx.media3.exoplayer.source.MediaSource;
 import androidx.media3.exoplayer.upstream.DefaultAllocator;
+import androidx.media3.test.utils.FakeClock;
 import androidx.media3.test.utils.FakeSampleStream;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
@@ -1016,6 +1018,47 @@ public class MediaCodecRendererTest {
     assertThat(stringListCaptor.getValue()).containsExactly("key1", "key2");
   }
 
+  @Test
+  public void render_untilFirstOutputBufferProcessed_reportsDecoderInitToFirstOutputTime()
+      throws Exception {
+    FakeClock clock = new FakeClock(/* isAutoAdvancing= */ false);
+    MediaCodecAdapter.Factory defaultCodecAdapterFactory =
+        MediaCodecAdapter.Factory.getDefault(ApplicationProvider.getApplicationContext());
+    MediaCodecAdapter.Factory slowCodecAdapterFactory =
+        configuration -> {
+          clock.advanceTime(/* timeDiffMs= */ 50);
+          return defaultCodecAdapterFactory.createAdapter(configuration);
+        };
+    FakeSampleStream fakeSampleStream =
+        createFakeSampleStream(AUDIO_AAC, /* sampleTimesUs...= */ 0, 100, 200);
+    TestRenderer renderer = new TestRenderer(slowCodecAdapterFactory);
+    renderer.init(/* index= */ 0, PlayerId.UNSET, clock);
+
+    renderer.enable(
+        RendererConfiguration.DEFAULT,
+        new Format[] {AUDIO_AAC},
+        fakeSampleStream,
+        /* positionUs= */ 0,
+        /* joining= */ false,
+        /* mayRenderStartOfStream= */ true,
+        /* startPositionUs= */ 0,
+        /* offsetUs= */ 0,
+        new MediaSource.MediaPeriodId(new Object()));
+    renderer.start();
+    renderer.setCurrentStreamFinal();
+    long positionUs = 0;
+    while (!renderer.isEnded()) {
+      renderer.render(positionUs, SystemClock.elapsedRealtime());
+      positionUs += 100;
+    }
+
+    DecoderCounters decoderCounters = renderer.decoderCounters;
+    assertThat(decoderCounters.decoderInitCount).isEqualTo(1);
+    assertThat(decoderCounters.decoderInitToFirstProcessedOutputCount).isEqualTo(1);
+    assertThat(decoderCounters.totalDecoderInitToFirstProcessedOutputTimeMs).isEqualTo(50);
+    assertThat(decoderCounters.maxDecoderInitToFirstProcessedOutputTimeMs).isEqualTo(50);
+  }
+
   private TestRenderer setUpAndEnableRenderer(Format format) throws Exception {
     MediaCodecAdapter mockCodecAdapter = mock(MediaCodecAdapter.class);
     MediaCodecAdapter.Factory mockCodecAdapterFactory = configuration -> mockCodecAdapter;
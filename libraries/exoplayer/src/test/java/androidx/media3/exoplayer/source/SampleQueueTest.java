@@ -160,7 +160,7 @@ public final class SampleQueueTest {
   private static final TrackOutput.CryptoData CRYPTO_DATA =
       new TrackOutput.CryptoData(C.CRYPTO_MODE_AES_CTR, new byte[16], 0, 0);
 
-  private static final int CLOSE_TO_CAPACITY_SIZE = SampleQueue.SAMPLE_CAPACITY_INCREMENT - 1;
+  private static final int CLOSE_TO_CAPACITY_SIZE = SampleQueue.SAMPLE_BLOCK_SIZE - 1;
 
   private Allocator allocator;
   private MockDrmSessionManager mockDrmSessionManager;
@@ -191,7 +191,7 @@ public final class SampleQueueTest {
 
   @Test
   public void capacityIncreases() {
-    int numberOfSamplesToInput = 3 * SampleQueue.SAMPLE_CAPACITY_INCREMENT + 1;
+    int numberOfSamplesToInput = 3 * SampleQueue.SAMPLE_BLOCK_SIZE + 1;
     sampleQueue.format(FORMAT_1);
     sampleQueue.sampleData(
         new ParsableByteArray(numberOfSamplesToInput), /* length= */ numberOfSamplesToInput);
@@ -217,6 +217,37 @@ public final class SampleQueueTest {
     assertReadNothing(/* formatRequired= */ false);
   }
 
+  @Test
+  public void capacityIncreases_whenQueueWrapsAround_preservesSampleOrder() {
+    writeAndDiscardPlaceholderSamples(SampleQueue.SAMPLE_BLOCK_SIZE / 2);
+    int numberOfSamplesToInput = 2 * SampleQueue.SAMPLE_BLOCK_SIZE + 1;
+    sampleQueue.format(FORMAT_1);
+    sampleQueue.sampleData(
+        new ParsableByteArray(numberOfSamplesToInput), /* length= */ numberOfSamplesToInput);
+    for (int i = 0; i < numberOfSamplesToInput; i++) {
+      sampleQueue.sourceId(/* sourceId= */ i);
+      sampleQueue.sampleMetadata(
+          /* timeUs= */ i * 1000,
+          /* flags= */ C.BUFFER_FLAG_KEY_FRAME,
+          /* size= */ 1,
+          /* offset= */ numberOfSamplesToInput - i - 1,
+          /* cryptoData= */ null);
+    }
+
+    assertReadFormat(/* formatRequired= */ false, FORMAT_1);
+    for (int i = 0; i < numberOfSamplesToInput; i++) {
+      assertThat(sampleQueue.peekSourceId()).isEqualTo(i);
+      assertReadSample(
+          /* timeUs= */ i * 1000,
+          /* isKeyFrame= */ true,
+          /* isEncrypted= */ false,
+          /* sampleData= */ new byte[1],
+          /* offset= */ 0,
+          /* length= */ 1);
+    }
+    assertReadNothing(/* formatRequired= */ false);
+  }
+
   @Test
   public void resetReleasesAllocations() {
     writeTestData();
@@ -408,6 +439,38 @@ public final class SampleQueueTest {
     assertAllocationCount(0);
   }
 
+  @Test
+  public void readMultiSamples_withDirectBufferAllocations() {
+    allocator =
+        new DefaultAllocator.Builder()
+            .setTrimOnReset(false)
+            .setIndividualAllocationSize(ALLOCATION_SIZE)
+            .setDirectBuffersEnabled(true)
+            .build();
+    sampleQueue = new SampleQueue(allocator, mockDrmSessionManager, eventDispatcher);
+
+    writeTestData();
+    assertAllocationCount(10);
+    assertReadTestData();
+  }
+
+  @Test
+  public void readEncryptedSections_withDirectBufferAllocations() {
+    allocator =
+        new DefaultAllocator.Builder()
+            .setTrimOnReset(false)
+            .setIndividualAllocationSize(ALLOCATION_SIZE)
+            .setDirectBuffersEnabled(true)
+            .build();
+    sampleQueue = new SampleQueue(allocator, mockDrmSessionManager, eventDispatcher);
+    when(mockDrmSession.getState()).thenReturn(DrmSession.STATE_OPENED_WITH_KEYS);
+    writeTestDataWithEncryptedSections();
+
+    assertReadFormat(/* formatRequired= */ false, FORMAT_ENCRYPTED_WITH_EXO_MEDIA_CRYPTO_TYPE);
+    assertReadEncryptedSample(/* sampleIndex= */ 0);
+    assertReadEncryptedSample(/* sampleIndex= */ 1);
+  }
+
   @Test
   public void readMultiSamplesTwice() {
     writeTestData();
@@ -21,6 +21,7 @@ import static androidx.media3.exoplayer.text.CuesListTestUtil.assertCuesEndAt;
 import static androidx.media3.exoplayer.text.CuesListTestUtil.assertCuesStartAt;
 import static androidx.media3.exoplayer.text.CuesListTestUtil.assertNoCuesBetween;
 import static com.google.common.truth.Truth.assertThat;
+import static java.lang.Math.min;
 import static org.junit.Assert.assertThrows;
 
 import androidx.media3.common.C;
@@ -28,6 +29,10 @@ import androidx.media3.common.text.Cue;
 import androidx.media3.extractor.text.CuesWithTiming;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -237,6 +242,60 @@ public final class MergingCuesResolverTest {
     assertThat(mergingCuesResolver.getNextCueChangeTimeUs(4_999_990)).isEqualTo(6_000_000);
   }
 
+  @Test
+  public void manyOverlappingCues_returnsCuesShownAtEachTimeInDisplayPriorityOrder() {
+    MergingCuesResolver mergingCuesResolver = new MergingCuesResolver();
+    List<CuesWithTiming> allCuesWithTiming = new ArrayList<>();
+    Random random = new Random(/* seed= */ 0);
+    // Simulate a karaoke-style track, with many short cues overlapping a few long ones.
+    for (int i = 0; i < 2_000; i++) {
+      long startTimeUs = random.nextInt(60_000) * 1_000L;
+      long durationUs = (i % 50 == 0 ? 10_000 : random.nextInt(1_000)) * 1_000L;
+      CuesWithTiming cuesWithTiming =
+          new CuesWithTiming(
+              ImmutableList.of(new Cue.Builder().setText("cue" + i).build()),
+              startTimeUs,
+              durationUs);
+      allCuesWithTiming.add(cuesWithTiming);
+      mergingCuesResolver.addCues(cuesWithTiming, /* currentPositionUs= */ 0);
+    }
+    mergingCuesResolver.discardCuesBeforeTimeUs(20_000_000);
+
+    for (long timeUs = 20_000_000; timeUs < 80_000_000; timeUs += 250_000) {
+      List<CuesWithTiming> expectedCuesWithTiming = new ArrayList<>();
+      long expectedNextCueChangeTimeUs = Long.MAX_VALUE;
+      for (CuesWithTiming cuesWithTiming : allCuesWithTiming) {
+        if (timeUs < cuesWithTiming.startTimeUs) {
+          expectedNextCueChangeTimeUs =
+              min(expectedNextCueChangeTimeUs, cuesWithTiming.startTimeUs);
+        } else if (timeUs < cuesWithTiming.endTimeUs) {
+          expectedCuesWithTiming.add(cuesWithTiming);
+          expectedNextCueChangeTimeUs = min(expectedNextCueChangeTimeUs, cuesWithTiming.endTimeUs);
+        }
+      }
+      if (expectedNextCueChangeTimeUs == Long.MAX_VALUE) {
+        expectedNextCueChangeTimeUs = C.TIME_END_OF_SOURCE;
+      }
+      // Sort stably by start time ascending and then duration descending.
+      Collections.sort(
+          expectedCuesWithTiming,
+          (first, second) ->
+              first.startTimeUs != second.startTimeUs
+                  ? Long.compare(first.startTimeUs, second.startTimeUs)
+                  : Long.compare(second.durationUs, first.durationUs));
+      List<Cue> expectedCues = new ArrayList<>();
+      for (CuesWithTiming cuesWithTiming : expectedCuesWithTiming) {
+        expectedCues.addAll(cuesWithTiming.cues);
+      }
+
+      assertThat(mergingCuesResolver.getCuesAtTimeUs(timeUs))
+          .containsExactlyElementsIn(expectedCues)
+          .inOrder();
+      assertThat(mergingCuesResolver.getNextCueChangeTimeUs(timeUs))
+          .isEqualTo(expectedNextCueChangeTimeUs);
+    }
+  }
+
   @Test
   public void clear_clearsAllCues() {
     MergingCuesResolver mergingCuesResolver = new MergingCuesResolver();
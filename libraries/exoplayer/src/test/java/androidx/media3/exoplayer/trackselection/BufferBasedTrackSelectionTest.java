@@ -0,0 +1,222 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.media3.exoplayer.trackselection;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.when;
+
+import androidx.media3.common.C;
+import androidx.media3.common.Format;
+import androidx.media3.common.MimeTypes;
+import androidx.media3.common.TrackGroup;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.exoplayer.source.chunk.BaseMediaChunkIterator;
+import androidx.media3.exoplayer.source.chunk.MediaChunk;
+import androidx.media3.exoplayer.source.chunk.MediaChunkIterator;
+import androidx.media3.exoplayer.upstream.BandwidthMeter;
+import androidx.media3.test.utils.FakeClock;
+import androidx.media3.test.utils.FakeMediaChunk;
+import androidx.media3.test.utils.FakeMediaChunkIterator;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.common.collect.ImmutableList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+/** Unit test for {@link BufferBasedTrackSelection}. */
+@RunWith(AndroidJUnit4.class)
+public final class BufferBasedTrackSelectionTest {
+
+  private static final long TEST_CHUNK_DURATION_US = 2_000_000;
+
+  private static final Format FORMAT_500 = videoFormat(/* bitrate= */ 500);
+  private static final Format FORMAT_1000 = videoFormat(/* bitrate= */ 1000);
+  private static final Format FORMAT_2000 = videoFormat(/* bitrate= */ 2000);
+  private static final TrackGroup TRACK_GROUP =
+      new TrackGroup(FORMAT_500, FORMAT_1000, FORMAT_2000);
+
+  @Rule public final MockitoRule mockito = MockitoJUnit.rule();
+  @Mock private BandwidthMeter mockBandwidthMeter;
+  private FakeClock fakeClock;
+
+  @Before
+  public void setUp() {
+    fakeClock = new FakeClock(0);
+  }
+
+  @Test
+  public void initial_updateSelectedTrack_selectsHighestBitrateWithinBandwidth() {
+    when(mockBandwidthMeter.getBitrateEstimate()).thenReturn(1000L);
+
+    BufferBasedTrackSelection trackSelection = prepareTrackSelection();
+
+    assertThat(trackSelection.getSelectedFormat()).isEqualTo(FORMAT_1000);
+    assertThat(trackSelection.getSelectionReason()).isEqualTo(C.SELECTION_REASON_INITIAL);
+  }
+
+  @Test
+  public void updateSelectedTrack_belowMinBuffer_selectsLowestBitrate() {
+    when(mockBandwidthMeter.getBitrateEstimate()).thenReturn(1000L);
+    BufferBasedTrackSelection trackSelection = prepareTrackSelection();
+
+    trackSelection.updateSelectedTrack(
+        /* playbackPositionUs= */ 0,
+        /* bufferedDurationUs= */ 5_000_000,
+        /* availableDurationUs= */ C.TIME_UNSET,
+        createQueue(FORMAT_1000),
+        createMediaChunkIterators());
+
+    assertThat(trackSelection.getSelectedFormat()).isEqualTo(FORMAT_500);
+    assertThat(trackSelection.getSelectionReason()).isEqualTo(C.SELECTION_REASON_ADAPTIVE);
+  }
+
+  @Test
+  public void updateSelectedTrack_atTargetBufferWithHighBandwidth_selectsHighestBitrate() {
+    when(mockBandwidthMeter.getBitrateEstimate()).thenReturn(10_000L);
+    BufferBasedTrackSelection trackSelection = prepareTrackSelection();
+
+    trackSelection.updateSelectedTrack(
+        /* playbackPositionUs= */ 0,
+        /* bufferedDurationUs= */ 30_000_000,
+        /* availableDurationUs= */ C.TIME_UNSET,
+        createQueue(FORMAT_1000),
+        createMediaChunkIterators());
+
+    assertThat(trackSelection.getSelectedFormat()).isEqualTo(FORMAT_2000);
+    assertThat(trackSelection.getSelectionReason()).isEqualTo(C.SELECTION_REASON_ADAPTIVE);
+  }
+
+  @Test
+  public void updateSelectedTrack_atTargetBufferWithLowBandwidth_doesNotSwitchAboveBandwidth() {
+    when(mockBandwidthMeter.getBitrateEstimate()).thenReturn(1000L);
+    BufferBasedTrackSelection trackSelection = prepareTrackSelection();
+
+    trackSelection.updateSelectedTrack(
+        /* playbackPositionUs= */ 0,
+        /* bufferedDurationUs= */ 30_000_000,
+        /* availableDurationUs= */ C.TIME_UNSET,
+        createQueue(FORMAT_1000),
+        createMediaChunkIterators());
+
+    assertThat(trackSelection.getSelectedFormat()).isEqualTo(FORMAT_1000);
+  }
+
+  @Test
+  public void updateSelectedTrack_withSmallNextChunk_selectsTrackOfSmallNextChunk() {
+    when(mockBandwidthMeter.getBitrateEstimate()).thenReturn(10_000L);
+    BufferBasedTrackSelection trackSelection = prepareTrackSelection();
+    // The next chunk of the highest track is 600 bps, so it's cheap to load.
+    MediaChunkIterator[] mediaChunkIterators =
+        new MediaChunkIterator[] {
+          createFakeMediaChunkIterator(/* chunkLength= */ 150),
+          createFakeMediaChunkIterator(/* chunkLength= */ 250),
+          createFakeMediaChunkIterator(/* chunkLength= */ 125)
+        };
+
+    trackSelection.updateSelectedTrack(
+        /* playbackPositionUs= */ 0,
+        /* bufferedDurationUs= */ 20_000_000,
+        /* availableDurationUs= */ C.TIME_UNSET,
+        createQueue(FORMAT_1000),
+        mediaChunkIterators);
+
+    assertThat(trackSelection.getSelectedFormat()).isEqualTo(FORMAT_2000);
+  }
+
+  @Test
+  public void updateSelectedTrack_withSameBufferAndFormatBitrates_selectsMiddleBitrate() {
+    when(mockBandwidthMeter.getBitrateEstimate()).thenReturn(10_000L);
+    BufferBasedTrackSelection trackSelection = prepareTrackSelection();
+
+    trackSelection.updateSelectedTrack(
+        /* playbackPositionUs= */ 0,
+        /* bufferedDurationUs= */ 20_000_000,
+        /* availableDurationUs= */ C.TIME_UNSET,
+        createQueue(FORMAT_1000),
+        createMediaChunkIterators());
+
+    assertThat(trackSelection.getSelectedFormat()).isEqualTo(FORMAT_1000);
+  }
+
+  private BufferBasedTrackSelection prepareTrackSelection() {
+    BufferBasedTrackSelection trackSelection =
+        new BufferBasedTrackSelection(
+            TRACK_GROUP,
+            /* tracks= */ new int[] {0, 1, 2},
+            TrackSelection.TYPE_UNSET,
+            mockBandwidthMeter,
+            BufferBasedTrackSelection.DEFAULT_MIN_BUFFER_MS,
+            BufferBasedTrackSelection.DEFAULT_TARGET_BUFFER_MS,
+            /* bandwidthFraction= */ 1f,
+            fakeClock);
+    trackSelection.enable();
+    trackSelection.updateSelectedTrack(
+        /* playbackPositionUs= */ 0,
+        /* bufferedDurationUs= */ 0,
+        /* availableDurationUs= */ C.TIME_UNSET,
+        /* queue= */ Collections.emptyList(),
+        createMediaChunkIterators());
+    return trackSelection;
+  }
+
+  private static List<MediaChunk> createQueue(Format format) {
+    return ImmutableList.of(
+        new FakeMediaChunk(format, /* startTimeUs= */ 0, /* endTimeUs= */ TEST_CHUNK_DURATION_US));
+  }
+
+  private static MediaChunkIterator[] createMediaChunkIterators() {
+    MediaChunkIterator[] iterators = new MediaChunkIterator[TRACK_GROUP.length];
+    for (int i = 0; i < TRACK_GROUP.length; i++) {
+      iterators[i] =
+          new BaseMediaChunkIterator(/* fromIndex= */ 0, /* toIndex= */ 0) {
+            @Override
+            public DataSpec getDataSpec() {
+              return new DataSpec.Builder().setUri("https://test.example").build();
+            }
+
+            @Override
+            public long getChunkStartTimeUs() {
+              return 0;
+            }
+
+            @Override
+            public long getChunkEndTimeUs() {
+              return TEST_CHUNK_DURATION_US;
+            }
+          };
+    }
+    return iterators;
+  }
+
+  private static MediaChunkIterator createFakeMediaChunkIterator(long chunkLength) {
+    return new FakeMediaChunkIterator(
+        /* chunkTimeBoundariesSec= */ new long[] {0, 2},
+        /* chunkLengths= */ new long[] {chunkLength});
+  }
+
+  private static Format videoFormat(int bitrate) {
+    return new Format.Builder()
+        .setSampleMimeType(MimeTypes.VIDEO_H264)
+        .setAverageBitrate(bitrate)
+        .build();
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.media3.exoplayer.upstream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link DefaultAllocator}. */
+@RunWith(AndroidJUnit4.class)
+public final class DefaultAllocatorTest {
+
+  private static final int ALLOCATION_SIZE = 16;
+
+  @Test
+  public void allocate_withThreadCaches_reusesReleasedAllocation() {
+    DefaultAllocator allocator =
+        new DefaultAllocator.Builder()
+            .setIndividualAllocationSize(ALLOCATION_SIZE)
+            .setThreadCachesEnabled(true)
+            .build();
+
+    Allocation allocation = allocator.allocate();
+    assertThat(allocator.getTotalBytesAllocated()).isEqualTo(ALLOCATION_SIZE);
+    allocator.release(allocation);
+    assertThat(allocator.getTotalBytesAllocated()).isEqualTo(0);
+
+    assertThat(allocator.allocate()).isSameInstanceAs(allocation);
+  }
+
+  @Test
+  public void allocate_withThreadCaches_reusesAllocationsReleasedOnOtherThread()
+      throws InterruptedException {
+    DefaultAllocator allocator =
+        new DefaultAllocator.Builder()
+            .setIndividualAllocationSize(ALLOCATION_SIZE)
+            .setThreadCachesEnabled(true)
+            .build();
+    List<Allocation> allocations = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      allocations.add(allocator.allocate());
+    }
+
+    Thread releasingThread =
+        new Thread(
+            () -> {
+              for (Allocation allocation : allocations) {
+                allocator.release(allocation);
+              }
+            });
+    releasingThread.start();
+    releasingThread.join();
+    Set<Allocation> reallocations = new HashSet<>();
+    for (int i = 0; i < 50; i++) {
+      reallocations.add(allocator.allocate());
+    }
+
+    assertThat(allocations).containsAtLeastElementsIn(reallocations);
+    assertThat(allocator.getTotalBytesAllocated()).isEqualTo(50 * ALLOCATION_SIZE);
+  }
+
+  @Test
+  public void trim_withThreadCaches_discardsUnusedAllocationsInSharedPool() {
+    DefaultAllocator allocator =
+        new DefaultAllocator.Builder()
+            .setIndividualAllocationSize(ALLOCATION_SIZE)
+            .setThreadCachesEnabled(true)
+            .build();
+    List<Allocation> allocations = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      allocations.add(allocator.allocate());
+    }
+    for (Allocation allocation : allocations) {
+      allocator.release(allocation);
+    }
+    assertThat(allocator.getUnusedBytesAllocated()).isGreaterThan(0);
+
+    allocator.trim();
+
+    assertThat(allocator.getUnusedBytesAllocated()).isEqualTo(0);
+    assertThat(allocator.getTotalBytesAllocated()).isEqualTo(0);
+  }
+
+  @Test
+  public void allocate_withDirectBuffers_returnsDistinctRegionsOfDirectBuffers() {
+    DefaultAllocator allocator =
+        new DefaultAllocator.Builder()
+            .setIndividualAllocationSize(ALLOCATION_SIZE)
+            .setDirectBuffersEnabled(true)
+            .build();
+
+    Allocation allocation1 = allocator.allocate();
+    Allocation allocation2 = allocator.allocate();
+
+    assertThat(allocation1.isBufferBacked()).isTrue();
+    assertThat(allocation1.getBuffer().isDirect()).isTrue();
+    assertThat(allocation1.data).isEmpty();
+    assertThat(allocation1.getBuffer().capacity())
+        .isAtLeast(allocation1.offset + ALLOCATION_SIZE);
+    // Consecutive allocations are carved from the same slab, without overlapping.
+    assertThat(allocation2.getBuffer()).isSameInstanceAs(allocation1.getBuffer());
+    assertThat(allocation2.offset).isNotEqualTo(allocation1.offset);
+    assertThat(Math.abs(allocation1.offset - allocation2.offset)).isAtLeast(ALLOCATION_SIZE);
+    assertThat(allocator.getTotalBytesAllocated()).isEqualTo(2 * ALLOCATION_SIZE);
+  }
+
+  @Test
+  public void getData_withDirectBuffers_throws() {
+    DefaultAllocator allocator =
+        new DefaultAllocator.Builder()
+            .setIndividualAllocationSize(ALLOCATION_SIZE)
+            .setDirectBuffersEnabled(true)
+            .build();
+
+    Allocation allocation = allocator.allocate();
+
+    assertThrows(IllegalStateException.class, allocation::getData);
+  }
+
+  @Test
+  public void getBuffer_withoutDirectBuffers_throws() {
+    DefaultAllocator allocator =
+        new DefaultAllocator.Builder().setIndividualAllocationSize(ALLOCATION_SIZE).build();
+
+    Allocation allocation = allocator.allocate();
+
+    assertThat(allocation.isBufferBacked()).isFalse();
+    assertThat(allocation.getData()).hasLength(ALLOCATION_SIZE);
+    assertThrows(IllegalStateException.class, allocation::getBuffer);
+  }
+
+  @Test
+  public void trim_withDirectBuffers_keepsInitialAllocations() {
+    DefaultAllocator allocator =
+        new DefaultAllocator.Builder()
+            .setIndividualAllocationSize(ALLOCATION_SIZE)
+            .setInitialAllocationCount(4)
+            .setDirectBuffersEnabled(true)
+            .build();
+    List<Allocation> allocations = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      allocations.add(allocator.allocate());
+    }
+    for (Allocation allocation : allocations) {
+      allocator.release(allocation);
+    }
+
+    allocator.trim();
+
+    assertThat(allocator.getUnusedBytesAllocated()).isEqualTo(4 * ALLOCATION_SIZE);
+  }
+}
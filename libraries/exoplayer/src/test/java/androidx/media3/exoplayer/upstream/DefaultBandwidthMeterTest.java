@@ -40,6 +40,8 @@ import androidx.media3.test.utils.FakeDataSource;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.Before;
@@ -503,6 +505,56 @@ public final class DefaultBandwidthMeterTest {
     assertThat(initialEstimate4g).isEqualTo(expected4gBitrate);
   }
 
+  @Test
+  public void initialBitrateSupplier_onNetworkTypeOverride_receivesPreviousSampleFirst() {
+    setActiveNetworkInfo(networkInfoWifi);
+    FakeClock clock = new FakeClock(/* initialTimeMs= */ 0);
+    List<String> supplierCalls = new ArrayList<>();
+    DefaultBandwidthMeter.InitialBitrateSupplier supplier =
+        new DefaultBandwidthMeter.InitialBitrateSupplier() {
+          @Override
+          public long getInitialBitrateEstimate(@C.NetworkType int networkType) {
+            supplierCalls.add("getInitialBitrateEstimate " + networkType);
+            return C.TIME_UNSET;
+          }
+
+          @Override
+          public void onBandwidthSample(
+              @C.NetworkType int networkType,
+              int elapsedMs,
+              long bytesTransferred,
+              long bitrateEstimate) {
+            supplierCalls.add("onBandwidthSample " + networkType + " " + bytesTransferred);
+          }
+        };
+    DefaultBandwidthMeter bandwidthMeter =
+        new DefaultBandwidthMeter.Builder(ApplicationProvider.getApplicationContext())
+            .setClock(clock)
+            .setInitialBitrateSupplier(supplier)
+            .build();
+    ShadowLooper.idleMainLooper();
+    DataSource dataSource = new FakeDataSource();
+    DataSpec dataSpec = new DataSpec(Uri.parse("https://test.com"));
+    supplierCalls.clear();
+
+    bandwidthMeter.onTransferStart(dataSource, dataSpec, /* isNetwork= */ true);
+    clock.advanceTime(100);
+    bandwidthMeter.onBytesTransferred(
+        dataSource, dataSpec, /* isNetwork= */ true, /* bytesTransferred= */ 1000);
+    bandwidthMeter.setNetworkTypeOverride(C.NETWORK_TYPE_4G);
+    clock.advanceTime(100);
+    bandwidthMeter.onBytesTransferred(
+        dataSource, dataSpec, /* isNetwork= */ true, /* bytesTransferred= */ 2000);
+    bandwidthMeter.onTransferEnd(dataSource, dataSpec, /* isNetwork= */ true);
+
+    assertThat(supplierCalls)
+        .containsExactly(
+            "onBandwidthSample " + C.NETWORK_TYPE_WIFI + " 1000",
+            "getInitialBitrateEstimate " + C.NETWORK_TYPE_4G,
+            "onBandwidthSample " + C.NETWORK_TYPE_4G + " 2000")
+        .inOrder();
+  }
+
   @Test
   public void initialBitrateEstimateOverwrite_whileOffline_setsInitialEstimate() {
     setActiveNetworkInfo(networkInfoOffline);
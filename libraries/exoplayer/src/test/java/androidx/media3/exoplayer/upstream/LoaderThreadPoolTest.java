@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.media3.exoplayer.upstream;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.media3.common.util.ConditionVariable;
+import androidx.media3.exoplayer.util.ReleasableExecutor;
+import androidx.media3.test.utils.FakeClock;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link LoaderThreadPool}. */
+@RunWith(AndroidJUnit4.class)
+public final class LoaderThreadPoolTest {
+
+  private static final long TIMEOUT_MS = 10_000;
+
+  private LoaderThreadPool loaderThreadPool;
+
+  @After
+  public void tearDown() {
+    if (loaderThreadPool != null) {
+      loaderThreadPool.release();
+    }
+  }
+
+  @Test
+  public void createExecutor_runsTasksInOrder() throws InterruptedException {
+    loaderThreadPool = new LoaderThreadPool(/* maxThreadCount= */ 4);
+    ReleasableExecutor executor = loaderThreadPool.createExecutor();
+    List<Integer> taskIndices = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch tasksCompleted = new CountDownLatch(100);
+
+    for (int i = 0; i < 100; i++) {
+      int taskIndex = i;
+      executor.execute(
+          () -> {
+            taskIndices.add(taskIndex);
+            tasksCompleted.countDown();
+          });
+    }
+
+    assertThat(tasksCompleted.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)).isTrue();
+    for (int i = 0; i < 100; i++) {
+      assertThat(taskIndices.get(i)).isEqualTo(i);
+    }
+  }
+
+  @Test
+  public void createExecutor_withSingleThread_reportsQueueingDelay() throws InterruptedException {
+    FakeClock clock = new FakeClock(/* isAutoAdvancing= */ false);
+    List<Long> queueingDelaysMs = Collections.synchronizedList(new ArrayList<>());
+    loaderThreadPool =
+        new LoaderThreadPool(
+            /* maxThreadCount= */ 1,
+            (loadable, queueingDelayMs) -> queueingDelaysMs.add(queueingDelayMs),
+            clock);
+    ReleasableExecutor executor1 = loaderThreadPool.createExecutor();
+    ReleasableExecutor executor2 = loaderThreadPool.createExecutor();
+    ConditionVariable firstTaskStarted = new ConditionVariable();
+    ConditionVariable releaseFirstTask = new ConditionVariable();
+    CountDownLatch secondTaskCompleted = new CountDownLatch(1);
+
+    executor1.execute(
+        () -> {
+          firstTaskStarted.open();
+          releaseFirstTask.blockUninterruptible();
+        });
+    firstTaskStarted.block();
+    executor2.execute(secondTaskCompleted::countDown);
+    clock.advanceTime(/* timeDiffMs= */ 500);
+    releaseFirstTask.open();
+
+    assertThat(secondTaskCompleted.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)).isTrue();
+    assertThat(queueingDelaysMs).containsExactly(0L, 500L).inOrder();
+  }
+
+  @Test
+  public void createExecutor_withoutMaxThreadCount_runsBlockedTasksConcurrently()
+      throws InterruptedException {
+    loaderThreadPool = new LoaderThreadPool();
+    CountDownLatch tasksStarted = new CountDownLatch(3);
+    CountDownLatch tasksCompleted = new CountDownLatch(3);
+
+    for (int i = 0; i < 3; i++) {
+      loaderThreadPool
+          .createExecutor()
+          .execute(
+              () -> {
+                tasksStarted.countDown();
+                try {
+                  // Each task blocks until all of them are running.
+                  if (tasksStarted.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    tasksCompleted.countDown();
+                  }
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+              });
+    }
+
+    assertThat(tasksCompleted.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)).isTrue();
+  }
+
+  @Test
+  public void loaderWithPoolExecutor_reportsLoadableToListener() throws InterruptedException {
+    List<Loader.Loadable> startedLoadables = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch taskStarted = new CountDownLatch(1);
+    loaderThreadPool =
+        new LoaderThreadPool(
+            (loadable, queueingDelayMs) -> {
+              startedLoadables.add(loadable);
+              taskStarted.countDown();
+            });
+    Loader loader = new Loader(loaderThreadPool.createExecutor());
+    Loader.Loadable loadable =
+        new Loader.Loadable() {
+          @Override
+          public void cancelLoad() {}
+
+          @Override
+          public void load() {}
+        };
+
+    loader.startLoading(loadable, new NoOpCallback(), /* defaultMinRetryCount= */ 0);
+
+    assertThat(taskStarted.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)).isTrue();
+    assertThat(startedLoadables).containsExactly(loadable);
+    loader.release();
+  }
+
+  private static final class NoOpCallback implements Loader.Callback<Loader.Loadable> {
+
+    @Override
+    public void onLoadCompleted(
+        Loader.Loadable loadable, long elapsedRealtimeMs, long loadDurationMs) {}
+
+    @Override
+    public void onLoadCanceled(
+        Loader.Loadable loadable, long elapsedRealtimeMs, long loadDurationMs, boolean released) {}
+
+    @Override
+    public Loader.LoadErrorAction onLoadError(
+        Loader.Loadable loadable,
+        long elapsedRealtimeMs,
+        long loadDurationMs,
+        IOException error,
+        int errorCount) {
+      return Loader.DONT_RETRY;
+    }
+  }
+}
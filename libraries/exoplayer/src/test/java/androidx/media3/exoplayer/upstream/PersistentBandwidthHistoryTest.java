@@ -0,0 +1,283 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.media3.exoplayer.upstream;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.media3.common.C;
+import androidx.media3.common.util.Util;
+import androidx.media3.test.utils.FakeClock;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link PersistentBandwidthHistory}. */
+@RunWith(AndroidJUnit4.class)
+public final class PersistentBandwidthHistoryTest {
+
+  private static final long MAX_AGE_MS = 60_000;
+
+  private File file;
+  private FakeClock clock;
+  private String operatorIdentity;
+
+  @Before
+  public void setUp() throws Exception {
+    file = Util.createTempFile(ApplicationProvider.getApplicationContext(), "BandwidthHistory");
+    file.delete();
+    clock = new FakeClock(/* isAutoAdvancing= */ false);
+    operatorIdentity = "operator1";
+  }
+
+  @After
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Test
+  public void getInitialBitrateEstimate_withoutHistory_returnsTimeUnset() {
+    PersistentBandwidthHistory history = createHistory(/* maxNetworkCount= */ 4);
+
+    assertThat(history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI)).isEqualTo(C.TIME_UNSET);
+  }
+
+  @Test
+  public void getInitialBitrateEstimate_afterSave_returnsLastEstimateOfSameNetwork()
+      throws Exception {
+    PersistentBandwidthHistory history = createHistory(/* maxNetworkCount= */ 4);
+    history.getInitialBitrateEstimate(C.NETWORK_TYPE_4G);
+    addSampleWithEnoughData(history, C.NETWORK_TYPE_4G, /* bitrateEstimate= */ 800_000);
+    addSampleWithEnoughData(history, C.NETWORK_TYPE_4G, /* bitrateEstimate= */ 900_000);
+    history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI);
+    addSampleWithEnoughData(history, C.NETWORK_TYPE_WIFI, /* bitrateEstimate= */ 5_000_000);
+    history.save();
+
+    PersistentBandwidthHistory newHistory = createHistory(/* maxNetworkCount= */ 4);
+
+    assertThat(newHistory.getInitialBitrateEstimate(C.NETWORK_TYPE_4G)).isEqualTo(900_000);
+    assertThat(newHistory.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI)).isEqualTo(5_000_000);
+    assertThat(newHistory.getInitialBitrateEstimate(C.NETWORK_TYPE_3G)).isEqualTo(C.TIME_UNSET);
+  }
+
+  @Test
+  public void getInitialBitrateEstimate_beforeLoad_returnsTimeUnset() throws Exception {
+    PersistentBandwidthHistory history = createHistory(/* maxNetworkCount= */ 4);
+    history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI);
+    addSampleWithEnoughData(history, C.NETWORK_TYPE_WIFI, /* bitrateEstimate= */ 5_000_000);
+    history.save();
+    List<Runnable> loadTasks = new ArrayList<>();
+
+    PersistentBandwidthHistory newHistory =
+        new PersistentBandwidthHistory(
+            file,
+            networkType -> networkType + "-" + operatorIdentity,
+            clock,
+            loadTasks::add,
+            /* maxNetworkCount= */ 4,
+            MAX_AGE_MS);
+
+    assertThat(newHistory.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI)).isEqualTo(C.TIME_UNSET);
+    assertThat(loadTasks).hasSize(1);
+    loadTasks.get(0).run();
+    assertThat(newHistory.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI)).isEqualTo(5_000_000);
+  }
+
+  @Test
+  public void getInitialBitrateEstimate_forOtherOperator_returnsTimeUnset() throws Exception {
+    PersistentBandwidthHistory history = createHistory(/* maxNetworkCount= */ 4);
+    history.getInitialBitrateEstimate(C.NETWORK_TYPE_4G);
+    addSampleWithEnoughData(history, C.NETWORK_TYPE_4G, /* bitrateEstimate= */ 800_000);
+    history.save();
+    operatorIdentity = "operator2";
+
+    PersistentBandwidthHistory newHistory = createHistory(/* maxNetworkCount= */ 4);
+
+    assertThat(newHistory.getInitialBitrateEstimate(C.NETWORK_TYPE_4G)).isEqualTo(C.TIME_UNSET);
+  }
+
+  @Test
+  public void getInitialBitrateEstimate_afterMaxAge_returnsTimeUnset() {
+    PersistentBandwidthHistory history = createHistory(/* maxNetworkCount= */ 4);
+    history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI);
+    addSampleWithEnoughData(history, C.NETWORK_TYPE_WIFI, /* bitrateEstimate= */ 5_000_000);
+
+    clock.advanceTime(MAX_AGE_MS + 1);
+
+    assertThat(history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI)).isEqualTo(C.TIME_UNSET);
+  }
+
+  @Test
+  public void getInitialBitrateEstimate_afterMaxAgeWithSamplesOfSeededEstimate_returnsTimeUnset() {
+    PersistentBandwidthHistory history = createHistory(/* maxNetworkCount= */ 4);
+    history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI);
+    addSampleWithEnoughData(history, C.NETWORK_TYPE_WIFI, /* bitrateEstimate= */ 5_000_000);
+    clock.advanceTime(MAX_AGE_MS / 2);
+
+    // A meter seeded with the recorded estimate reports it until it has enough data of its own.
+    long seededEstimate = history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI);
+    for (int i = 0; i < 10; i++) {
+      history.onBandwidthSample(
+          C.NETWORK_TYPE_WIFI,
+          /* elapsedMs= */ 100,
+          /* bytesTransferred= */ 10_000,
+          /* bitrateEstimate= */ seededEstimate);
+    }
+    clock.advanceTime(MAX_AGE_MS / 2 + 1);
+
+    assertThat(seededEstimate).isEqualTo(5_000_000);
+    assertThat(history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI)).isEqualTo(C.TIME_UNSET);
+  }
+
+  @Test
+  public void onBandwidthSample_withoutTransferredBytes_isIgnored() {
+    PersistentBandwidthHistory history = createHistory(/* maxNetworkCount= */ 4);
+    history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI);
+
+    history.onBandwidthSample(
+        C.NETWORK_TYPE_WIFI,
+        /* elapsedMs= */ 0,
+        /* bytesTransferred= */ 0,
+        /* bitrateEstimate= */ 5_000_000);
+
+    assertThat(history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI)).isEqualTo(C.TIME_UNSET);
+  }
+
+  @Test
+  public void onBandwidthSample_beforeMeterHasEnoughData_isIgnored() {
+    PersistentBandwidthHistory history = createHistory(/* maxNetworkCount= */ 4);
+    history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI);
+
+    history.onBandwidthSample(
+        C.NETWORK_TYPE_WIFI,
+        /* elapsedMs= */ 1999,
+        /* bytesTransferred= */ 512 * 1024 - 1,
+        /* bitrateEstimate= */ 5_000_000);
+
+    assertThat(history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI)).isEqualTo(C.TIME_UNSET);
+  }
+
+  @Test
+  public void onBandwidthSample_afterEnoughElapsedTime_recordsEstimate() {
+    PersistentBandwidthHistory history = createHistory(/* maxNetworkCount= */ 4);
+    history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI);
+
+    history.onBandwidthSample(
+        C.NETWORK_TYPE_WIFI,
+        /* elapsedMs= */ 1000,
+        /* bytesTransferred= */ 100_000,
+        /* bitrateEstimate= */ 1_000_000);
+    history.onBandwidthSample(
+        C.NETWORK_TYPE_WIFI,
+        /* elapsedMs= */ 999,
+        /* bytesTransferred= */ 100_000,
+        /* bitrateEstimate= */ 1_000_000);
+    history.onBandwidthSample(
+        C.NETWORK_TYPE_WIFI,
+        /* elapsedMs= */ 1,
+        /* bytesTransferred= */ 100,
+        /* bitrateEstimate= */ 2_000_000);
+
+    assertThat(history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI)).isEqualTo(2_000_000);
+  }
+
+  @Test
+  public void onBandwidthSample_afterEnoughTransferredBytes_recordsEstimate() {
+    PersistentBandwidthHistory history = createHistory(/* maxNetworkCount= */ 4);
+    history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI);
+
+    history.onBandwidthSample(
+        C.NETWORK_TYPE_WIFI,
+        /* elapsedMs= */ 100,
+        /* bytesTransferred= */ 256 * 1024,
+        /* bitrateEstimate= */ 1_000_000);
+    history.onBandwidthSample(
+        C.NETWORK_TYPE_WIFI,
+        /* elapsedMs= */ 100,
+        /* bytesTransferred= */ 256 * 1024,
+        /* bitrateEstimate= */ 20_000_000);
+
+    assertThat(history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI)).isEqualTo(20_000_000);
+  }
+
+  @Test
+  public void onBandwidthSample_afterNetworkChange_recordsEstimateForNetworkOfSample() {
+    PersistentBandwidthHistory history = createHistory(/* maxNetworkCount= */ 4);
+    history.getInitialBitrateEstimate(C.NETWORK_TYPE_4G);
+    history.onBandwidthSample(
+        C.NETWORK_TYPE_4G,
+        /* elapsedMs= */ 1500,
+        /* bytesTransferred= */ 100_000,
+        /* bitrateEstimate= */ 800_000);
+
+    // The meter reports the rest of the 4G sample before it's reset for the Wi-Fi network.
+    history.onBandwidthSample(
+        C.NETWORK_TYPE_4G,
+        /* elapsedMs= */ 500,
+        /* bytesTransferred= */ 50_000,
+        /* bitrateEstimate= */ 900_000);
+    history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI);
+    history.onBandwidthSample(
+        C.NETWORK_TYPE_WIFI,
+        /* elapsedMs= */ 1500,
+        /* bytesTransferred= */ 100_000,
+        /* bitrateEstimate= */ 5_000_000);
+
+    assertThat(history.getInitialBitrateEstimate(C.NETWORK_TYPE_4G)).isEqualTo(900_000);
+    assertThat(history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI)).isEqualTo(C.TIME_UNSET);
+  }
+
+  @Test
+  public void onBandwidthSample_aboveMaxNetworkCount_discardsLeastRecentlyUsedNetwork() {
+    PersistentBandwidthHistory history = createHistory(/* maxNetworkCount= */ 2);
+    history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI);
+    addSampleWithEnoughData(history, C.NETWORK_TYPE_WIFI, /* bitrateEstimate= */ 5_000_000);
+    history.getInitialBitrateEstimate(C.NETWORK_TYPE_3G);
+    addSampleWithEnoughData(history, C.NETWORK_TYPE_3G, /* bitrateEstimate= */ 500_000);
+    history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI);
+
+    history.getInitialBitrateEstimate(C.NETWORK_TYPE_4G);
+    addSampleWithEnoughData(history, C.NETWORK_TYPE_4G, /* bitrateEstimate= */ 800_000);
+
+    assertThat(history.getInitialBitrateEstimate(C.NETWORK_TYPE_3G)).isEqualTo(C.TIME_UNSET);
+    assertThat(history.getInitialBitrateEstimate(C.NETWORK_TYPE_WIFI)).isEqualTo(5_000_000);
+    assertThat(history.getInitialBitrateEstimate(C.NETWORK_TYPE_4G)).isEqualTo(800_000);
+  }
+
+  private PersistentBandwidthHistory createHistory(int maxNetworkCount) {
+    return new PersistentBandwidthHistory(
+        file,
+        networkType -> networkType + "-" + operatorIdentity,
+        clock,
+        /* loadExecutor= */ Runnable::run,
+        maxNetworkCount,
+        MAX_AGE_MS);
+  }
+
+  private static void addSampleWithEnoughData(
+      PersistentBandwidthHistory history, @C.NetworkType int networkType, long bitrateEstimate) {
+    history.onBandwidthSample(
+        networkType,
+        /* elapsedMs= */ 2000,
+        /* bytesTransferred= */ 100_000,
+        bitrateEstimate);
+  }
+}
@@ -35,11 +35,15 @@ import androidx.media3.common.util.BackgroundExecutor;
 import androidx.media3.common.util.NetworkTypeObserver;
 import androidx.media3.datasource.DataSource;
 import androidx.media3.datasource.DataSpec;
+import androidx.media3.exoplayer.upstream.DefaultBandwidthMeter;
+import androidx.media3.test.utils.FakeClock;
 import androidx.media3.test.utils.FakeDataSource;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.Before;
@@ -449,6 +453,58 @@ public final class ExperimentalBandwidthMeterTest {
     assertThat(initialEstimate).isEqualTo(123456789);
   }
 
+  @Test
+  public void initialBitrateSupplier_setsInitialEstimate() {
+    setActiveNetworkInfo(networkInfoWifi);
+    ExperimentalBandwidthMeter bandwidthMeter =
+        new ExperimentalBandwidthMeter.Builder(ApplicationProvider.getApplicationContext())
+            .setInitialBitrateSupplier(networkType -> 123456789L)
+            .build();
+    ShadowLooper.idleMainLooper();
+    long initialEstimate = bandwidthMeter.getBitrateEstimate();
+
+    assertThat(initialEstimate).isEqualTo(123456789);
+  }
+
+  @Test
+  public void initialBitrateSupplier_receivesSamplesTimedWithBuilderClock() {
+    setActiveNetworkInfo(networkInfoWifi);
+    FakeClock clock = new FakeClock(/* initialTimeMs= */ 0);
+    List<Integer> sampleElapsedTimesMs = new ArrayList<>();
+    DefaultBandwidthMeter.InitialBitrateSupplier supplier =
+        new DefaultBandwidthMeter.InitialBitrateSupplier() {
+          @Override
+          public long getInitialBitrateEstimate(@C.NetworkType int networkType) {
+            return C.TIME_UNSET;
+          }
+
+          @Override
+          public void onBandwidthSample(
+              @C.NetworkType int networkType,
+              int elapsedMs,
+              long bytesTransferred,
+              long bitrateEstimate) {
+            sampleElapsedTimesMs.add(elapsedMs);
+          }
+        };
+    ExperimentalBandwidthMeter bandwidthMeter =
+        new ExperimentalBandwidthMeter.Builder(ApplicationProvider.getApplicationContext())
+            .setClock(clock)
+            .setInitialBitrateSupplier(supplier)
+            .build();
+    ShadowLooper.idleMainLooper();
+    DataSource dataSource = new FakeDataSource();
+    DataSpec dataSpec = new DataSpec(Uri.parse("https://test.com"));
+
+    bandwidthMeter.onTransferStart(dataSource, dataSpec, /* isNetwork= */ true);
+    clock.advanceTime(250);
+    bandwidthMeter.onBytesTransferred(
+        dataSource, dataSpec, /* isNetwork= */ true, /* bytesTransferred= */ 1000);
+    bandwidthMeter.onTransferEnd(dataSource, dataSpec, /* isNetwork= */ true);
+
+    assertThat(sampleElapsedTimesMs).containsExactly(250);
+  }
+
   @Test
   public void initialBitrateEstimateOverwrite_whileOffline_setsInitialEstimate() {
     setActiveNetworkInfo(networkInfoOffline);
@@ -61,6 +61,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -147,11 +148,13 @@ public final class DefaultExtractorsFactory implements ExtractorsFactory {
   private @Mp4Extractor.Flags int mp4Flags;
   private @FragmentedMp4Extractor.Flags int fragmentedMp4Flags;
   private @Mp3Extractor.Flags int mp3Flags;
+  private @OggExtractor.Flags int oggFlags;
   private @TsExtractor.Mode int tsMode;
   private @DefaultTsPayloadReaderFactory.Flags int tsFlags;
   // TODO (b/261183220): Initialize tsSubtitleFormats in constructor once shrinking bug is fixed.
   @Nullable private ImmutableList<Format> tsSubtitleFormats;
   private int tsTimestampSearchBytes;
+  @Nullable private Executor tsParallelParsingExecutor;
   private boolean textTrackTranscodingEnabled;
   private SubtitleParser.Factory subtitleParserFactory;
   private @C.VideoCodecFlags int codecsToParseWithinGopSampleDependencies;
@@ -324,6 +327,19 @@ public final class DefaultExtractorsFactory implements ExtractorsFactory {
     return this;
   }
 
+  /**
+   * Sets flags for {@link OggExtractor} instances created by the factory.
+   *
+   * @see OggExtractor#OggExtractor(int)
+   * @param flags The flags to use.
+   * @return The factory, for convenience.
+   */
+  @CanIgnoreReturnValue
+  public synchronized DefaultExtractorsFactory setOggExtractorFlags(@OggExtractor.Flags int flags) {
+    oggFlags = flags;
+    return this;
+  }
+
   /**
    * Sets the mode for {@link TsExtractor} instances created by the factory.
    *
@@ -381,6 +397,29 @@ public final class DefaultExtractorsFactory implements ExtractorsFactory {
     return this;
   }
 
+  /**
+   * Sets the {@link Executor} on which {@link TsExtractor} instances created by the factory parse
+   * the PES payloads of different elementary streams in parallel, or null to parse them on the
+   * loading thread. The default value is {@code null}.
+   *
+   * <p>The caller owns the executor, which is shared by all the {@link TsExtractor} instances
+   * created by the factory.
+   *
+   * <p>This method is experimental and will be renamed or removed in a future release.
+   *
+   * @see TsExtractor#TsExtractor(int, int, SubtitleParser.Factory, TimestampAdjuster,
+   *     TsPayloadReader.Factory, int, Executor)
+   * @param executor The {@link Executor} on which elementary streams are parsed in parallel, or
+   *     null.
+   * @return The factory, for convenience.
+   */
+  @CanIgnoreReturnValue
+  public synchronized DefaultExtractorsFactory experimentalSetTsParallelParsingExecutor(
+      @Nullable Executor executor) {
+    tsParallelParsingExecutor = executor;
+    return this;
+  }
+
   /**
    * @deprecated This method (and all support for 'legacy' subtitle decoding during rendering) will
    *     be removed in a future release.
@@ -574,7 +613,10 @@ public final class DefaultExtractorsFactory implements ExtractorsFactory {
                     | (parseHagcMetadata ? 0 : Mp4Extractor.FLAG_DISABLE_HAGC_METADATA)));
         break;
       case FileTypes.OGG:
-        extractors.add(new OggExtractor());
+        extractors.add(
+            new OggExtractor(
+                oggFlags
+                    | (disableArtworkMetadata ? OggExtractor.FLAG_DISABLE_ARTWORK_METADATA : 0)));
         break;
       case FileTypes.PS:
         extractors.add(new PsExtractor());
@@ -590,7 +632,8 @@ public final class DefaultExtractorsFactory implements ExtractorsFactory {
                 subtitleParserFactory,
                 new TimestampAdjuster(0),
                 new DefaultTsPayloadReaderFactory(tsFlags, tsSubtitleFormats),
-                tsTimestampSearchBytes));
+                tsTimestampSearchBytes,
+                tsParallelParsingExecutor));
         break;
       case FileTypes.WAV:
         extractors.add(new WavExtractor());
@@ -28,6 +28,7 @@ import androidx.media3.extractor.metadata.flac.PictureFrame;
 import androidx.media3.extractor.metadata.id3.Id3Decoder;
 import com.google.common.collect.ImmutableList;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -143,7 +144,7 @@ public final class FlacMetadataReader {
    *     stream info data. If the block read is a Vorbis comment block or a picture block, the
    *     holder contains a copy of the existing stream metadata with the corresponding metadata
    *     added. Otherwise, the metadata in the holder is unchanged.
-   * @param ignoreArtwork Whether to ignore artwork metadata blocks.
+   * @param ignoreArtwork Whether to ignore artwork metadata blocks and Vorbis comments.
    * @return Whether the block read is the last metadata block.
    * @throws IllegalArgumentException If the block read is not a stream info block and the metadata
    *     in {@code metadataHolder} is {@code null}. In this case, the read position will be at the
@@ -172,7 +173,7 @@ public final class FlacMetadataReader {
         FlacStreamMetadata.SeekTable seekTable = readSeekTableMetadataBlock(input, length);
         metadataHolder.flacStreamMetadata = flacStreamMetadata.copyWithSeekTable(seekTable);
       } else if (type == FlacConstants.METADATA_TYPE_VORBIS_COMMENT) {
-        List<String> vorbisComments = readVorbisCommentMetadataBlock(input, length);
+        List<String> vorbisComments = readVorbisCommentMetadataBlock(input, length, ignoreArtwork);
         metadataHolder.flacStreamMetadata =
             flacStreamMetadata.copyWithVorbisComments(vorbisComments);
       } else if (type == FlacConstants.METADATA_TYPE_PICTURE) {
@@ -272,15 +273,25 @@ public final class FlacMetadataReader {
     return readSeekTableMetadataBlock(scratch);
   }
 
-  private static List<String> readVorbisCommentMetadataBlock(ExtractorInput input, int length)
-      throws IOException {
+  private static List<String> readVorbisCommentMetadataBlock(
+      ExtractorInput input, int length, boolean ignoreArtwork) throws IOException {
     ParsableByteArray scratch = new ParsableByteArray(length);
     input.readFully(scratch.getData(), 0, length);
     scratch.skipBytes(FlacConstants.METADATA_BLOCK_HEADER_SIZE);
     CommentHeader commentHeader =
         VorbisUtil.readVorbisCommentHeader(
             scratch, /* hasMetadataHeader= */ false, /* hasFramingBit= */ false);
-    return Arrays.asList(commentHeader.comments);
+    if (!ignoreArtwork) {
+      return Arrays.asList(commentHeader.comments);
+    }
+    // Discard pictures before they're decoded from base64.
+    List<String> comments = new ArrayList<>(commentHeader.comments.length);
+    for (String comment : commentHeader.comments) {
+      if (!comment.startsWith("METADATA_BLOCK_PICTURE=")) {
+        comments.add(comment);
+      }
+    }
+    return comments;
   }
 
   private FlacMetadataReader() {}
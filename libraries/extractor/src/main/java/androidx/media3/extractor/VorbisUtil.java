@@ -130,6 +130,22 @@ public final class VorbisUtil {
    */
   @Nullable
   public static Metadata parseVorbisComments(List<String> vorbisComments) {
+    return parseVorbisComments(vorbisComments, /* ignoreArtwork= */ false);
+  }
+
+  /**
+   * Builds a {@link Metadata} instance from a list of Vorbis Comments.
+   *
+   * <p>METADATA_BLOCK_PICTURE comments will be transformed into {@link PictureFrame} entries, or
+   * discarded without being decoded if {@code ignoreArtwork} is true. All others will be
+   * transformed into {@link VorbisComment} entries.
+   *
+   * @param vorbisComments The raw input of comments, as a key-value pair KEY=VAL.
+   * @param ignoreArtwork Whether to discard METADATA_BLOCK_PICTURE comments.
+   * @return The fully parsed Metadata instance. Null if no vorbis comments could be parsed.
+   */
+  @Nullable
+  public static Metadata parseVorbisComments(List<String> vorbisComments, boolean ignoreArtwork) {
     List<Entry> metadataEntries = new ArrayList<>();
     for (int i = 0; i < vorbisComments.size(); i++) {
       String vorbisComment = vorbisComments.get(i);
@@ -140,6 +156,9 @@ public final class VorbisUtil {
       }
 
       if (keyAndValue[0].equals("METADATA_BLOCK_PICTURE")) {
+        if (ignoreArtwork) {
+          continue;
+        }
         // This tag is a special cover art tag, outlined by
         // https://wiki.xiph.org/index.php/VorbisComment#Cover_art.
         // Decode it from Base64 and transform it into a PictureFrame.
@@ -17,6 +17,7 @@ package androidx.media3.extractor.avi;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.annotation.ElementType.TYPE_USE;
 
 import androidx.annotation.IntDef;
@@ -143,7 +144,17 @@ public final class AviExtractor implements Extractor {
    */
   private static final long RELOAD_MINIMUM_SEEK_DISTANCE = 256 * 1024;
 
+  /** The size of an idx1 entry, in bytes. */
+  private static final int IDX1_ENTRY_SIZE = 16;
+
+  /**
+   * The maximum number of bytes of the idx1 chunk that are read at once. Must be a multiple of
+   * {@link #IDX1_ENTRY_SIZE}.
+   */
+  private static final int IDX1_BLOCK_SIZE = 4096 * IDX1_ENTRY_SIZE;
+
   private final ParsableByteArray scratch;
+  private final ParsableByteArray idx1Block;
   private final ChunkHeaderHolder chunkHeaderHolder;
   private final boolean parseSubtitlesDuringExtraction;
   private final SubtitleParser.Factory subtitleParserFactory;
@@ -159,7 +170,8 @@ public final class AviExtractor implements Extractor {
   private int hdrlSize;
   private long moviStart;
   private long moviEnd;
-  private int idx1BodySize;
+  private int idx1BytesRemaining;
+  private long idx1SeekOffset;
   private boolean seekMapHasBeenOutput;
 
   /**
@@ -181,6 +193,7 @@ public final class AviExtractor implements Extractor {
     this.subtitleParserFactory = subtitleParserFactory;
     parseSubtitlesDuringExtraction = (extractorFlags & FLAG_EMIT_RAW_SUBTITLE_DATA) == 0;
     scratch = new ParsableByteArray(/* limit= */ 12);
+    idx1Block = new ParsableByteArray();
     chunkHeaderHolder = new ChunkHeaderHolder();
     extractorOutput = new NoOpExtractorOutput();
     chunkReaders = new ChunkReader[0];
@@ -296,18 +309,28 @@ public final class AviExtractor implements Extractor {
         int boxSize = scratch.readLittleEndianInt();
         if (idx1Fourcc == FOURCC_idx1) {
           state = STATE_READING_IDX1_BODY;
-          idx1BodySize = boxSize;
+          idx1BytesRemaining = boxSize;
+          idx1SeekOffset = C.INDEX_UNSET;
+          for (ChunkReader chunkReader : chunkReaders) {
+            // Discard any entries appended before an earlier seek to the start of the file.
+            chunkReader.resetIndex();
+          }
         } else {
           // This one is not idx1, skip to the next box.
           pendingReposition = input.getPosition() + boxSize;
         }
         return RESULT_CONTINUE;
       case STATE_READING_IDX1_BODY:
-        ParsableByteArray idx1Body = new ParsableByteArray(idx1BodySize);
-        input.readFully(idx1Body.getData(), /* offset= */ 0, /* length= */ idx1BodySize);
-        parseIdx1Body(idx1Body);
-        state = STATE_READING_SAMPLES;
-        pendingReposition = moviStart;
+        int blockSize = min(idx1BytesRemaining, IDX1_BLOCK_SIZE);
+        idx1Block.reset(blockSize);
+        input.readFully(idx1Block.getData(), /* offset= */ 0, /* length= */ blockSize);
+        idx1BytesRemaining -= blockSize;
+        parseIdx1Block(idx1Block);
+        if (idx1BytesRemaining == 0) {
+          outputIdx1SeekMap();
+          state = STATE_READING_SAMPLES;
+          pendingReposition = moviStart;
+        }
         return RESULT_CONTINUE;
       case STATE_READING_SAMPLES:
         return readMoviChunks(input);
@@ -399,14 +422,22 @@ public final class AviExtractor implements Extractor {
     extractorOutput.endTracks();
   }
 
-  /** Builds and outputs the {@link SeekMap} from the idx1 chunk. */
-  private void parseIdx1Body(ParsableByteArray body) {
-    long seekOffset = peekSeekOffset(body);
-    while (body.bytesLeft() >= 16) {
-      int chunkId = body.readLittleEndianInt();
-      int flags = body.readLittleEndianInt();
-      long offset = body.readLittleEndianInt() + seekOffset;
-      body.skipBytes(4); // Ignore size.
+  /**
+   * Appends the entries in a block of the idx1 chunk to the indices of the {@link ChunkReader
+   * chunk readers}.
+   *
+   * <p>Blocks are read in order, and all but the last one hold a whole number of entries. Any
+   * trailing partial entry in the last block is ignored.
+   */
+  private void parseIdx1Block(ParsableByteArray block) {
+    if (idx1SeekOffset == C.INDEX_UNSET) {
+      idx1SeekOffset = peekSeekOffset(block);
+    }
+    while (block.bytesLeft() >= IDX1_ENTRY_SIZE) {
+      int chunkId = block.readLittleEndianInt();
+      int flags = block.readLittleEndianInt();
+      long offset = block.readLittleEndianInt() + idx1SeekOffset;
+      block.skipBytes(4); // Ignore size.
       ChunkReader chunkReader = getChunkReader(chunkId);
       if (chunkReader == null) {
         // We ignore unknown chunk IDs.
@@ -415,6 +446,10 @@ public final class AviExtractor implements Extractor {
       chunkReader.appendIndexChunk(
           offset, /* isKeyFrame= */ (flags & AVIIF_KEYFRAME) == AVIIF_KEYFRAME);
     }
+  }
+
+  /** Commits the indices built from the idx1 chunk, and outputs the {@link SeekMap}. */
+  private void outputIdx1SeekMap() {
     for (ChunkReader chunkReader : chunkReaders) {
       chunkReader.commitIndex();
     }
@@ -431,7 +466,7 @@ public final class AviExtractor implements Extractor {
     // says some files base the offset on the start of the file. We use a best effort approach to
     // figure out which is the case. See:
     // https://docs.microsoft.com/en-us/previous-versions/windows/desktop/api/Aviriff/ns-aviriff-avioldindex#dwoffset.
-    if (idx1Body.bytesLeft() < 16) {
+    if (idx1Body.bytesLeft() < IDX1_ENTRY_SIZE) {
       // There are no full entries in the index, meaning we don't need to apply an offset.
       return 0;
     }
@@ -75,7 +75,15 @@ import java.util.Arrays;
   private int indexChunkCount;
   private int indexSize;
   private long firstIndexChunkOffset;
-  private long[] keyFrameOffsets;
+
+  /** The offsets of the key frames, relative to {@link #firstIndexChunkOffset}. */
+  private int[] keyFrameOffsets;
+
+  /**
+   * The chunk indices of the key frames. Not populated if {@link #allSamplesAreSyncSamples}, in
+   * which case the chunk index of each key frame is equal to its index in {@link
+   * #keyFrameOffsets}.
+   */
   private int[] keyFrameIndices;
 
   public ChunkReader(
@@ -95,8 +103,8 @@ import java.util.Arrays;
     alternativeChunkId =
         trackType == TRACK_TYPE_VIDEO ? getChunkIdFourCc(id, CHUNK_TYPE_VIDEO_UNCOMPRESSED) : -1;
     firstIndexChunkOffset = C.INDEX_UNSET;
-    keyFrameOffsets = new long[INITIAL_INDEX_SIZE];
-    keyFrameIndices = new int[INITIAL_INDEX_SIZE];
+    keyFrameOffsets = new int[INITIAL_INDEX_SIZE];
+    keyFrameIndices = allSamplesAreSyncSamples ? new int[0] : new int[INITIAL_INDEX_SIZE];
     chunkCount = streamHeaderChunk.length;
   }
 
@@ -104,18 +112,35 @@ import java.util.Arrays;
     if (firstIndexChunkOffset == C.INDEX_UNSET) {
       firstIndexChunkOffset = offset;
     }
-    if (isKeyFrame || allSamplesAreSyncSamples) {
-      if (indexSize == keyFrameIndices.length) {
+    if (allSamplesAreSyncSamples) {
+      if (indexSize == keyFrameOffsets.length) {
+        keyFrameOffsets = Arrays.copyOf(keyFrameOffsets, keyFrameOffsets.length * 3 / 2);
+      }
+      // The chunk index is implied by the position in keyFrameOffsets.
+      keyFrameOffsets[indexSize] = (int) (offset - firstIndexChunkOffset);
+      indexSize++;
+    } else if (isKeyFrame) {
+      if (indexSize == keyFrameOffsets.length) {
         keyFrameOffsets = Arrays.copyOf(keyFrameOffsets, keyFrameOffsets.length * 3 / 2);
         keyFrameIndices = Arrays.copyOf(keyFrameIndices, keyFrameIndices.length * 3 / 2);
       }
-      keyFrameOffsets[indexSize] = offset;
+      keyFrameOffsets[indexSize] = (int) (offset - firstIndexChunkOffset);
       keyFrameIndices[indexSize] = indexChunkCount;
       indexSize++;
     }
     indexChunkCount++;
   }
 
+  /** Discards all entries appended by {@link #appendIndexChunk}. */
+  public void resetIndex() {
+    indexChunkCount = 0;
+    indexSize = 0;
+    firstIndexChunkOffset = C.INDEX_UNSET;
+    keyFrameOffsets = new int[INITIAL_INDEX_SIZE];
+    keyFrameIndices = allSamplesAreSyncSamples ? new int[0] : new int[INITIAL_INDEX_SIZE];
+    chunkCount = streamHeaderChunk.length;
+  }
+
   public void advanceCurrentChunk() {
     currentChunkIndex++;
   }
@@ -130,7 +155,9 @@ import java.util.Arrays;
 
   public void commitIndex() {
     keyFrameOffsets = Arrays.copyOf(keyFrameOffsets, indexSize);
-    keyFrameIndices = Arrays.copyOf(keyFrameIndices, indexSize);
+    if (!allSamplesAreSyncSamples) {
+      keyFrameIndices = Arrays.copyOf(keyFrameIndices, indexSize);
+    }
     if (allSamplesAreSyncSamples && streamHeaderChunk.sampleSize != 0 && indexSize > 0) {
       // In some files the AVI stream header chunk for audio has the number of bytes of audio in
       // dwLength instead of the number of chunks. Overwrite the chunk size to use the size of the
@@ -188,10 +215,14 @@ import java.util.Arrays;
     if (indexSize == 0) {
       currentChunkIndex = 0;
     } else {
+      int relativePosition =
+          (int)
+              Util.constrainValue(
+                  position - firstIndexChunkOffset, Integer.MIN_VALUE, Integer.MAX_VALUE);
       int index =
           Util.binarySearchFloor(
-              keyFrameOffsets, position, /* inclusive= */ true, /* stayInBounds= */ true);
-      currentChunkIndex = keyFrameIndices[index];
+              keyFrameOffsets, relativePosition, /* inclusive= */ true, /* stayInBounds= */ true);
+      currentChunkIndex = getKeyFrameChunkIndex(index);
     }
   }
 
@@ -203,14 +234,16 @@ import java.util.Arrays;
     }
     int targetFrameIndex = (int) (timeUs / getFrameDurationUs());
     int keyFrameIndex =
-        Util.binarySearchFloor(
-            keyFrameIndices, targetFrameIndex, /* inclusive= */ true, /* stayInBounds= */ true);
-    if (keyFrameIndices[keyFrameIndex] == targetFrameIndex) {
+        allSamplesAreSyncSamples
+            ? Util.constrainValue(targetFrameIndex, 0, indexSize - 1)
+            : Util.binarySearchFloor(
+                keyFrameIndices, targetFrameIndex, /* inclusive= */ true, /* stayInBounds= */ true);
+    if (getKeyFrameChunkIndex(keyFrameIndex) == targetFrameIndex) {
       return new SeekMap.SeekPoints(getSeekPoint(keyFrameIndex));
     }
     // The target frame is not a key frame, we look for the two closest ones.
     SeekPoint precedingKeyFrameSeekPoint = getSeekPoint(keyFrameIndex);
-    if (keyFrameIndex + 1 < keyFrameOffsets.length) {
+    if (keyFrameIndex + 1 < indexSize) {
       return new SeekMap.SeekPoints(precedingKeyFrameSeekPoint, getSeekPoint(keyFrameIndex + 1));
     } else {
       return new SeekMap.SeekPoints(precedingKeyFrameSeekPoint);
@@ -223,7 +256,12 @@ import java.util.Arrays;
 
   private SeekPoint getSeekPoint(int keyFrameIndex) {
     return new SeekPoint(
-        keyFrameIndices[keyFrameIndex] * getFrameDurationUs(), keyFrameOffsets[keyFrameIndex]);
+        getKeyFrameChunkIndex(keyFrameIndex) * getFrameDurationUs(),
+        firstIndexChunkOffset + keyFrameOffsets[keyFrameIndex]);
+  }
+
+  private int getKeyFrameChunkIndex(int keyFrameIndex) {
+    return allSamplesAreSyncSamples ? keyFrameIndex : keyFrameIndices[keyFrameIndex];
   }
 
   private static int getChunkIdFourCc(int streamId, @ChunkType int chunkType) {
@@ -602,41 +602,62 @@ public final class Id3Decoder extends SimpleMetadataDecoder {
     return new GeobFrame(mimeType, filename, description, objectData);
   }
 
+  @Nullable
   private static ApicFrame decodeApicFrame(
       ParsableByteArray id3Data, int frameSize, int majorVersion) {
     int encoding = id3Data.readUnsignedByte();
     Charset charset = getCharset(encoding);
 
-    byte[] data = new byte[frameSize - 1];
-    id3Data.readBytes(data, 0, frameSize - 1);
+    // Decode the header fields in place, so that the picture data (which may be large) is the only
+    // part of the frame that's copied.
+    byte[] data = id3Data.getData();
+    int dataStartIndex = id3Data.getPosition();
+    int dataEndIndex = dataStartIndex + frameSize - 1;
 
     String mimeType;
     int mimeTypeEndIndex;
     if (majorVersion == 2) {
-      mimeTypeEndIndex = 2;
-      mimeType = "image/" + Ascii.toLowerCase(new String(data, 0, 3, StandardCharsets.ISO_8859_1));
+      if (frameSize - 1 < 3) {
+        // Frame is malformed.
+        return null;
+      }
+      mimeTypeEndIndex = dataStartIndex + 2;
+      mimeType =
+          "image/"
+              + Ascii.toLowerCase(
+                  new String(data, dataStartIndex, 3, StandardCharsets.ISO_8859_1));
       if ("image/jpg".equals(mimeType)) {
         mimeType = "image/jpeg";
       }
     } else {
-      mimeTypeEndIndex = indexOfZeroByte(data, 0);
+      mimeTypeEndIndex = indexOfZeroByte(data, dataStartIndex, dataEndIndex);
       mimeType =
-          Ascii.toLowerCase(new String(data, 0, mimeTypeEndIndex, StandardCharsets.ISO_8859_1));
+          Ascii.toLowerCase(
+              new String(
+                  data,
+                  dataStartIndex,
+                  mimeTypeEndIndex - dataStartIndex,
+                  StandardCharsets.ISO_8859_1));
       if (mimeType.indexOf('/') == -1) {
         mimeType = "image/" + mimeType;
       }
     }
 
+    if (mimeTypeEndIndex + 1 >= dataEndIndex) {
+      // Frame is malformed.
+      return null;
+    }
     int pictureType = data[mimeTypeEndIndex + 1] & 0xFF;
 
     int descriptionStartIndex = mimeTypeEndIndex + 2;
-    int descriptionEndIndex = indexOfTerminator(data, descriptionStartIndex, encoding);
+    int descriptionEndIndex =
+        indexOfTerminator(data, descriptionStartIndex, dataEndIndex, encoding);
     String description =
         new String(
             data, descriptionStartIndex, descriptionEndIndex - descriptionStartIndex, charset);
 
     int pictureDataStartIndex = descriptionEndIndex + delimiterLength(encoding);
-    byte[] pictureData = copyOfRangeIfValid(data, pictureDataStartIndex, data.length);
+    byte[] pictureData = copyOfRangeIfValid(data, pictureDataStartIndex, dataEndIndex);
 
     return new ApicFrame(mimeType, description, pictureType, pictureData);
   }
@@ -845,7 +866,11 @@ public final class Id3Decoder extends SimpleMetadataDecoder {
   }
 
   private static int indexOfTerminator(byte[] data, int fromIndex, int encoding) {
-    int terminationPos = indexOfZeroByte(data, fromIndex);
+    return indexOfTerminator(data, fromIndex, /* toIndex= */ data.length, encoding);
+  }
+
+  private static int indexOfTerminator(byte[] data, int fromIndex, int toIndex, int encoding) {
+    int terminationPos = indexOfZeroByte(data, fromIndex, toIndex);
 
     // For single byte encoding charsets, we're done.
     if (encoding == ID3_TEXT_ENCODING_ISO_8859_1 || encoding == ID3_TEXT_ENCODING_UTF_8) {
@@ -853,23 +878,27 @@ public final class Id3Decoder extends SimpleMetadataDecoder {
     }
 
     // Otherwise ensure an even offset from the start, and look for a second zero byte.
-    while (terminationPos < data.length - 1) {
+    while (terminationPos < toIndex - 1) {
       if ((terminationPos - fromIndex) % 2 == 0 && data[terminationPos + 1] == (byte) 0) {
         return terminationPos;
       }
-      terminationPos = indexOfZeroByte(data, terminationPos + 1);
+      terminationPos = indexOfZeroByte(data, terminationPos + 1, toIndex);
     }
 
-    return data.length;
+    return toIndex;
   }
 
   private static int indexOfZeroByte(byte[] data, int fromIndex) {
-    for (int i = fromIndex; i < data.length; i++) {
+    return indexOfZeroByte(data, fromIndex, /* toIndex= */ data.length);
+  }
+
+  private static int indexOfZeroByte(byte[] data, int fromIndex, int toIndex) {
+    for (int i = fromIndex; i < toIndex; i++) {
       if (data[i] == (byte) 0) {
         return i;
       }
     }
-    return data.length;
+    return toIndex;
   }
 
   private static int delimiterLength(int encodingByte) {
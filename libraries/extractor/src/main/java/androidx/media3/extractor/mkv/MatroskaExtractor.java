@@ -57,6 +57,7 @@ import androidx.media3.extractor.ExtractorInput;
 import androidx.media3.extractor.ExtractorOutput;
 import androidx.media3.extractor.ExtractorsFactory;
 import androidx.media3.extractor.HevcConfig;
+import androidx.media3.extractor.IndexSeekMap;
 import androidx.media3.extractor.MpegAudioUtil;
 import androidx.media3.extractor.PositionHolder;
 import androidx.media3.extractor.SeekMap;
@@ -103,14 +104,20 @@ public class MatroskaExtractor implements Extractor {
 
   /**
    * Flags controlling the behavior of the extractor. Possible flag values are {@link
-   * #FLAG_DISABLE_SEEK_FOR_CUES} and {#FLAG_EMIT_RAW_SUBTITLE_DATA}.
+   * #FLAG_DISABLE_SEEK_FOR_CUES}, {@link #FLAG_EMIT_RAW_SUBTITLE_DATA}, {@link
+   * #FLAG_DISABLE_HAGC_METADATA} and {@link #FLAG_DEFER_SEEK_FOR_CUES}.
    */
   @Documented
   @Retention(RetentionPolicy.SOURCE)
   @Target(TYPE_USE)
   @IntDef(
       flag = true,
-      value = {FLAG_DISABLE_SEEK_FOR_CUES, FLAG_EMIT_RAW_SUBTITLE_DATA, FLAG_DISABLE_HAGC_METADATA})
+      value = {
+        FLAG_DISABLE_SEEK_FOR_CUES,
+        FLAG_EMIT_RAW_SUBTITLE_DATA,
+        FLAG_DISABLE_HAGC_METADATA,
+        FLAG_DEFER_SEEK_FOR_CUES
+      })
   public @interface Flags {}
 
   /**
@@ -132,6 +139,20 @@ public class MatroskaExtractor implements Extractor {
   /** Flag to disable parsing of HAGC (ST 2094-50) metadata. */
   public static final int FLAG_DISABLE_HAGC_METADATA = 1 << 2; // 4
 
+  /**
+   * Flag to defer seeking for cues until the first cluster has been read.
+   *
+   * <p>Normally (i.e. when this flag is not set) the extractor seeks to a cues element that's after
+   * the first cluster before reading any samples, which delays the start of playback by the time
+   * taken to load the cues. Setting this flag causes the samples in the first cluster to be read
+   * first. Until the cues element has been read, the extractor outputs a {@link SeekMap} built from
+   * the positions of the clusters it has read, which is replaced by one built from the cues once
+   * they're available.
+   *
+   * <p>Has no effect if {@link #FLAG_DISABLE_SEEK_FOR_CUES} is set.
+   */
+  public static final int FLAG_DEFER_SEEK_FOR_CUES = 1 << 3; // 8
+
   /**
    * @deprecated Use {@link #newFactory(SubtitleParser.Factory)} instead.
    */
@@ -457,6 +478,7 @@ public class MatroskaExtractor implements Extractor {
   private final SparseArray<Track> tracks;
   private final LongSparseArray<ChapterEntry> chapters;
   private final boolean seekForCuesEnabled;
+  private final boolean deferSeekForCues;
   private final boolean parseHagcMetadata;
   private final boolean parseSubtitlesDuringExtraction;
   private final SubtitleParser.Factory subtitleParserFactory;
@@ -488,9 +510,13 @@ public class MatroskaExtractor implements Extractor {
   // The track corresponding to the current TrackEntry element, or null.
   @Nullable private Track currentTrack;
 
-  // Whether a seek map has been sent to the output.
+  // Whether a seek map based on the Cues element (or its absence) has been sent to the output.
   private boolean sentSeekMap;
 
+  // A seek map built from the clusters that have been read, used until the Cues element has been
+  // read if seeking for it is deferred, or null.
+  @Nullable private IndexSeekMap clusterSeekMap;
+
   // Master seek entry related elements.
   private int seekEntryId;
   private long seekEntryPosition;
@@ -511,9 +537,11 @@ public class MatroskaExtractor implements Extractor {
   private long seekPositionAfterReadingTracks = C.INDEX_UNSET;
   private boolean readTracks;
   private long clusterTimecodeUs = C.TIME_UNSET;
+  private long clusterPosition = C.INDEX_UNSET;
 
   // Reading state.
   private boolean haveOutputSample;
+  private long elementPosition = C.INDEX_UNSET;
 
   // Block reading state.
   private int blockState;
@@ -590,6 +618,7 @@ public class MatroskaExtractor implements Extractor {
     this.subtitleParserFactory = subtitleParserFactory;
     this.perTrackCues = new SparseArray<>();
     seekForCuesEnabled = (flags & FLAG_DISABLE_SEEK_FOR_CUES) == 0;
+    deferSeekForCues = (flags & FLAG_DEFER_SEEK_FOR_CUES) != 0;
     parseSubtitlesDuringExtraction = (flags & FLAG_EMIT_RAW_SUBTITLE_DATA) == 0;
     parseHagcMetadata = (flags & FLAG_DISABLE_HAGC_METADATA) == 0;
     varintReader = new VarintReader();
@@ -656,6 +685,7 @@ public class MatroskaExtractor implements Extractor {
     haveOutputSample = false;
     boolean continueReading = true;
     while (continueReading && !haveOutputSample) {
+      elementPosition = input.getPosition();
       continueReading = reader.read(input);
       if (continueReading
           && (maybeSeekForTracks(seekPosition, input.getPosition())
@@ -856,6 +886,7 @@ public class MatroskaExtractor implements Extractor {
         }
         break;
       case ID_CLUSTER:
+        clusterPosition = elementPosition;
         if (tracksContentPosition != C.INDEX_UNSET && !readTracks) {
           seekForTracks = true;
         } else {
@@ -927,8 +958,11 @@ public class MatroskaExtractor implements Extractor {
             }
           }
           if (!hasAnyCues || durationUs == C.TIME_UNSET) {
-            // Cues are missing, empty, or duration is unknown.
-            extractorOutput.seekMap(new SeekMap.Unseekable(durationUs));
+            // Cues are missing, empty, or duration is unknown. If a seek map has been built from
+            // the clusters that have been read, keep using it.
+            if (clusterSeekMap == null) {
+              extractorOutput.seekMap(new SeekMap.Unseekable(durationUs));
+            }
           } else {
             for (int i = 0; i < perTrackCues.size(); i++) {
               Collections.sort(perTrackCues.valueAt(i));
@@ -941,6 +975,7 @@ public class MatroskaExtractor implements Extractor {
                     segmentContentPosition,
                     segmentContentSize);
             extractorOutput.seekMap(seekMap);
+            clusterSeekMap = null;
           }
           sentSeekMap = true;
           inCuesElement = false;
@@ -1076,10 +1111,13 @@ public class MatroskaExtractor implements Extractor {
         int defaultAudioTrackNumber = C.INDEX_UNSET;
         int firstAudioTrackNumber = C.INDEX_UNSET;
 
-        // If we're not going to seek for cues, or we have already processed them, output the
-        // formats immediately.
+        // If we're not going to seek for cues, or we have already processed them, or we'll only
+        // seek for them after reading the first cluster, output the formats immediately.
         boolean maybeSendFormatsEarly =
-            !seekForCuesEnabled || cuesContentPosition == C.INDEX_UNSET || sentSeekMap;
+            !seekForCuesEnabled
+                || cuesContentPosition == C.INDEX_UNSET
+                || sentSeekMap
+                || deferSeekForCues;
 
         for (int i = 0; i < tracks.size(); i++) {
           Track trackItem = tracks.valueAt(i);
@@ -1319,6 +1357,13 @@ public class MatroskaExtractor implements Extractor {
         break;
       case ID_TIME_CODE:
         clusterTimecodeUs = scaleTimecodeToUs(value);
+        if (clusterSeekMap != null
+            && !clusterSeekMap.isTimeUsInIndex(
+                clusterTimecodeUs, /* minTimeBetweenPointsUs= */ 1)) {
+          // Clusters are added in order of time, so clusters that are read again after a seek are
+          // ignored.
+          clusterSeekMap.addSeekPoint(clusterTimecodeUs, clusterPosition);
+        }
         break;
       case ID_BLOCK_DURATION:
         blockDurationUs = scaleTimecodeToUs(value);
@@ -2300,8 +2345,19 @@ public class MatroskaExtractor implements Extractor {
     }
     // We need to build cues before parsing the cluster.
     if (seekForCuesEnabled && cuesContentPosition != C.INDEX_UNSET) {
-      // We know where the Cues element is located. Seek to request it.
-      seekForCues = true;
+      if (deferSeekForCues && clusterSeekMap == null) {
+        // Read the first cluster before seeking to the Cues element, and seek using the clusters
+        // that have been read until the Cues element is available.
+        clusterSeekMap =
+            new IndexSeekMap(
+                /* positions= */ new long[] {clusterPosition},
+                /* timesUs= */ new long[] {0},
+                durationUs);
+        checkNotNull(extractorOutput).seekMap(clusterSeekMap);
+      } else {
+        // We know where the Cues element is located. Seek to request it.
+        seekForCues = true;
+      }
     } else {
       // We don't know where the Cues element is located. It's most likely omitted. Allow
       // playback, but disable seeking.
@@ -17,6 +17,7 @@ package androidx.media3.extractor.ogg;
 
 import static androidx.media3.extractor.ExtractorUtil.skipFullyQuietly;
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
 
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
@@ -47,6 +48,7 @@ import java.math.BigInteger;
   private final long payloadStartPosition;
   private final long payloadEndPosition;
   private final StreamReader streamReader;
+  @Nullable private final OggPageIndex pageIndex;
 
   private int state;
   private long totalGranules;
@@ -75,8 +77,39 @@ import java.math.BigInteger;
       long firstPayloadPageSize,
       long firstPayloadPageGranulePosition,
       boolean firstPayloadPageIsLastPage) {
+    this(
+        streamReader,
+        payloadStartPosition,
+        payloadEndPosition,
+        firstPayloadPageSize,
+        firstPayloadPageGranulePosition,
+        firstPayloadPageIsLastPage,
+        /* pageIndex= */ null);
+  }
+
+  /**
+   * Constructs an OggSeeker.
+   *
+   * @param streamReader The {@link StreamReader} that owns this seeker.
+   * @param payloadStartPosition Start position of the payload (inclusive).
+   * @param payloadEndPosition End position of the payload (exclusive).
+   * @param firstPayloadPageSize The total size of the first payload page, in bytes.
+   * @param firstPayloadPageGranulePosition The granule position of the first payload page.
+   * @param firstPayloadPageIsLastPage Whether the first payload page is also the last page.
+   * @param pageIndex An {@link OggPageIndex} used to narrow down the range searched when seeking,
+   *     and to which the pages read while seeking are added, or null if there isn't one.
+   */
+  public DefaultOggSeeker(
+      StreamReader streamReader,
+      long payloadStartPosition,
+      long payloadEndPosition,
+      long firstPayloadPageSize,
+      long firstPayloadPageGranulePosition,
+      boolean firstPayloadPageIsLastPage,
+      @Nullable OggPageIndex pageIndex) {
     checkArgument(payloadStartPosition >= 0 && payloadEndPosition > payloadStartPosition);
     this.streamReader = streamReader;
+    this.pageIndex = pageIndex;
     this.payloadStartPosition = payloadStartPosition;
     this.payloadEndPosition = payloadEndPosition;
     if (firstPayloadPageSize == payloadEndPosition - payloadStartPosition
@@ -108,6 +141,10 @@ import java.math.BigInteger;
         state = STATE_IDLE;
         return positionBeforeSeekToEnd;
       case STATE_SEEK:
+        if (start == end && input.getPosition() != start) {
+          // The page index located the target page, but the input isn't positioned at it.
+          return start;
+        }
         long position = getNextSeekPosition(input);
         if (position != C.INDEX_UNSET) {
           return position;
@@ -138,6 +175,22 @@ import java.math.BigInteger;
     end = payloadEndPosition;
     startGranule = 0;
     endGranule = totalGranules;
+    if (pageIndex != null) {
+      // Narrow down the range to search to that between the indexed pages either side of the
+      // target. The search has converged if the range is small enough.
+      int index = pageIndex.getLastIndexAtOrBefore(this.targetGranule);
+      if (index != C.INDEX_UNSET) {
+        start = max(start, pageIndex.getPosition(index));
+        startGranule = pageIndex.getGranulePosition(index);
+      }
+      if (index + 1 < pageIndex.size()) {
+        end = pageIndex.getPosition(index + 1);
+        endGranule = pageIndex.getGranulePosition(index + 1);
+      }
+      if (end - start < MATCH_BYTE_RANGE) {
+        end = start;
+      }
+    }
   }
 
   /**
@@ -166,6 +219,9 @@ import java.math.BigInteger;
 
     pageHeader.populate(input, /* quiet= */ false);
     input.resetPeekPosition();
+    if (pageIndex != null) {
+      pageIndex.add(input.getPosition(), pageHeader.granulePosition);
+    }
 
     long granuleDistance = targetGranule - pageHeader.granulePosition;
     int pageSize = pageHeader.headerSize + pageHeader.bodySize;
@@ -207,6 +263,9 @@ import java.math.BigInteger;
       // end of the file, so pageHeader.populate will throw EOFException (because quiet=false).
       pageHeader.skipToNextPage(input);
       pageHeader.populate(input, /* quiet= */ false);
+      if (pageIndex != null) {
+        pageIndex.add(input.getPosition(), pageHeader.granulePosition);
+      }
       if (pageHeader.granulePosition > targetGranule) {
         break;
       }
@@ -17,7 +17,11 @@ package androidx.media3.extractor.ogg;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.lang.Math.min;
+import static java.lang.annotation.ElementType.TYPE_USE;
+import static java.lang.annotation.RetentionPolicy.SOURCE;
 
+import androidx.annotation.IntDef;
+import androidx.annotation.Nullable;
 import androidx.media3.common.C;
 import androidx.media3.common.ParserException;
 import androidx.media3.common.util.ParsableByteArray;
@@ -29,6 +33,9 @@ import androidx.media3.extractor.ExtractorsFactory;
 import androidx.media3.extractor.PositionHolder;
 import androidx.media3.extractor.TrackOutput;
 import java.io.IOException;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
 import org.checkerframework.checker.nullness.qual.EnsuresNonNullIf;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 
@@ -39,12 +46,53 @@ public class OggExtractor implements Extractor {
   /** Factory for {@link OggExtractor} instances. */
   public static final ExtractorsFactory FACTORY = () -> new Extractor[] {new OggExtractor()};
 
+  /**
+   * Flags controlling the behavior of the extractor. Possible flag values are {@link
+   * #FLAG_DISABLE_ARTWORK_METADATA} and {@link #FLAG_ENABLE_PAGE_INDEX}.
+   */
+  @Documented
+  @Retention(SOURCE)
+  @Target(TYPE_USE)
+  @IntDef(
+      flag = true,
+      value = {FLAG_DISABLE_ARTWORK_METADATA, FLAG_ENABLE_PAGE_INDEX})
+  public @interface Flags {}
+
+  /**
+   * Flag to disable parsing of artwork metadata. METADATA_BLOCK_PICTURE comments are discarded
+   * without being decoded.
+   */
+  public static final int FLAG_DISABLE_ARTWORK_METADATA = 1;
+
+  /**
+   * Flag to record the positions and granule positions of the pages read in an index, which is
+   * used to narrow down the range searched when seeking. Seeks to positions near pages that have
+   * already been read require fewer reads from the input, at the cost of a small amount of memory
+   * per indexed page.
+   */
+  public static final int FLAG_ENABLE_PAGE_INDEX = 1 << 1;
+
   private static final int MAX_VERIFICATION_BYTES = 8;
 
+  private final @Flags int flags;
+  @Nullable private final OggPageIndex pageIndex;
+
   private @MonotonicNonNull ExtractorOutput output;
   private @MonotonicNonNull StreamReader streamReader;
   private boolean streamReaderInitialized;
 
+  public OggExtractor() {
+    this(/* flags= */ 0);
+  }
+
+  /**
+   * @param flags Flags that control the extractor's behavior.
+   */
+  public OggExtractor(@Flags int flags) {
+    this.flags = flags;
+    pageIndex = (flags & FLAG_ENABLE_PAGE_INDEX) != 0 ? new OggPageIndex() : null;
+  }
+
   @Override
   public boolean sniff(ExtractorInput input) throws IOException {
     try {
@@ -85,7 +133,7 @@ public class OggExtractor implements Extractor {
     if (!streamReaderInitialized) {
       TrackOutput trackOutput = output.track(0, C.TRACK_TYPE_AUDIO);
       output.endTracks();
-      streamReader.init(output, trackOutput);
+      streamReader.init(output, trackOutput, pageIndex);
       streamReaderInitialized = true;
     }
     return streamReader.read(input, seekPosition);
@@ -102,12 +150,13 @@ public class OggExtractor implements Extractor {
     ParsableByteArray scratch = new ParsableByteArray(length);
     input.peekFully(scratch.getData(), 0, length);
 
+    boolean ignoreArtwork = (flags & FLAG_DISABLE_ARTWORK_METADATA) != 0;
     if (FlacReader.verifyBitstreamType(resetPosition(scratch))) {
       streamReader = new FlacReader();
     } else if (VorbisReader.verifyBitstreamType(resetPosition(scratch))) {
-      streamReader = new VorbisReader();
+      streamReader = new VorbisReader(ignoreArtwork);
     } else if (OpusReader.verifyBitstreamType(resetPosition(scratch))) {
-      streamReader = new OpusReader();
+      streamReader = new OpusReader(ignoreArtwork);
     } else {
       return false;
     }
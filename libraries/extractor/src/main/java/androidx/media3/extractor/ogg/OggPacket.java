@@ -20,6 +20,7 @@ import static androidx.media3.extractor.ExtractorUtil.skipFullyQuietly;
 import static com.google.common.base.Preconditions.checkState;
 import static java.lang.Math.max;
 
+import androidx.annotation.Nullable;
 import androidx.media3.common.C;
 import androidx.media3.common.util.ParsableByteArray;
 import androidx.media3.extractor.ExtractorInput;
@@ -36,6 +37,15 @@ import java.util.Arrays;
   private int currentSegmentIndex = C.INDEX_UNSET;
   private int segmentCount;
   private boolean populated;
+  @Nullable private OggPageIndex pageIndex;
+
+  /**
+   * Sets the {@link OggPageIndex} to which the pages read are added, or null if they shouldn't be
+   * indexed.
+   */
+  public void setPageIndex(@Nullable OggPageIndex pageIndex) {
+    this.pageIndex = pageIndex;
+  }
 
   /** Resets this reader. */
   public void reset() {
@@ -70,6 +80,9 @@ import java.util.Arrays;
         if (!pageHeader.skipToNextPage(input) || !pageHeader.populate(input, /* quiet= */ true)) {
           return false;
         }
+        if (pageIndex != null) {
+          pageIndex.add(input.getPosition(), pageHeader.granulePosition);
+        }
         int segmentIndex = 0;
         int bytesToSkip = pageHeader.headerSize;
         if ((pageHeader.type & 0x01) == 0x01 && packetArray.limit() == 0) {
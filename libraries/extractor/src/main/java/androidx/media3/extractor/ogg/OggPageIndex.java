@@ -0,0 +1,113 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.media3.extractor.ogg;
+
+import androidx.media3.common.C;
+import java.util.Arrays;
+
+/**
+ * An index of the positions and granule positions of Ogg pages, built from the pages that are
+ * encountered while reading a stream.
+ *
+ * <p>Entries are kept in order of position. Pages that are closer than {@link
+ * #MIN_ENTRY_SPACING_BYTES} to an existing entry aren't added, which bounds the size of the index
+ * for long streams without significantly affecting how precisely it locates pages.
+ */
+/* package */ final class OggPageIndex {
+
+  /** The minimum number of bytes between the positions of two entries. */
+  /* package */ static final int MIN_ENTRY_SPACING_BYTES = 16 * 1024;
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private long[] positions;
+  private long[] granulePositions;
+  private int size;
+
+  public OggPageIndex() {
+    positions = new long[INITIAL_CAPACITY];
+    granulePositions = new long[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Adds a page to the index.
+   *
+   * <p>The page is ignored if no packet ends on it (in which case its granule position is -1), if
+   * it's too close to an existing entry, or if its granule position isn't consistent with the
+   * order of the existing entries.
+   *
+   * @param position The position of the start of the page.
+   * @param granulePosition The granule position of the page.
+   */
+  public void add(long position, long granulePosition) {
+    if (granulePosition < 0) {
+      return;
+    }
+    int insertionIndex = Arrays.binarySearch(positions, /* fromIndex= */ 0, size, position);
+    if (insertionIndex >= 0) {
+      // The page is already in the index.
+      return;
+    }
+    insertionIndex = -(insertionIndex + 1);
+    if ((insertionIndex > 0
+            && (position - positions[insertionIndex - 1] < MIN_ENTRY_SPACING_BYTES
+                || granulePosition <= granulePositions[insertionIndex - 1]))
+        || (insertionIndex < size
+            && (positions[insertionIndex] - position < MIN_ENTRY_SPACING_BYTES
+                || granulePosition >= granulePositions[insertionIndex]))) {
+      return;
+    }
+    if (size == positions.length) {
+      positions = Arrays.copyOf(positions, size * 2);
+      granulePositions = Arrays.copyOf(granulePositions, size * 2);
+    }
+    System.arraycopy(
+        positions, insertionIndex, positions, insertionIndex + 1, size - insertionIndex);
+    System.arraycopy(
+        granulePositions,
+        insertionIndex,
+        granulePositions,
+        insertionIndex + 1,
+        size - insertionIndex);
+    positions[insertionIndex] = position;
+    granulePositions[insertionIndex] = granulePosition;
+    size++;
+  }
+
+  /** Returns the number of entries in the index. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns the position of the start of the page of the entry at {@code index}. */
+  public long getPosition(int index) {
+    return positions[index];
+  }
+
+  /** Returns the granule position of the page of the entry at {@code index}. */
+  public long getGranulePosition(int index) {
+    return granulePositions[index];
+  }
+
+  /**
+   * Returns the index of the last entry whose granule position is less than or equal to {@code
+   * granule}, or {@link C#INDEX_UNSET} if there isn't one.
+   */
+  public int getLastIndexAtOrBefore(long granule) {
+    int index = Arrays.binarySearch(granulePositions, /* fromIndex= */ 0, size, granule);
+    return index >= 0 ? index : -(index + 1) - 1;
+  }
+}
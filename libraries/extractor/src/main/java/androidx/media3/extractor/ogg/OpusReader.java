@@ -38,8 +38,17 @@ import org.checkerframework.checker.nullness.qual.EnsuresNonNullIf;
     'O', 'p', 'u', 's', 'T', 'a', 'g', 's'
   };
 
+  private final boolean ignoreArtwork;
+
   private boolean firstCommentHeaderSeen;
 
+  /**
+   * @param ignoreArtwork Whether to discard artwork in the comment header without decoding it.
+   */
+  public OpusReader(boolean ignoreArtwork) {
+    this.ignoreArtwork = ignoreArtwork;
+  }
+
   public static boolean verifyBitstreamType(ParsableByteArray data) {
     return peekPacketStartsWith(data, OPUS_ID_HEADER_SIGNATURE);
   }
@@ -104,7 +113,7 @@ import org.checkerframework.checker.nullness.qual.EnsuresNonNullIf;
       @Nullable
       Metadata vorbisMetadata =
           androidx.media3.extractor.VorbisUtil.parseVorbisComments(
-              ImmutableList.copyOf(commentHeader.comments));
+              ImmutableList.copyOf(commentHeader.comments), ignoreArtwork);
       if (vorbisMetadata == null) {
         return true;
       }
@@ -18,6 +18,7 @@ package androidx.media3.extractor.ogg;
 import static androidx.media3.common.util.Util.castNonNull;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import androidx.annotation.Nullable;
 import androidx.media3.common.C;
 import androidx.media3.common.Format;
 import androidx.media3.common.util.ParsableByteArray;
@@ -49,6 +50,7 @@ import org.checkerframework.checker.nullness.qual.RequiresNonNull;
 
   private final OggPacket oggPacket;
 
+  @Nullable private OggPageIndex pageIndex;
   private @MonotonicNonNull TrackOutput trackOutput;
   private @MonotonicNonNull ExtractorOutput extractorOutput;
   private @MonotonicNonNull OggSeeker oggSeeker;
@@ -67,9 +69,19 @@ import org.checkerframework.checker.nullness.qual.RequiresNonNull;
     setupData = new SetupData();
   }
 
-  void init(ExtractorOutput output, TrackOutput trackOutput) {
+  /**
+   * Initializes the reader.
+   *
+   * @param output The {@link ExtractorOutput}.
+   * @param trackOutput The {@link TrackOutput} for the stream.
+   * @param pageIndex An {@link OggPageIndex} to which the pages read are added, and which is used
+   *     to speed up seeking, or null if pages shouldn't be indexed.
+   */
+  void init(ExtractorOutput output, TrackOutput trackOutput, @Nullable OggPageIndex pageIndex) {
     this.extractorOutput = output;
     this.trackOutput = trackOutput;
+    this.pageIndex = pageIndex;
+    oggPacket.setPageIndex(pageIndex);
     reset(true);
   }
 
@@ -186,7 +198,8 @@ import org.checkerframework.checker.nullness.qual.RequiresNonNull;
               input.getLength(),
               firstPayloadPageHeader.headerSize + firstPayloadPageHeader.bodySize,
               firstPayloadPageHeader.granulePosition,
-              isLastPage);
+              isLastPage,
+              pageIndex);
     }
 
     state = STATE_READ_PAYLOAD;
@@ -35,6 +35,8 @@ import org.checkerframework.checker.nullness.qual.EnsuresNonNullIf;
 /** {@link StreamReader} to extract Vorbis data out of Ogg byte stream. */
 /* package */ final class VorbisReader extends StreamReader {
 
+  private final boolean ignoreArtwork;
+
   @Nullable private VorbisSetup vorbisSetup;
   private int previousPacketBlockSize;
   private boolean seenFirstAudioPacket;
@@ -42,6 +44,17 @@ import org.checkerframework.checker.nullness.qual.EnsuresNonNullIf;
   @Nullable private VorbisUtil.VorbisIdHeader vorbisIdHeader;
   @Nullable private VorbisUtil.CommentHeader commentHeader;
 
+  public VorbisReader() {
+    this(/* ignoreArtwork= */ false);
+  }
+
+  /**
+   * @param ignoreArtwork Whether to discard artwork in the comment header without decoding it.
+   */
+  public VorbisReader(boolean ignoreArtwork) {
+    this.ignoreArtwork = ignoreArtwork;
+  }
+
   public static boolean verifyBitstreamType(ParsableByteArray data) {
     try {
       return VorbisUtil.verifyVorbisHeaderCapturePattern(/* headerType= */ 0x01, data, true);
@@ -116,7 +129,7 @@ import org.checkerframework.checker.nullness.qual.EnsuresNonNullIf;
     @Nullable
     Metadata metadata =
         androidx.media3.extractor.VorbisUtil.parseVorbisComments(
-            ImmutableList.copyOf(vorbisSetup.commentHeader.comments));
+            ImmutableList.copyOf(vorbisSetup.commentHeader.comments), ignoreArtwork);
 
     setupData.format =
         new Format.Builder()
@@ -44,7 +44,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 
 /** Generic extractor for extracting subtitles from various subtitle formats. */
@@ -86,8 +85,10 @@ public class SubtitleExtractor implements Extractor {
   private static final int STATE_RELEASED = 5;
 
   private static final int DEFAULT_BUFFER_SIZE = 1024;
+  private static final int INCREMENTAL_PARSING_BUFFER_SIZE = 16 * 1024;
 
   private final SubtitleParser subtitleParser;
+  private final boolean parseIncrementally;
   private final CueEncoder cueEncoder;
   @Nullable private final Format format;
   private final List<Sample> samples;
@@ -101,10 +102,16 @@ public class SubtitleExtractor implements Extractor {
   private @State int state;
   private long[] timestamps;
   private long seekTimeUs;
+  private long maxEndTimeUs;
 
   /**
    * Creates an instance.
    *
+   * <p>If the parser {@linkplain SubtitleParser#supportsIncrementalParsing() supports incremental
+   * parsing}, the input is passed to it as it's read, and cues are written to the output as soon as
+   * they're parsed. Otherwise the whole input is read before it's parsed. In both cases, the
+   * encoded cues of the whole input are kept in memory to serve seeks without parsing it again.
+   *
    * @param subtitleParser The parser used for parsing the subtitle data. The extractor will reset
    *     the parser in {@link SubtitleExtractor#release()}.
    * @param format {@link Format} that describes subtitle data. Can be null if {@link
@@ -113,6 +120,7 @@ public class SubtitleExtractor implements Extractor {
    */
   public SubtitleExtractor(SubtitleParser subtitleParser, @Nullable Format format) {
     this.subtitleParser = subtitleParser;
+    parseIncrementally = subtitleParser.supportsIncrementalParsing();
     cueEncoder = new CueEncoder();
     subtitleData = Util.EMPTY_BYTE_ARRAY;
     scratchSampleArray = new ParsableByteArray();
@@ -131,6 +139,7 @@ public class SubtitleExtractor implements Extractor {
     state = STATE_CREATED;
     timestamps = Util.EMPTY_LONG_ARRAY;
     seekTimeUs = C.TIME_UNSET;
+    maxEndTimeUs = C.TIME_UNSET;
   }
 
   @Override
@@ -163,20 +172,36 @@ public class SubtitleExtractor implements Extractor {
   public int read(ExtractorInput input, PositionHolder seekPosition) throws IOException {
     checkState(state != STATE_CREATED && state != STATE_RELEASED);
     if (state == STATE_INITIALIZED) {
-      int length =
-          input.getLength() != C.LENGTH_UNSET
-              ? Ints.checkedCast(input.getLength())
-              : DEFAULT_BUFFER_SIZE;
+      int length;
+      if (parseIncrementally) {
+        length = INCREMENTAL_PARSING_BUFFER_SIZE;
+        subtitleParser.reset();
+      } else {
+        length =
+            input.getLength() != C.LENGTH_UNSET
+                ? Ints.checkedCast(input.getLength())
+                : DEFAULT_BUFFER_SIZE;
+      }
       if (length > subtitleData.length) {
         subtitleData = new byte[length];
       }
       bytesRead = 0;
+      samples.clear();
+      maxEndTimeUs = C.TIME_UNSET;
       state = STATE_EXTRACTING;
     }
     if (state == STATE_EXTRACTING) {
-      boolean inputFinished = readFromInput(input);
+      boolean inputFinished;
+      if (parseIncrementally) {
+        inputFinished = readAndParseIncrementally(input);
+      } else {
+        inputFinished = readFromInput(input);
+        if (inputFinished) {
+          parse();
+        }
+      }
       if (inputFinished) {
-        parseAndWriteToOutput();
+        finishParsing();
         state = STATE_FINISHED;
       }
     }
@@ -242,58 +267,94 @@ public class SubtitleExtractor implements Extractor {
   }
 
   /**
-   * Parses the subtitle data and writes the samples to the output, and stores them in {@link
-   * #timestamps} and {@link #samples} to speed up any subsequent seeks.
-   *
-   * <p>Also reassigns {@link #subtitleData} to an empty array once parsing is complete.
+   * Reads the next chunk of the input and passes it to the parser. Returns whether reading has been
+   * finished.
    */
-  private void parseAndWriteToOutput() throws IOException {
+  private boolean readAndParseIncrementally(ExtractorInput input) throws IOException {
+    int readResult = input.read(subtitleData, /* offset= */ 0, /* length= */ subtitleData.length);
+    int chunkLength = readResult != C.RESULT_END_OF_INPUT ? readResult : 0;
+    bytesRead += chunkLength;
+    long inputLength = input.getLength();
+    boolean inputFinished =
+        (inputLength != C.LENGTH_UNSET && bytesRead == inputLength)
+            || readResult == C.RESULT_END_OF_INPUT;
+    try {
+      subtitleParser.parseIncrementally(
+          subtitleData,
+          /* offset= */ 0,
+          chunkLength,
+          /* isEndOfSample= */ inputFinished,
+          getOutputOptions(),
+          this::onCuesWithTiming);
+    } catch (RuntimeException e) {
+      throw ParserException.createForMalformedContainer("SubtitleParser failed.", e);
+    }
+    return inputFinished;
+  }
+
+  /** Parses the subtitle data, which must have been read completely into {@link #subtitleData}. */
+  private void parse() throws IOException {
     try {
-      SubtitleParser.OutputOptions outputOptions =
-          seekTimeUs != C.TIME_UNSET
-              ? SubtitleParser.OutputOptions.cuesAfterThenRemainingCuesBefore(seekTimeUs)
-              : SubtitleParser.OutputOptions.allCues();
-      AtomicLong maxEndTimeUs = new AtomicLong(C.TIME_UNSET);
       subtitleParser.parse(
           subtitleData,
           /* offset= */ 0,
           /* length= */ bytesRead,
-          outputOptions,
-          cuesWithTiming -> {
-            Sample sample =
-                new Sample(
-                    cuesWithTiming.startTimeUs,
-                    cueEncoder.encode(cuesWithTiming.cues, cuesWithTiming.durationUs));
-            samples.add(sample);
-            if (cuesWithTiming.endTimeUs != C.TIME_UNSET) {
-              maxEndTimeUs.set(
-                  maxEndTimeUs.get() == C.TIME_UNSET
-                      ? cuesWithTiming.endTimeUs
-                      : Math.max(maxEndTimeUs.get(), cuesWithTiming.endTimeUs));
-            }
-            if (seekTimeUs == C.TIME_UNSET || cuesWithTiming.endTimeUs >= seekTimeUs) {
-              writeToOutput(sample);
-            }
-          });
-      Collections.sort(samples);
-      timestamps = new long[samples.size()];
-      for (int i = 0; i < samples.size(); i++) {
-        timestamps[i] = samples.get(i).timeUs;
-      }
-      // Duration is exact after parsing all subtitle cues.
-      if (maxEndTimeUs.get() != C.TIME_UNSET) {
-        checkNotNull(trackOutput).durationUs(maxEndTimeUs.get());
-        if (seekMap != null) {
-          seekMap.setDurationUs(maxEndTimeUs.get());
-          checkNotNull(extractorOutput).seekMap(seekMap);
-        }
-      }
-      subtitleData = Util.EMPTY_BYTE_ARRAY;
+          getOutputOptions(),
+          this::onCuesWithTiming);
     } catch (RuntimeException e) {
       throw ParserException.createForMalformedContainer("SubtitleParser failed.", e);
     }
   }
 
+  private SubtitleParser.OutputOptions getOutputOptions() {
+    return seekTimeUs != C.TIME_UNSET
+        ? SubtitleParser.OutputOptions.cuesAfterThenRemainingCuesBefore(seekTimeUs)
+        : SubtitleParser.OutputOptions.allCues();
+  }
+
+  /**
+   * Stores the parsed cues in {@link #samples} to speed up any subsequent seeks, and writes them to
+   * the output if they're not before the seek time.
+   */
+  private void onCuesWithTiming(CuesWithTiming cuesWithTiming) {
+    Sample sample =
+        new Sample(
+            cuesWithTiming.startTimeUs,
+            cueEncoder.encode(cuesWithTiming.cues, cuesWithTiming.durationUs));
+    samples.add(sample);
+    if (cuesWithTiming.endTimeUs != C.TIME_UNSET) {
+      maxEndTimeUs =
+          maxEndTimeUs == C.TIME_UNSET
+              ? cuesWithTiming.endTimeUs
+              : Math.max(maxEndTimeUs, cuesWithTiming.endTimeUs);
+    }
+    if (seekTimeUs == C.TIME_UNSET || cuesWithTiming.endTimeUs >= seekTimeUs) {
+      writeToOutput(sample);
+    }
+  }
+
+  /**
+   * Sorts {@link #samples} and stores their times in {@link #timestamps}, and outputs the duration.
+   *
+   * <p>Also reassigns {@link #subtitleData} to an empty array.
+   */
+  private void finishParsing() {
+    Collections.sort(samples);
+    timestamps = new long[samples.size()];
+    for (int i = 0; i < samples.size(); i++) {
+      timestamps[i] = samples.get(i).timeUs;
+    }
+    // Duration is exact after parsing all subtitle cues.
+    if (maxEndTimeUs != C.TIME_UNSET) {
+      checkNotNull(trackOutput).durationUs(maxEndTimeUs);
+      if (seekMap != null) {
+        seekMap.setDurationUs(maxEndTimeUs);
+        checkNotNull(extractorOutput).seekMap(seekMap);
+      }
+    }
+    subtitleData = Util.EMPTY_BYTE_ARRAY;
+  }
+
   private void writeToOutput() {
     int index =
         seekTimeUs == C.TIME_UNSET
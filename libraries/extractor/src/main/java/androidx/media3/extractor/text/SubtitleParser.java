@@ -183,6 +183,52 @@ public interface SubtitleParser {
       OutputOptions outputOptions,
       Consumer<CuesWithTiming> output);
 
+  /**
+   * Returns whether this parser supports receiving a single sample in consecutive chunks, using
+   * {@link #parseIncrementally}.
+   *
+   * <p>The default implementation returns {@code false}.
+   */
+  default boolean supportsIncrementalParsing() {
+    return false;
+  }
+
+  /**
+   * Parses a chunk of a sample, and emits any resulting {@link CuesWithTiming} instances that are
+   * complete via {@code output}.
+   *
+   * <p>This allows the start of a large sample (e.g. a long subtitle file) to be parsed and emitted
+   * before the rest of it is available, without first copying the whole sample into one array. Any
+   * part of {@code data} that can't be parsed yet is stored, and used during subsequent calls to
+   * this method. {@link #reset()} must be called to discard a partially parsed sample.
+   *
+   * <p>Calls for the same sample must not be interleaved with calls to {@link #parse(byte[], int,
+   * int, OutputOptions, Consumer)}.
+   *
+   * <p>The default implementation throws {@link UnsupportedOperationException}.
+   *
+   * @param data The array containing the chunk.
+   * @param offset The index in {@code data} to start reading from (inclusive).
+   * @param length The number of bytes to read from {@code data}.
+   * @param isEndOfSample Whether the chunk is the last one of the sample.
+   * @param outputOptions Options to control how instances are emitted to {@code output}. Must be
+   *     the same for all chunks of a sample.
+   * @param output A consumer for {@link CuesWithTiming} instances emitted by this method. All calls
+   *     will be made on the thread that called this method, and will be completed before this
+   *     method returns.
+   * @throws UnsupportedOperationException If {@link #supportsIncrementalParsing()} returns {@code
+   *     false}.
+   */
+  default void parseIncrementally(
+      byte[] data,
+      int offset,
+      int length,
+      boolean isEndOfSample,
+      OutputOptions outputOptions,
+      Consumer<CuesWithTiming> output) {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * Parses {@code data} to a legacy {@link Subtitle} instance.
    *
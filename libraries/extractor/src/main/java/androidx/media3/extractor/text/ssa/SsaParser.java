@@ -297,16 +297,19 @@ public final class SsaParser implements SubtitleParser {
       ParsableByteArray data, List<List<Cue>> cues, List<Long> cueTimesUs, Charset charset) {
     @Nullable
     SsaDialogueFormat format = haveInitializationData ? dialogueFormatFromInitializationData : null;
-    @Nullable String currentLine;
-    while ((currentLine = data.readLine(charset)) != null) {
-      if (currentLine.startsWith(FORMAT_LINE_PREFIX)) {
-        format = SsaDialogueFormat.fromFormatLine(currentLine);
-      } else if (currentLine.startsWith(DIALOGUE_LINE_PREFIX)) {
+    while (data.bytesLeft() > 0) {
+      if (data.peekStartsWith(FORMAT_LINE_PREFIX, charset)) {
+        format = SsaDialogueFormat.fromFormatLine(checkNotNull(data.readLine(charset)));
+      } else if (data.peekStartsWith(DIALOGUE_LINE_PREFIX, charset)) {
+        String dialogueLine = checkNotNull(data.readLine(charset));
         if (format == null) {
-          Log.w(TAG, "Skipping dialogue line before complete format: " + currentLine);
+          Log.w(TAG, "Skipping dialogue line before complete format: " + dialogueLine);
           continue;
         }
-        parseDialogueLine(currentLine, format, cues, cueTimesUs);
+        parseDialogueLine(dialogueLine, format, cues, cueTimesUs);
+      } else {
+        // Skip other lines (e.g., comments) without decoding them.
+        data.skipLine(charset);
       }
     }
   }
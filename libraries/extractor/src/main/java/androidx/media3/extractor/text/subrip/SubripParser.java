@@ -111,35 +111,34 @@ public final class SubripParser implements SubtitleParser {
             ? new ArrayList<>()
             : null;
     @Nullable String currentLine;
-    while ((currentLine = parsableByteArray.readLine(charset)) != null) {
-      if (currentLine.isEmpty()) {
-        // Skip blank lines.
-        continue;
-      }
-
-      // Parse and check the index line.
-      try {
-        Integer.parseInt(currentLine);
-      } catch (NumberFormatException e) {
-        Log.w(TAG, "Skipping invalid index: " + currentLine);
+    while (parsableByteArray.bytesLeft() > 0) {
+      // Check the index line. It's only decoded if it's invalid, so that it can be logged.
+      if (!parsableByteArray.peekLineIsInt(charset)) {
+        // Skip the line, logging it unless it's blank.
+        int lineStartPosition = parsableByteArray.getPosition();
+        if (parsableByteArray.skipLine(charset) > 0) {
+          parsableByteArray.setPosition(lineStartPosition);
+          Log.w(TAG, "Skipping invalid index: " + parsableByteArray.readLine(charset));
+        }
         continue;
       }
+      parsableByteArray.skipLine(charset);
 
-      // Read and parse the timing line.
-      currentLine = parsableByteArray.readLine(charset);
-      if (currentLine == null) {
+      // Read and parse the timing line. It's only matched, so it's read without copying it.
+      @Nullable CharSequence timingLine = parsableByteArray.readLineAsCharSequence(charset);
+      if (timingLine == null) {
         Log.w(TAG, "Unexpected end");
         break;
       }
 
       long startTimeUs;
       long endTimeUs;
-      Matcher matcher = SUBRIP_TIMING_LINE.matcher(currentLine);
+      Matcher matcher = SUBRIP_TIMING_LINE.matcher(timingLine);
       if (matcher.matches()) {
         startTimeUs = parseTimecode(matcher, /* groupOffset= */ 1);
         endTimeUs = parseTimecode(matcher, /* groupOffset= */ 6);
       } else {
-        Log.w(TAG, "Skipping invalid timing: " + currentLine);
+        Log.w(TAG, "Skipping invalid timing: " + timingLine);
         continue;
       }
 
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.media3.extractor.text.webvtt;
+
+import static java.lang.Math.min;
+
+import androidx.annotation.Nullable;
+import androidx.media3.common.C;
+import androidx.media3.common.text.Cue;
+import androidx.media3.common.util.Consumer;
+import androidx.media3.common.util.Log;
+import androidx.media3.extractor.text.CuesWithTiming;
+import androidx.media3.extractor.text.LegacySubtitleUtil;
+import androidx.media3.extractor.text.SubtitleParser.OutputOptions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Converts WebVTT cues into non-overlapping {@link CuesWithTiming} instances, emitting each one as
+ * soon as no later cue can affect it.
+ *
+ * <p>Added cues are buffered, and swept in order of start time once more than {@code
+ * maxBufferedCueCount} cues are buffered, or when {@link #finish} is called. As long as no cue
+ * starts before a cue that has already been swept, the output is the same as that of {@link
+ * LegacySubtitleUtil#toCuesWithTiming} for a {@link WebvttSubtitle} containing all of the cues, in
+ * the order in which they were added. The WebVTT specification requires cues to be ordered by start
+ * time, so files that follow it never need a buffer. A cue that starts before a cue that has
+ * already been swept is emitted on its own, without being merged with the cues that overlap it.
+ */
+/* package */ final class WebvttCueMerger {
+
+  private static final String TAG = "WebvttCueMerger";
+
+  private final OutputOptions outputOptions;
+  private final int maxBufferedCueCount;
+  private final PriorityQueue<IndexedCueInfo> bufferedCueInfos;
+  private final List<IndexedCueInfo> activeCueInfos;
+  private final PriorityQueue<Long> pendingEventTimesUs;
+  private final List<CuesWithTiming> deferredCuesWithTiming;
+
+  private int nextCueIndex;
+  private long lastSweptTimeUs;
+
+  /**
+   * Creates an instance.
+   *
+   * @param outputOptions The {@link OutputOptions} that determine which cues are emitted, and in
+   *     what order.
+   * @param maxBufferedCueCount The maximum number of cues that are buffered before being swept in
+   *     order of start time, or {@link Integer#MAX_VALUE} to buffer all cues until {@link #finish}
+   *     is called.
+   */
+  public WebvttCueMerger(OutputOptions outputOptions, int maxBufferedCueCount) {
+    this.outputOptions = outputOptions;
+    this.maxBufferedCueCount = maxBufferedCueCount;
+    bufferedCueInfos =
+        new PriorityQueue<>(
+            /* initialCapacity= */ 11,
+            (c1, c2) ->
+                c1.sweepTimeUs != c2.sweepTimeUs
+                    ? Long.compare(c1.sweepTimeUs, c2.sweepTimeUs)
+                    : Integer.compare(c1.index, c2.index));
+    activeCueInfos = new ArrayList<>();
+    pendingEventTimesUs = new PriorityQueue<>();
+    deferredCuesWithTiming = new ArrayList<>();
+    lastSweptTimeUs = Long.MIN_VALUE;
+  }
+
+  /**
+   * Adds a cue, emitting any {@link CuesWithTiming} instances that can no longer be affected by
+   * cues that haven't been swept.
+   *
+   * @param cueInfo The cue to add.
+   * @param output The consumer of the emitted {@link CuesWithTiming} instances.
+   */
+  public void add(WebvttCueInfo cueInfo, Consumer<CuesWithTiming> output) {
+    IndexedCueInfo indexedCueInfo = new IndexedCueInfo(cueInfo, nextCueIndex++);
+    if (indexedCueInfo.sweepTimeUs < lastSweptTimeUs) {
+      Log.w(TAG, "Cue out of order, not merging with overlapping cues: " + cueInfo.startTimeUs);
+      if (cueInfo.endTimeUs > cueInfo.startTimeUs) {
+        outputCues(
+            resolveCues(Collections.singletonList(cueInfo), cueInfo.startTimeUs),
+            cueInfo.startTimeUs,
+            cueInfo.endTimeUs,
+            output);
+      }
+      return;
+    }
+    bufferedCueInfos.add(indexedCueInfo);
+    if (bufferedCueInfos.size() > maxBufferedCueCount) {
+      sweep(bufferedCueInfos.remove(), output);
+    }
+  }
+
+  /**
+   * Emits all remaining {@link CuesWithTiming} instances, and resets the instance so that it can be
+   * used for another sequence of cues.
+   *
+   * @param output The consumer of the emitted {@link CuesWithTiming} instances.
+   */
+  public void finish(Consumer<CuesWithTiming> output) {
+    while (!bufferedCueInfos.isEmpty()) {
+      sweep(bufferedCueInfos.remove(), output);
+    }
+    outputEventsBefore(Long.MAX_VALUE, output);
+    for (int i = 0; i < deferredCuesWithTiming.size(); i++) {
+      output.accept(deferredCuesWithTiming.get(i));
+    }
+    deferredCuesWithTiming.clear();
+    activeCueInfos.clear();
+    pendingEventTimesUs.clear();
+    nextCueIndex = 0;
+    lastSweptTimeUs = Long.MIN_VALUE;
+  }
+
+  /**
+   * Returns the cues from {@code cueInfos} that are displayed at {@code timeUs}, with the lines of
+   * cues that don't specify one assigned in order of start time.
+   */
+  /* package */ static List<Cue> resolveCues(List<WebvttCueInfo> cueInfos, long timeUs) {
+    List<Cue> currentCues = new ArrayList<>();
+    List<WebvttCueInfo> cuesWithUnsetLine = new ArrayList<>();
+    for (int i = 0; i < cueInfos.size(); i++) {
+      WebvttCueInfo cueInfo = cueInfos.get(i);
+      if (cueInfo.startTimeUs <= timeUs && timeUs < cueInfo.endTimeUs) {
+        if (cueInfo.cue.line == Cue.DIMEN_UNSET) {
+          cuesWithUnsetLine.add(cueInfo);
+        } else {
+          currentCues.add(cueInfo.cue);
+        }
+      }
+    }
+    // Steps 4 - 10 of https://www.w3.org/TR/webvtt1/#cue-computed-line
+    // (steps 1 - 3 are handled by WebvttCueParser#computeLine(float, int))
+    Collections.sort(cuesWithUnsetLine, (c1, c2) -> Long.compare(c1.startTimeUs, c2.startTimeUs));
+    for (int i = 0; i < cuesWithUnsetLine.size(); i++) {
+      Cue cue = cuesWithUnsetLine.get(i).cue;
+      currentCues.add(cue.buildUpon().setLine((float) (-1 - i), Cue.LINE_TYPE_NUMBER).build());
+    }
+    return currentCues;
+  }
+
+  /**
+   * Emits the cues displayed before the first event of {@code indexedCueInfo}, and adds its events.
+   */
+  private void sweep(IndexedCueInfo indexedCueInfo, Consumer<CuesWithTiming> output) {
+    outputEventsBefore(indexedCueInfo.sweepTimeUs, output);
+    lastSweptTimeUs = indexedCueInfo.sweepTimeUs;
+    WebvttCueInfo cueInfo = indexedCueInfo.cueInfo;
+    // Cues that are never displayed still split the output at their start and end times.
+    pendingEventTimesUs.add(cueInfo.startTimeUs);
+    pendingEventTimesUs.add(cueInfo.endTimeUs);
+    if (cueInfo.endTimeUs > cueInfo.startTimeUs) {
+      // Keep the active cues in the order in which they were added, which determines the order of
+      // the resolved cues.
+      int insertionIndex = activeCueInfos.size();
+      while (insertionIndex > 0
+          && activeCueInfos.get(insertionIndex - 1).index > indexedCueInfo.index) {
+        insertionIndex--;
+      }
+      activeCueInfos.add(insertionIndex, indexedCueInfo);
+    }
+  }
+
+  /**
+   * Emits the cues displayed from each pending event time before {@code timeUs}, until the next
+   * event time (or {@code timeUs}, if that's earlier).
+   */
+  private void outputEventsBefore(long timeUs, Consumer<CuesWithTiming> output) {
+    while (!pendingEventTimesUs.isEmpty() && pendingEventTimesUs.peek() < timeUs) {
+      long eventTimeUs = pendingEventTimesUs.poll();
+      @Nullable Long nextEventTimeUs = pendingEventTimesUs.peek();
+      long endTimeUs = nextEventTimeUs != null ? min(nextEventTimeUs, timeUs) : timeUs;
+      for (int i = activeCueInfos.size() - 1; i >= 0; i--) {
+        if (activeCueInfos.get(i).cueInfo.endTimeUs <= eventTimeUs) {
+          activeCueInfos.remove(i);
+        }
+      }
+      if (endTimeUs > eventTimeUs && !activeCueInfos.isEmpty()) {
+        List<WebvttCueInfo> cueInfos = new ArrayList<>(activeCueInfos.size());
+        for (int i = 0; i < activeCueInfos.size(); i++) {
+          cueInfos.add(activeCueInfos.get(i).cueInfo);
+        }
+        outputCues(resolveCues(cueInfos, eventTimeUs), eventTimeUs, endTimeUs, output);
+      }
+    }
+  }
+
+  /**
+   * Emits, defers or discards {@code cues} displayed from {@code startTimeUs} to {@code endTimeUs},
+   * depending on {@link #outputOptions}.
+   */
+  private void outputCues(
+      List<Cue> cues, long startTimeUs, long endTimeUs, Consumer<CuesWithTiming> output) {
+    if (cues.isEmpty()) {
+      return;
+    }
+    long outputStartTimeUs = outputOptions.startTimeUs;
+    if (outputStartTimeUs == C.TIME_UNSET || startTimeUs >= outputStartTimeUs) {
+      output.accept(new CuesWithTiming(cues, startTimeUs, endTimeUs - startTimeUs));
+      return;
+    }
+    if (endTimeUs > outputStartTimeUs) {
+      // Emit the part after the output start time now, and the part before it (if required) after
+      // all earlier cues.
+      output.accept(new CuesWithTiming(cues, outputStartTimeUs, endTimeUs - outputStartTimeUs));
+      endTimeUs = outputStartTimeUs;
+    }
+    if (outputOptions.outputAllCues) {
+      deferredCuesWithTiming.add(new CuesWithTiming(cues, startTimeUs, endTimeUs - startTimeUs));
+    }
+  }
+
+  private static final class IndexedCueInfo {
+
+    public final WebvttCueInfo cueInfo;
+    public final int index;
+
+    /** The time of the cue's first event, which is its end time if that's before its start time. */
+    public final long sweepTimeUs;
+
+    public IndexedCueInfo(WebvttCueInfo cueInfo, int index) {
+      this.cueInfo = cueInfo;
+      this.index = index;
+      sweepTimeUs = min(cueInfo.startTimeUs, cueInfo.endTimeUs);
+    }
+  }
+}
@@ -15,18 +15,21 @@
  */
 package androidx.media3.extractor.text.webvtt;
 
-import android.text.TextUtils;
+import static java.lang.Math.max;
+
 import androidx.annotation.Nullable;
+import androidx.media3.common.C;
 import androidx.media3.common.Format;
 import androidx.media3.common.Format.CueReplacementBehavior;
 import androidx.media3.common.ParserException;
 import androidx.media3.common.util.Consumer;
 import androidx.media3.common.util.ParsableByteArray;
 import androidx.media3.common.util.UnstableApi;
+import androidx.media3.common.util.Util;
 import androidx.media3.extractor.text.CuesWithTiming;
-import androidx.media3.extractor.text.LegacySubtitleUtil;
 import androidx.media3.extractor.text.SubtitleParser;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -44,7 +47,6 @@ public final class WebvttParser implements SubtitleParser {
   public static final @CueReplacementBehavior int CUE_REPLACEMENT_BEHAVIOR =
       Format.CUE_REPLACEMENT_BEHAVIOR_MERGE;
 
-  private static final int EVENT_NONE = -1;
   private static final int EVENT_END_OF_FILE = 0;
   private static final int EVENT_COMMENT = 1;
   private static final int EVENT_STYLE_BLOCK = 2;
@@ -53,12 +55,27 @@ public final class WebvttParser implements SubtitleParser {
   private static final String COMMENT_START = "NOTE";
   private static final String STYLE_START = "STYLE";
 
+  /**
+   * The number of cues that are buffered during incremental parsing, so that cues that are out of
+   * order by fewer than this many cues are still merged with the cues that overlap them.
+   */
+  private static final int INCREMENTAL_PARSING_MAX_BUFFERED_CUE_COUNT = 16;
+
   private final ParsableByteArray parsableWebvttData;
   private final WebvttCssParser cssParser;
+  private final List<WebvttCssStyle> definedStyles;
+
+  private byte[] pendingData;
+  private int pendingDataLength;
+  private boolean isHeaderParsed;
+  private boolean isCueParsed;
+  @Nullable private WebvttCueMerger cueMerger;
 
   public WebvttParser() {
     parsableWebvttData = new ParsableByteArray();
     cssParser = new WebvttCssParser();
+    definedStyles = new ArrayList<>();
+    pendingData = Util.EMPTY_BYTE_ARRAY;
   }
 
   @Override
@@ -73,39 +90,124 @@ public final class WebvttParser implements SubtitleParser {
       int length,
       OutputOptions outputOptions,
       Consumer<CuesWithTiming> output) {
+    reset();
     parsableWebvttData.reset(data, /* limit= */ offset + length);
     parsableWebvttData.setPosition(offset);
-    List<WebvttCssStyle> definedStyles = new ArrayList<>();
+    // The whole sample is available, so sweep the cues in start time order even if they're not
+    // ordered in the file.
+    WebvttCueMerger cueMerger =
+        new WebvttCueMerger(outputOptions, /* maxBufferedCueCount= */ Integer.MAX_VALUE);
+    parseBlocks(cueMerger, output);
+    cueMerger.finish(output);
+    reset();
+  }
+
+  @Override
+  public boolean supportsIncrementalParsing() {
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Cues are merged with the cues that overlap them and emitted once 16 later cues have been
+   * parsed, so that cues that are slightly out of order are still merged. The output is the same as
+   * the output of {@link #parse} unless a cue starts before a cue that's more than 16 cues before
+   * it in the file, which the WebVTT specification doesn't allow.
+   */
+  @Override
+  public void parseIncrementally(
+      byte[] data,
+      int offset,
+      int length,
+      boolean isEndOfSample,
+      OutputOptions outputOptions,
+      Consumer<CuesWithTiming> output) {
+    if (cueMerger == null) {
+      cueMerger = new WebvttCueMerger(outputOptions, INCREMENTAL_PARSING_MAX_BUFFERED_CUE_COUNT);
+    }
+    if (pendingDataLength + length > pendingData.length) {
+      pendingData =
+          Arrays.copyOf(pendingData, max(pendingDataLength + length, 2 * pendingData.length));
+    }
+    System.arraycopy(data, offset, pendingData, pendingDataLength, length);
+    pendingDataLength += length;
 
-    // Validate the first line of the header, and skip the remainder.
-    try {
-      WebvttParserUtil.validateWebvttHeaderLine(parsableWebvttData);
-    } catch (ParserException e) {
-      throw new IllegalArgumentException(e);
+    parsableWebvttData.reset(pendingData, /* limit= */ pendingDataLength);
+    int parseLimit = isEndOfSample ? pendingDataLength : findEndOfLastBlock(parsableWebvttData);
+    if (parseLimit > 0 || isEndOfSample) {
+      parsableWebvttData.setLimit(parseLimit);
+      parseBlocks(cueMerger, output);
+      pendingDataLength -= parseLimit;
+      System.arraycopy(pendingData, parseLimit, pendingData, 0, pendingDataLength);
+    }
+    if (isEndOfSample) {
+      cueMerger.finish(output);
+      reset();
+    }
+  }
+
+  @Override
+  public void reset() {
+    definedStyles.clear();
+    pendingDataLength = 0;
+    isHeaderParsed = false;
+    isCueParsed = false;
+    cueMerger = null;
+  }
+
+  /**
+   * Parses the header (if it hasn't been parsed yet) and blocks from {@link #parsableWebvttData},
+   * which must end at the end of a block, and adds the parsed cues to {@code cueMerger}.
+   */
+  private void parseBlocks(WebvttCueMerger cueMerger, Consumer<CuesWithTiming> output) {
+    if (!isHeaderParsed) {
+      // Validate the first line of the header, and skip the remainder.
+      try {
+        WebvttParserUtil.validateWebvttHeaderLine(parsableWebvttData);
+      } catch (ParserException e) {
+        throw new IllegalArgumentException(e);
+      }
+      while (parsableWebvttData.skipLine() > 0) {}
+      isHeaderParsed = true;
     }
-    while (!TextUtils.isEmpty(parsableWebvttData.readLine())) {}
 
     int event;
-    List<WebvttCueInfo> cueInfos = new ArrayList<>();
     while ((event = getNextEvent(parsableWebvttData)) != EVENT_END_OF_FILE) {
       if (event == EVENT_COMMENT) {
         skipComment(parsableWebvttData);
       } else if (event == EVENT_STYLE_BLOCK) {
-        if (!cueInfos.isEmpty()) {
+        if (isCueParsed) {
           throw new IllegalArgumentException("A style block was found after the first cue.");
         }
-        parsableWebvttData.readLine(); // Consume the "STYLE" header.
+        parsableWebvttData.skipLine(); // Consume the "STYLE" header.
         definedStyles.addAll(cssParser.parseBlock(parsableWebvttData));
       } else if (event == EVENT_CUE) {
         @Nullable
         WebvttCueInfo cueInfo = WebvttCueParser.parseCue(parsableWebvttData, definedStyles);
         if (cueInfo != null) {
-          cueInfos.add(cueInfo);
+          isCueParsed = true;
+          cueMerger.add(cueInfo, output);
         }
       }
     }
-    WebvttSubtitle subtitle = new WebvttSubtitle(cueInfos);
-    LegacySubtitleUtil.toCuesWithTiming(subtitle, outputOptions, output);
+  }
+
+  /**
+   * Returns the position following the last empty line in {@code data}, or {@code 0} if there
+   * isn't one. Empty lines that end at the limit are ignored, because a line terminator at the
+   * limit may be the first half of a {@code "\r\n"} sequence.
+   */
+  private static int findEndOfLastBlock(ParsableByteArray data) {
+    int endOfLastBlock = 0;
+    int lineLength;
+    while ((lineLength = data.skipLine()) != C.LENGTH_UNSET) {
+      if (lineLength == 0 && data.bytesLeft() > 0) {
+        endOfLastBlock = data.getPosition();
+      }
+    }
+    data.setPosition(0);
+    return endOfLastBlock;
   }
 
   /**
@@ -115,26 +217,18 @@ public final class WebvttParser implements SubtitleParser {
    * @return The kind of event found.
    */
   private static int getNextEvent(ParsableByteArray parsableWebvttData) {
-    int foundEvent = EVENT_NONE;
-    int currentInputPosition = 0;
-    while (foundEvent == EVENT_NONE) {
-      currentInputPosition = parsableWebvttData.getPosition();
-      String line = parsableWebvttData.readLine();
-      if (line == null) {
-        foundEvent = EVENT_END_OF_FILE;
-      } else if (STYLE_START.equals(line)) {
-        foundEvent = EVENT_STYLE_BLOCK;
-      } else if (line.startsWith(COMMENT_START)) {
-        foundEvent = EVENT_COMMENT;
-      } else {
-        foundEvent = EVENT_CUE;
-      }
+    if (parsableWebvttData.bytesLeft() == 0) {
+      return EVENT_END_OF_FILE;
+    } else if (parsableWebvttData.peekLineEquals(STYLE_START)) {
+      return EVENT_STYLE_BLOCK;
+    } else if (parsableWebvttData.peekStartsWith(COMMENT_START)) {
+      return EVENT_COMMENT;
+    } else {
+      return EVENT_CUE;
     }
-    parsableWebvttData.setPosition(currentInputPosition);
-    return foundEvent;
   }
 
   private static void skipComment(ParsableByteArray parsableWebvttData) {
-    while (!TextUtils.isEmpty(parsableWebvttData.readLine())) {}
+    while (parsableWebvttData.skipLine() > 0) {}
   }
 }
@@ -111,7 +111,7 @@ public final class WebvttParserUtil {
     while ((line = input.readLine()) != null) {
       if (COMMENT.matcher(line).matches()) {
         // Skip until the end of the comment block.
-        while ((line = input.readLine()) != null && !line.isEmpty()) {}
+        while (input.skipLine() > 0) {}
       } else {
         Matcher cueHeaderMatcher = WebvttCueParser.CUE_HEADER_PATTERN.matcher(line);
         if (cueHeaderMatcher.matches()) {
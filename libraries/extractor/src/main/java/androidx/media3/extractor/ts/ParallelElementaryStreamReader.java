@@ -0,0 +1,172 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.media3.extractor.ts;
+
+import static java.lang.Math.max;
+
+import androidx.media3.common.ParserException;
+import androidx.media3.common.util.ParsableByteArray;
+import androidx.media3.extractor.ExtractorOutput;
+import java.util.Arrays;
+
+/**
+ * An {@link ElementaryStreamReader} that defers the calls to another {@link
+ * ElementaryStreamReader}, so that they can be made later on another thread.
+ *
+ * <p>The {@link PesReader} that owns this reader still parses the PES headers, and so adjusts the
+ * PES timestamps, on the calling thread. Only the calls that pass the packets to the wrapped reader
+ * are copied into a pending buffer, and {@link #consumePendingCalls()} makes them in the order in
+ * which they were received. The caller is responsible for ensuring that calls to this class are not
+ * made concurrently, and that there is a happens-before relationship between calls made on
+ * different threads.
+ */
+/* package */ final class ParallelElementaryStreamReader implements ElementaryStreamReader {
+
+  private static final int ENTRY_TYPE_SEEK = 0;
+  private static final int ENTRY_TYPE_PACKET_STARTED = 1;
+  private static final int ENTRY_TYPE_PAYLOAD = 2;
+  private static final int ENTRY_TYPE_PACKET_FINISHED = 3;
+  private static final int ENTRY_TYPE_END_OF_INPUT = 4;
+  private static final int ENTRY_HEADER_SIZE = 4;
+  private static final int INITIAL_PENDING_BUFFER_SIZE = TsExtractor.TS_PACKET_SIZE * 16;
+
+  private final ElementaryStreamReader reader;
+  private final ParsableByteArray pendingPayload;
+
+  private byte[] pendingBuffer;
+  private int pendingBufferSize;
+
+  /**
+   * Creates an instance.
+   *
+   * @param reader The {@link ElementaryStreamReader} to which the calls are deferred.
+   */
+  public ParallelElementaryStreamReader(ElementaryStreamReader reader) {
+    this.reader = reader;
+    pendingPayload = new ParsableByteArray();
+    pendingBuffer = new byte[INITIAL_PENDING_BUFFER_SIZE];
+  }
+
+  /** Returns the size of the pending calls, in bytes. */
+  public int getPendingBytes() {
+    return pendingBufferSize;
+  }
+
+  /**
+   * Makes all pending calls to the wrapped reader, in the order in which they were received.
+   *
+   * <p>The pending calls are cleared even if the wrapped reader throws.
+   *
+   * @throws ParserException If a payload could not be parsed.
+   */
+  public void consumePendingCalls() throws ParserException {
+    int position = 0;
+    try {
+      while (position < pendingBufferSize) {
+        int entryType = pendingBuffer[position];
+        @TsPayloadReader.Flags int flags = pendingBuffer[position + 1];
+        int length =
+            ((pendingBuffer[position + 2] & 0xFF) << 8) | (pendingBuffer[position + 3] & 0xFF);
+        position += ENTRY_HEADER_SIZE;
+        pendingPayload.reset(pendingBuffer, position + length);
+        pendingPayload.setPosition(position);
+        position += length;
+        switch (entryType) {
+          case ENTRY_TYPE_SEEK:
+            reader.seek();
+            break;
+          case ENTRY_TYPE_PACKET_STARTED:
+            reader.packetStarted(/* pesTimeUs= */ pendingPayload.readLong(), flags);
+            break;
+          case ENTRY_TYPE_PAYLOAD:
+            reader.consume(pendingPayload);
+            break;
+          case ENTRY_TYPE_PACKET_FINISHED:
+            reader.packetFinished();
+            break;
+          case ENTRY_TYPE_END_OF_INPUT:
+            reader.endOfInputReached();
+            break;
+          default:
+            throw new IllegalStateException();
+        }
+      }
+    } finally {
+      pendingBufferSize = 0;
+    }
+  }
+
+  /** Discards all pending calls. */
+  public void discardPendingCalls() {
+    pendingBufferSize = 0;
+  }
+
+  // ElementaryStreamReader implementation.
+
+  @Override
+  public void seek() {
+    if (pendingBufferSize > 0) {
+      appendEntry(ENTRY_TYPE_SEEK, /* flags= */ 0, /* length= */ 0);
+    } else {
+      reader.seek();
+    }
+  }
+
+  @Override
+  public void createTracks(
+      ExtractorOutput extractorOutput, PesReader.TrackIdGenerator idGenerator) {
+    reader.createTracks(extractorOutput, idGenerator);
+  }
+
+  @Override
+  public void packetStarted(long pesTimeUs, @TsPayloadReader.Flags int flags) {
+    int position = appendEntry(ENTRY_TYPE_PACKET_STARTED, flags, /* length= */ 8);
+    for (int i = 7; i >= 0; i--) {
+      pendingBuffer[position++] = (byte) (pesTimeUs >> (i * 8));
+    }
+  }
+
+  @Override
+  public void consume(ParsableByteArray data) {
+    int length = data.bytesLeft();
+    int position = appendEntry(ENTRY_TYPE_PAYLOAD, /* flags= */ 0, length);
+    data.readBytes(pendingBuffer, position, length);
+  }
+
+  @Override
+  public void packetFinished() {
+    appendEntry(ENTRY_TYPE_PACKET_FINISHED, /* flags= */ 0, /* length= */ 0);
+  }
+
+  @Override
+  public void endOfInputReached() {
+    appendEntry(ENTRY_TYPE_END_OF_INPUT, /* flags= */ 0, /* length= */ 0);
+  }
+
+  /** Appends an entry header, and returns the position at which the entry's payload starts. */
+  private int appendEntry(int entryType, @TsPayloadReader.Flags int flags, int length) {
+    int requiredSize = pendingBufferSize + ENTRY_HEADER_SIZE + length;
+    if (requiredSize > pendingBuffer.length) {
+      pendingBuffer = Arrays.copyOf(pendingBuffer, max(requiredSize, pendingBuffer.length * 2));
+    }
+    pendingBuffer[pendingBufferSize] = (byte) entryType;
+    pendingBuffer[pendingBufferSize + 1] = (byte) flags;
+    pendingBuffer[pendingBufferSize + 2] = (byte) (length >> 8);
+    pendingBuffer[pendingBufferSize + 3] = (byte) length;
+    pendingBufferSize = requiredSize;
+    return requiredSize - length;
+  }
+}
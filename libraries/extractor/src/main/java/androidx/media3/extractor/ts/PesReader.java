@@ -66,6 +66,11 @@ public final class PesReader implements TsPayloadReader {
     state = STATE_FINDING_HEADER;
   }
 
+  /** Returns the {@link ElementaryStreamReader} to which the PES payloads are passed. */
+  /* package */ ElementaryStreamReader getElementaryStreamReader() {
+    return reader;
+  }
+
   @Override
   public void init(
       TimestampAdjuster timestampAdjuster,
@@ -15,6 +15,7 @@
  */
 package androidx.media3.extractor.ts;
 
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 
 import androidx.media3.common.C;
@@ -37,6 +38,11 @@ import java.io.IOException;
  * a given stream, and the usage of the class is not thread-safe, so all calls should be made from
  * the same thread.
  *
+ * <p>As in {@link TsDurationReader}, the window at the end of the stream is read after a single
+ * seek, and the window at the start of the stream grows from 5000 bytes to 20000 bytes, by peeking
+ * further bytes, until an SCR value is found. Reading the duration therefore takes at most 2
+ * seeks.
+ *
  * <p>Note: See ISO/IEC 13818-1, Table 2-33 for details of the SCR field in pack_header.
  */
 /* package */ final class PsDurationReader {
@@ -44,6 +50,11 @@ import java.io.IOException;
   private static final String TAG = "PsDurationReader";
 
   private static final int TIMESTAMP_SEARCH_BYTES = 20_000;
+  private static final int MIN_TIMESTAMP_SEARCH_BYTES = 5_000;
+  private static final int TIMESTAMP_SEARCH_BYTES_GROWTH_FACTOR = 2;
+
+  /** The number of bytes in a pack start code followed by the pack header fields that are read. */
+  private static final int PACK_HEADER_PREFIX_BYTES = 13;
 
   private final TimestampAdjuster scrTimestampAdjuster;
   private final ParsableByteArray packetBuffer;
@@ -52,6 +63,7 @@ import java.io.IOException;
   private boolean isFirstScrValueRead;
   private boolean isLastScrValueRead;
 
+  private int firstScrSearchBytes;
   private long firstScrValue;
   private long lastScrValue;
   private long durationUs;
@@ -141,19 +153,32 @@ import java.io.IOException;
 
   private int readFirstScrValue(ExtractorInput input, PositionHolder seekPositionHolder)
       throws IOException {
-    int bytesToSearch = (int) min(TIMESTAMP_SEARCH_BYTES, input.getLength());
+    int maxBytesToSearch = (int) min(TIMESTAMP_SEARCH_BYTES, input.getLength());
     int searchStartPosition = 0;
     if (input.getPosition() != searchStartPosition) {
       seekPositionHolder.position = searchStartPosition;
       return Extractor.RESULT_SEEK;
     }
 
-    packetBuffer.reset(bytesToSearch);
-    input.resetPeekPosition();
-    input.peekFully(packetBuffer.getData(), /* offset= */ 0, bytesToSearch);
+    if (input.getPeekPosition() != firstScrSearchBytes) {
+      // The input doesn't hold the previously peeked bytes (e.g., because loading was restarted).
+      firstScrSearchBytes = 0;
+      input.resetPeekPosition();
+    }
+    // Peek the bytes following those already searched.
+    int bytesToSearch = getBytesToSearch(firstScrSearchBytes, maxBytesToSearch);
+    packetBuffer.ensureCapacity(bytesToSearch);
+    input.peekFully(
+        packetBuffer.getData(),
+        /* offset= */ firstScrSearchBytes,
+        bytesToSearch - firstScrSearchBytes);
+    packetBuffer.setLimit(bytesToSearch);
+    // Search the end of the previous window again, in case a pack header was incomplete.
+    packetBuffer.setPosition(max(0, firstScrSearchBytes - PACK_HEADER_PREFIX_BYTES));
 
     firstScrValue = readFirstScrValueFromBuffer(packetBuffer);
-    isFirstScrValueRead = true;
+    firstScrSearchBytes = bytesToSearch;
+    isFirstScrValueRead = firstScrValue != C.TIME_UNSET || bytesToSearch == maxBytesToSearch;
     return Extractor.RESULT_CONTINUE;
   }
 
@@ -212,6 +237,18 @@ import java.io.IOException;
     return C.TIME_UNSET;
   }
 
+  /**
+   * Returns the size of the next window to search, given the size of the window that was last
+   * searched without finding an SCR value.
+   */
+  private static int getBytesToSearch(int bytesSearched, int maxBytesToSearch) {
+    int bytesToSearch =
+        bytesSearched == 0
+            ? MIN_TIMESTAMP_SEARCH_BYTES
+            : bytesSearched * TIMESTAMP_SEARCH_BYTES_GROWTH_FACTOR;
+    return min(bytesToSearch, maxBytesToSearch);
+  }
+
   private int peekIntAtPosition(byte[] data, int position) {
     return (data[position] & 0xFF) << 24
         | (data[position + 1] & 0xFF) << 16
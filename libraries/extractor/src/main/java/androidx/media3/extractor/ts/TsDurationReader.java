@@ -15,6 +15,7 @@
  */
 package androidx.media3.extractor.ts;
 
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 
 import androidx.media3.common.C;
@@ -35,11 +36,21 @@ import java.io.IOException;
  * stream, which can make PCR values at the beginning of the stream larger than PCR values at the
  * end. This class can only be used once to read duration from a given stream, and the usage of the
  * class is not thread-safe, so all calls should be made from the same thread.
+ *
+ * <p>The window at the end of the stream, of {@code timestampSearchBytes}, is read after a single
+ * seek. The window at the start of the stream starts small and grows geometrically up to {@code
+ * timestampSearchBytes} until a PCR value is found. Growing it only peeks the following bytes,
+ * which are retained by the input and reused when the stream is read for playback, so it doesn't
+ * need further seeks. Reading the duration therefore takes at most 2 seeks, as it would if the
+ * whole window at the start of the stream was searched at once.
  */
 /* package */ final class TsDurationReader {
 
   private static final String TAG = "TsDurationReader";
 
+  private static final int MIN_TIMESTAMP_SEARCH_BYTES = 64 * TsExtractor.TS_PACKET_SIZE;
+  private static final int TIMESTAMP_SEARCH_BYTES_GROWTH_FACTOR = 4;
+
   private final int timestampSearchBytes;
   private final TimestampAdjuster pcrTimestampAdjuster;
   private final ParsableByteArray packetBuffer;
@@ -48,6 +59,7 @@ import java.io.IOException;
   private boolean isFirstPcrValueRead;
   private boolean isLastPcrValueRead;
 
+  private int firstPcrSearchBytes;
   private long firstPcrValue;
   private long lastPcrValue;
   private long durationUs;
@@ -128,19 +140,32 @@ import java.io.IOException;
 
   private int readFirstPcrValue(ExtractorInput input, PositionHolder seekPositionHolder, int pcrPid)
       throws IOException {
-    int bytesToSearch = (int) min(timestampSearchBytes, input.getLength());
+    int maxBytesToSearch = (int) min(timestampSearchBytes, input.getLength());
     int searchStartPosition = 0;
     if (input.getPosition() != searchStartPosition) {
       seekPositionHolder.position = searchStartPosition;
       return Extractor.RESULT_SEEK;
     }
 
-    packetBuffer.reset(bytesToSearch);
-    input.resetPeekPosition();
-    input.peekFully(packetBuffer.getData(), /* offset= */ 0, bytesToSearch);
+    if (input.getPeekPosition() != firstPcrSearchBytes) {
+      // The input doesn't hold the previously peeked bytes (e.g., because loading was restarted).
+      firstPcrSearchBytes = 0;
+      input.resetPeekPosition();
+    }
+    // Peek the bytes following those already searched.
+    int bytesToSearch = getBytesToSearch(firstPcrSearchBytes, maxBytesToSearch);
+    packetBuffer.ensureCapacity(bytesToSearch);
+    input.peekFully(
+        packetBuffer.getData(),
+        /* offset= */ firstPcrSearchBytes,
+        bytesToSearch - firstPcrSearchBytes);
+    packetBuffer.setLimit(bytesToSearch);
+    // Search the last packet of the previous window again, in case it was incomplete.
+    packetBuffer.setPosition(max(0, firstPcrSearchBytes - TsExtractor.TS_PACKET_SIZE));
 
     firstPcrValue = readFirstPcrValueFromBuffer(packetBuffer, pcrPid);
-    isFirstPcrValueRead = true;
+    firstPcrSearchBytes = bytesToSearch;
+    isFirstPcrValueRead = firstPcrValue != C.TIME_UNSET || bytesToSearch == maxBytesToSearch;
     return Extractor.RESULT_CONTINUE;
   }
 
@@ -199,4 +224,16 @@ import java.io.IOException;
     }
     return C.TIME_UNSET;
   }
+
+  /**
+   * Returns the size of the next window to search, given the size of the window that was last
+   * searched without finding a PCR value.
+   */
+  private static int getBytesToSearch(int bytesSearched, int maxBytesToSearch) {
+    long bytesToSearch =
+        bytesSearched == 0
+            ? MIN_TIMESTAMP_SEARCH_BYTES
+            : (long) bytesSearched * TIMESTAMP_SEARCH_BYTES_GROWTH_FACTOR;
+    return (int) min(bytesToSearch, maxBytesToSearch);
+  }
 }
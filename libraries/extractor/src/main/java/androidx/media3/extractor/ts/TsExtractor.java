@@ -56,6 +56,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 
 /** Extracts data from the MPEG-2 TS container format. */
@@ -159,19 +162,25 @@ public final class TsExtractor implements Extractor {
 
   private static final int BUFFER_SIZE = TS_PACKET_SIZE * 50;
   private static final int SNIFF_TS_PACKET_COUNT = 5;
+  private static final byte CONTINUITY_COUNTER_UNSET = -1;
+  private static final int PARALLEL_PARSING_BATCH_BYTES = 64 * 1024;
 
   private final @Mode int mode;
   private final @Flags int extractorFlags;
   private final int timestampSearchBytes;
   private final List<TimestampAdjuster> timestampAdjusters;
   private final ParsableByteArray tsPacketBuffer;
-  private final SparseIntArray continuityCounters;
+  private final byte[] continuityCounters; // Indexed by pid
   private final TsPayloadReader.Factory payloadReaderFactory;
   private final SubtitleParser.Factory subtitleParserFactory;
   private final SparseArray<TsPayloadReader> tsPayloadReaders; // Indexed by pid
+  private final @NullableType TsPayloadReader[] tsPayloadReadersByPid;
   private final SparseBooleanArray trackIds;
   private final SparseBooleanArray trackPids;
   private final TsDurationReader durationReader;
+  @Nullable private final Executor parallelParsingExecutor;
+  private final List<ParallelElementaryStreamReader> parallelReaders;
+  private final List<FutureTask<Void>> parallelParsingTasks;
 
   // Accessed only by the loading thread.
   private @MonotonicNonNull TsBinarySearchSeeker tsBinarySearchSeeker;
@@ -327,6 +336,50 @@ public final class TsExtractor implements Extractor {
       TimestampAdjuster timestampAdjuster,
       TsPayloadReader.Factory payloadReaderFactory,
       int timestampSearchBytes) {
+    this(
+        mode,
+        extractorFlags,
+        subtitleParserFactory,
+        timestampAdjuster,
+        payloadReaderFactory,
+        timestampSearchBytes,
+        /* parallelParsingExecutor= */ null);
+  }
+
+  /**
+   * Constructs an instance.
+   *
+   * <p>If {@code parallelParsingExecutor} is not null, the PES payloads of different elementary
+   * streams are parsed in parallel on it. PES headers, and so the timestamps passed to the {@link
+   * TimestampAdjuster}, are still parsed in packet order on the calling thread, and the payloads of
+   * each elementary stream are parsed in order, so the output is the same as without an executor.
+   * To amortize the cost of handing payloads to the executor, payloads are parsed in batches of
+   * around 64 KiB, so samples are output later than without an executor. All payloads are parsed
+   * before {@link #read} returns at the end of the input, and none are parsed after {@link #read}
+   * returns. Parallel parsing isn't used in {@link #MODE_HLS}.
+   *
+   * @param mode Mode for the extractor. One of {@link #MODE_MULTI_PMT}, {@link #MODE_SINGLE_PMT}
+   *     and {@link #MODE_HLS}.
+   * @param extractorFlags Flags that control the extractor's behavior.
+   * @param subtitleParserFactory The {@link SubtitleParser.Factory} for parsing subtitles during
+   *     extraction.
+   * @param timestampAdjuster A timestamp adjuster for offsetting and scaling sample timestamps.
+   * @param payloadReaderFactory Factory for injecting a custom set of payload readers.
+   * @param timestampSearchBytes See {@link #TsExtractor(int, int, SubtitleParser.Factory,
+   *     TimestampAdjuster, TsPayloadReader.Factory, int)}.
+   * @param parallelParsingExecutor The {@link Executor} on which elementary streams are parsed in
+   *     parallel, or null to parse them on the calling thread. The caller owns the executor, which
+   *     may be shared between instances. {@link #read} blocks until the tasks it gives to the
+   *     executor have run, so the executor should have threads available to run them.
+   */
+  public TsExtractor(
+      @Mode int mode,
+      @Flags int extractorFlags,
+      SubtitleParser.Factory subtitleParserFactory,
+      TimestampAdjuster timestampAdjuster,
+      TsPayloadReader.Factory payloadReaderFactory,
+      int timestampSearchBytes,
+      @Nullable Executor parallelParsingExecutor) {
     this.payloadReaderFactory = checkNotNull(payloadReaderFactory);
     this.timestampSearchBytes = timestampSearchBytes;
     this.mode = mode;
@@ -342,8 +395,13 @@ public final class TsExtractor implements Extractor {
     trackIds = new SparseBooleanArray();
     trackPids = new SparseBooleanArray();
     tsPayloadReaders = new SparseArray<>();
-    continuityCounters = new SparseIntArray();
+    tsPayloadReadersByPid = new TsPayloadReader[MAX_PID_PLUS_ONE];
+    continuityCounters = new byte[MAX_PID_PLUS_ONE];
+    Arrays.fill(continuityCounters, CONTINUITY_COUNTER_UNSET);
     durationReader = new TsDurationReader(timestampSearchBytes);
+    this.parallelParsingExecutor = parallelParsingExecutor;
+    parallelReaders = new ArrayList<>();
+    parallelParsingTasks = new ArrayList<>();
     output = ExtractorOutput.PLACEHOLDER;
     pcrPid = -1;
     resetPayloadReaders();
@@ -410,7 +468,10 @@ public final class TsExtractor implements Extractor {
       tsBinarySearchSeeker.setSeekTargetUs(timeUs);
     }
     tsPacketBuffer.reset(/* limit= */ 0);
-    continuityCounters.clear();
+    Arrays.fill(continuityCounters, CONTINUITY_COUNTER_UNSET);
+    for (int i = 0; i < parallelReaders.size(); i++) {
+      parallelReaders.get(i).discardPendingCalls();
+    }
     for (int i = 0; i < tsPayloadReaders.size(); i++) {
       tsPayloadReaders.valueAt(i).seek();
     }
@@ -459,6 +520,7 @@ public final class TsExtractor implements Extractor {
           }
         }
       }
+      consumeParallelPayloads(/* minBatchBytes= */ 0);
       return RESULT_END_OF_INPUT;
     }
 
@@ -468,14 +530,133 @@ public final class TsExtractor implements Extractor {
       return RESULT_CONTINUE;
     }
 
+    // Consume all of the complete packets in the buffer in one call. Stop early if the tracks are
+    // ended, so that the state handled at the start of this method is re-evaluated.
+    boolean wereTracksEnded = tracksEnded;
+    boolean consumedPackets = false;
+    try {
+      do {
+        consumePacket(endOfPacket, limit);
+        tsPacketBuffer.setPosition(endOfPacket);
+        if (tracksEnded != wereTracksEnded) {
+          break;
+        }
+        endOfPacket = findEndOfFirstTsPacketInBuffer();
+      } while (endOfPacket <= limit);
+      // Parse all pending payloads before the state changes, so that none of them are discarded by
+      // the seek to the start of the stream.
+      consumeParallelPayloads(tracksEnded != wereTracksEnded ? 0 : PARALLEL_PARSING_BATCH_BYTES);
+      consumedPackets = true;
+    } finally {
+      if (!consumedPackets) {
+        // The packets that were consumed won't be parsed again, so don't leave partial PES packets
+        // behind.
+        for (int i = 0; i < parallelReaders.size(); i++) {
+          parallelReaders.get(i).discardPendingCalls();
+        }
+      }
+    }
+
+    if (mode != MODE_HLS && !wereTracksEnded && tracksEnded && inputLength != C.LENGTH_UNSET) {
+      // We have read all tracks from all PMTs in this non-live stream. Now seek to the beginning
+      // and read again to make sure we output all media, including any contained in packets prior
+      // to those containing the track information.
+      pendingSeekToStart = true;
+    }
+    return RESULT_CONTINUE;
+  }
+
+  // Internals.
+
+  /**
+   * Makes the pending calls of all {@link ParallelElementaryStreamReader}s if they add up to at
+   * least {@code minBatchBytes}, using the parallel parsing executor for all but one of the
+   * readers. Returns when all pending calls have been made.
+   */
+  private void consumeParallelPayloads(int minBatchBytes) throws ParserException {
+    int pendingBytes = 0;
+    for (int i = 0; i < parallelReaders.size(); i++) {
+      pendingBytes += parallelReaders.get(i).getPendingBytes();
+    }
+    if (pendingBytes == 0 || pendingBytes < minBatchBytes) {
+      return;
+    }
+
+    @Nullable ParallelElementaryStreamReader inlineReader = null;
+    for (int i = 0; i < parallelReaders.size(); i++) {
+      ParallelElementaryStreamReader reader = parallelReaders.get(i);
+      if (reader.getPendingBytes() == 0) {
+        continue;
+      }
+      if (inlineReader == null) {
+        // Make the calls of one reader on this thread, which would otherwise be idle.
+        inlineReader = reader;
+        continue;
+      }
+      FutureTask<Void> task =
+          new FutureTask<>(
+              () -> {
+                reader.consumePendingCalls();
+                return null;
+              });
+      parallelParsingTasks.add(task);
+      checkNotNull(parallelParsingExecutor).execute(task);
+    }
+
+    @Nullable Throwable parsingError = null;
+    try {
+      checkNotNull(inlineReader).consumePendingCalls();
+    } catch (ParserException | RuntimeException e) {
+      parsingError = e;
+    }
+    // Wait for all workers, even if parsing failed, so that no reader is accessed concurrently.
+    boolean interrupted = false;
+    for (int i = 0; i < parallelParsingTasks.size(); i++) {
+      FutureTask<Void> task = parallelParsingTasks.get(i);
+      while (true) {
+        try {
+          task.get();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          if (parsingError == null) {
+            parsingError = e.getCause();
+          }
+          break;
+        }
+      }
+    }
+    parallelParsingTasks.clear();
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (parsingError instanceof ParserException) {
+      throw (ParserException) parsingError;
+    } else if (parsingError instanceof RuntimeException) {
+      throw (RuntimeException) parsingError;
+    } else if (parsingError instanceof Error) {
+      throw (Error) parsingError;
+    } else if (parsingError != null) {
+      throw new IllegalStateException(parsingError);
+    }
+  }
+
+  /**
+   * Consumes the packet at the current position of the packet buffer, which must be a sync byte.
+   * The position of the packet buffer is undefined when this method returns.
+   *
+   * @param endOfPacket The position of the end of the packet (exclusive) in the packet buffer.
+   * @param limit The limit of the packet buffer.
+   */
+  private void consumePacket(int endOfPacket, int limit) throws ParserException {
     @TsPayloadReader.Flags int packetHeaderFlags = 0;
 
     // Note: See ISO/IEC 13818-1, section 2.4.3.2 for details of the header format.
     int tsPacketHeader = tsPacketBuffer.readInt();
     if ((tsPacketHeader & 0x800000) != 0) { // transport_error_indicator
       // There are uncorrectable errors in this packet.
-      tsPacketBuffer.setPosition(endOfPacket);
-      return RESULT_CONTINUE;
+      return;
     }
     packetHeaderFlags |= (tsPacketHeader & 0x400000) != 0 ? FLAG_PAYLOAD_UNIT_START_INDICATOR : 0;
     // Ignoring transport_priority (tsPacketHeader & 0x200000)
@@ -484,22 +665,21 @@ public final class TsExtractor implements Extractor {
     boolean adaptationFieldExists = (tsPacketHeader & 0x20) != 0;
     boolean payloadExists = (tsPacketHeader & 0x10) != 0;
 
-    TsPayloadReader payloadReader = payloadExists ? tsPayloadReaders.get(pid) : null;
+    @Nullable TsPayloadReader payloadReader = payloadExists ? tsPayloadReadersByPid[pid] : null;
     if (payloadReader == null) {
-      tsPacketBuffer.setPosition(endOfPacket);
-      return RESULT_CONTINUE;
+      return;
     }
 
     // Discontinuity check.
     if (mode != MODE_HLS) {
       int continuityCounter = tsPacketHeader & 0xF;
-      int previousCounter = continuityCounters.get(pid, continuityCounter - 1);
-      continuityCounters.put(pid, continuityCounter);
+      int previousCounter = continuityCounters[pid];
+      continuityCounters[pid] = (byte) continuityCounter;
       if (previousCounter == continuityCounter) {
         // Duplicate packet found.
-        tsPacketBuffer.setPosition(endOfPacket);
-        return RESULT_CONTINUE;
-      } else if (continuityCounter != ((previousCounter + 1) & 0xF)) {
+        return;
+      } else if (previousCounter != CONTINUITY_COUNTER_UNSET
+          && continuityCounter != ((previousCounter + 1) & 0xF)) {
         // Discontinuity found.
         payloadReader.seek();
       }
@@ -518,25 +698,13 @@ public final class TsExtractor implements Extractor {
     }
 
     // Read the payload.
-    boolean wereTracksEnded = tracksEnded;
     if (shouldConsumePacketPayload(pid)) {
       tsPacketBuffer.setLimit(endOfPacket);
       payloadReader.consume(tsPacketBuffer, packetHeaderFlags);
       tsPacketBuffer.setLimit(limit);
     }
-    if (mode != MODE_HLS && !wereTracksEnded && tracksEnded && inputLength != C.LENGTH_UNSET) {
-      // We have read all tracks from all PMTs in this non-live stream. Now seek to the beginning
-      // and read again to make sure we output all media, including any contained in packets prior
-      // to those containing the track information.
-      pendingSeekToStart = true;
-    }
-
-    tsPacketBuffer.setPosition(endOfPacket);
-    return RESULT_CONTINUE;
   }
 
-  // Internals.
-
   private void maybeOutputSeekMap(long inputLength) {
     if (!hasOutputSeekMap) {
       hasOutputSeekMap = true;
@@ -614,16 +782,27 @@ public final class TsExtractor implements Extractor {
   private void resetPayloadReaders() {
     trackIds.clear();
     tsPayloadReaders.clear();
+    Arrays.fill(tsPayloadReadersByPid, null);
     SparseArray<TsPayloadReader> initialPayloadReaders =
         payloadReaderFactory.createInitialPayloadReaders();
     int initialPayloadReadersSize = initialPayloadReaders.size();
     for (int i = 0; i < initialPayloadReadersSize; i++) {
-      tsPayloadReaders.put(initialPayloadReaders.keyAt(i), initialPayloadReaders.valueAt(i));
+      putPayloadReader(initialPayloadReaders.keyAt(i), initialPayloadReaders.valueAt(i));
     }
-    tsPayloadReaders.put(TS_PAT_PID, new SectionReader(new PatReader()));
+    putPayloadReader(TS_PAT_PID, new SectionReader(new PatReader()));
     id3Reader = null;
   }
 
+  private void putPayloadReader(int pid, TsPayloadReader payloadReader) {
+    tsPayloadReaders.put(pid, payloadReader);
+    tsPayloadReadersByPid[pid] = payloadReader;
+  }
+
+  private void removePayloadReader(int pid) {
+    tsPayloadReaders.remove(pid);
+    tsPayloadReadersByPid[pid] = null;
+  }
+
   /** Parses Program Association Table data. */
   private class PatReader implements SectionPayloadReader {
 
@@ -667,14 +846,14 @@ public final class TsExtractor implements Extractor {
           patScratch.skipBits(13); // network_PID (13)
         } else {
           int pid = patScratch.readBits(13);
-          if (tsPayloadReaders.get(pid) == null) {
-            tsPayloadReaders.put(pid, new SectionReader(new PmtReader(pid)));
+          if (tsPayloadReadersByPid[pid] == null) {
+            putPayloadReader(pid, new SectionReader(new PmtReader(pid)));
             remainingPmts++;
           }
         }
       }
       if (mode != MODE_HLS) {
-        tsPayloadReaders.remove(TS_PAT_PID);
+        removePayloadReader(TS_PAT_PID);
       }
     }
   }
@@ -816,12 +995,22 @@ public final class TsExtractor implements Extractor {
         @Nullable TsPayloadReader reader = trackIdToReaderScratch.valueAt(i);
         if (reader != null) {
           if (reader != id3Reader) {
+            if (parallelParsingExecutor != null
+                && mode != MODE_HLS
+                && reader instanceof PesReader) {
+              // Parse the PES headers on the calling thread, and the payloads on the executor.
+              ParallelElementaryStreamReader parallelReader =
+                  new ParallelElementaryStreamReader(
+                      ((PesReader) reader).getElementaryStreamReader());
+              parallelReaders.add(parallelReader);
+              reader = new PesReader(parallelReader);
+            }
             reader.init(
                 timestampAdjuster,
                 output,
                 new TrackIdGenerator(programNumber, trackId, MAX_PID_PLUS_ONE));
           }
-          tsPayloadReaders.put(trackPid, reader);
+          putPayloadReader(trackPid, reader);
         }
       }
 
@@ -832,7 +1021,7 @@ public final class TsExtractor implements Extractor {
           tracksEnded = true;
         }
       } else {
-        tsPayloadReaders.remove(pid);
+        removePayloadReader(pid);
         remainingPmts = mode == MODE_SINGLE_PMT ? 0 : remainingPmts - 1;
         if (remainingPmts == 0) {
           output.endTracks();
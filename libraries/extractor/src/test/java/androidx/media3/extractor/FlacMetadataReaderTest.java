@@ -18,6 +18,7 @@ package androidx.media3.extractor;
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertThrows;
 
+import android.util.Base64;
 import androidx.media3.common.Metadata;
 import androidx.media3.common.ParserException;
 import androidx.media3.common.util.ParsableByteArray;
@@ -30,6 +31,9 @@ import androidx.media3.test.utils.TestUtil;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -285,6 +289,55 @@ public class FlacMetadataReaderTest {
     assertThat(vorbisComment.value).isEqualTo("test title");
   }
 
+  @Test
+  public void readMetadataBlock_vorbisCommentBlockWithPicture_updatesStreamMetadata()
+      throws Exception {
+    ExtractorInput input =
+        new FakeExtractorInput.Builder()
+            .setData(
+                buildVorbisCommentBlock(
+                    "METADATA_BLOCK_PICTURE="
+                        + Base64.encodeToString(buildPictureBlock(), Base64.NO_WRAP),
+                    "TITLE=test title"))
+            .build();
+    FlacStreamMetadataHolder metadataHolder = new FlacStreamMetadataHolder(buildStreamMetadata());
+
+    boolean unused =
+        FlacMetadataReader.readMetadataBlock(input, metadataHolder, /* ignoreArtwork= */ false);
+
+    Metadata metadata =
+        metadataHolder.flacStreamMetadata.getMetadataCopyWithAppendedEntriesFrom(null);
+    assertThat(metadata.length()).isEqualTo(2);
+    PictureFrame pictureFrame = (PictureFrame) metadata.get(0);
+    assertThat(pictureFrame.pictureType).isEqualTo(3);
+    assertThat(pictureFrame.mimeType).isEqualTo("image/png");
+    assertThat(pictureFrame.pictureData).isEqualTo(new byte[] {1, 2, 3});
+    assertThat(metadata.get(1)).isEqualTo(new VorbisComment("TITLE", "test title"));
+  }
+
+  @Test
+  public void readMetadataBlock_vorbisCommentBlockWithPictureAndIgnoreArtwork_skipsPicture()
+      throws Exception {
+    ExtractorInput input =
+        new FakeExtractorInput.Builder()
+            .setData(
+                buildVorbisCommentBlock(
+                    "METADATA_BLOCK_PICTURE="
+                        + Base64.encodeToString(buildPictureBlock(), Base64.NO_WRAP),
+                    "TITLE=test title"))
+            .build();
+    FlacStreamMetadataHolder metadataHolder = new FlacStreamMetadataHolder(buildStreamMetadata());
+
+    boolean unused =
+        FlacMetadataReader.readMetadataBlock(input, metadataHolder, /* ignoreArtwork= */ true);
+
+    Metadata metadata =
+        metadataHolder.flacStreamMetadata.getMetadataCopyWithAppendedEntriesFrom(null);
+    assertThat(metadata.length()).isEqualTo(1);
+    assertThat(metadata.get(0)).isEqualTo(new VorbisComment("TITLE", "test title"));
+    assertThat(input.getPosition()).isEqualTo(input.getLength());
+  }
+
   @Test
   public void readMetadataBlock_pictureBlock_updatesStreamMetadata() throws Exception {
     ExtractorInput input = buildExtractorInput("media/flac/bear_with_picture.flac");
@@ -427,6 +480,43 @@ public class FlacMetadataReaderTest {
     return new FakeExtractorInput.Builder().setData(fileData).build();
   }
 
+  /** Returns a Vorbis comment metadata block, including its header, with the given comments. */
+  private static byte[] buildVorbisCommentBlock(String... comments) {
+    byte[][] commentBytes = new byte[comments.length][];
+    int blockLength = 8;
+    for (int i = 0; i < comments.length; i++) {
+      commentBytes[i] = comments[i].getBytes(StandardCharsets.UTF_8);
+      blockLength += 4 + commentBytes[i].length;
+    }
+    ByteBuffer block =
+        ByteBuffer.allocate(FlacConstants.METADATA_BLOCK_HEADER_SIZE + blockLength)
+            .putInt((FlacConstants.METADATA_TYPE_VORBIS_COMMENT << 24) | blockLength)
+            .order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(/* vendor length */ 0)
+            .putInt(comments.length);
+    for (byte[] comment : commentBytes) {
+      block.putInt(comment.length).put(comment);
+    }
+    return block.array();
+  }
+
+  /** Returns a picture metadata block, without its header, with a 3 byte PNG picture. */
+  private static byte[] buildPictureBlock() {
+    byte[] mimeType = "image/png".getBytes(StandardCharsets.US_ASCII);
+    return ByteBuffer.allocate(32 + mimeType.length + 3)
+        .putInt(/* pictureType */ 3)
+        .putInt(mimeType.length)
+        .put(mimeType)
+        .putInt(/* description length */ 0)
+        .putInt(/* width */ 1)
+        .putInt(/* height */ 1)
+        .putInt(/* depth */ 24)
+        .putInt(/* colors */ 0)
+        .putInt(/* picture data length */ 3)
+        .put(new byte[] {1, 2, 3})
+        .array();
+  }
+
   private static FlacStreamMetadata buildStreamMetadata() {
     return new FlacStreamMetadata(
         /* minBlockSizeSamples= */ 10,
@@ -368,6 +368,85 @@ public final class Id3DecoderTest {
     assertThat(apicFrame.pictureData).isEqualTo(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 0});
   }
 
+  @Test
+  public void decodeApicFrame_truncatedAndFollowedByFrame_skipsApicFrame() {
+    byte[] rawId3 =
+        buildMultiFramesTag(
+            new FrameSpec("APIC", new byte[] {3, 112, 110, 103}),
+            new FrameSpec(
+                "COMM",
+                new byte[] {
+                  3, 101, 110, 103, 100, 101, 115, 99, 114, 105, 112, 116, 105, 111, 110, 0, 116,
+                  101, 120, 116, 0
+                }));
+    Id3Decoder decoder = new Id3Decoder();
+
+    Metadata metadata = decoder.decode(rawId3, rawId3.length);
+
+    assertThat(metadata.length()).isEqualTo(1);
+    CommentFrame commentFrame = (CommentFrame) metadata.get(0);
+    assertThat(commentFrame.description).isEqualTo("description");
+    assertThat(commentFrame.text).isEqualTo("text");
+  }
+
+  @Test
+  public void decodeApicFrame_followedByFrame_decodesPictureDataWithinFrame() {
+    byte[] rawId3 =
+        buildMultiFramesTag(
+            new FrameSpec(
+                "APIC",
+                new byte[] {
+                  3, 105, 109, 97, 103, 101, 47, 112, 110, 103, 0, 3, 72, 105, 0, 1, 2, 3, 0, 4
+                }),
+            new FrameSpec(
+                "COMM",
+                new byte[] {
+                  3, 101, 110, 103, 100, 101, 115, 99, 114, 105, 112, 116, 105, 111, 110, 0, 116,
+                  101, 120, 116, 0
+                }));
+    Id3Decoder decoder = new Id3Decoder();
+
+    Metadata metadata = decoder.decode(rawId3, rawId3.length);
+
+    assertThat(metadata.length()).isEqualTo(2);
+    ApicFrame apicFrame = (ApicFrame) metadata.get(0);
+    assertThat(apicFrame.mimeType).isEqualTo("image/png");
+    assertThat(apicFrame.pictureType).isEqualTo(3);
+    assertThat(apicFrame.description).isEqualTo("Hi");
+    assertThat(apicFrame.pictureData).isEqualTo(new byte[] {1, 2, 3, 0, 4});
+    CommentFrame commentFrame = (CommentFrame) metadata.get(1);
+    assertThat(commentFrame.description).isEqualTo("description");
+    assertThat(commentFrame.text).isEqualTo("text");
+  }
+
+  @Test
+  public void decodeApicFrame_unterminatedUtf16DescriptionFollowedByFrame_endsAtFrameEnd() {
+    // The frame header of the COMM frame starts with zero bytes, which mustn't be taken as the
+    // terminator of the APIC description.
+    byte[] rawId3 =
+        buildMultiFramesTag(
+            new FrameSpec("APIC", new byte[] {1, 112, 110, 103, 0, 16, 0, 72, 0, 105}),
+            new FrameSpec(
+                "COMM",
+                new byte[] {
+                  3, 101, 110, 103, 100, 101, 115, 99, 114, 105, 112, 116, 105, 111, 110, 0, 116,
+                  101, 120, 116, 0
+                }));
+    Id3Decoder decoder = new Id3Decoder();
+
+    Metadata metadata = decoder.decode(rawId3, rawId3.length);
+
+    assertThat(metadata.length()).isEqualTo(2);
+    ApicFrame apicFrame = (ApicFrame) metadata.get(0);
+    assertThat(apicFrame.mimeType).isEqualTo("image/png");
+    assertThat(apicFrame.pictureType).isEqualTo(16);
+    assertThat(apicFrame.description).isEqualTo("Hi");
+    assertThat(apicFrame.pictureData).isEmpty();
+    CommentFrame commentFrame = (CommentFrame) metadata.get(1);
+    assertThat(commentFrame.description).isEqualTo("description");
+    assertThat(commentFrame.text).isEqualTo("text");
+  }
+
   @Test
   public void decodeCommentFrame() {
     byte[] rawId3 =
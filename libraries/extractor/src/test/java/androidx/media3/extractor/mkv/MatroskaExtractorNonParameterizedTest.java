@@ -15,10 +15,16 @@
  */
 package androidx.media3.extractor.mkv;
 
+import static androidx.media3.extractor.Extractor.RESULT_CONTINUE;
+import static androidx.media3.extractor.Extractor.RESULT_END_OF_INPUT;
 import static androidx.media3.extractor.Extractor.RESULT_SEEK;
 import static com.google.common.truth.Truth.assertThat;
 
+import androidx.annotation.Nullable;
+import androidx.media3.extractor.ChunkIndexProvider;
+import androidx.media3.extractor.IndexSeekMap;
 import androidx.media3.extractor.PositionHolder;
+import androidx.media3.extractor.SeekMap;
 import androidx.media3.extractor.SeekPoint;
 import androidx.media3.extractor.TrackAwareSeekMap;
 import androidx.media3.extractor.text.SubtitleParser;
@@ -67,4 +73,54 @@ public class MatroskaExtractorNonParameterizedTest {
     assertThat(trackAwareSeekMap.getSeekPoints(timeStampUs, videoTrackId).first)
         .isEqualTo(expectedTrackSpecificSeekPoint);
   }
+
+  @Test
+  public void read_withDeferredSeekForCues_outputsSamplesBeforeReadingCues() throws Exception {
+    // The Cues element of this file is after the first of its three clusters.
+    String fileName = "media/mkv/sample_with_multiple_key_frames.mkv";
+    byte[] fileBytes = TestUtil.getByteArray(ApplicationProvider.getApplicationContext(), fileName);
+    MatroskaExtractor extractor =
+        new MatroskaExtractor(
+            SubtitleParser.Factory.UNSUPPORTED, MatroskaExtractor.FLAG_DEFER_SEEK_FOR_CUES);
+    FakeExtractorOutput output = new FakeExtractorOutput();
+    extractor.init(output);
+    FakeExtractorInput input = new FakeExtractorInput.Builder().setData(fileBytes).build();
+    PositionHolder positionHolder = new PositionHolder();
+
+    @Nullable SeekMap seekMapBeforeReadingCues = null;
+    int sampleCountBeforeReadingCues = 0;
+    int readResult = RESULT_CONTINUE;
+    while (readResult != RESULT_END_OF_INPUT) {
+      readResult = extractor.read(input, positionHolder);
+      if (readResult == RESULT_SEEK) {
+        if (seekMapBeforeReadingCues == null) {
+          seekMapBeforeReadingCues = output.seekMap;
+          sampleCountBeforeReadingCues = getTotalSampleCount(output);
+        }
+        input.setPosition((int) positionHolder.position);
+      }
+    }
+
+    assertThat(seekMapBeforeReadingCues).isInstanceOf(IndexSeekMap.class);
+    assertThat(seekMapBeforeReadingCues.isSeekable()).isTrue();
+    assertThat(sampleCountBeforeReadingCues).isGreaterThan(0);
+    assertThat(output.seekMap).isInstanceOf(ChunkIndexProvider.class);
+    assertThat(output.seekMap.isSeekable()).isTrue();
+    FakeExtractorOutput expectedOutput =
+        TestUtil.extractAllSamplesFromByteArray(
+            new MatroskaExtractor(SubtitleParser.Factory.UNSUPPORTED), fileBytes);
+    assertThat(output.numberOfTracks).isEqualTo(expectedOutput.numberOfTracks);
+    for (int i = 0; i < expectedOutput.numberOfTracks; i++) {
+      assertThat(output.trackOutputs.valueAt(i).getSampleTimesUs())
+          .isEqualTo(expectedOutput.trackOutputs.valueAt(i).getSampleTimesUs());
+    }
+  }
+
+  private static int getTotalSampleCount(FakeExtractorOutput output) {
+    int sampleCount = 0;
+    for (int i = 0; i < output.numberOfTracks; i++) {
+      sampleCount += output.trackOutputs.valueAt(i).getSampleCount();
+    }
+    return sampleCount;
+  }
 }
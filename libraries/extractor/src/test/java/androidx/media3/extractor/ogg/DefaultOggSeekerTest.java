@@ -120,6 +120,61 @@ public final class DefaultOggSeekerTest {
     }
   }
 
+  @Test
+  public void seeking_withPageIndex_findsSamePageWithSingleSeek() throws Exception {
+    byte[] data =
+        getByteArray(ApplicationProvider.getApplicationContext(), "media/ogg/random_1000_pages");
+    int granuleCount = 49269395;
+    int firstPayloadPageSize = 2023;
+    int firstPayloadPageGranuleCount = 57058;
+    FakeExtractorInput input = new FakeExtractorInput.Builder().setData(data).build();
+    // Index all pages, as if the whole stream had been read.
+    OggPageIndex pageIndex = new OggPageIndex();
+    OggPageHeader pageHeader = new OggPageHeader();
+    while (pageHeader.skipToNextPage(input) && pageHeader.populate(input, /* quiet= */ true)) {
+      pageIndex.add(input.getPosition(), pageHeader.granulePosition);
+      input.skipFully(pageHeader.headerSize + pageHeader.bodySize);
+    }
+    DefaultOggSeeker oggSeeker =
+        new DefaultOggSeeker(
+            new TestStreamReader(),
+            /* payloadStartPosition= */ 0,
+            /* payloadEndPosition= */ data.length,
+            firstPayloadPageSize,
+            /* firstPayloadPageGranulePosition= */ firstPayloadPageGranuleCount,
+            /* firstPayloadPageIsLastPage= */ false);
+    DefaultOggSeeker indexedOggSeeker =
+        new DefaultOggSeeker(
+            new TestStreamReader(),
+            /* payloadStartPosition= */ 0,
+            /* payloadEndPosition= */ data.length,
+            firstPayloadPageSize,
+            /* firstPayloadPageGranulePosition= */ firstPayloadPageGranuleCount,
+            /* firstPayloadPageIsLastPage= */ false,
+            pageIndex);
+    readUntilIdle(input, oggSeeker);
+    readUntilIdle(input, indexedOggSeeker);
+
+    for (int i = 0; i < 100; i++) {
+      long targetGranule = random.nextInt(granuleCount);
+      int initialPosition = random.nextInt(data.length);
+      long granule = seekTo(input, oggSeeker, targetGranule, initialPosition);
+      long position = input.getPosition();
+
+      indexedOggSeeker.startSeek(targetGranule);
+      input.setPosition(initialPosition);
+      long nextSeekPosition = indexedOggSeeker.read(input);
+      if (nextSeekPosition >= 0) {
+        input.setPosition((int) nextSeekPosition);
+        nextSeekPosition = indexedOggSeeker.read(input);
+      }
+
+      assertThat(nextSeekPosition).isLessThan(-1);
+      assertThat(-(nextSeekPosition + 2)).isEqualTo(granule);
+      assertThat(input.getPosition()).isEqualTo(position);
+    }
+  }
+
   @Test
   public void readGranuleOfLastPage() throws IOException {
     // This test stream has three headers with granule numbers 20000, 40000 and 60000.
@@ -197,6 +252,18 @@ public final class DefaultOggSeekerTest {
     return -(nextSeekPosition + 2);
   }
 
+  private static void readUntilIdle(FakeExtractorInput input, DefaultOggSeeker oggSeeker)
+      throws IOException {
+    input.setPosition(0);
+    while (true) {
+      long nextSeekPosition = oggSeeker.read(input);
+      if (nextSeekPosition == -1) {
+        break;
+      }
+      input.setPosition((int) nextSeekPosition);
+    }
+  }
+
   private static int findPreviousPageStart(byte[] data, int position) {
     for (int i = position - 4; i >= 0; i--) {
       if (data[i] == 'O' && data[i + 1] == 'g' && data[i + 2] == 'g' && data[i + 3] == 'S') {
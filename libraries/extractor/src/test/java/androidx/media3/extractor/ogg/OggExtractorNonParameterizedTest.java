@@ -18,15 +18,24 @@ package androidx.media3.extractor.ogg;
 import static androidx.media3.test.utils.TestUtil.getByteArray;
 import static com.google.common.truth.Truth.assertThat;
 
+import android.util.Base64;
 import androidx.media3.common.C;
+import androidx.media3.common.Metadata;
 import androidx.media3.extractor.Extractor;
 import androidx.media3.extractor.PositionHolder;
+import androidx.media3.extractor.metadata.flac.PictureFrame;
+import androidx.media3.extractor.metadata.vorbis.VorbisComment;
 import androidx.media3.test.utils.ExtractorAsserts;
 import androidx.media3.test.utils.FakeExtractorInput;
 import androidx.media3.test.utils.FakeExtractorOutput;
+import androidx.media3.test.utils.TestUtil;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.common.primitives.Bytes;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -93,6 +102,41 @@ public final class OggExtractorNonParameterizedTest {
     assertSniff(data, /* expectedResult= */ false);
   }
 
+  @Test
+  public void read_opusWithPictureComment_outputsPictureFrame() throws Exception {
+    byte[] data =
+        buildOpusStream(
+            "METADATA_BLOCK_PICTURE=" + Base64.encodeToString(buildPictureBlock(), Base64.NO_WRAP),
+            "TITLE=test title");
+
+    FakeExtractorOutput output = TestUtil.extractAllSamplesFromByteArray(new OggExtractor(), data);
+
+    Metadata metadata = output.trackOutputs.get(0).lastFormat.metadata;
+    assertThat(metadata.length()).isEqualTo(2);
+    PictureFrame pictureFrame = (PictureFrame) metadata.get(0);
+    assertThat(pictureFrame.pictureType).isEqualTo(3);
+    assertThat(pictureFrame.mimeType).isEqualTo("image/png");
+    assertThat(pictureFrame.pictureData).isEqualTo(new byte[] {1, 2, 3});
+    assertThat(metadata.get(1)).isEqualTo(new VorbisComment("TITLE", "test title"));
+  }
+
+  @Test
+  public void read_opusWithPictureCommentAndArtworkDisabled_outputsOtherComments()
+      throws Exception {
+    byte[] data =
+        buildOpusStream(
+            "METADATA_BLOCK_PICTURE=" + Base64.encodeToString(buildPictureBlock(), Base64.NO_WRAP),
+            "TITLE=test title");
+
+    FakeExtractorOutput output =
+        TestUtil.extractAllSamplesFromByteArray(
+            new OggExtractor(OggExtractor.FLAG_DISABLE_ARTWORK_METADATA), data);
+
+    Metadata metadata = output.trackOutputs.get(0).lastFormat.metadata;
+    assertThat(metadata.length()).isEqualTo(1);
+    assertThat(metadata.get(0)).isEqualTo(new VorbisComment("TITLE", "test title"));
+  }
+
   private void assertSniff(byte[] data, boolean expectedResult) throws IOException {
     FakeExtractorInput input =
         new FakeExtractorInput.Builder()
@@ -103,4 +147,85 @@ public final class OggExtractorNonParameterizedTest {
             .build();
     ExtractorAsserts.assertSniff(new OggExtractor(), input, expectedResult);
   }
+
+  /** Returns an Opus stream with the given comments and a single audio packet. */
+  private static byte[] buildOpusStream(String... comments) {
+    byte[] idHeader =
+        Bytes.concat(
+            "OpusHead".getBytes(StandardCharsets.US_ASCII),
+            new byte[] {
+              /* version */ 1,
+              /* channel count */ 1,
+              /* pre-skip */ 0,
+              0,
+              /* sample rate (48000) */ (byte) 0x80,
+              (byte) 0xBB,
+              0,
+              0,
+              /* output gain */ 0,
+              0,
+              /* channel mapping family */ 0
+            });
+    byte[][] commentBytes = new byte[comments.length][];
+    int commentHeaderLength = 16;
+    for (int i = 0; i < comments.length; i++) {
+      commentBytes[i] = comments[i].getBytes(StandardCharsets.UTF_8);
+      commentHeaderLength += 4 + commentBytes[i].length;
+    }
+    ByteBuffer commentHeader =
+        ByteBuffer.allocate(commentHeaderLength)
+            .order(ByteOrder.LITTLE_ENDIAN)
+            .put("OpusTags".getBytes(StandardCharsets.US_ASCII))
+            .putInt(/* vendor length */ 0)
+            .putInt(comments.length);
+    for (byte[] comment : commentBytes) {
+      commentHeader.putInt(comment.length).put(comment);
+    }
+    // A single 20ms CELT frame.
+    byte[] audioPacket = new byte[] {(byte) 0xF8, 0, 0};
+    return Bytes.concat(
+        buildOggPage(/* headerType= */ 0x02, /* granulePosition= */ 0, /* sequence= */ 0, idHeader),
+        buildOggPage(
+            /* headerType= */ 0,
+            /* granulePosition= */ 0,
+            /* sequence= */ 1,
+            commentHeader.array()),
+        buildOggPage(
+            /* headerType= */ 0x04, /* granulePosition= */ 960, /* sequence= */ 2, audioPacket));
+  }
+
+  /** Returns an Ogg page containing a single packet that's shorter than 255 bytes. */
+  private static byte[] buildOggPage(
+      int headerType, long granulePosition, int sequence, byte[] packet) {
+    return ByteBuffer.allocate(OggPageHeader.EMPTY_PAGE_HEADER_SIZE + 1 + packet.length)
+        .order(ByteOrder.LITTLE_ENDIAN)
+        .put("OggS".getBytes(StandardCharsets.US_ASCII))
+        .put(/* revision */ (byte) 0)
+        .put((byte) headerType)
+        .putLong(granulePosition)
+        .putInt(/* stream serial number */ 1)
+        .putInt(sequence)
+        .putInt(/* checksum (not verified) */ 0)
+        .put(/* segment count */ (byte) 1)
+        .put((byte) packet.length)
+        .put(packet)
+        .array();
+  }
+
+  /** Returns a FLAC picture block with a 3 byte PNG picture. */
+  private static byte[] buildPictureBlock() {
+    byte[] mimeType = "image/png".getBytes(StandardCharsets.US_ASCII);
+    return ByteBuffer.allocate(32 + mimeType.length + 3)
+        .putInt(/* pictureType */ 3)
+        .putInt(mimeType.length)
+        .put(mimeType)
+        .putInt(/* description length */ 0)
+        .putInt(/* width */ 1)
+        .putInt(/* height */ 1)
+        .putInt(/* depth */ 24)
+        .putInt(/* colors */ 0)
+        .putInt(/* picture data length */ 3)
+        .put(new byte[] {1, 2, 3})
+        .array();
+  }
 }
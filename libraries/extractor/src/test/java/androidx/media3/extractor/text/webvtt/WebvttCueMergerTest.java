@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.media3.extractor.text.webvtt;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.media3.common.text.Cue;
+import androidx.media3.extractor.text.CuesWithTiming;
+import androidx.media3.extractor.text.LegacySubtitleUtil;
+import androidx.media3.extractor.text.SubtitleParser.OutputOptions;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit test for {@link WebvttCueMerger}. */
+@RunWith(AndroidJUnit4.class)
+public final class WebvttCueMergerTest {
+
+  private static final ImmutableList<OutputOptions> ALL_OUTPUT_OPTIONS =
+      ImmutableList.of(
+          OutputOptions.allCues(),
+          OutputOptions.onlyCuesAfter(2_500_000),
+          OutputOptions.cuesAfterThenRemainingCuesBefore(2_500_000));
+
+  @Test
+  public void startOrderedCues_outputMatchesLegacySubtitleUtil() {
+    ImmutableList<WebvttCueInfo> cueInfos =
+        ImmutableList.of(
+            cueInfo("a", /* startTimeUs= */ 0, /* endTimeUs= */ 3_000_000),
+            lineCueInfo("b", /* startTimeUs= */ 1_000_000, /* endTimeUs= */ 2_000_000),
+            cueInfo("c", /* startTimeUs= */ 1_000_000, /* endTimeUs= */ 4_000_000),
+            cueInfo("d", /* startTimeUs= */ 2_000_000, /* endTimeUs= */ 2_000_000),
+            cueInfo("e", /* startTimeUs= */ 3_500_000, /* endTimeUs= */ 5_000_000));
+
+    for (OutputOptions outputOptions : ALL_OUTPUT_OPTIONS) {
+      assertOutputMatchesLegacySubtitleUtil(cueInfos, outputOptions, /* maxBufferedCueCount= */ 0);
+      assertOutputMatchesLegacySubtitleUtil(
+          cueInfos, outputOptions, /* maxBufferedCueCount= */ Integer.MAX_VALUE);
+    }
+  }
+
+  @Test
+  public void outOfOrderCues_unboundedBuffer_outputMatchesLegacySubtitleUtil() {
+    ImmutableList<WebvttCueInfo> cueInfos =
+        ImmutableList.of(
+            cueInfo("a", /* startTimeUs= */ 3_000_000, /* endTimeUs= */ 6_000_000),
+            lineCueInfo("b", /* startTimeUs= */ 4_000_000, /* endTimeUs= */ 5_000_000),
+            cueInfo("c", /* startTimeUs= */ 0, /* endTimeUs= */ 4_500_000),
+            lineCueInfo("d", /* startTimeUs= */ 1_000_000, /* endTimeUs= */ 7_000_000),
+            cueInfo("e", /* startTimeUs= */ 2_000_000, /* endTimeUs= */ 1_000_000),
+            cueInfo("f", /* startTimeUs= */ 1_500_000, /* endTimeUs= */ 3_500_000));
+
+    for (OutputOptions outputOptions : ALL_OUTPUT_OPTIONS) {
+      assertOutputMatchesLegacySubtitleUtil(
+          cueInfos, outputOptions, /* maxBufferedCueCount= */ Integer.MAX_VALUE);
+    }
+  }
+
+  @Test
+  public void cuesOutOfOrderWithinBuffer_outputMatchesLegacySubtitleUtil() {
+    ImmutableList<WebvttCueInfo> cueInfos =
+        ImmutableList.of(
+            cueInfo("a", /* startTimeUs= */ 0, /* endTimeUs= */ 2_000_000),
+            cueInfo("b", /* startTimeUs= */ 2_000_000, /* endTimeUs= */ 4_000_000),
+            cueInfo("c", /* startTimeUs= */ 1_000_000, /* endTimeUs= */ 3_000_000),
+            cueInfo("d", /* startTimeUs= */ 4_000_000, /* endTimeUs= */ 6_000_000),
+            cueInfo("e", /* startTimeUs= */ 3_000_000, /* endTimeUs= */ 5_000_000));
+
+    for (OutputOptions outputOptions : ALL_OUTPUT_OPTIONS) {
+      assertOutputMatchesLegacySubtitleUtil(cueInfos, outputOptions, /* maxBufferedCueCount= */ 1);
+    }
+  }
+
+  @Test
+  public void cueOutOfOrderBeyondBuffer_isEmittedOnItsOwn() {
+    WebvttCueMerger merger =
+        new WebvttCueMerger(OutputOptions.allCues(), /* maxBufferedCueCount= */ 0);
+    List<CuesWithTiming> output = new ArrayList<>();
+
+    merger.add(cueInfo("a", /* startTimeUs= */ 2_000_000, /* endTimeUs= */ 4_000_000), output::add);
+    merger.add(cueInfo("b", /* startTimeUs= */ 0, /* endTimeUs= */ 1_000_000), output::add);
+    merger.finish(output::add);
+
+    assertThat(output).hasSize(2);
+    assertThat(output.get(0).startTimeUs).isEqualTo(0);
+    assertThat(output.get(0).durationUs).isEqualTo(1_000_000);
+    assertThat(output.get(0).cues.get(0).text.toString()).isEqualTo("b");
+    assertThat(output.get(1).startTimeUs).isEqualTo(2_000_000);
+    assertThat(output.get(1).durationUs).isEqualTo(2_000_000);
+    assertThat(output.get(1).cues.get(0).text.toString()).isEqualTo("a");
+  }
+
+  private static void assertOutputMatchesLegacySubtitleUtil(
+      List<WebvttCueInfo> cueInfos, OutputOptions outputOptions, int maxBufferedCueCount) {
+    List<CuesWithTiming> expectedOutput = new ArrayList<>();
+    LegacySubtitleUtil.toCuesWithTiming(
+        new WebvttSubtitle(cueInfos), outputOptions, expectedOutput::add);
+    WebvttCueMerger merger = new WebvttCueMerger(outputOptions, maxBufferedCueCount);
+    List<CuesWithTiming> output = new ArrayList<>();
+
+    for (int i = 0; i < cueInfos.size(); i++) {
+      merger.add(cueInfos.get(i), output::add);
+    }
+    merger.finish(output::add);
+
+    assertThat(output).hasSize(expectedOutput.size());
+    for (int i = 0; i < output.size(); i++) {
+      assertThat(output.get(i).cues).isEqualTo(expectedOutput.get(i).cues);
+      assertThat(output.get(i).startTimeUs).isEqualTo(expectedOutput.get(i).startTimeUs);
+      assertThat(output.get(i).durationUs).isEqualTo(expectedOutput.get(i).durationUs);
+    }
+  }
+
+  private static WebvttCueInfo cueInfo(String text, long startTimeUs, long endTimeUs) {
+    return new WebvttCueInfo(WebvttCueParser.newCueForText(text), startTimeUs, endTimeUs);
+  }
+
+  private static WebvttCueInfo lineCueInfo(String text, long startTimeUs, long endTimeUs) {
+    Cue cue =
+        WebvttCueParser.newCueForText(text)
+            .buildUpon()
+            .setLine(/* line= */ 2, Cue.LINE_TYPE_NUMBER)
+            .build();
+    return new WebvttCueInfo(cue, startTimeUs, endTimeUs);
+  }
+}
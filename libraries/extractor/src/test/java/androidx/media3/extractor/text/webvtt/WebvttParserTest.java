@@ -19,6 +19,7 @@ import static androidx.media3.common.Format.CUE_REPLACEMENT_BEHAVIOR_MERGE;
 import static androidx.media3.test.utils.truth.SpannedSubject.assertThat;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.truth.Truth.assertThat;
+import static java.lang.Math.min;
 import static org.junit.Assert.assertThrows;
 
 import android.text.Layout.Alignment;
@@ -35,6 +36,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.truth.Expect;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.Rule;
 import org.junit.Test;
@@ -672,6 +674,65 @@ public class WebvttParserTest {
             "Combine ".length(), "Combine 0004".length());
   }
 
+  @Test
+  public void parseIncrementally_emitsSameCuesAsParse() throws IOException {
+    ImmutableList<String> assets =
+        ImmutableList.of(
+            TYPICAL_FILE,
+            TYPICAL_WITH_BAD_TIMESTAMPS,
+            TYPICAL_WITH_IDS_FILE,
+            TYPICAL_WITH_COMMENTS_FILE,
+            WITH_POSITIONING_FILE,
+            WITH_OVERLAPPING_TIMESTAMPS_FILE,
+            WITH_BAD_CUE_HEADER_FILE,
+            WITH_CSS_STYLES,
+            WITH_WIDE_CHARS_AND_CR_ENDINGS_FILE,
+            WITH_BOM);
+    ImmutableList<SubtitleParser.OutputOptions> allOutputOptions =
+        ImmutableList.of(
+            SubtitleParser.OutputOptions.allCues(),
+            SubtitleParser.OutputOptions.onlyCuesAfter(2_500_000),
+            SubtitleParser.OutputOptions.cuesAfterThenRemainingCuesBefore(2_500_000));
+    WebvttParser parser = new WebvttParser();
+    assertThat(parser.supportsIncrementalParsing()).isTrue();
+
+    for (String asset : assets) {
+      byte[] bytes = TestUtil.getByteArray(ApplicationProvider.getApplicationContext(), asset);
+      for (SubtitleParser.OutputOptions outputOptions : allOutputOptions) {
+        List<CuesWithTiming> expectedCues = new ArrayList<>();
+        parser.parse(bytes, outputOptions, expectedCues::add);
+        for (int chunkSize : new int[] {1, 7, 64, bytes.length}) {
+          List<CuesWithTiming> cues = new ArrayList<>();
+          for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            int length = min(chunkSize, bytes.length - offset);
+            parser.parseIncrementally(
+                bytes,
+                offset,
+                length,
+                /* isEndOfSample= */ offset + length == bytes.length,
+                outputOptions,
+                cues::add);
+          }
+
+          String message =
+              asset + ", startTimeUs=" + outputOptions.startTimeUs + ", chunkSize=" + chunkSize;
+          expect.withMessage(message).that(cues).hasSize(expectedCues.size());
+          for (int i = 0; i < min(cues.size(), expectedCues.size()); i++) {
+            expect.withMessage(message).that(cues.get(i).cues).isEqualTo(expectedCues.get(i).cues);
+            expect
+                .withMessage(message)
+                .that(cues.get(i).startTimeUs)
+                .isEqualTo(expectedCues.get(i).startTimeUs);
+            expect
+                .withMessage(message)
+                .that(cues.get(i).durationUs)
+                .isEqualTo(expectedCues.get(i).durationUs);
+          }
+        }
+      }
+    }
+  }
+
   private ImmutableList<CuesWithTiming> getCuesForTestAsset(String asset) throws IOException {
     return getCuesForTestAsset(asset, SubtitleParser.OutputOptions.allCues());
   }
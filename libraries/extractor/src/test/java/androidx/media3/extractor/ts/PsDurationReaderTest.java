@@ -17,6 +17,7 @@ package androidx.media3.extractor.ts;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import androidx.media3.common.C;
 import androidx.media3.extractor.Extractor;
 import androidx.media3.extractor.PositionHolder;
 import androidx.media3.test.utils.FakeExtractorInput;
@@ -24,6 +25,7 @@ import androidx.media3.test.utils.TestUtil;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import java.io.IOException;
+import java.util.Arrays;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -88,4 +90,82 @@ public final class PsDurationReaderTest {
     assertThat(result).isNotEqualTo(Extractor.RESULT_END_OF_INPUT);
     assertThat(tsDurationReader.getDurationUs()).isEqualTo(766);
   }
+
+  @Test
+  public void readDuration_withFirstScrValueOutsideInitialWindow_growsWindowWithoutSeeking()
+      throws IOException {
+    // The first window at the start of the stream is 5000 bytes long, and the next one is 10000
+    // bytes long.
+    byte[] data =
+        createPsStream(
+            /* length= */ 40_000,
+            /* packPositions= */ new int[] {6_000, 40_000 - 6_000},
+            /* scrValues= */ new long[] {90_000, 270_000});
+    FakeExtractorInput input = new FakeExtractorInput.Builder().setData(data).build();
+
+    int seekCount = readDuration(input);
+
+    assertThat(tsDurationReader.getDurationUs()).isEqualTo(2_000_000);
+    // One seek to the end of the stream, and one back to its start.
+    assertThat(seekCount).isEqualTo(2);
+  }
+
+  @Test
+  public void readDuration_withoutScrValueInMaxStartWindow_seeksTwice() throws IOException {
+    // The first SCR value follows the first 20000 bytes, which is the maximum window.
+    byte[] data =
+        createPsStream(
+            /* length= */ 40_000,
+            /* packPositions= */ new int[] {25_000, 40_000 - 6_000},
+            /* scrValues= */ new long[] {90_000, 270_000});
+    FakeExtractorInput input = new FakeExtractorInput.Builder().setData(data).build();
+
+    int seekCount = readDuration(input);
+
+    assertThat(tsDurationReader.getDurationUs()).isEqualTo(C.TIME_UNSET);
+    assertThat(seekCount).isEqualTo(2);
+  }
+
+  private int readDuration(FakeExtractorInput input) throws IOException {
+    int seekCount = 0;
+    while (!tsDurationReader.isDurationReadFinished()) {
+      int result = tsDurationReader.readDuration(input, seekPositionHolder);
+      assertThat(result).isNotEqualTo(Extractor.RESULT_END_OF_INPUT);
+      if (result == Extractor.RESULT_SEEK) {
+        seekCount++;
+        input.setPosition((int) seekPositionHolder.position);
+      }
+    }
+    return seekCount;
+  }
+
+  /**
+   * Returns a PS stream of stuffing bytes, except for pack headers with the given SCR values at the
+   * given positions.
+   */
+  private static byte[] createPsStream(int length, int[] packPositions, long[] scrValues) {
+    byte[] data = new byte[length];
+    Arrays.fill(data, (byte) 0xFF);
+    for (int i = 0; i < packPositions.length; i++) {
+      int position = packPositions[i];
+      long scrValue = scrValues[i];
+      data[position] = 0x00;
+      data[position + 1] = 0x00;
+      data[position + 2] = 0x01;
+      data[position + 3] = (byte) 0xBA;
+      // The SCR fields and marker bits, see ISO/IEC 13818-1, Table 2-33.
+      data[position + 4] =
+          (byte) (0x44 | ((scrValue >> 30) & 0x07) << 3 | ((scrValue >> 28) & 0x03));
+      data[position + 5] = (byte) (scrValue >> 20);
+      data[position + 6] =
+          (byte) (0x04 | ((scrValue >> 15) & 0x1F) << 3 | ((scrValue >> 13) & 0x03));
+      data[position + 7] = (byte) (scrValue >> 5);
+      data[position + 8] = (byte) (0x04 | (scrValue & 0x1F) << 3);
+      data[position + 9] = 0x01;
+      data[position + 10] = 0x00;
+      data[position + 11] = 0x00;
+      data[position + 12] = 0x03;
+    }
+    return data;
+  }
 }
@@ -17,6 +17,7 @@ package androidx.media3.extractor.ts;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import androidx.media3.common.C;
 import androidx.media3.extractor.Extractor;
 import androidx.media3.extractor.PositionHolder;
 import androidx.media3.test.utils.FakeExtractorInput;
@@ -24,6 +25,7 @@ import androidx.media3.test.utils.TestUtil;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import java.io.IOException;
+import java.util.Arrays;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -94,4 +96,85 @@ public final class TsDurationReaderTest {
     }
     assertThat(tsDurationReader.getDurationUs() / 1000).isEqualTo(2500);
   }
+
+  @Test
+  public void readDuration_withFirstPcrValueOutsideInitialWindow_growsWindowWithoutSeeking()
+      throws IOException {
+    // The first window at the start of the stream is 64 packets long, and the next one is 256
+    // packets long.
+    byte[] data =
+        createTsStream(
+            /* packetCount= */ 1000,
+            /* pcrPacketIndices= */ new int[] {100, 1000 - 101},
+            /* pcrValues= */ new long[] {90_000, 270_000});
+    FakeExtractorInput input = new FakeExtractorInput.Builder().setData(data).build();
+
+    int seekCount = readDuration(input);
+
+    assertThat(tsDurationReader.getDurationUs()).isEqualTo(2_000_000);
+    // One seek to the end of the stream, and one back to its start.
+    assertThat(seekCount).isEqualTo(2);
+  }
+
+  @Test
+  public void readDuration_withoutPcrValueInMaxStartWindow_seeksTwice() throws IOException {
+    // The first PCR value follows the first 600 packets, which is the maximum window.
+    byte[] data =
+        createTsStream(
+            /* packetCount= */ 1000,
+            /* pcrPacketIndices= */ new int[] {700, 1000 - 101},
+            /* pcrValues= */ new long[] {90_000, 270_000});
+    FakeExtractorInput input = new FakeExtractorInput.Builder().setData(data).build();
+
+    int seekCount = readDuration(input);
+
+    assertThat(tsDurationReader.getDurationUs()).isEqualTo(C.TIME_UNSET);
+    assertThat(seekCount).isEqualTo(2);
+  }
+
+  private int readDuration(FakeExtractorInput input) throws IOException {
+    int seekCount = 0;
+    while (!tsDurationReader.isDurationReadFinished()) {
+      int result = tsDurationReader.readDuration(input, seekPositionHolder, /* pcrPid= */ 256);
+      assertThat(result).isNotEqualTo(Extractor.RESULT_END_OF_INPUT);
+      if (result == Extractor.RESULT_SEEK) {
+        seekCount++;
+        input.setPosition((int) seekPositionHolder.position);
+      }
+    }
+    return seekCount;
+  }
+
+  /**
+   * Returns a TS stream of null packets, except for packets with PID 256 that carry the given PCR
+   * values.
+   */
+  private static byte[] createTsStream(int packetCount, int[] pcrPacketIndices, long[] pcrValues) {
+    byte[] data = new byte[packetCount * TsExtractor.TS_PACKET_SIZE];
+    Arrays.fill(data, (byte) 0xFF);
+    for (int i = 0; i < packetCount; i++) {
+      int position = i * TsExtractor.TS_PACKET_SIZE;
+      data[position] = TsExtractor.TS_SYNC_BYTE;
+      data[position + 1] = 0x1F;
+      data[position + 2] = (byte) 0xFF;
+      data[position + 3] = 0x10;
+    }
+    for (int i = 0; i < pcrPacketIndices.length; i++) {
+      int position = pcrPacketIndices[i] * TsExtractor.TS_PACKET_SIZE;
+      long pcrValue = pcrValues[i];
+      data[position + 1] = 0x01;
+      data[position + 2] = 0x00;
+      // Adaptation field only, with a PCR.
+      data[position + 3] = 0x20;
+      data[position + 4] = (byte) (TsExtractor.TS_PACKET_SIZE - 5);
+      data[position + 5] = 0x10;
+      data[position + 6] = (byte) (pcrValue >> 25);
+      data[position + 7] = (byte) (pcrValue >> 17);
+      data[position + 8] = (byte) (pcrValue >> 9);
+      data[position + 9] = (byte) (pcrValue >> 1);
+      data[position + 10] = (byte) ((pcrValue << 7) | 0x7E);
+      data[position + 11] = 0x00;
+    }
+    return data;
+  }
 }
@@ -37,6 +37,7 @@ import androidx.media3.extractor.text.DefaultSubtitleParserFactory;
 import androidx.media3.extractor.text.SubtitleParser;
 import androidx.media3.extractor.ts.TsPayloadReader.EsInfo;
 import androidx.media3.extractor.ts.TsPayloadReader.TrackIdGenerator;
+import androidx.media3.test.utils.Dumper;
 import androidx.media3.test.utils.ExtractorAsserts;
 import androidx.media3.test.utils.FakeExtractorInput;
 import androidx.media3.test.utils.FakeExtractorOutput;
@@ -45,6 +46,9 @@ import androidx.media3.test.utils.TestUtil;
 import androidx.test.core.app.ApplicationProvider;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.ParameterizedRobolectricTestRunner;
@@ -71,6 +75,15 @@ public final class TsExtractorTest {
   @Parameter(1)
   public boolean subtitlesParsedDuringExtraction;
 
+  private final List<ExecutorService> parallelParsingExecutors = new ArrayList<>();
+
+  @After
+  public void tearDown() {
+    for (ExecutorService executor : parallelParsingExecutors) {
+      executor.shutdown();
+    }
+  }
+
   @Test
   public void sampleWithH262AndMpegAudio() throws Exception {
     ExtractorAsserts.assertBehavior(
@@ -111,6 +124,44 @@ public final class TsExtractorTest {
         simulationConfig);
   }
 
+  @Test
+  public void sampleWithH264AndMpegAudio_parallelElementaryStreamParsing() throws Exception {
+    ExecutorService executor = createParallelParsingExecutor();
+
+    ExtractorAsserts.assertBehavior(
+        () -> createExtractor(executor), "media/ts/sample_h264_mpeg_audio.ts", simulationConfig);
+  }
+
+  @Test
+  public void parallelElementaryStreamParsing_outputIdenticalToSerialParsing() throws Exception {
+    String file = "media/ts/bbb_2500ms.ts";
+    FakeExtractorOutput serialOutput =
+        TestUtil.extractAllSamplesFromFile(
+            createExtractor(/* parallelParsingExecutor= */ null),
+            ApplicationProvider.getApplicationContext(),
+            file);
+    FakeExtractorOutput parallelOutput =
+        TestUtil.extractAllSamplesFromFile(
+            createExtractor(createParallelParsingExecutor()),
+            ApplicationProvider.getApplicationContext(),
+            file);
+
+    assertThat(parallelOutput.trackOutputs.size()).isEqualTo(serialOutput.trackOutputs.size());
+    for (int i = 0; i < serialOutput.trackOutputs.size(); i++) {
+      FakeTrackOutput serialTrackOutput = serialOutput.trackOutputs.valueAt(i);
+      FakeTrackOutput parallelTrackOutput =
+          parallelOutput.trackOutputs.get(serialOutput.trackOutputs.keyAt(i));
+      assertThat(parallelTrackOutput.getSampleCount())
+          .isEqualTo(serialTrackOutput.getSampleCount());
+      for (int j = 0; j < serialTrackOutput.getSampleCount(); j++) {
+        assertThat(parallelTrackOutput.getSampleData(j))
+            .isEqualTo(serialTrackOutput.getSampleData(j));
+      }
+    }
+    assertThat(new Dumper().add(parallelOutput).toString())
+        .isEqualTo(new Dumper().add(serialOutput).toString());
+  }
+
   @Test
   public void sampleWithH264NoAccessUnitDelimiters() throws Exception {
     ExtractorAsserts.assertBehavior(
@@ -467,6 +518,25 @@ public final class TsExtractorTest {
     tsExtractor.release();
   }
 
+  private ExecutorService createParallelParsingExecutor() {
+    ExecutorService executor = Executors.newFixedThreadPool(/* nThreads= */ 2);
+    parallelParsingExecutors.add(executor);
+    return executor;
+  }
+
+  private TsExtractor createExtractor(@Nullable ExecutorService parallelParsingExecutor) {
+    return new TsExtractor(
+        MODE_SINGLE_PMT,
+        subtitlesParsedDuringExtraction ? 0 : FLAG_EMIT_RAW_SUBTITLE_DATA,
+        subtitlesParsedDuringExtraction
+            ? new DefaultSubtitleParserFactory()
+            : SubtitleParser.Factory.UNSUPPORTED,
+        new TimestampAdjuster(0),
+        new DefaultTsPayloadReaderFactory(0),
+        DEFAULT_TIMESTAMP_SEARCH_BYTES,
+        parallelParsingExecutor);
+  }
+
   private static ExtractorAsserts.ExtractorFactory getExtractorFactory(
       boolean subtitlesParsedDuringExtraction) {
     return getExtractorFactory(
@@ -21,6 +21,7 @@ import static com.google.common.base.Preconditions.checkState;
 
 import androidx.media3.common.Format;
 import androidx.media3.common.MimeTypes;
+import androidx.media3.container.StartCodeScanner;
 import com.google.common.collect.ImmutableList;
 import java.nio.ByteBuffer;
 
@@ -80,21 +81,24 @@ import java.nio.ByteBuffer;
     // For simplicity, we allocate the same number of bytes (although the eventual number might be
     // smaller).
     ByteBuffer output = ByteBuffer.allocate(input.limit());
-    int zerosSeen = 0;
-    for (int i = 0; i < input.limit(); i++) {
-      boolean lookingAtEmulationPreventionByte = input.get(i) == 0x03 && zerosSeen >= 2;
-
-      // Only copy bytes if they aren't emulation prevention bytes.
-      if (!lookingAtEmulationPreventionByte) {
-        output.put(input.get(i));
-      }
-
-      if (input.get(i) == 0) {
-        zerosSeen++;
-      } else {
-        zerosSeen = 0;
+    ByteBuffer source = input.duplicate();
+    int copyStartIndex = 0;
+    int searchStartIndex = 0;
+    while (searchStartIndex < input.limit()) {
+      int sequenceIndex =
+          StartCodeScanner.findEmulationPreventionSequence(input, searchStartIndex, input.limit());
+      if (sequenceIndex == input.limit()) {
+        break;
       }
+      // Copy everything up to, but excluding, the emulation prevention byte.
+      int emulationPreventionByteIndex = sequenceIndex + 2;
+      source.limit(emulationPreventionByteIndex).position(copyStartIndex);
+      output.put(source);
+      copyStartIndex = emulationPreventionByteIndex + 1;
+      searchStartIndex = copyStartIndex;
     }
+    source.limit(input.limit()).position(copyStartIndex);
+    output.put(source);
 
     output.flip();
 
@@ -135,39 +139,7 @@ import java.nio.ByteBuffer;
    * @return The NAL unit end index (exclusive).
    */
   private static int findNalEndIndex(ByteBuffer input, int currentIndex) {
-    while (currentIndex <= input.limit() - 4) {
-      int fourBytes = input.getInt(currentIndex);
-      // Check if the first 3 bytes are 0x000000 or 0x000001.
-      if ((fourBytes & 0xFFFFFF00) == 0 || (fourBytes & 0xFFFFFF00) == 0x00000100) {
-        return currentIndex;
-      }
-
-      // Check if the last 3 bytes are 0x000000 or 0x000001.
-      if ((fourBytes & 0x00FFFFFF) == 0 || (fourBytes & 0x00FFFFFF) == 0x00000001) {
-        return currentIndex + 1;
-      }
-
-      // Check if the last 2 bytes are prefix of 0x000000 or 0x000001.
-      if ((fourBytes & 0x0000FFFF) == 0) {
-        currentIndex = currentIndex + 2;
-      } else if ((fourBytes & 0x000000FF)
-          == 0) { // Check if the last byte is prefix of 0x000000 or 0x000001.
-        currentIndex = currentIndex + 3;
-      } else {
-        currentIndex = currentIndex + 4;
-      }
-    }
-
-    // Handle remaining bytes if any (less than 4).
-    // Last 3 bytes could be 0x000000 or 0x000001.
-    if (currentIndex == input.limit() - THREE_BYTE_NAL_START_CODE_SIZE) {
-      short firstTwoBytes = input.getShort(currentIndex);
-      byte lastByte = input.get(currentIndex + 2);
-      if (firstTwoBytes == 0 && (lastByte == 0 || lastByte == 1)) {
-        return currentIndex;
-      }
-    }
-    return input.limit();
+    return StartCodeScanner.findNalUnitEnd(input, currentIndex, input.limit());
   }
 
   /**
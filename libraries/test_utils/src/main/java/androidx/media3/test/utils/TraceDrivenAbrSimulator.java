@@ -0,0 +1,495 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.media3.test.utils;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import android.net.Uri;
+import androidx.annotation.Nullable;
+import androidx.media3.common.C;
+import androidx.media3.common.Format;
+import androidx.media3.common.Timeline;
+import androidx.media3.common.TrackGroup;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.common.util.Util;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.TransferListener;
+import androidx.media3.exoplayer.DefaultLoadControl;
+import androidx.media3.exoplayer.source.MediaSource.MediaPeriodId;
+import androidx.media3.exoplayer.source.chunk.MediaChunk;
+import androidx.media3.exoplayer.source.chunk.MediaChunkIterator;
+import androidx.media3.exoplayer.trackselection.ExoTrackSelection;
+import androidx.media3.exoplayer.upstream.BandwidthMeter;
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replays a {@link BandwidthTrace} through an {@link ExoTrackSelection} and a {@link
+ * BandwidthMeter} to evaluate adaptive track selection offline.
+ *
+ * <p>The simulator loads the chunks of a {@link FakeAdaptiveDataSet} one after the other, as a
+ * chunk source does, asking the track selection which track to load before each chunk. The time a
+ * chunk takes to load is derived from its size and the trace, and the transfer is reported to the
+ * transfer listener of the bandwidth meter. Playback starts and resumes after rebuffering once
+ * enough media is buffered, and loading pauses while the buffer is full.
+ *
+ * <p>All time is simulated with a {@link FakeClock} that the track selection and the bandwidth
+ * meter must also use, so a run is deterministic and takes a small fraction of the duration of the
+ * media. Effects that need a real player, such as decoder behavior or discarding and reloading
+ * chunks that were already buffered, aren't simulated.
+ */
+@UnstableApi
+public final class TraceDrivenAbrSimulator {
+
+  /**
+   * A sequence of network conditions, each lasting for a given duration. The trace repeats from the
+   * start once its total duration has elapsed.
+   */
+  public static final class BandwidthTrace {
+
+    /** A builder for {@link BandwidthTrace} instances. */
+    public static final class Builder {
+
+      private final List<Long> durationsMs;
+      private final List<Long> bitrates;
+      private final List<Long> latenciesMs;
+
+      /** Creates an instance. */
+      public Builder() {
+        durationsMs = new ArrayList<>();
+        bitrates = new ArrayList<>();
+        latenciesMs = new ArrayList<>();
+      }
+
+      /**
+       * Appends a segment to the trace.
+       *
+       * @param durationMs The duration of the segment, in milliseconds.
+       * @param bitrate The throughput during the segment, in bits per second. May be 0 for an
+       *     outage.
+       * @param latencyMs The time from a request that starts during the segment until the first
+       *     byte of the response, in milliseconds.
+       * @return This builder.
+       */
+      @CanIgnoreReturnValue
+      public Builder addSegment(long durationMs, long bitrate, long latencyMs) {
+        checkArgument(durationMs > 0 && bitrate >= 0 && latencyMs >= 0);
+        durationsMs.add(durationMs);
+        bitrates.add(bitrate);
+        latenciesMs.add(latencyMs);
+        return this;
+      }
+
+      /** Builds the {@link BandwidthTrace}. */
+      public BandwidthTrace build() {
+        checkState(!durationsMs.isEmpty());
+        return new BandwidthTrace(this);
+      }
+    }
+
+    private final long[] segmentStartTimesMs;
+    private final long[] bitrates;
+    private final long[] latenciesMs;
+    private final long durationMs;
+
+    private BandwidthTrace(Builder builder) {
+      int segmentCount = builder.durationsMs.size();
+      segmentStartTimesMs = new long[segmentCount];
+      bitrates = new long[segmentCount];
+      latenciesMs = new long[segmentCount];
+      long timeMs = 0;
+      boolean hasThroughput = false;
+      for (int i = 0; i < segmentCount; i++) {
+        segmentStartTimesMs[i] = timeMs;
+        bitrates[i] = builder.bitrates.get(i);
+        latenciesMs[i] = builder.latenciesMs.get(i);
+        timeMs += builder.durationsMs.get(i);
+        hasThroughput |= bitrates[i] > 0;
+      }
+      checkArgument(hasThroughput, "The trace must have a segment with a non-zero bitrate");
+      durationMs = timeMs;
+    }
+
+    /** Returns the throughput at a time in the trace, in bits per second. */
+    public long getBitrate(long timeMs) {
+      return bitrates[getSegmentIndex(timeMs)];
+    }
+
+    /** Returns the latency of a request that starts at a time in the trace, in milliseconds. */
+    public long getLatencyMs(long timeMs) {
+      return latenciesMs[getSegmentIndex(timeMs)];
+    }
+
+    /**
+     * Returns the time from a time in the trace until the network conditions next change, in
+     * milliseconds.
+     */
+    public long getRemainingSegmentDurationMs(long timeMs) {
+      int segmentIndex = getSegmentIndex(timeMs);
+      long segmentEndTimeMs =
+          segmentIndex == segmentStartTimesMs.length - 1
+              ? durationMs
+              : segmentStartTimesMs[segmentIndex + 1];
+      return segmentEndTimeMs - timeMs % durationMs;
+    }
+
+    private int getSegmentIndex(long timeMs) {
+      return Util.binarySearchFloor(
+          segmentStartTimesMs,
+          timeMs % durationMs,
+          /* inclusive= */ true,
+          /* stayInBounds= */ true);
+    }
+  }
+
+  /** The result of a simulation run. */
+  public static final class Result {
+
+    /** The time from the start of the run until playback started, in milliseconds. */
+    public final long startupTimeMs;
+
+    /** The number of times playback stalled because the buffer ran out after it started. */
+    public final int rebufferCount;
+
+    /** The total time that playback was stalled after it started, in milliseconds. */
+    public final long rebufferTimeMs;
+
+    /** The average bitrate of the loaded chunks, weighted by their duration, in bits per second. */
+    public final long averageBitrate;
+
+    /** The number of times the selected track changed between consecutive chunks. */
+    public final int switchCount;
+
+    /** The indices in the track group of the tracks selected for each chunk. */
+    public final ImmutableList<Integer> selectedTrackIndices;
+
+    private Result(
+        long startupTimeMs,
+        int rebufferCount,
+        long rebufferTimeMs,
+        long averageBitrate,
+        int switchCount,
+        ImmutableList<Integer> selectedTrackIndices) {
+      this.startupTimeMs = startupTimeMs;
+      this.rebufferCount = rebufferCount;
+      this.rebufferTimeMs = rebufferTimeMs;
+      this.averageBitrate = averageBitrate;
+      this.switchCount = switchCount;
+      this.selectedTrackIndices = selectedTrackIndices;
+    }
+
+    @Override
+    public String toString() {
+      return "Result{startupTimeMs="
+          + startupTimeMs
+          + ", rebufferCount="
+          + rebufferCount
+          + ", rebufferTimeMs="
+          + rebufferTimeMs
+          + ", averageBitrate="
+          + averageBitrate
+          + ", switchCount="
+          + switchCount
+          + "}";
+    }
+  }
+
+  /** A builder for {@link TraceDrivenAbrSimulator} instances. */
+  public static final class Builder {
+
+    private final TrackGroup trackGroup;
+    private final FakeAdaptiveDataSet dataSet;
+    private final BandwidthTrace bandwidthTrace;
+    private final FakeClock clock;
+    private int maxBufferMs;
+    private int bufferForPlaybackMs;
+    private int bufferForPlaybackAfterRebufferMs;
+
+    /**
+     * Creates an instance.
+     *
+     * @param trackGroup The {@link TrackGroup} to select tracks from.
+     * @param dataSet The {@link FakeAdaptiveDataSet} with the chunks of the tracks in the group.
+     * @param bandwidthTrace The {@link BandwidthTrace} to replay.
+     * @param clock The non-auto-advancing {@link FakeClock} that the track selections and the
+     *     bandwidth meters passed to {@link #run} use.
+     */
+    public Builder(
+        TrackGroup trackGroup,
+        FakeAdaptiveDataSet dataSet,
+        BandwidthTrace bandwidthTrace,
+        FakeClock clock) {
+      this.trackGroup = trackGroup;
+      this.dataSet = dataSet;
+      this.bandwidthTrace = bandwidthTrace;
+      this.clock = clock;
+      maxBufferMs = DefaultLoadControl.DEFAULT_MAX_BUFFER_MS;
+      bufferForPlaybackMs = DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_MS;
+      bufferForPlaybackAfterRebufferMs =
+          DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS;
+    }
+
+    /**
+     * Sets the buffer durations, with the same meaning as in {@link
+     * DefaultLoadControl.Builder#setBufferDurationsMs}.
+     *
+     * <p>The defaults are those of {@link DefaultLoadControl}.
+     *
+     * @param maxBufferMs The duration of media to buffer before loading pauses, in milliseconds.
+     * @param bufferForPlaybackMs The duration of media that must be buffered for playback to start,
+     *     in milliseconds.
+     * @param bufferForPlaybackAfterRebufferMs The duration of media that must be buffered for
+     *     playback to resume after a rebuffer, in milliseconds.
+     * @return This builder.
+     */
+    @CanIgnoreReturnValue
+    public Builder setBufferDurationsMs(
+        int maxBufferMs, int bufferForPlaybackMs, int bufferForPlaybackAfterRebufferMs) {
+      checkArgument(bufferForPlaybackMs >= 0 && bufferForPlaybackMs <= maxBufferMs);
+      checkArgument(
+          bufferForPlaybackAfterRebufferMs >= 0 && bufferForPlaybackAfterRebufferMs <= maxBufferMs);
+      this.maxBufferMs = maxBufferMs;
+      this.bufferForPlaybackMs = bufferForPlaybackMs;
+      this.bufferForPlaybackAfterRebufferMs = bufferForPlaybackAfterRebufferMs;
+      return this;
+    }
+
+    /** Builds the {@link TraceDrivenAbrSimulator}. */
+    public TraceDrivenAbrSimulator build() {
+      return new TraceDrivenAbrSimulator(this);
+    }
+  }
+
+  private final TrackGroup trackGroup;
+  private final FakeAdaptiveDataSet dataSet;
+  private final BandwidthTrace bandwidthTrace;
+  private final FakeClock clock;
+  private final long maxBufferUs;
+  private final long bufferForPlaybackUs;
+  private final long bufferForPlaybackAfterRebufferUs;
+  private final FakeDataSource transferSource;
+
+  private TraceDrivenAbrSimulator(Builder builder) {
+    trackGroup = builder.trackGroup;
+    dataSet = builder.dataSet;
+    bandwidthTrace = builder.bandwidthTrace;
+    clock = builder.clock;
+    maxBufferUs = Util.msToUs(builder.maxBufferMs);
+    bufferForPlaybackUs = Util.msToUs(builder.bufferForPlaybackMs);
+    bufferForPlaybackAfterRebufferUs = Util.msToUs(builder.bufferForPlaybackAfterRebufferMs);
+    transferSource = new FakeDataSource(dataSet, /* isNetwork= */ true);
+  }
+
+  /**
+   * Simulates loading and playing all chunks of the data set with an adaptive track selection over
+   * all tracks of the group.
+   *
+   * <p>The trace is replayed from its start on each run.
+   *
+   * @param trackSelectionFactory The {@link ExoTrackSelection.Factory} to evaluate.
+   * @param bandwidthMeter A new {@link BandwidthMeter}, using the clock of the simulator.
+   * @return The {@link Result} of the run.
+   */
+  public Result run(
+      ExoTrackSelection.Factory trackSelectionFactory, BandwidthMeter bandwidthMeter) {
+    int[] tracks = new int[trackGroup.length];
+    for (int i = 0; i < tracks.length; i++) {
+      tracks[i] = i;
+    }
+    ExoTrackSelection trackSelection =
+        checkNotNull(
+            trackSelectionFactory.createTrackSelections(
+                new ExoTrackSelection.Definition[] {
+                  new ExoTrackSelection.Definition(trackGroup, tracks)
+                },
+                bandwidthMeter,
+                new MediaPeriodId(/* periodUid= */ new Object()),
+                Timeline.EMPTY)[0]);
+    return new Run(trackSelection, bandwidthMeter.getTransferListener()).run();
+  }
+
+  private final class Run {
+
+    private final ExoTrackSelection trackSelection;
+    @Nullable private final TransferListener transferListener;
+    private final long startTimeMs;
+    private final List<MediaChunk> queue;
+    private final ImmutableList.Builder<Integer> selectedTrackIndices;
+
+    private long playbackPositionUs;
+    private long loadPositionUs;
+    private boolean isPlaying;
+    private boolean hasStarted;
+    private long startupTimeMs;
+    private int rebufferCount;
+    private long rebufferTimeMs;
+
+    public Run(ExoTrackSelection trackSelection, @Nullable TransferListener transferListener) {
+      this.trackSelection = trackSelection;
+      this.transferListener = transferListener;
+      startTimeMs = clock.elapsedRealtime();
+      queue = new ArrayList<>();
+      selectedTrackIndices = ImmutableList.builder();
+    }
+
+    public Result run() {
+      trackSelection.enable();
+      trackSelection.onPlayWhenReadyChanged(/* playWhenReady= */ true);
+      int chunkCount = dataSet.getChunkCount();
+      long totalBitrateTimesDurationUs = 0;
+      int switchCount = 0;
+      int previousTrackIndex = C.INDEX_UNSET;
+      for (int chunkIndex = 0; chunkIndex < chunkCount; chunkIndex++) {
+        long bufferedDurationUs = loadPositionUs - playbackPositionUs;
+        if (isPlaying && bufferedDurationUs >= maxBufferUs) {
+          advanceTime(max(1, Util.usToMs(bufferedDurationUs - maxBufferUs)));
+          bufferedDurationUs = loadPositionUs - playbackPositionUs;
+        }
+        discardPlayedChunks();
+
+        MediaChunkIterator[] chunkIterators = new MediaChunkIterator[trackSelection.length()];
+        for (int i = 0; i < chunkIterators.length; i++) {
+          chunkIterators[i] =
+              new FakeAdaptiveDataSet.Iterator(
+                  dataSet, trackSelection.getIndexInTrackGroup(i), chunkIndex);
+        }
+        trackSelection.updateSelectedTrack(
+            playbackPositionUs, bufferedDurationUs, C.TIME_UNSET, queue, chunkIterators);
+        int trackIndex = trackSelection.getIndexInTrackGroup(trackSelection.getSelectedIndex());
+        Format format = trackSelection.getSelectedFormat();
+
+        String uri = dataSet.getUri(trackIndex);
+        int chunkLength =
+            checkNotNull(dataSet.getData(uri)).getSegments().get(chunkIndex).length;
+        loadChunk(new DataSpec(Uri.parse(uri)), chunkLength);
+
+        long chunkStartTimeUs = dataSet.getStartTime(chunkIndex);
+        long chunkDurationUs = dataSet.getChunkDuration(chunkIndex);
+        queue.add(
+            new FakeMediaChunk(
+                format,
+                chunkStartTimeUs,
+                chunkStartTimeUs + chunkDurationUs,
+                trackSelection.getSelectionReason()));
+        loadPositionUs = chunkStartTimeUs + chunkDurationUs;
+        selectedTrackIndices.add(trackIndex);
+        totalBitrateTimesDurationUs += (long) format.bitrate * chunkDurationUs;
+        if (previousTrackIndex != C.INDEX_UNSET && trackIndex != previousTrackIndex) {
+          switchCount++;
+        }
+        previousTrackIndex = trackIndex;
+        maybeStartPlayback(/* isLastChunk= */ chunkIndex == chunkCount - 1);
+      }
+      trackSelection.disable();
+      return new Result(
+          startupTimeMs,
+          rebufferCount,
+          rebufferTimeMs,
+          loadPositionUs == 0 ? 0 : totalBitrateTimesDurationUs / loadPositionUs,
+          switchCount,
+          selectedTrackIndices.build());
+    }
+
+    private void loadChunk(DataSpec dataSpec, long lengthBytes) {
+      if (transferListener != null) {
+        transferListener.onTransferInitializing(transferSource, dataSpec, /* isNetwork= */ true);
+      }
+      advanceTime(bandwidthTrace.getLatencyMs(getTraceTimeMs()));
+      if (transferListener != null) {
+        transferListener.onTransferStart(transferSource, dataSpec, /* isNetwork= */ true);
+      }
+      long remainingBytes = lengthBytes;
+      while (remainingBytes > 0) {
+        long traceTimeMs = getTraceTimeMs();
+        long bitrate = bandwidthTrace.getBitrate(traceTimeMs);
+        long segmentDurationMs = bandwidthTrace.getRemainingSegmentDurationMs(traceTimeMs);
+        long segmentBytes = bitrate * segmentDurationMs / (C.BITS_PER_BYTE * 1000);
+        long transferDurationMs;
+        long transferredBytes;
+        if (segmentBytes >= remainingBytes) {
+          transferDurationMs =
+              max(1, Util.ceilDivide(remainingBytes * C.BITS_PER_BYTE * 1000, bitrate));
+          transferredBytes = remainingBytes;
+        } else {
+          transferDurationMs = segmentDurationMs;
+          transferredBytes = segmentBytes;
+        }
+        advanceTime(transferDurationMs);
+        remainingBytes -= transferredBytes;
+        if (transferListener != null && transferredBytes > 0) {
+          transferListener.onBytesTransferred(
+              transferSource, dataSpec, /* isNetwork= */ true, (int) transferredBytes);
+        }
+      }
+      if (transferListener != null) {
+        transferListener.onTransferEnd(transferSource, dataSpec, /* isNetwork= */ true);
+      }
+    }
+
+    private void advanceTime(long durationMs) {
+      if (durationMs == 0) {
+        return;
+      }
+      clock.advanceTime(durationMs);
+      if (!isPlaying) {
+        if (hasStarted) {
+          rebufferTimeMs += durationMs;
+        } else {
+          startupTimeMs += durationMs;
+        }
+        return;
+      }
+      long durationUs = Util.msToUs(durationMs);
+      long bufferedDurationUs = loadPositionUs - playbackPositionUs;
+      playbackPositionUs += min(durationUs, bufferedDurationUs);
+      if (durationUs > bufferedDurationUs) {
+        isPlaying = false;
+        rebufferCount++;
+        rebufferTimeMs += Util.usToMs(durationUs - bufferedDurationUs);
+        trackSelection.onRebuffer();
+      }
+    }
+
+    private void maybeStartPlayback(boolean isLastChunk) {
+      if (isPlaying) {
+        return;
+      }
+      long bufferedDurationUs = loadPositionUs - playbackPositionUs;
+      long requiredBufferedDurationUs =
+          hasStarted ? bufferForPlaybackAfterRebufferUs : bufferForPlaybackUs;
+      if (isLastChunk || bufferedDurationUs >= requiredBufferedDurationUs) {
+        isPlaying = true;
+        hasStarted = true;
+      }
+    }
+
+    private void discardPlayedChunks() {
+      while (!queue.isEmpty() && queue.get(0).endTimeUs <= playbackPositionUs) {
+        queue.remove(0);
+      }
+    }
+
+    private long getTraceTimeMs() {
+      return clock.elapsedRealtime() - startTimeMs;
+    }
+  }
+}
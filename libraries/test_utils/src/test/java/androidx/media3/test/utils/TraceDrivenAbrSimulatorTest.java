@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.media3.test.utils;
+
+import static com.google.common.collect.Iterables.getLast;
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.media3.common.C;
+import androidx.media3.common.Format;
+import androidx.media3.common.MimeTypes;
+import androidx.media3.common.TrackGroup;
+import androidx.media3.exoplayer.trackselection.AdaptiveTrackSelection;
+import androidx.media3.exoplayer.upstream.DefaultBandwidthMeter;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link TraceDrivenAbrSimulator}. */
+@RunWith(AndroidJUnit4.class)
+public final class TraceDrivenAbrSimulatorTest {
+
+  private static final TrackGroup TRACK_GROUP =
+      new TrackGroup(
+          createVideoFormat(/* bitrate= */ 500_000),
+          createVideoFormat(/* bitrate= */ 1_000_000),
+          createVideoFormat(/* bitrate= */ 2_000_000));
+
+  private FakeClock clock;
+  private FakeAdaptiveDataSet dataSet;
+
+  @Before
+  public void setUp() {
+    clock = new FakeClock(/* isAutoAdvancing= */ false);
+    dataSet =
+        new FakeAdaptiveDataSet.Factory(
+                /* chunkDurationUs= */ 2 * C.MICROS_PER_SECOND,
+                /* bitratePercentStdDev= */ 10,
+                new Random(/* seed= */ 0))
+            .createDataSet(TRACK_GROUP, /* mediaDurationUs= */ 120 * C.MICROS_PER_SECOND);
+  }
+
+  @Test
+  public void run_withHighBandwidth_switchesUpWithoutRebuffering() {
+    TraceDrivenAbrSimulator simulator =
+        new TraceDrivenAbrSimulator.Builder(
+                TRACK_GROUP,
+                dataSet,
+                new TraceDrivenAbrSimulator.BandwidthTrace.Builder()
+                    .addSegment(
+                        /* durationMs= */ 1_000, /* bitrate= */ 10_000_000, /* latencyMs= */ 50)
+                    .build(),
+                clock)
+            .build();
+
+    TraceDrivenAbrSimulator.Result result =
+        simulator.run(createAdaptiveTrackSelectionFactory(), createBandwidthMeter());
+
+    assertThat(result.selectedTrackIndices).hasSize(60);
+    assertThat(result.rebufferCount).isEqualTo(0);
+    assertThat(result.rebufferTimeMs).isEqualTo(0);
+    assertThat(result.startupTimeMs).isGreaterThan(0);
+    assertThat(result.switchCount).isGreaterThan(0);
+    assertThat(getLast(result.selectedTrackIndices)).isEqualTo(2);
+  }
+
+  @Test
+  public void run_withOutageLongerThanBuffer_rebuffers() {
+    TraceDrivenAbrSimulator simulator =
+        new TraceDrivenAbrSimulator.Builder(
+                TRACK_GROUP,
+                dataSet,
+                new TraceDrivenAbrSimulator.BandwidthTrace.Builder()
+                    .addSegment(
+                        /* durationMs= */ 20_000, /* bitrate= */ 4_000_000, /* latencyMs= */ 50)
+                    .addSegment(/* durationMs= */ 30_000, /* bitrate= */ 0, /* latencyMs= */ 50)
+                    .addSegment(
+                        /* durationMs= */ 100_000, /* bitrate= */ 4_000_000, /* latencyMs= */ 50)
+                    .build(),
+                clock)
+            .setBufferDurationsMs(
+                /* maxBufferMs= */ 15_000,
+                /* bufferForPlaybackMs= */ 1_000,
+                /* bufferForPlaybackAfterRebufferMs= */ 2_000)
+            .build();
+
+    TraceDrivenAbrSimulator.Result result =
+        simulator.run(createAdaptiveTrackSelectionFactory(), createBandwidthMeter());
+
+    assertThat(result.rebufferCount).isAtLeast(1);
+    assertThat(result.rebufferTimeMs).isAtLeast(10_000);
+  }
+
+  @Test
+  public void run_repeatedWithSameConfiguration_returnsSameResult() {
+    TraceDrivenAbrSimulator simulator =
+        new TraceDrivenAbrSimulator.Builder(
+                TRACK_GROUP,
+                dataSet,
+                new TraceDrivenAbrSimulator.BandwidthTrace.Builder()
+                    .addSegment(
+                        /* durationMs= */ 5_000, /* bitrate= */ 3_000_000, /* latencyMs= */ 100)
+                    .addSegment(
+                        /* durationMs= */ 5_000, /* bitrate= */ 800_000, /* latencyMs= */ 300)
+                    .build(),
+                clock)
+            .build();
+
+    TraceDrivenAbrSimulator.Result result1 =
+        simulator.run(createAdaptiveTrackSelectionFactory(), createBandwidthMeter());
+    TraceDrivenAbrSimulator.Result result2 =
+        simulator.run(createAdaptiveTrackSelectionFactory(), createBandwidthMeter());
+
+    assertThat(result2.selectedTrackIndices)
+        .containsExactlyElementsIn(result1.selectedTrackIndices)
+        .inOrder();
+    assertThat(result2.startupTimeMs).isEqualTo(result1.startupTimeMs);
+    assertThat(result2.rebufferTimeMs).isEqualTo(result1.rebufferTimeMs);
+    assertThat(result2.averageBitrate).isEqualTo(result1.averageBitrate);
+  }
+
+  private AdaptiveTrackSelection.Factory createAdaptiveTrackSelectionFactory() {
+    return new AdaptiveTrackSelection.Factory(
+        AdaptiveTrackSelection.DEFAULT_MIN_DURATION_FOR_QUALITY_INCREASE_MS,
+        AdaptiveTrackSelection.DEFAULT_MAX_DURATION_FOR_QUALITY_DECREASE_MS,
+        AdaptiveTrackSelection.DEFAULT_MIN_DURATION_TO_RETAIN_AFTER_DISCARD_MS,
+        AdaptiveTrackSelection.DEFAULT_BANDWIDTH_FRACTION,
+        AdaptiveTrackSelection.DEFAULT_BUFFERED_FRACTION_TO_LIVE_EDGE_FOR_QUALITY_INCREASE,
+        clock);
+  }
+
+  private DefaultBandwidthMeter createBandwidthMeter() {
+    return new DefaultBandwidthMeter.Builder(ApplicationProvider.getApplicationContext())
+        .setInitialBitrateEstimate(1_000_000)
+        .setClock(clock)
+        .build();
+  }
+
+  private static Format createVideoFormat(int bitrate) {
+    return new Format.Builder()
+        .setSampleMimeType(MimeTypes.VIDEO_H264)
+        .setAverageBitrate(bitrate)
+        .build();
+  }
+}